@@ -0,0 +1,153 @@
+/**
+ * BulkInsertResult.java
+ *
+ * <p>This class collects the outcome of a bulk insert in {@link DatabaseManager} or an import in
+ * {@link ReservationManager}: how many rows were stored and which rows were rejected and why.
+ * A failing row never aborts the rest of the batch, so callers can show the user exactly which
+ * lines need fixing.</p>
+ *
+ * <p>Only the first {@code maxFailures} rejected rows are kept with their reasons; after that
+ * they are only counted, so a file full of bad lines cannot use up memory.</p>
+ *
+ * @author Andres Vera
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkInsertResult {
+    /** Number of rejected rows kept with their reasons when no limit is given */
+    public static final int DEFAULT_MAX_FAILURES = 1000;
+
+    /** Number of rows stored */
+    private int insertedCount;
+    /** Number of rows rejected, including those not kept in {@link #failures} */
+    private int rejectedCount;
+    /** First rejected rows, in input order */
+    private final List<RowFailure> failures = new ArrayList<>();
+    /** Most rejected rows kept in {@link #failures} */
+    private final int maxFailures;
+
+    /**
+     * Creates an empty result that keeps up to {@link #DEFAULT_MAX_FAILURES} rejected rows.
+     */
+    public BulkInsertResult() {
+        this(DEFAULT_MAX_FAILURES);
+    }
+
+    /**
+     * Creates an empty result.
+     *
+     * @param maxFailures most rejected rows to keep with their reasons
+     */
+    public BulkInsertResult(int maxFailures) {
+        this.maxFailures = maxFailures;
+    }
+
+    /**
+     * Records that a row was stored.
+     */
+    void addInserted() {
+        insertedCount++;
+    }
+
+    /**
+     * Records that a row was rejected.
+     *
+     * @param rowNumber 1-based position of the row in the input (line number for file imports)
+     * @param reason why the row was rejected
+     */
+    void addFailure(int rowNumber, String reason) {
+        rejectedCount++;
+        if (failures.size() < maxFailures) {
+            failures.add(new RowFailure(rowNumber, reason));
+        }
+    }
+
+    /**
+     * Gets the number of rows stored in the database.
+     *
+     * @return inserted row count
+     */
+    public int getInsertedCount() {
+        return insertedCount;
+    }
+
+    /**
+     * Gets the number of rows that were rejected.
+     *
+     * @return rejected row count, including rows not listed by {@link #getFailures()}
+     */
+    public int getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Gets the first rows that were rejected, up to the limit given when this result was created.
+     *
+     * @return list of failures in input order
+     */
+    public List<RowFailure> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Gets the number of rejected rows left out of {@link #getFailures()} because of the limit.
+     *
+     * @return rejected rows not listed
+     */
+    public int getUnlistedFailureCount() {
+        return rejectedCount - failures.size();
+    }
+
+    /**
+     * Returns a one-line summary of the import.
+     *
+     * @return summary text
+     */
+    @Override
+    public String toString() {
+        return "Inserted " + insertedCount + " reservation(s), " + rejectedCount + " row(s) rejected.";
+    }
+
+    /**
+     * One rejected row of a bulk insert.
+     */
+    public static class RowFailure {
+        /** 1-based row or line number */
+        private final int rowNumber;
+        /** Reason the row was rejected */
+        private final String reason;
+
+        /**
+         * Creates a failure entry.
+         *
+         * @param rowNumber 1-based row or line number
+         * @param reason reason the row was rejected
+         */
+        public RowFailure(int rowNumber, String reason) {
+            this.rowNumber = rowNumber;
+            this.reason = reason;
+        }
+
+        /** @return the 1-based row or line number */
+        public int getRowNumber() {
+            return rowNumber;
+        }
+
+        /** @return the reason the row was rejected */
+        public String getReason() {
+            return reason;
+        }
+
+        /**
+         * Returns the failure as "Row N: reason".
+         *
+         * @return formatted failure
+         */
+        @Override
+        public String toString() {
+            return "Row " + rowNumber + ": " + reason;
+        }
+    }
+}
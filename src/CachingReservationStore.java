@@ -0,0 +1,223 @@
+/**
+ * CachingReservationStore.java
+ *
+ * <p>This class is a {@link ReservationStore} that keeps reservations in memory in front of
+ * another store, usually a {@link DatabaseManager}. Reads are answered from memory, and every
+ * write goes to the backing store first and then updates memory.</p>
+ *
+ * <p>What stays in memory depends on the size of the backing store:</p>
+ * <ul>
+ *     <li>If it holds at most {@code capacity} reservations, all of them are loaded on the first
+ *     read. Listing, name search and lookup by ID are then served from memory only.</li>
+ *     <li>If it holds more, only the most recently used reservations are kept, for lookup by ID;
+ *     listing and search go to the backing store.</li>
+ * </ul>
+ *
+ * <p>Each write updates or drops exactly the reservation it touched, re-read from the backing
+ * store so memory holds what was really stored. Availability checks always go to the backing
+ * store. Writes made to the backing store directly, not through this class, are not seen until
+ * {@link #invalidate()} is called.</p>
+ *
+ * <p>All methods are synchronized, so one instance can be shared by a UI thread and a worker.</p>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * ReservationStore store = new CachingReservationStore(dbManager);
+ * store.forEachReservation(r -> ...); // Loads once, then served from memory
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+public class CachingReservationStore implements ReservationStore {
+    /** Most reservations kept in memory when no capacity is given */
+    public static final int DEFAULT_CAPACITY = 100_000;
+
+    /** Store that holds the reservations for real */
+    private final ReservationStore backing;
+    /** Most reservations kept in memory */
+    private final int capacity;
+    /** Every reservation by ID once loaded, or {@code null} if not loaded or too many */
+    private TreeMap<Long, ReservationRecord> all;
+    /** Set once the backing store turned out to hold more than {@link #capacity} reservations */
+    private boolean tooLarge;
+    /** Recently used reservations by ID, used while {@link #all} is {@code null} */
+    private final LinkedHashMap<Long, ReservationRecord> recent;
+
+    /**
+     * Creates a cache of up to {@link #DEFAULT_CAPACITY} reservations.
+     *
+     * @param backing store to read from and write through to
+     */
+    public CachingReservationStore(ReservationStore backing) {
+        this(backing, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a cache of up to {@code capacity} reservations.
+     *
+     * @param backing store to read from and write through to
+     * @param capacity most reservations kept in memory
+     */
+    public CachingReservationStore(ReservationStore backing, int capacity) {
+        this.backing = backing;
+        this.capacity = capacity;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) { // Access order, for LRU eviction
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ReservationRecord> eldest) {
+                return size() > CachingReservationStore.this.capacity;
+            }
+        };
+    }
+
+    @Override
+    public synchronized long addReservation(ReservationRecord record) {
+        long id = backing.addReservation(record);
+        if (id > 0) {
+            remember(id, backing.findReservation(id));
+        }
+        return id;
+    }
+
+    @Override
+    public synchronized boolean updateReservation(long id, ReservationRecord record) {
+        boolean updated = backing.updateReservation(id, record);
+        if (updated) {
+            remember(id, backing.findReservation(id));
+        }
+        return updated;
+    }
+
+    @Override
+    public synchronized boolean deleteReservation(long id) {
+        boolean deleted = backing.deleteReservation(id);
+        remember(id, null); // Gone either way
+        return deleted;
+    }
+
+    @Override
+    public synchronized ReservationRecord findReservation(long id) {
+        load();
+        if (all != null) {
+            return all.get(id); // Everything is loaded, so a miss means there is none
+        }
+        ReservationRecord record = recent.get(id);
+        if (record == null) {
+            record = backing.findReservation(id);
+            if (record != null) {
+                recent.put(id, record);
+            }
+        }
+        return record;
+    }
+
+    @Override
+    public synchronized void forEachReservation(Consumer<ReservationRecord> action) {
+        load();
+        if (all != null) {
+            all.values().forEach(action);
+        } else {
+            backing.forEachReservation(action);
+        }
+    }
+
+    /**
+     * Passes matching reservations to {@code action}. From memory they come in ID order; the
+     * backing store may order them differently (e.g. best match first).
+     *
+     * @param keyword partial or full guest name
+     * @param action callback invoked for each match
+     */
+    @Override
+    public synchronized void searchReservationsByName(String keyword, Consumer<ReservationRecord> action) {
+        load();
+        if (all == null) {
+            backing.searchReservationsByName(keyword, action);
+            return;
+        }
+        String needle = keyword.toLowerCase();
+        for (ReservationRecord record : all.values()) {
+            if (record.getGuestName().toLowerCase().contains(needle)) {
+                action.accept(record);
+            }
+        }
+    }
+
+    @Override
+    public boolean isRoomAvailable(int roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        return backing.isRoomAvailable(roomNumber, checkIn, checkOut);
+    }
+
+    @Override
+    public List<Integer> findAvailableRooms(String roomType, LocalDate checkIn, LocalDate checkOut) {
+        return backing.findAvailableRooms(roomType, checkIn, checkOut);
+    }
+
+    /**
+     * Drops everything held in memory, so the next read loads from the backing store again.
+     * Call it after the backing store was changed without going through this class.
+     */
+    public synchronized void invalidate() {
+        all = null;
+        tooLarge = false;
+        recent.clear();
+    }
+
+    /**
+     * Checks whether every reservation is held in memory.
+     *
+     * @return {@code true} if listing, search and lookups are served from memory
+     */
+    public synchronized boolean isFullyLoaded() {
+        return all != null;
+    }
+
+    /**
+     * Loads every reservation on the first read, unless the backing store holds too many.
+     */
+    private void load() {
+        if (all != null || tooLarge) return;
+        TreeMap<Long, ReservationRecord> loaded = new TreeMap<>();
+        int[] seen = {0};
+        backing.forEachReservation(record -> {
+            if (++seen[0] <= capacity) {
+                loaded.put(record.getId(), record);
+            }
+        });
+        if (seen[0] > capacity) {
+            tooLarge = true; // Fall back to caching lookups only
+        } else {
+            all = loaded;
+            recent.clear();
+        }
+    }
+
+    /**
+     * Stores the current version of one reservation in memory, or forgets it if {@code record}
+     * is {@code null}.
+     */
+    private void remember(long id, ReservationRecord record) {
+        if (all != null) {
+            if (record == null) {
+                all.remove(id);
+            } else {
+                all.put(id, record);
+                if (all.size() > capacity) {
+                    all = null; // Grew past the capacity; keep caching lookups only
+                    tooLarge = true;
+                }
+            }
+        } else if (record == null) {
+            recent.remove(id);
+        } else {
+            recent.put(id, record);
+        }
+    }
+}
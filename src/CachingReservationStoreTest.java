@@ -0,0 +1,166 @@
+/**
+ * CachingReservationStoreTest.java
+ *
+ * <p>This class contains unit tests for the {@link CachingReservationStore} class, using a
+ * {@link ReservationManager} as the backing store.</p>
+ *
+ * @author Andres Vera
+ */
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+class CachingReservationStoreTest {
+
+    /**
+     * Tests that listing, search and lookups read the backing store once and are then served
+     * from memory, and that writes keep those reads up to date.
+     */
+    @Test
+    void reads_servedFromMemoryAndKeptConsistent() {
+        CountingStore backing = new CountingStore(new ReservationManager());
+        long ana = backing.addReservation(TestRecords.record("Ana Diaz", 1, "2025-03-01", "2025-03-04"));
+        CachingReservationStore cache = new CachingReservationStore(backing);
+
+        assertEquals("Ana Diaz", cache.findReservation(ana).getGuestName());
+        assertEquals(1, backing.scans);
+        long luis = cache.addReservation(TestRecords.record("Luis Ramos", 2, "2025-03-01", "2025-03-02"));
+        assertTrue(luis > 0);
+        assertTrue(cache.updateReservation(ana, TestRecords.record("Ana Vera", 1, "2025-03-01", "2025-03-05")));
+
+        assertEquals(List.of("Ana Vera", "Luis Ramos"), names(cache::forEachReservation));
+        assertEquals(List.of("Ana Vera"), names(action -> cache.searchReservationsByName("VERA", action)));
+        assertEquals(4, cache.findReservation(ana).getNights());
+        assertEquals(1, backing.scans); // Still the first load
+
+        assertTrue(cache.deleteReservation(luis));
+        assertNull(cache.findReservation(luis));
+        assertEquals(List.of("Ana Vera"), names(backing::forEachReservation)); // Written through
+        assertTrue(cache.isFullyLoaded());
+    }
+
+    /**
+     * Tests that a rejected write leaves both the store and the cache unchanged.
+     */
+    @Test
+    void rejectedWrite_changesNothing() {
+        CachingReservationStore cache = new CachingReservationStore(new ReservationManager());
+        long ana = cache.addReservation(TestRecords.record("Ana Diaz", 1, "2025-03-01", "2025-03-04"));
+
+        assertEquals(-1, cache.addReservation(TestRecords.record("Luis Ramos", 1, "2025-03-02", "2025-03-03")));
+        assertFalse(cache.updateReservation(ana + 1, TestRecords.record("Luis Ramos", 2, "2025-03-02", "2025-03-03")));
+        assertEquals(List.of("Ana Diaz"), names(cache::forEachReservation));
+        assertFalse(cache.isRoomAvailable(1, LocalDate.of(2025, 3, 3), LocalDate.of(2025, 3, 5)));
+    }
+
+    /**
+     * Tests that a store larger than the capacity is not loaded whole: listing goes to the
+     * backing store and lookups are cached one by one.
+     */
+    @Test
+    void tooLarge_cachesLookupsOnly() {
+        CountingStore backing = new CountingStore(new ReservationManager());
+        List<Long> ids = new ArrayList<>();
+        for (int room = 1; room <= 5; room++) {
+            ids.add(backing.addReservation(TestRecords.record("Guest", room, "2025-03-01", "2025-03-02")));
+        }
+        CachingReservationStore cache = new CachingReservationStore(backing, 3);
+
+        assertEquals(5, names(cache::forEachReservation).size());
+        assertFalse(cache.isFullyLoaded());
+        cache.findReservation(ids.get(0));
+        cache.findReservation(ids.get(0));
+        assertEquals(1, backing.finds); // Second lookup came from memory
+
+        assertTrue(cache.updateReservation(ids.get(0), TestRecords.record("Changed", 1, "2025-03-01", "2025-03-02")));
+        assertEquals("Changed", cache.findReservation(ids.get(0)).getGuestName());
+        assertTrue(cache.deleteReservation(ids.get(0)));
+        assertNull(cache.findReservation(ids.get(0)));
+    }
+
+    /**
+     * Tests that {@link CachingReservationStore#invalidate()} picks up writes made to the backing
+     * store directly.
+     */
+    @Test
+    void invalidate_reloadsExternalWrites() {
+        ReservationManager backing = new ReservationManager();
+        CachingReservationStore cache = new CachingReservationStore(backing);
+        assertTrue(names(cache::forEachReservation).isEmpty());
+
+        backing.addReservation(TestRecords.record("Ana Diaz", 1, "2025-03-01", "2025-03-04"));
+        assertTrue(names(cache::forEachReservation).isEmpty()); // Not seen yet
+        cache.invalidate();
+        assertEquals(List.of("Ana Diaz"), names(cache::forEachReservation));
+    }
+
+
+    /**
+     * Collects the guest names a listing passes on.
+     */
+    private static List<String> names(Consumer<Consumer<ReservationRecord>> listing) {
+        List<String> names = new ArrayList<>();
+        listing.accept(record -> names.add(record.getGuestName()));
+        return names;
+    }
+
+    /**
+     * Backing store that counts full scans and lookups by ID.
+     */
+    private static class CountingStore implements ReservationStore {
+        private final ReservationStore target;
+        private int scans;
+        private int finds;
+
+        CountingStore(ReservationStore target) {
+            this.target = target;
+        }
+
+        @Override
+        public long addReservation(ReservationRecord record) {
+            return target.addReservation(record);
+        }
+
+        @Override
+        public boolean updateReservation(long id, ReservationRecord record) {
+            return target.updateReservation(id, record);
+        }
+
+        @Override
+        public boolean deleteReservation(long id) {
+            return target.deleteReservation(id);
+        }
+
+        @Override
+        public ReservationRecord findReservation(long id) {
+            finds++;
+            return target.findReservation(id);
+        }
+
+        @Override
+        public void forEachReservation(Consumer<ReservationRecord> action) {
+            scans++;
+            target.forEachReservation(action);
+        }
+
+        @Override
+        public void searchReservationsByName(String keyword, Consumer<ReservationRecord> action) {
+            target.searchReservationsByName(keyword, action);
+        }
+
+        @Override
+        public boolean isRoomAvailable(int roomNumber, LocalDate checkIn, LocalDate checkOut) {
+            return target.isRoomAvailable(roomNumber, checkIn, checkOut);
+        }
+
+        @Override
+        public List<Integer> findAvailableRooms(String roomType, LocalDate checkIn, LocalDate checkOut) {
+            return target.findAvailableRooms(roomType, checkIn, checkOut);
+        }
+    }
+}
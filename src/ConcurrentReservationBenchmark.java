@@ -0,0 +1,166 @@
+/**
+ * ConcurrentReservationBenchmark.java
+ *
+ * <p>This class is a small command-line benchmark for {@link ConcurrentReservationManager}. For
+ * each thread count from 1 up to twice the number of CPUs, it runs a fixed mix of bookings,
+ * cancellations and availability checks spread over many rooms, and prints the throughput. The
+ * same mix is also run against a {@link ReservationManager} behind one global lock, as the
+ * simplest thread-safe alternative.</p>
+ *
+ * <p>Throughput can only grow with threads up to the number of CPUs the machine really has.</p>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * java -cp out ConcurrentReservationBenchmark 2000000 1000
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ConcurrentReservationBenchmark {
+    /** Total operations per run when no argument is given */
+    private static final int DEFAULT_OPERATIONS = 2_000_000;
+    /** Number of rooms when no argument is given */
+    private static final int DEFAULT_ROOMS = 1_000;
+    /** Nights over which stays are spread */
+    private static final int HORIZON_DAYS = 365;
+    /** First night of the generated stays */
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of operations and number of rooms
+     * @throws Exception if a worker fails
+     */
+    public static void main(String[] args) throws Exception {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_OPERATIONS;
+        int rooms = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROOMS;
+        int cpus = Runtime.getRuntime().availableProcessors();
+        System.out.println("Operations: " + operations + ", rooms: " + rooms + ", CPUs: " + cpus);
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // ReservationManager prints per add
+        try {
+            run(1, operations, rooms, System.out); // Warm-up, printed to the null stream
+            for (int threads = 1; threads <= cpus * 2; threads *= 2) {
+                run(threads, operations, rooms, console);
+            }
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    /**
+     * Times both managers with {@code threads} threads and prints one line.
+     */
+    private static void run(int threads, int operations, int rooms, PrintStream console) throws Exception {
+        ConcurrentReservationManager striped = new ConcurrentReservationManager(rooms);
+        double stripedRate = time(threads, operations, rooms, new Target() {
+            @Override
+            public Object add(Reservation reservation) {
+                long id = striped.addReservation(reservation);
+                return id > 0 ? id : null;
+            }
+
+            @Override
+            public void remove(Object handle) {
+                striped.removeReservation((Long) handle);
+            }
+
+            @Override
+            public boolean isRoomAvailable(int room, LocalDate checkIn, LocalDate checkOut) {
+                return striped.isRoomAvailable(room, checkIn, checkOut);
+            }
+        });
+
+        ReservationManager plain = new ReservationManager(rooms, START, HORIZON_DAYS + 8);
+        double lockedRate = time(threads, operations, rooms, new Target() {
+            @Override
+            public synchronized Object add(Reservation reservation) {
+                return plain.addReservation(reservation) ? reservation : null;
+            }
+
+            @Override
+            public synchronized void remove(Object handle) {
+                List<Reservation> all = plain.getReservations();
+                for (int i = 0; i < all.size(); i++) { // Short: each thread holds at most 65 bookings
+                    if (all.get(i) == handle) {
+                        plain.removeReservation(i);
+                        return;
+                    }
+                }
+            }
+
+            @Override
+            public synchronized boolean isRoomAvailable(int room, LocalDate checkIn, LocalDate checkOut) {
+                return plain.isRoomAvailable(room, checkIn, checkOut);
+            }
+        });
+
+        console.printf("%2d thread(s): striped %12.0f ops/sec   global lock %12.0f ops/sec%n",
+                threads, stripedRate, lockedRate);
+    }
+
+    /**
+     * Splits {@code operations} over {@code threads} workers and returns operations per second.
+     * Each worker checks availability three times for every booking, and cancels a booking once
+     * it holds more than a handful, so the calendars stay small.
+     */
+    private static double time(int threads, int operations, int rooms, Target target) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> futures = new ArrayList<>();
+        int perThread = operations / threads;
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            futures.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                List<Object> held = new ArrayList<>();
+                int free = 0;
+                for (int i = 0; i < perThread; i++) {
+                    int room = random.nextInt(rooms) + 1;
+                    LocalDate checkIn = START.plusDays(random.nextInt(HORIZON_DAYS));
+                    LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(4));
+                    if (i % 4 != 0) {
+                        if (target.isRoomAvailable(room, checkIn, checkOut)) free++;
+                    } else {
+                        Object handle = target.add(new Reservation(new Guest("Guest", "guest@example.com"),
+                                new Room(room, "City View", 90.0), checkIn, checkOut));
+                        if (handle != null) held.add(handle);
+                        if (held.size() > 64) target.remove(held.remove(0));
+                    }
+                }
+                return free;
+            }));
+        }
+        int checksum = 0;
+        for (Future<Integer> future : futures) {
+            checksum += future.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        pool.shutdown();
+        return checksum >= 0 ? perThread * threads / seconds : 0; // Uses the checksum so the JIT keeps the loops
+    }
+
+    /**
+     * The operations timed, as offered by one manager.
+     */
+    private interface Target {
+        Object add(Reservation reservation);
+
+        void remove(Object handle);
+
+        boolean isRoomAvailable(int room, LocalDate checkIn, LocalDate checkOut);
+    }
+}
@@ -0,0 +1,292 @@
+/**
+ * ConcurrentReservationManager.java
+ *
+ * <p>This class is a thread-safe, in-memory store of reservations that can be shared by many
+ * request handlers at once. It offers the same kind of operations as {@link ReservationManager},
+ * but reservations are addressed by a stable ID instead of a list index, since indexes shift
+ * under concurrent removals.</p>
+ *
+ * <p>How it stays safe without one big lock:</p>
+ * <ul>
+ *     <li>Each room's stays live in a {@link ConcurrentSkipListMap} keyed by check-in date.</li>
+ *     <li>Writes lock only the stripe their room hashes to ({@link #STRIPES} locks in total), so
+ *     bookings for different rooms proceed in parallel, while two bookings for the same room are
+ *     serialized and each one's overlap check and insert happen atomically.</li>
+ *     <li>An update that moves a reservation to another room locks both stripes, lower stripe
+ *     first, so two opposite moves cannot deadlock.</li>
+ *     <li>Reads take no locks. They see the concurrent maps directly, or a snapshot copied from
+ *     them, and are never blocked by writers.</li>
+ * </ul>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * ConcurrentReservationManager manager = new ConcurrentReservationManager();
+ * long id = manager.addReservation(new Reservation(guest, room, checkIn, checkOut));
+ * if (id < 0) { ... room taken ... }
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ConcurrentReservationManager {
+    /** Number of room locks; rooms share a lock when their numbers are equal modulo this */
+    public static final int STRIPES = 64;
+    /** Returned by {@link #addReservation(Reservation)} when the room is taken */
+    public static final long NOT_ADDED = -1;
+
+    /** Locks guarding writes to the rooms of each stripe */
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    /** Dated stays of each room, keyed by check-in date */
+    private final ConcurrentHashMap<Integer, ConcurrentSkipListMap<LocalDate, Reservation>> roomCalendars = new ConcurrentHashMap<>();
+    /** Every reservation by ID */
+    private final ConcurrentSkipListMap<Long, Reservation> byId = new ConcurrentSkipListMap<>();
+    /** Source of reservation IDs */
+    private final AtomicLong nextId = new AtomicLong(1);
+    /** Rooms are numbered 1 to roomCount */
+    private final int roomCount;
+
+    /**
+     * Creates an empty manager for a hotel of {@link ReservationManager#DEFAULT_ROOM_COUNT} rooms.
+     */
+    public ConcurrentReservationManager() {
+        this(ReservationManager.DEFAULT_ROOM_COUNT);
+    }
+
+    /**
+     * Creates an empty manager.
+     *
+     * @param roomCount number of rooms, numbered from 1, searched by {@link #findAvailableRooms(LocalDate, LocalDate)}
+     */
+    public ConcurrentReservationManager(int roomCount) {
+        this.roomCount = roomCount;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Adds a reservation. A dated reservation is rejected if its room is booked for any of its
+     * nights; the check and the insert happen under the room's lock.
+     *
+     * @param reservation the reservation to add
+     * @return the new reservation's ID, also set on {@code reservation}, or {@link #NOT_ADDED} if
+     *         the room is taken
+     */
+    public long addReservation(Reservation reservation) {
+        if (!reservation.hasDates()) {
+            long id = nextId.getAndIncrement();
+            reservation.setId(id); // Set before the reservation is published
+            byId.put(id, reservation); // Undated stays block nothing, so no lock is needed
+            return id;
+        }
+        int roomNumber = reservation.getRoom().getRoomNumber();
+        ReentrantLock lock = lockFor(roomNumber);
+        lock.lock();
+        try {
+            if (!isFree(calendar(roomNumber), reservation.getCheckIn(), reservation.getCheckOut(), null)) {
+                return NOT_ADDED;
+            }
+            long id = nextId.getAndIncrement();
+            reservation.setId(id);
+            calendar(roomNumber).put(reservation.getCheckIn(), reservation);
+            byId.put(id, reservation);
+            return id;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a reservation. If another thread replaces it meanwhile, possibly moving it to
+     * another room, the removal retries with the replacement, so {@code false} always means the
+     * ID is gone.
+     *
+     * @param id reservation ID
+     * @return {@code true} if it existed and was removed
+     */
+    public boolean removeReservation(long id) {
+        while (true) {
+            Reservation reservation = byId.get(id);
+            if (reservation == null) return false;
+            // Locked even when undated, so it cannot race an update of the same reservation
+            int roomNumber = reservation.getRoom().getRoomNumber();
+            ReentrantLock lock = lockFor(roomNumber);
+            lock.lock();
+            try {
+                if (byId.remove(id, reservation)) {
+                    if (reservation.hasDates()) {
+                        calendar(roomNumber).remove(reservation.getCheckIn(), reservation);
+                    }
+                    return true;
+                }
+            } finally {
+                lock.unlock();
+            }
+            // Removed or replaced meanwhile; the next pass tells which, and locks the right room
+        }
+    }
+
+    /**
+     * Replaces a reservation, possibly with one in another room. The replacement is rejected if
+     * it overlaps any stay other than the one it replaces. If another thread replaces the
+     * reservation first, the update retries against that replacement, so {@code false} means the
+     * ID is gone or the new stay overlaps another one.
+     *
+     * @param id reservation ID
+     * @param newReservation the replacement, which takes over the ID
+     * @return {@code true} if the reservation existed and was replaced
+     */
+    public boolean updateReservation(long id, Reservation newReservation) {
+        while (true) {
+            Reservation old = byId.get(id);
+            if (old == null) return false;
+
+            // Lock both rooms' stripes in a fixed order so opposite moves cannot deadlock
+            int first = stripe(old.getRoom().getRoomNumber());
+            int second = stripe(newReservation.getRoom().getRoomNumber());
+            ReentrantLock lower = locks[Math.min(first, second)];
+            ReentrantLock upper = locks[Math.max(first, second)];
+            lower.lock();
+            upper.lock();
+            try {
+                if (byId.get(id) != old) continue; // Removed or replaced meanwhile; look again
+                if (newReservation.hasDates() && !isFree(calendar(newReservation.getRoom().getRoomNumber()),
+                        newReservation.getCheckIn(), newReservation.getCheckOut(), old)) {
+                    return false;
+                }
+                if (old.hasDates()) {
+                    calendar(old.getRoom().getRoomNumber()).remove(old.getCheckIn(), old);
+                }
+                newReservation.setId(id);
+                if (newReservation.hasDates()) {
+                    calendar(newReservation.getRoom().getRoomNumber()).put(newReservation.getCheckIn(), newReservation);
+                }
+                byId.put(id, newReservation);
+                return true;
+            } finally {
+                upper.unlock();
+                lower.unlock();
+            }
+        }
+    }
+
+    /**
+     * Gets a reservation by ID without locking.
+     *
+     * @param id reservation ID
+     * @return the reservation, or {@code null} if there is none with that ID
+     */
+    public Reservation getReservation(long id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Checks without locking whether a room is free for every night of a stay. The answer
+     * reflects all bookings completed before the call.
+     *
+     * @param roomNumber room to check
+     * @param checkIn first night of the stay
+     * @param checkOut day the guest leaves
+     * @return {@code true} if no stay in the room overlaps
+     */
+    public boolean isRoomAvailable(int roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        ConcurrentSkipListMap<LocalDate, Reservation> calendar = roomCalendars.get(roomNumber);
+        return calendar == null || isFree(calendar, checkIn, checkOut, null);
+    }
+
+    /**
+     * Finds the rooms that are free for every night of a stay, without locking.
+     *
+     * @param checkIn first night of the stay
+     * @param checkOut day the guest leaves
+     * @return free room numbers in ascending order
+     */
+    public List<Integer> findAvailableRooms(LocalDate checkIn, LocalDate checkOut) {
+        List<Integer> free = new ArrayList<>();
+        for (int room = 1; room <= roomCount; room++) {
+            if (isRoomAvailable(room, checkIn, checkOut)) {
+                free.add(room);
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Gets a copy of all reservations in ID order, taken without locking. Later changes do not
+     * affect the copy.
+     *
+     * @return snapshot of the reservations
+     */
+    public List<Reservation> snapshot() {
+        return new ArrayList<>(byId.values());
+    }
+
+    /**
+     * Finds reservations whose guest name contains {@code name}, ignoring case, without locking.
+     *
+     * @param name partial or full guest name
+     * @return matching reservations in ID order
+     */
+    public List<Reservation> searchByGuestName(String name) {
+        String needle = name.toLowerCase();
+        List<Reservation> matches = new ArrayList<>();
+        for (Reservation reservation : byId.values()) {
+            if (reservation.getGuest().getName().toLowerCase().contains(needle)) {
+                matches.add(reservation);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Gets the number of reservations.
+     *
+     * @return reservation count
+     */
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Checks that no stay in {@code calendar} other than {@code ignore} overlaps {@code [checkIn, checkOut)}.
+     */
+    private static boolean isFree(ConcurrentSkipListMap<LocalDate, Reservation> calendar, LocalDate checkIn,
+                                  LocalDate checkOut, Reservation ignore) {
+        // Stays do not overlap each other, so only the latest one starting before check-out can reach into the new stay
+        Map.Entry<LocalDate, Reservation> previous = calendar.lowerEntry(checkOut);
+        if (previous != null && previous.getValue() == ignore) {
+            previous = calendar.lowerEntry(previous.getKey()); // Look past the stay being replaced
+        }
+        return previous == null || !previous.getValue().getCheckOut().isAfter(checkIn);
+    }
+
+    /**
+     * Gets a room's calendar, creating it on first use.
+     */
+    private ConcurrentSkipListMap<LocalDate, Reservation> calendar(int roomNumber) {
+        return roomCalendars.computeIfAbsent(roomNumber, room -> new ConcurrentSkipListMap<>());
+    }
+
+    /**
+     * Gets the lock for a room's stripe.
+     */
+    private ReentrantLock lockFor(int roomNumber) {
+        return locks[stripe(roomNumber)];
+    }
+
+    /**
+     * Maps a room number to its stripe.
+     */
+    private static int stripe(int roomNumber) {
+        return Math.floorMod(roomNumber, STRIPES);
+    }
+}
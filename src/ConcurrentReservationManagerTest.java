@@ -0,0 +1,232 @@
+/**
+ * ConcurrentReservationManagerTest.java
+ *
+ * <p>This class contains unit tests for the {@link ConcurrentReservationManager} class.</p>
+ *
+ * <p>Besides the single-threaded behaviour, it runs many threads booking the same few rooms at
+ * once and checks that no room ends up double-booked.</p>
+ *
+ * @author Andres Vera
+ */
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ConcurrentReservationManagerTest {
+    /** First night used by the tests */
+    private static final LocalDate START = LocalDate.of(2025, 6, 1);
+
+    /**
+     * Tests that an overlapping stay is rejected and a back-to-back stay is accepted.
+     */
+    @Test
+    void addReservation_rejectsOverlap() {
+        ConcurrentReservationManager manager = new ConcurrentReservationManager();
+        assertTrue(manager.addReservation(stay(5, 0, 3)) > 0);
+        assertEquals(ConcurrentReservationManager.NOT_ADDED, manager.addReservation(stay(5, 2, 4)));
+        assertTrue(manager.addReservation(stay(5, 3, 5)) > 0);
+        assertEquals(2, manager.size());
+        assertFalse(manager.findAvailableRooms(START, START.plusDays(1)).contains(5));
+    }
+
+    /**
+     * Tests that an update may overlap the stay it replaces but not other stays, and that a
+     * removed stay frees its nights.
+     */
+    @Test
+    void updateAndRemove() {
+        ConcurrentReservationManager manager = new ConcurrentReservationManager();
+        long first = manager.addReservation(stay(5, 0, 3));
+        long second = manager.addReservation(stay(5, 3, 5));
+
+        assertTrue(manager.updateReservation(first, stay(5, 1, 3)));   // Shifted onto its own nights
+        assertFalse(manager.updateReservation(first, stay(5, 2, 4)));  // Runs into the second stay
+        assertTrue(manager.updateReservation(second, stay(7, 3, 5)));  // Moved to another room
+        assertTrue(manager.isRoomAvailable(5, START.plusDays(3), START.plusDays(5)));
+
+        assertTrue(manager.removeReservation(first));
+        assertFalse(manager.removeReservation(first));
+        assertTrue(manager.isRoomAvailable(5, START, START.plusDays(3)));
+        assertEquals(1, manager.snapshot().size());
+    }
+
+    /**
+     * Tests that added reservations, dated or not, and replacements carry the ID they are stored
+     * under.
+     */
+    @Test
+    void addAndUpdate_setIds() {
+        ConcurrentReservationManager manager = new ConcurrentReservationManager();
+        Reservation dated = stay(5, 0, 3);
+        Reservation undated = new Reservation(new Guest("Guest", "guest@example.com"), new Room(6, "City View", 90.0), 2);
+        long first = manager.addReservation(dated);
+        long second = manager.addReservation(undated);
+        assertEquals(first, dated.getId());
+        assertEquals(second, undated.getId());
+
+        Reservation replacement = stay(7, 0, 3);
+        assertTrue(manager.updateReservation(first, replacement));
+        assertEquals(first, replacement.getId());
+        assertEquals(first, manager.getReservation(first).getId());
+    }
+
+    /**
+     * Tests that when many threads race for the same stay, exactly one of them gets it.
+     */
+    @Test
+    void sameStay_onlyOneWins() throws Exception {
+        ConcurrentReservationManager manager = new ConcurrentReservationManager();
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger wins = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(pool.submit(() -> {
+                go.await();
+                if (manager.addReservation(stay(3, 0, 2)) > 0) wins.incrementAndGet();
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        assertEquals(1, wins.get());
+    }
+
+    /**
+     * Tests that removing a reservation another thread keeps moving between rooms always
+     * succeeds, instead of reporting the ID as gone when it was only replaced.
+     */
+    @Test
+    void removeRacingUpdates_findsReplacement() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        for (int round = 0; round < 500; round++) {
+            ConcurrentReservationManager manager = new ConcurrentReservationManager();
+            long id = manager.addReservation(stay(1, 0, 2));
+            Reservation first = manager.getReservation(id);
+            Future<?> mover = pool.submit(() -> {
+                for (int i = 0; manager.updateReservation(id, stay(i % 2 + 1, 0, 2)); i++) {
+                    // Keeps moving it until the removal lands
+                }
+                return null;
+            });
+            while (manager.getReservation(id) == first) {
+                Thread.onSpinWait(); // Wait for the first move so the removal races the next ones
+            }
+            assertTrue(manager.removeReservation(id));
+            mover.get(10, TimeUnit.SECONDS);
+            assertNull(manager.getReservation(id));
+            assertTrue(manager.isRoomAvailable(1, START, START.plusDays(2)));
+            assertTrue(manager.isRoomAvailable(2, START, START.plusDays(2)));
+        }
+        pool.shutdown();
+    }
+
+    /**
+     * Stress test: threads add, move and remove random stays in a few rooms at once, while
+     * another thread reads snapshots. Afterwards no room may hold two overlapping stays, and the
+     * room calendars must agree with the reservation count.
+     */
+    @Test
+    void stress_noDoubleBookings() throws Exception {
+        int rooms = 6;
+        ConcurrentReservationManager manager = new ConcurrentReservationManager(rooms);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger stop = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            futures.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                List<Long> mine = new ArrayList<>();
+                go.await();
+                for (int i = 0; i < 5_000; i++) {
+                    int from = random.nextInt(60);
+                    Reservation stay = stay(random.nextInt(rooms) + 1, from, from + 1 + random.nextInt(4));
+                    int action = random.nextInt(10);
+                    if (action < 6 || mine.isEmpty()) {
+                        long id = manager.addReservation(stay);
+                        if (id > 0) mine.add(id);
+                    } else if (action < 8) {
+                        manager.updateReservation(mine.get(random.nextInt(mine.size())), stay);
+                    } else {
+                        manager.removeReservation(mine.remove(random.nextInt(mine.size())));
+                    }
+                }
+                return null;
+            }));
+        }
+        // A reader taking lock-free snapshots the whole time
+        futures.add(pool.submit(() -> {
+            go.await();
+            while (stop.get() == 0) {
+                for (Reservation reservation : manager.snapshot()) {
+                    assertNotNull(reservation.getCheckIn());
+                }
+                manager.findAvailableRooms(START, START.plusDays(2));
+            }
+            return null;
+        }));
+
+        go.countDown();
+        for (int i = 0; i < threads; i++) {
+            futures.get(i).get(60, TimeUnit.SECONDS);
+        }
+        stop.set(1);
+        futures.get(threads).get(10, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        // No two stays in a room overlap
+        List<Reservation> all = manager.snapshot();
+        for (int i = 0; i < all.size(); i++) {
+            for (int j = i + 1; j < all.size(); j++) {
+                Reservation a = all.get(i);
+                Reservation b = all.get(j);
+                if (a.getRoom().getRoomNumber() == b.getRoom().getRoomNumber()) {
+                    assertFalse(a.overlaps(b.getCheckIn(), b.getCheckOut()), a + " overlaps " + b);
+                }
+            }
+        }
+        // Every booked night is blocked, and every other night is free
+        int booked = 0;
+        for (int room = 1; room <= rooms; room++) {
+            for (int day = 0; day < 64; day++) {
+                LocalDate night = START.plusDays(day);
+                boolean taken = false;
+                for (Reservation reservation : all) {
+                    if (reservation.getRoom().getRoomNumber() == room && reservation.overlaps(night, night.plusDays(1))) {
+                        taken = true;
+                    }
+                }
+                assertEquals(!taken, manager.isRoomAvailable(room, night, night.plusDays(1)), "room " + room + " on " + night);
+                if (taken) booked++;
+            }
+        }
+        assertTrue(booked > 0);
+    }
+
+    /**
+     * Builds a stay in {@code room} from {@code START + from} to {@code START + to}.
+     */
+    private static Reservation stay(int room, int from, int to) {
+        return new Reservation(new Guest("Guest", "guest@example.com"), new Room(room, "City View", 90.0),
+                START.plusDays(from), START.plusDays(to));
+    }
+}
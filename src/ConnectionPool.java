@@ -0,0 +1,304 @@
+/**
+ * ConnectionPool.java
+ *
+ * <p>This class keeps a small set of long-lived JDBC connections open to a single SQLite file
+ * so that {@link DatabaseManager} does not pay the driver handshake and schema load on every
+ * operation.</p>
+ *
+ * <p>SQLite allows only one writer at a time, so the pool holds exactly one dedicated writer
+ * connection and a configurable number of reader connections. Connections handed out by
+ * {@link #borrowWriter()} and {@link #borrowReader()} are returned to the pool when the caller
+ * closes them, which keeps the usual try-with-resources style working unchanged.</p>
+ *
+ * <p>Optional setup statements (for example the {@code PRAGMA}s of a {@link DurabilityProfile})
+ * run once on every physical connection when it is opened.</p>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * ConnectionPool pool = new ConnectionPool("jdbc:sqlite:hotel.db", 4);
+ * try (Connection conn = pool.borrowReader()) {
+ *     // run queries
+ * }
+ * pool.close();
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class ConnectionPool implements AutoCloseable {
+    /** Default number of reader connections */
+    public static final int DEFAULT_READER_COUNT = 4;
+    /** Seconds to wait for a connection to answer the validation check */
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+    /** Seconds to wait for a free connection before giving up */
+    private static final int BORROW_TIMEOUT_SECONDS = 30;
+
+    /** JDBC URL of the database file */
+    private final String url;
+    /** Statements run on every new physical connection */
+    private final String[] setupStatements;
+    /** Idle writer connection (capacity 1, so only one caller can write at a time) */
+    private final BlockingQueue<Connection> writer = new ArrayBlockingQueue<>(1);
+    /** Idle reader connections */
+    private final BlockingQueue<Connection> readers;
+    /** Every physical connection opened by this pool, used to close them on shutdown */
+    private final List<Connection> opened = new ArrayList<>();
+    /** Number of reader connections the pool may open */
+    private final int readerCount;
+    /** Number of reader connections opened so far */
+    private int readersOpened;
+    /** Whether the writer connection has been opened */
+    private boolean writerOpened;
+    /** Set once {@link #close()} has been called */
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool for the given database URL. Connections are opened lazily.
+     *
+     * @param url the JDBC URL, e.g. {@code jdbc:sqlite:hotel.db}
+     * @param readerCount the number of reader connections (at least 1)
+     */
+    public ConnectionPool(String url, int readerCount) {
+        this(url, readerCount, new String[0]);
+    }
+
+    /**
+     * Creates a pool whose connections run the given setup statements when they are opened.
+     *
+     * @param url the JDBC URL, e.g. {@code jdbc:sqlite:hotel.db}
+     * @param readerCount the number of reader connections (at least 1)
+     * @param setupStatements statements to run on each new connection, in order
+     */
+    public ConnectionPool(String url, int readerCount, String[] setupStatements) {
+        if (readerCount < 1) {
+            throw new IllegalArgumentException("Reader count must be at least 1.");
+        }
+        this.url = url;
+        this.setupStatements = setupStatements.clone();
+        this.readerCount = readerCount;
+        this.readers = new ArrayBlockingQueue<>(readerCount);
+    }
+
+    /**
+     * Borrows the writer connection, waiting until it is free.
+     * Closing the returned connection gives it back to the pool.
+     *
+     * @return the pooled writer connection
+     * @throws SQLException if the pool is closed or the connection cannot be opened
+     */
+    public Connection borrowWriter() throws SQLException {
+        Connection physical = writer.poll();
+        if (physical == null) {
+            physical = openWriterIfNeeded();
+        }
+        if (physical == null) {
+            physical = await(writer);
+        }
+        return wrap(validate(physical, writer), writer);
+    }
+
+    /**
+     * Borrows a reader connection, opening a new one if the pool is not full yet.
+     * Closing the returned connection gives it back to the pool.
+     *
+     * @return a pooled reader connection
+     * @throws SQLException if the pool is closed or the connection cannot be opened
+     */
+    public Connection borrowReader() throws SQLException {
+        Connection physical = readers.poll();
+        if (physical == null) {
+            physical = openReaderIfNeeded();
+        }
+        if (physical == null) {
+            physical = await(readers);
+        }
+        return wrap(validate(physical, readers), readers);
+    }
+
+    /**
+     * Closes every connection opened by the pool. Connections still borrowed are closed as well.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (Connection conn : opened) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                System.out.println("Error closing connection: " + e.getMessage());
+            }
+        }
+        opened.clear();
+        writerOpened = false;
+        readersOpened = 0;
+        writer.clear();
+        readers.clear();
+    }
+
+    /**
+     * Opens the writer connection the first time it is needed.
+     *
+     * @return the new connection, or {@code null} if it is already open
+     */
+    private synchronized Connection openWriterIfNeeded() throws SQLException {
+        checkOpen();
+        if (writerOpened) {
+            return null;
+        }
+        Connection conn = open();
+        writerOpened = true;
+        return conn;
+    }
+
+    /**
+     * Opens another reader connection if the configured count has not been reached.
+     *
+     * @return the new connection, or {@code null} if all readers are open
+     */
+    private synchronized Connection openReaderIfNeeded() throws SQLException {
+        checkOpen();
+        if (readersOpened >= readerCount) {
+            return null;
+        }
+        Connection conn = open();
+        readersOpened++;
+        return conn;
+    }
+
+    /**
+     * Opens a new physical connection, runs the setup statements on it and records it.
+     */
+    private Connection open() throws SQLException {
+        Connection conn = DriverManager.getConnection(url);
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : setupStatements) {
+                stmt.execute(sql);
+            }
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        opened.add(conn);
+        return conn;
+    }
+
+    /**
+     * Waits for a connection to be returned to the given queue.
+     */
+    private Connection await(BlockingQueue<Connection> queue) throws SQLException {
+        try {
+            Connection conn = queue.poll(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (conn == null) {
+                throw new SQLException("Timed out waiting for a database connection.");
+            }
+            return conn;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+    }
+
+    /**
+     * Validates a connection on borrow and replaces it if it is no longer usable. If the
+     * replacement cannot be opened, its slot is given up so a later borrow opens it again.
+     */
+    private Connection validate(Connection conn, BlockingQueue<Connection> home) throws SQLException {
+        checkOpen();
+        if (!conn.isClosed() && conn.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+            return conn;
+        }
+        try {
+            conn.close(); // Frees the native handle of a broken connection
+        } catch (SQLException e) {
+            // Already unusable; it is replaced below either way
+        }
+        synchronized (this) {
+            opened.remove(conn);
+            try {
+                return open();
+            } catch (SQLException e) {
+                if (home == writer) {
+                    writerOpened = false;
+                } else {
+                    readersOpened--;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Throws if the pool has been closed.
+     */
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed.");
+        }
+    }
+
+    /**
+     * Wraps a physical connection so that {@code close()} returns it to its queue instead of
+     * closing it. Any open transaction is rolled back before the connection is reused.
+     */
+    private Connection wrap(Connection physical, BlockingQueue<Connection> home) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean returned;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                if (name.equals("close")) {
+                    if (!returned) {
+                        returned = true;
+                        release(physical, home);
+                    }
+                    return null;
+                }
+                if (name.equals("isClosed")) {
+                    return returned || physical.isClosed();
+                }
+                if (returned) {
+                    throw new SQLException("Connection has already been returned to the pool.");
+                }
+                try {
+                    return method.invoke(physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    /**
+     * Resets a connection and puts it back in its queue.
+     */
+    private void release(Connection physical, BlockingQueue<Connection> home) {
+        try {
+            if (!physical.isClosed() && !physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.out.println("Error resetting connection: " + e.getMessage());
+        }
+        if (!closed) {
+            home.offer(physical);
+        }
+    }
+}
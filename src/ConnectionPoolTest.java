@@ -0,0 +1,51 @@
+/**
+ * ConnectionPoolTest.java
+ *
+ * <p>This class contains unit tests for the {@link ConnectionPool} class, on a SQLite file in a
+ * temporary folder.</p>
+ *
+ * @author Andres Vera
+ */
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+class ConnectionPoolTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that when a broken connection cannot be replaced, the borrow fails but the slot is
+     * freed, so the pool opens a new connection once the database can be opened again instead
+     * of waiting for one that will never come back.
+     */
+    @Test
+    void failedReplacement_releasesSlot() throws SQLException {
+        String url = "jdbc:sqlite:" + directory.resolve("pool.db");
+        try (Connection admin = DriverManager.getConnection(url);
+             ConnectionPool pool = new ConnectionPool(url, 1, new String[]{"SELECT * FROM gate"})) {
+            admin.createStatement().execute("CREATE TABLE gate (x INTEGER)"); // Setup only succeeds while it exists
+            try (Connection reader = pool.borrowReader(); Connection writer = pool.borrowWriter()) {
+                reader.unwrap(Connection.class).close(); // Broken while borrowed
+                writer.unwrap(Connection.class).close();
+            }
+
+            admin.createStatement().execute("DROP TABLE gate");
+            assertThrows(SQLException.class, pool::borrowReader);
+            assertThrows(SQLException.class, pool::borrowWriter);
+
+            admin.createStatement().execute("CREATE TABLE gate (x INTEGER)");
+            try (Connection reader = pool.borrowReader(); Connection writer = pool.borrowWriter()) {
+                assertTrue(reader.isValid(1));
+                assertTrue(writer.isValid(1));
+            }
+        }
+    }
+}
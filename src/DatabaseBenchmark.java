@@ -0,0 +1,394 @@
+/**
+ * DatabaseBenchmark.java
+ *
+ * <p>This class is a small command-line benchmark for {@link DatabaseManager}. It runs a fixed
+ * number of operations against a temporary SQLite file and prints the throughput in
+ * operations per second, so changes to the database layer can be compared on the same machine.</p>
+ *
+ * <p>It needs sqlite-jdbc on the classpath, just like {@link HotelGUI}.</p>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * java -cp out:sqlite-jdbc.jar DatabaseBenchmark 5000
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+public class DatabaseBenchmark {
+    /** Number of operations run when no argument is given */
+    private static final int DEFAULT_OPERATIONS = 2000;
+    /** Table sizes used by the search benchmark */
+    private static final int[] SEARCH_TABLE_SIZES = {1_000, 10_000, 100_000};
+    /** Name pieces used to generate guest names */
+    private static final String[] NAME_PARTS = {"Ana", "Luis", "Maria", "Pedro", "Sofia", "Diego",
+            "Elena", "Jorge", "Camila", "Raul", "Paula", "Manuel", "Diana", "Carlos", "Lucia"};
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of operations per scenario
+     * @throws Exception if the temporary database cannot be created
+     */
+    public static void main(String[] args) throws Exception {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_OPERATIONS;
+        System.out.println("Operations per scenario: " + operations);
+
+        compareConnectionStrategies(operations);
+        compareSearchLatency(Math.max(1, operations / 10));
+        compareQueryCache(operations);
+        compareDurabilityProfiles(operations);
+        compareGroupCommit(operations);
+    }
+
+    /**
+     * Compares one commit per insert on the calling thread against queueing the same inserts on
+     * the write-behind queue, which commits whatever has piled up in one transaction. Uses the
+     * SAFE profile, where every commit is a disk sync.
+     */
+    private static void compareGroupCommit(int operations) throws IOException {
+        File file = createTempDatabase();
+        try {
+            DatabaseManager manager = new DatabaseManager();
+            manager.setDatabasePath(file.getAbsolutePath(), DurabilityProfile.SAFE);
+            System.out.println();
+
+            long start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                manager.addReservation("Guest", "guest@example.com", roomFor(i),
+                        "City View", 90.0, 1, checkInFor(i), checkOutFor(i));
+            }
+            report("insert, synchronous commit", operations, start);
+
+            // Submit everything, then wait for every acknowledgement
+            start = System.nanoTime();
+            List<CompletableFuture<Boolean>> pending = new ArrayList<>(operations);
+            for (int i = operations; i < 2 * operations; i++) {
+                pending.add(manager.addReservationAsync("Guest", "guest@example.com", roomFor(i),
+                        "City View", 90.0, 1, LocalDate.parse(checkInFor(i)), LocalDate.parse(checkOutFor(i))));
+            }
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+            report("insert, group commit (write-behind)", operations, start);
+
+            manager.close();
+        } finally {
+            file.delete();
+            new File(file.getAbsolutePath() + "-wal").delete();
+            new File(file.getAbsolutePath() + "-shm").delete();
+        }
+    }
+
+    /**
+     * Prints a matrix of single-insert latency, bulk-insert throughput and page-read latency
+     * for each {@link DurabilityProfile}.
+     */
+    private static void compareDurabilityProfiles(int operations) throws IOException {
+        int bulkRows = operations * 10;
+        System.out.printf("%n%-12s %16s %18s %16s%n", "profile", "insert us/op", "bulk rows/sec", "page us/op");
+        for (DurabilityProfile profile : DurabilityProfile.values()) {
+            File file = createTempDatabase();
+            try {
+                DatabaseManager manager = new DatabaseManager();
+                manager.setDatabasePath(file.getAbsolutePath(), profile);
+
+                // One transaction per row: dominated by the commit sync
+                long start = System.nanoTime();
+                for (int i = 0; i < operations; i++) {
+                    manager.addReservation("Guest", "guest@example.com", roomFor(i),
+                            "City View", 90.0, 1, checkInFor(i), checkOutFor(i));
+                }
+                double insertMicros = (System.nanoTime() - start) / 1_000.0 / operations;
+
+                // Batched transactions
+                List<ReservationRecord> rows = new ArrayList<>(bulkRows);
+                for (int i = operations; i < operations + bulkRows; i++) {
+                    rows.add(new ReservationRecord("Guest", "guest@example.com", roomFor(i),
+                            "City View", 90.0, 1, checkInFor(i), checkOutFor(i)));
+                }
+                start = System.nanoTime();
+                manager.addReservations(rows);
+                double bulkPerSecond = bulkRows / ((System.nanoTime() - start) / 1_000_000_000.0);
+
+                // Reads through the cache and memory map
+                start = System.nanoTime();
+                long cursor = 0;
+                for (int i = 0; i < operations; i++) {
+                    ReservationPage page = manager.getReservationsPageAfter(cursor, 50);
+                    cursor = page.hasNext() ? page.getLastId() : 0; // Back to the first page
+                }
+                double pageMicros = (System.nanoTime() - start) / 1_000.0 / operations;
+
+                System.out.printf("%-12s %16.1f %18.0f %16.1f%n", profile, insertMicros, bulkPerSecond, pageMicros);
+                manager.close();
+            } finally {
+                file.delete();
+                new File(file.getAbsolutePath() + "-wal").delete();
+                new File(file.getAbsolutePath() + "-shm").delete();
+            }
+        }
+    }
+
+    /**
+     * Compares a LIKE table scan with the trigram index for substring name searches as the
+     * table grows.
+     */
+    private static void compareSearchLatency(int searches) throws IOException, SQLException {
+        Random random = new Random(42);
+        for (int size : SEARCH_TABLE_SIZES) {
+            File file = createTempDatabase();
+            try {
+                DatabaseManager manager = new DatabaseManager();
+                manager.setQueryCacheLimits(0, Duration.ZERO); // Time the index, not the result cache
+                manager.setDatabasePath(file.getAbsolutePath());
+                List<ReservationRecord> rows = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    String name = NAME_PARTS[random.nextInt(NAME_PARTS.length)] + " "
+                            + NAME_PARTS[random.nextInt(NAME_PARTS.length)] + " " + toLetters(i);
+                    rows.add(new ReservationRecord(name, "guest" + i + "@example.com", roomFor(i),
+                            "City View", 90.0, 1, checkInFor(i), checkOutFor(i)));
+                }
+                manager.addReservations(rows, 5_000);
+                String url = "jdbc:sqlite:" + file.getAbsolutePath();
+
+                // Selective keywords: a unique suffix matches a handful of rows
+                long start = System.nanoTime();
+                try (Connection conn = DriverManager.getConnection(url)) {
+                    for (int i = 0; i < searches; i++) {
+                        searchWithLike(conn, toLetters(random.nextInt(size)));
+                    }
+                }
+                reportLatency("search LIKE scan, " + size + " rows", searches, start);
+
+                start = System.nanoTime();
+                for (int i = 0; i < searches; i++) {
+                    manager.searchReservationsByName(toLetters(random.nextInt(size)));
+                }
+                reportLatency("search trigram index, " + size + " rows", searches, start);
+
+                manager.close();
+            } finally {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Times the same small set of guest searches repeated over and over, as at a front desk,
+     * with and without the query result cache. Every tenth operation books a new stay for one
+     * of the searched guests, which drops only that guest's cached searches.
+     */
+    private static void compareQueryCache(int operations) throws IOException {
+        int size = SEARCH_TABLE_SIZES[SEARCH_TABLE_SIZES.length - 1];
+        String[] keywords = new String[50];
+        for (int i = 0; i < keywords.length; i++) {
+            keywords[i] = toLetters(i * 997); // Unique suffixes spread over the table
+        }
+        System.out.println();
+        for (boolean cached : new boolean[] {false, true}) {
+            File file = createTempDatabase();
+            try {
+                DatabaseManager manager = new DatabaseManager();
+                manager.setDatabasePath(file.getAbsolutePath());
+                List<ReservationRecord> rows = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    rows.add(new ReservationRecord(NAME_PARTS[i % NAME_PARTS.length] + " " + toLetters(i),
+                            "guest" + i + "@example.com", roomFor(i), "City View", 90.0, 1, checkInFor(i), checkOutFor(i)));
+                }
+                manager.addReservations(rows, 5_000);
+                if (!cached) {
+                    manager.setQueryCacheLimits(0, Duration.ZERO);
+                }
+
+                Random random = new Random(7);
+                int[] found = {0};
+                long start = System.nanoTime();
+                for (int i = 0; i < operations; i++) {
+                    String keyword = keywords[random.nextInt(keywords.length)];
+                    if (i % 10 == 9) {
+                        int n = size + i;
+                        manager.addReservation("Guest " + keyword, "again" + i + "@example.com", roomFor(n),
+                                "City View", 90.0, 1, checkInFor(n), checkOutFor(n));
+                    } else {
+                        manager.searchReservationsByName(keyword, row -> found[0]++);
+                    }
+                }
+                reportLatency("repeated searches, cache " + (cached ? "on" : "off"), operations, start);
+                if (cached) {
+                    System.out.println(manager.getQueryCache());
+                }
+                manager.close();
+            } finally {
+                file.delete();
+                new File(file.getAbsolutePath() + "-wal").delete();
+                new File(file.getAbsolutePath() + "-shm").delete();
+            }
+        }
+    }
+
+    /**
+     * Spreads generated reservations over all rooms, one night each, so none overlap.
+     */
+    private static int roomFor(int i) {
+        return i % DatabaseManager.ROOM_COUNT + 1;
+    }
+
+    /**
+     * Check-in date of the i-th generated reservation.
+     */
+    private static String checkInFor(int i) {
+        return LocalDate.of(2025, 1, 1).plusDays(i / DatabaseManager.ROOM_COUNT).toString();
+    }
+
+    /**
+     * Check-out date of the i-th generated reservation.
+     */
+    private static String checkOutFor(int i) {
+        return LocalDate.of(2025, 1, 2).plusDays(i / DatabaseManager.ROOM_COUNT).toString();
+    }
+
+    /**
+     * Turns a number into a letters-only tag (guest names may not contain digits).
+     * Tags are padded to at least three letters so the trigram index can be used.
+     */
+    private static String toLetters(int n) {
+        StringBuilder sb = new StringBuilder();
+        do {
+            sb.append((char) ('a' + n % 26));
+            n /= 26;
+        } while (n > 0 || sb.length() < 3);
+        return sb.toString();
+    }
+
+    /**
+     * Runs the original LIKE search on an open connection.
+     */
+    private static void searchWithLike(Connection conn, String keyword) throws SQLException {
+        String sql = "SELECT * FROM reservations WHERE guest_name LIKE ?;";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, "%" + keyword + "%");
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rs.getLong("id");
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares opening a new connection per call against the pooled {@link DatabaseManager}.
+     */
+    private static void compareConnectionStrategies(int operations) throws IOException, SQLException {
+        File file = createTempDatabase();
+        try {
+            DatabaseManager manager = new DatabaseManager();
+            manager.setDatabasePath(file.getAbsolutePath());
+            String url = "jdbc:sqlite:" + file.getAbsolutePath();
+
+            // Writes: one connection per insert versus the pooled writer
+            long start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                insertWithNewConnection(url, i);
+            }
+            report("insert, new connection per call", operations, start);
+
+            start = System.nanoTime();
+            for (int i = operations; i < 2 * operations; i++) { // Continue after the rows above
+                manager.addReservation("Guest " + i, "guest" + i + "@example.com", roomFor(i),
+                        "City View", 90.0, 1, checkInFor(i), checkOutFor(i));
+            }
+            report("insert, pooled connection", operations, start);
+
+            // Reads: one connection per lookup versus the pooled readers
+            start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                searchWithNewConnection(url, "Guest " + i);
+            }
+            report("search, new connection per call", operations, start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                manager.searchReservationsByName("Guest " + i);
+            }
+            report("search, pooled connection", operations, start);
+
+            manager.close();
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Inserts one row the way {@link DatabaseManager} did before connections were pooled.
+     */
+    private static void insertWithNewConnection(String url, int i) throws SQLException {
+        String sql = """
+            INSERT INTO reservations (guest_name, guest_email, room_number, room_type, rate, nights, check_in, check_out)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?);
+        """;
+        try (Connection conn = DriverManager.getConnection(url); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, "Guest " + i);
+            pstmt.setString(2, "guest" + i + "@example.com");
+            pstmt.setInt(3, roomFor(i));
+            pstmt.setString(4, "City View");
+            pstmt.setDouble(5, 90.0);
+            pstmt.setInt(6, 1);
+            pstmt.setString(7, checkInFor(i));
+            pstmt.setString(8, checkOutFor(i));
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Runs one name search on a freshly opened connection.
+     */
+    private static void searchWithNewConnection(String url, String keyword) throws SQLException {
+        String sql = "SELECT * FROM reservations WHERE guest_name LIKE ?;";
+        try (Connection conn = DriverManager.getConnection(url); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, "%" + keyword + "%");
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rs.getLong("id");
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates an empty temporary database file that is removed when the JVM exits.
+     */
+    private static File createTempDatabase() throws IOException {
+        File file = File.createTempFile("hotel-bench", ".db");
+        file.deleteOnExit();
+        return file;
+    }
+
+    /**
+     * Prints the average latency of one scenario.
+     */
+    private static void reportLatency(String label, int operations, long startNanos) {
+        double micros = (System.nanoTime() - startNanos) / 1_000.0 / operations;
+        System.out.printf("%-40s %10.1f us/op%n", label, micros);
+    }
+
+    /**
+     * Prints the elapsed time and throughput of one scenario.
+     */
+    private static void report(String label, int operations, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        System.out.printf("%-40s %10.0f ops/sec (%.2f s)%n", label, operations / seconds, seconds);
+    }
+}
@@ -9,9 +9,23 @@
  * <p>Primary responsibilities:</p>
  * <ul>
  *     <li>Set and validate the database file path</li>
- *     <li>Connect to the database using JDBC</li>
+ *     <li>Connect to the database using a pool of long-lived JDBC connections</li>
+ *     <li>Apply a {@link DurabilityProfile} (WAL, sync, cache and memory-map settings) to each connection</li>
  *     <li>Create the reservation table if it doesn't exist</li>
  *     <li>Insert, update, delete, list, and search reservations</li>
+ *     <li>Bulk-insert reservations in batched transactions</li>
+ *     <li>Stream typed {@link ReservationRecord} rows without building the whole result in memory</li>
+ *     <li>List reservations one page at a time using keyset pagination on the ID</li>
+ *     <li>Keep an FTS5 trigram index over guest names and emails for fast substring search</li>
+ *     <li>Answer room availability questions and reject double bookings</li>
+ *     <li>Store stay dates as indexed epoch-day integers and migrate older files in place</li>
+ *     <li>Total revenue, room-nights, ADR and occupancy in SQL for reports</li>
+ *     <li>Queue writes on a background thread that group-commits them ({@link WriteBehindQueue}),
+ *     for bulk loaders; the front ends write synchronously</li>
+ *     <li>Serve as a {@link ReservationStore}, directly or behind a {@link CachingReservationStore}</li>
+ *     <li>Cache repeated searches and availability queries ({@link QueryResultCache}), dropping
+ *     only the results a write touches</li>
+ *     <li>Publish every committed change to subscribers through a {@link ReservationEventFeed}</li>
  * </ul>
  *
  * <p><b>Input:</b> File path to SQLite database and reservation fields from GUI</p>
@@ -20,25 +34,172 @@
  * @author Andres Vera
  */
 
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
 import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class DatabaseManager implements ReservationStore {
+    /** Number of rooms in the hotel */
+    public static final int ROOM_COUNT = 18;
+
+    /** Most rows on one page of {@link #getReservationsPageAfter(long, int)} */
+    public static final int MAX_PAGE_SIZE = 10_000;
+    /** Number of rows committed per transaction by the bulk insert when no size is given */
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    /** Columns read by {@link #mapRow(ResultSet)}, in index order */
+    private static final String SELECT_COLUMNS =
+            "id, guest_name, guest_email, room_number, room_type, rate, nights, check_in, check_out, check_in_day, check_out_day";
+
+    /** The same columns qualified with the {@code r} alias, for queries that join other tables */
+    private static final String SELECT_COLUMNS_R =
+            "r.id, r.guest_name, r.guest_email, r.room_number, r.room_type, r.rate, r.nights, r.check_in, r.check_out,"
+            + " r.check_in_day, r.check_out_day";
+
+    /** Number of rows converted per transaction when migrating dates in an older database */
+    private static final int MIGRATION_CHUNK_SIZE = 1000;
+
+    /** Shortest keyword the trigram index can match; shorter keywords fall back to LIKE */
+    private static final int MIN_INDEXED_KEYWORD = 3;
+
+    /** FTS5 command that refills the search index from the reservations table */
+    private static final String REBUILD_SEARCH_INDEX_SQL =
+            "INSERT INTO reservations_fts (reservations_fts) VALUES ('rebuild');";
+
+    /** SQL insert statement shared by the single and bulk insert paths */
+    private static final String INSERT_SQL = """
+            INSERT INTO reservations (guest_name, guest_email, room_number, room_type, rate, nights, check_in, check_out,
+                                      check_in_day, check_out_day)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?);
+        """;
 
-public class DatabaseManager {
     /** Path to the SQLite database file set by the user */
     private String dbPath;
+    /** Pool of open connections to the current database file */
+    private ConnectionPool pool;
+    /** Number of reader connections kept open by the pool */
+    private int poolSize = ConnectionPool.DEFAULT_READER_COUNT;
+    /** SQLite settings applied to every pooled connection */
+    private DurabilityProfile profile = DurabilityProfile.SAFE;
+    /** Whether the FTS5 search index could be created for the current database */
+    private boolean searchIndexAvailable;
+    /** Background writer for the asynchronous methods, started on first use */
+    private WriteBehindQueue writeQueue;
+    /** Recent search and availability results, kept until a write touches them */
+    private volatile QueryResultCache queryCache = new QueryResultCache();
+    /** Where committed changes are published, or {@code null} until {@link #getEventFeed()} is called */
+    private volatile ReservationEventFeed events;
 
     /**
      * Sets the database path and ensures the reservations table exists.
+     * Any connections to a previously selected file are closed first.
+     * The durability profile used last (SAFE by default) is applied.
      *
      * @param path The full file path to the SQLite database
      */
     public void setDatabasePath(String path) {
-        // Save the file path
+        setDatabasePath(path, profile);
+    }
+
+    /**
+     * Sets the database path and the durability profile applied to every connection, and
+     * ensures the reservations table exists.
+     *
+     * @param path The full file path to the SQLite database
+     * @param profile SQLite durability/performance settings to use
+     */
+    public void setDatabasePath(String path, DurabilityProfile profile) {
+        // Close connections to the old file before switching
+        closePool();
+        // Save the file path and settings
         this.dbPath = path;
+        this.profile = profile;
+        // Open a fresh pool for the new file
+        if (isConnected()) {
+            pool = new ConnectionPool("jdbc:sqlite:" + dbPath, poolSize, profile.getPragmas());
+        }
         // Make sure the reservations table exists
         createTableIfNotExists();
     }
 
+    /**
+     * Sets how many reader connections the pool keeps open. Takes effect the next time
+     * {@link #setDatabasePath(String)} is called.
+     *
+     * @param readers number of reader connections (at least 1)
+     */
+    public void setPoolSize(int readers) {
+        if (readers < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1.");
+        }
+        this.poolSize = readers;
+    }
+
+    /**
+     * Replaces the query result cache with an empty one using the given limits.
+     *
+     * @param maxEntries most results kept at once; 0 turns the cache off
+     * @param ttl how long a result may be served after it was read
+     */
+    public void setQueryCacheLimits(int maxEntries, Duration ttl) {
+        this.queryCache = new QueryResultCache(maxEntries, ttl);
+    }
+
+    /**
+     * Gets the query result cache, e.g. to read its hit, miss and eviction counters.
+     *
+     * @return the cache in use
+     */
+    public QueryResultCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * Gets the durability profile applied to the current connections.
+     *
+     * @return the active profile
+     */
+    public DurabilityProfile getDurabilityProfile() {
+        return profile;
+    }
+
+    /**
+     * Commits any queued asynchronous writes and closes all pooled connections. The manager can
+     * be reused by calling {@link #setDatabasePath(String)} again.
+     */
+    public void close() {
+        closePool();
+        dbPath = null;
+    }
+
+    /**
+     * Flushes the write queue and shuts down the current connection pool, if any.
+     */
+    private synchronized void closePool() {
+        queryCache.clear(); // Results belong to the old file
+        publishReload();
+        if (writeQueue != null) {
+            writeQueue.close(); // Commit everything still queued before the connections go away
+            writeQueue = null;
+        }
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
     /**
      * Checks if the database connection is available.
      *
@@ -49,16 +210,39 @@ public class DatabaseManager {
     }
 
     /**
-     * Connects to the SQLite database using the provided path.
+     * Borrows the pooled writer connection. Closing it returns it to the pool.
      *
-     * @return A valid {@link Connection} object
+     * @return A valid {@link Connection} object for inserts, updates and deletes
      * @throws SQLException If the connection fails or path is not set
      */
     private Connection connect() throws SQLException {
-        if (!isConnected()) {
+        if (!isConnected() || pool == null) {
             throw new SQLException("Database path not set."); // Throw an error if no path set
         }
-        return DriverManager.getConnection("jdbc:sqlite:" + dbPath); // Return SQLite connection
+        return pool.borrowWriter(); // Return the shared writer connection
+    }
+
+    /**
+     * Gets the write queue for the current database, starting its writer thread on first use.
+     */
+    private synchronized WriteBehindQueue writeQueue() {
+        if (writeQueue == null) {
+            writeQueue = new WriteBehindQueue(this::connect);
+        }
+        return writeQueue;
+    }
+
+    /**
+     * Borrows a pooled reader connection. Closing it returns it to the pool.
+     *
+     * @return A valid {@link Connection} object for queries
+     * @throws SQLException If the connection fails or path is not set
+     */
+    private Connection connectForRead() throws SQLException {
+        if (!isConnected() || pool == null) {
+            throw new SQLException("Database path not set."); // Throw an error if no path set
+        }
+        return pool.borrowReader(); // Return one of the reader connections
     }
 
     /**
@@ -78,7 +262,9 @@ public class DatabaseManager {
                 rate REAL NOT NULL,
                 nights INTEGER NOT NULL,
                 check_in TEXT NOT NULL,
-                check_out TEXT NOT NULL
+                check_out TEXT NOT NULL,
+                check_in_day INTEGER,
+                check_out_day INTEGER
             );
         """;
 
@@ -87,6 +273,304 @@ public class DatabaseManager {
         } catch (SQLException e) {
             System.out.println("Error creating table: " + e.getMessage()); // Show error if occurs
         }
+
+        migrateDateColumns(); // Add and fill the epoch-day columns in older files
+        createAvailabilitySchema(); // Make sure room inventory and overlap index exist
+        createSearchIndex(); // Make sure the name/email search index exists
+    }
+
+    /**
+     * Brings databases created before dates were stored as epoch days up to date. The
+     * {@code check_in_day}/{@code check_out_day} columns are added if missing and filled from the
+     * text dates in small ID ranges, each committed on its own, so other connections are never
+     * locked out for long while a large file is converted. Rows whose text date cannot be parsed
+     * keep {@code NULL} days. Running it again on a migrated file only checks for unconverted rows.
+     */
+    private void migrateDateColumns() {
+        String update = """
+            UPDATE reservations
+            SET check_in_day = CAST(julianday(check_in) - 2440587.5 AS INTEGER),
+                check_out_day = CAST(julianday(check_out) - 2440587.5 AS INTEGER)
+            WHERE id > ? AND id <= ? AND check_in_day IS NULL;
+        """;
+
+        try (Connection conn = connect(); Statement stmt = conn.createStatement()) {
+            boolean hasDayColumns = false;
+            try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(reservations);")) {
+                while (rs.next()) {
+                    if (rs.getString("name").equals("check_in_day")) hasDayColumns = true;
+                }
+            }
+            if (!hasDayColumns) {
+                stmt.execute("ALTER TABLE reservations ADD COLUMN check_in_day INTEGER;");
+                stmt.execute("ALTER TABLE reservations ADD COLUMN check_out_day INTEGER;");
+            }
+
+            // Find the ID range that still needs converting
+            long low;
+            long high;
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT MIN(id), MAX(id) FROM reservations WHERE check_in_day IS NULL;")) {
+                if (!rs.next() || rs.getObject(1) == null) return; // Nothing left to migrate
+                low = rs.getLong(1) - 1;
+                high = rs.getLong(2);
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(update)) {
+                for (long from = low; from < high; from += MIGRATION_CHUNK_SIZE) {
+                    pstmt.setLong(1, from);
+                    pstmt.setLong(2, Math.min(from + MIGRATION_CHUNK_SIZE, high));
+                    pstmt.executeUpdate(); // Autocommit: one short transaction per chunk
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error migrating dates: " + e.getMessage()); // Show error if occurs
+        }
+    }
+
+    /**
+     * Creates the room inventory table and the composite index used by overlap checks.
+     * The inventory is seeded with rooms 1 to {@link #ROOM_COUNT}. A room with no type can be
+     * booked as any type, which is how the hotel has worked so far; {@link #setRoomType(int, String)}
+     * pins a room to one type.
+     */
+    private void createAvailabilitySchema() {
+        String[] statements = {
+            "CREATE TABLE IF NOT EXISTS rooms (room_number INTEGER PRIMARY KEY, room_type TEXT);",
+            // Replaced by the epoch-day index below
+            "DROP INDEX IF EXISTS idx_reservations_room_dates;",
+            // Overlap checks seek on the room and scan only the reservations that start before the stay ends
+            "CREATE INDEX IF NOT EXISTS idx_reservations_room_days ON reservations (room_number, check_in_day, check_out_day);",
+            // Date-range queries across all rooms
+            "CREATE INDEX IF NOT EXISTS idx_reservations_check_in_day ON reservations (check_in_day);",
+            // Covers every column the revenue reports read, so they never touch the table itself
+            "CREATE INDEX IF NOT EXISTS idx_reservations_report"
+                    + " ON reservations (check_in_day, check_out_day, room_type, room_number, rate);"
+        };
+
+        try (Connection conn = connect(); Statement stmt = conn.createStatement()) {
+            for (String ddl : statements) {
+                stmt.execute(ddl); // One statement per call
+            }
+            try (PreparedStatement seed = conn.prepareStatement("INSERT OR IGNORE INTO rooms (room_number) VALUES (?);")) {
+                conn.setAutoCommit(false); // Seed all rooms in one transaction
+                for (int room = 1; room <= ROOM_COUNT; room++) {
+                    seed.setInt(1, room);
+                    seed.addBatch();
+                }
+                seed.executeBatch();
+                conn.commit();
+            }
+        } catch (SQLException e) {
+            System.out.println("Error creating room inventory: " + e.getMessage()); // Show error if occurs
+        }
+    }
+
+    /**
+     * Pins a room to a room type, or frees it to be booked as any type when {@code roomType}
+     * is {@code null}.
+     *
+     * @param roomNumber room number
+     * @param roomType room type, or {@code null} for any
+     * @return {@code true} if the room exists and was updated
+     */
+    public boolean setRoomType(int roomNumber, String roomType) {
+        if (!isConnected()) return false; // Return false if not connected
+
+        String sql = "UPDATE rooms SET room_type = ? WHERE room_number = ?;";
+
+        try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, roomType);
+            pstmt.setInt(2, roomNumber);
+            boolean updated = pstmt.executeUpdate() > 0;
+            if (updated) {
+                queryCache.clear(); // Changes which rooms every availability query can offer
+            }
+            return updated;
+        } catch (SQLException e) {
+            System.out.println("Error updating room: " + e.getMessage()); // Print error
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether a room has no reservation overlapping the stay. A stay occupies the nights
+     * from check-in up to, but not including, check-out, so back-to-back stays do not overlap.
+     *
+     * @param roomNumber room number
+     * @param checkIn first night of the stay
+     * @param checkOut departure day
+     * @return {@code true} if the room is free for the whole stay
+     */
+    @Override
+    public boolean isRoomAvailable(int roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        if (!isConnected()) return false; // Nothing is bookable without a database
+
+        try (Connection conn = connectForRead()) {
+            return !hasOverlap(conn, roomNumber, checkIn.toEpochDay(), checkOut.toEpochDay(), 0);
+        } catch (SQLException e) {
+            System.out.println("Error checking availability: " + e.getMessage()); // Print error
+            return false;
+        }
+    }
+
+    /**
+     * Finds the rooms that can be booked as {@code roomType} and are free for the whole stay.
+     *
+     * @param roomType room type wanted, or {@code null} for any type
+     * @param checkIn first night of the stay
+     * @param checkOut departure day
+     * @return free room numbers in ascending order
+     */
+    @Override
+    public List<Integer> findAvailableRooms(String roomType, LocalDate checkIn, LocalDate checkOut) {
+        if (!isConnected()) return new ArrayList<>(); // Return empty list if not connected
+
+        // Repeated questions are answered from the cache until a booking for those nights changes
+        QueryResultCache cache = queryCache;
+        String key = "rooms:" + roomType + ":" + checkIn + ":" + checkOut;
+        List<Integer> cached = cache.get(key);
+        if (cached != null) {
+            return new ArrayList<>(cached);
+        }
+        long version = cache.version();
+        List<Integer> rooms = new ArrayList<>();
+
+        String sql = """
+            SELECT room_number FROM rooms r
+            WHERE (? IS NULL OR r.room_type IS NULL OR r.room_type = ?)
+              AND NOT EXISTS (
+                  SELECT 1 FROM reservations x
+                  WHERE x.room_number = r.room_number AND x.check_in_day < ? AND x.check_out_day > ?)
+            ORDER BY room_number;
+        """;
+
+        try (Connection conn = connectForRead(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, roomType);
+            pstmt.setString(2, roomType);
+            pstmt.setLong(3, checkOut.toEpochDay());
+            pstmt.setLong(4, checkIn.toEpochDay());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rooms.add(rs.getInt(1));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error finding available rooms: " + e.getMessage()); // Print error
+            return rooms;
+        }
+        cache.put(key, List.copyOf(rooms), QueryResultCache.overlapping(checkIn.toEpochDay(), checkOut.toEpochDay()), version);
+        return rooms;
+    }
+
+    /**
+     * Checks for a reservation of the room that overlaps the stay, ignoring {@code excludeId}
+     * (the reservation being updated, or 0). Runs as an index range seek on
+     * {@code idx_reservations_room_days}.
+     */
+    private boolean hasOverlap(Connection conn, int roomNumber, long checkInDay, long checkOutDay, long excludeId) throws SQLException {
+        String sql = """
+            SELECT EXISTS (
+                SELECT 1 FROM reservations
+                WHERE room_number = ? AND check_in_day < ? AND check_out_day > ? AND id <> ?);
+        """;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, roomNumber);
+            pstmt.setLong(2, checkOutDay);
+            pstmt.setLong(3, checkInDay);
+            pstmt.setLong(4, excludeId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    /**
+     * Checks whether a row overlaps a row accepted earlier in the same batch, which the
+     * database cannot see until the batch is executed.
+     */
+    private static boolean overlapsAny(List<ReservationRecord> accepted, ReservationRecord row) {
+        for (ReservationRecord other : accepted) {
+            if (other.getRoomNumber() == row.getRoomNumber()
+                    && other.getCheckInDay() < row.getCheckOutDay()
+                    && other.getCheckOutDay() > row.getCheckInDay()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates the FTS5 trigram index over guest names and emails, plus the triggers that keep it
+     * in sync with the reservations table. If the index is new, it is filled from the existing
+     * rows. When the SQLite build has no FTS5 or trigram support, searches fall back to LIKE.
+     */
+    private void createSearchIndex() {
+        searchIndexAvailable = false;
+
+        String[] statements = {
+            """
+            CREATE VIRTUAL TABLE IF NOT EXISTS reservations_fts USING fts5(
+                guest_name, guest_email,
+                content='reservations', content_rowid='id', tokenize='trigram'
+            );
+            """,
+            """
+            CREATE TRIGGER IF NOT EXISTS reservations_fts_insert AFTER INSERT ON reservations BEGIN
+                INSERT INTO reservations_fts (rowid, guest_name, guest_email)
+                VALUES (new.id, new.guest_name, new.guest_email);
+            END;
+            """,
+            """
+            CREATE TRIGGER IF NOT EXISTS reservations_fts_delete AFTER DELETE ON reservations BEGIN
+                INSERT INTO reservations_fts (reservations_fts, rowid, guest_name, guest_email)
+                VALUES ('delete', old.id, old.guest_name, old.guest_email);
+            END;
+            """,
+            """
+            CREATE TRIGGER IF NOT EXISTS reservations_fts_update AFTER UPDATE OF guest_name, guest_email ON reservations BEGIN
+                INSERT INTO reservations_fts (reservations_fts, rowid, guest_name, guest_email)
+                VALUES ('delete', old.id, old.guest_name, old.guest_email);
+                INSERT INTO reservations_fts (rowid, guest_name, guest_email)
+                VALUES (new.id, new.guest_name, new.guest_email);
+            END;
+            """
+        };
+
+        try (Connection conn = connect(); Statement stmt = conn.createStatement()) {
+            boolean existed;
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'reservations_fts';")) {
+                existed = rs.next();
+            }
+            for (String ddl : statements) {
+                stmt.execute(ddl); // One statement per call
+            }
+            searchIndexAvailable = true;
+            if (!existed) {
+                stmt.execute(REBUILD_SEARCH_INDEX_SQL); // Index rows written before the index existed
+            }
+        } catch (SQLException e) {
+            System.out.println("Search index unavailable, using LIKE search: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the guest search index from the reservations table. Use this after importing
+     * rows into an existing database file with another tool.
+     *
+     * @return {@code true} if the index was rebuilt
+     */
+    public boolean rebuildSearchIndex() {
+        if (!isConnected() || !searchIndexAvailable) return false; // Nothing to rebuild
+
+        try (Connection conn = connect(); Statement stmt = conn.createStatement()) {
+            stmt.execute(REBUILD_SEARCH_INDEX_SQL); // Re-read every row into the index
+            return true;
+        } catch (SQLException e) {
+            System.out.println("Error rebuilding search index: " + e.getMessage()); // Print error if fails
+            return false;
+        }
     }
 
     /**
@@ -98,31 +582,315 @@ public class DatabaseManager {
      * @param roomType Room type
      * @param rate Rate per night
      * @param nights Number of nights
+     * @param checkIn Check-in date (yyyy-MM-dd)
+     * @param checkOut Check-out date (yyyy-MM-dd)
+     * @return {@code true} if the reservation was stored, {@code false} if the room is already
+     *         booked for those dates or the insert failed
+     * @throws java.time.format.DateTimeParseException if a date is not in yyyy-MM-dd format
+     */
+    public boolean addReservation(String name, String email, int roomNumber, String roomType, double rate, int nights, String checkIn, String checkOut) {
+        return addReservation(name, email, roomNumber, roomType, rate, nights, LocalDate.parse(checkIn), LocalDate.parse(checkOut));
+    }
+
+    /**
+     * Inserts a new reservation into the database using already parsed dates.
+     *
+     * @param name Guest name
+     * @param email Guest email
+     * @param roomNumber Room number
+     * @param roomType Room type
+     * @param rate Rate per night
+     * @param nights Number of nights
      * @param checkIn Check-in date
      * @param checkOut Check-out date
+     * @return {@code true} if the reservation was stored, {@code false} if the room is already
+     *         booked for those dates or the insert failed
      */
-    public void addReservation(String name, String email, int roomNumber, String roomType, double rate, int nights, String checkIn, String checkOut) {
-        if (!isConnected()) return; // Do nothing if not connected
+    public boolean addReservation(String name, String email, int roomNumber, String roomType, double rate, int nights, LocalDate checkIn, LocalDate checkOut) {
+        if (!isConnected()) return false; // Do nothing if not connected
 
-        // SQL insert statement using placeholders (to prevent SQL injection)
-        String sql = """
-            INSERT INTO reservations (guest_name, guest_email, room_number, room_type, rate, nights, check_in, check_out)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?);
-        """;
+        try (Connection conn = connect()) {
+            conn.setAutoCommit(false); // Check and insert in one transaction
+            long id = insertReservation(conn, name, email, roomNumber, roomType, rate, nights, checkIn, checkOut);
+            if (id > 0) {
+                conn.commit(); // Otherwise the pool rolls back on return
+                changed(ReservationEvent.Type.ADDED, null, toRecord(id, name, email, roomNumber, roomType, rate, nights, checkIn, checkOut));
+            }
+            return id > 0;
+        } catch (SQLException e) {
+            System.out.println("Error adding reservation: " + e.getMessage()); // Print error if fails
+            return false;
+        }
+    }
 
-        try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    /**
+     * Inserts a new reservation given as a record, after checking it with
+     * {@link ReservationRecord#validate()}.
+     *
+     * @param record the reservation to store; its ID is ignored
+     * @return the new reservation's ID, or -1 if the record is invalid, the room is already
+     *         booked for those dates or the insert failed
+     */
+    @Override
+    public long addReservation(ReservationRecord record) {
+        if (!isConnected()) return -1; // Do nothing if not connected
+        String problem = record.validate();
+        if (problem != null) {
+            System.out.println("Error adding reservation: " + problem);
+            return -1;
+        }
+
+        try (Connection conn = connect()) {
+            conn.setAutoCommit(false); // Check and insert in one transaction
+            long id = insertReservation(conn, record.getGuestName(), record.getGuestEmail(), record.getRoomNumber(),
+                    record.getRoomType(), record.getRate(), record.getNights(),
+                    LocalDate.ofEpochDay(record.getCheckInDay()), LocalDate.ofEpochDay(record.getCheckOutDay()));
+            if (id > 0) {
+                conn.commit(); // Otherwise the pool rolls back on return
+                changed(ReservationEvent.Type.ADDED, null, toRecord(id, record.getGuestName(), record.getGuestEmail(),
+                        record.getRoomNumber(), record.getRoomType(), record.getRate(), record.getNights(),
+                        LocalDate.ofEpochDay(record.getCheckInDay()), LocalDate.ofEpochDay(record.getCheckOutDay())));
+            }
+            return id;
+        } catch (SQLException e) {
+            System.out.println("Error adding reservation: " + e.getMessage()); // Print error if fails
+            return -1;
+        }
+    }
+
+    /**
+     * Queues a new reservation on the background writer and returns immediately. The writer
+     * commits it together with any other queued writes. The front ends do not use this; they
+     * call {@link #addReservation(ReservationRecord)} through their {@link ReservationStore}.
+     *
+     * @param name Guest name
+     * @param email Guest email
+     * @param roomNumber Room number
+     * @param roomType Room type
+     * @param rate Rate per night
+     * @param nights Number of nights
+     * @param checkIn Check-in date
+     * @param checkOut Check-out date
+     * @return a future completed after the commit with {@code true} if the reservation was stored,
+     *         or {@code false} if the room is already booked for those dates or the insert failed
+     */
+    public CompletableFuture<Boolean> addReservationAsync(String name, String email, int roomNumber, String roomType, double rate, int nights, LocalDate checkIn, LocalDate checkOut) {
+        if (!isConnected()) return CompletableFuture.completedFuture(false); // Do nothing if not connected
+
+        return writeQueue()
+                .submit(conn -> insertReservation(conn, name, email, roomNumber, roomType, rate, nights, checkIn, checkOut))
+                .thenApply(id -> {
+                    if (id > 0) { // Committed by now
+                        changed(ReservationEvent.Type.ADDED, null, toRecord(id, name, email, roomNumber, roomType, rate, nights, checkIn, checkOut));
+                    }
+                    return id > 0;
+                })
+                .exceptionally(e -> {
+                    System.out.println("Error adding reservation: " + e.getMessage()); // Print error if fails
+                    return false;
+                });
+    }
+
+    /**
+     * Checks availability and inserts one reservation on a connection that is already in a
+     * transaction. The caller commits.
+     *
+     * @return the new row's ID, or -1 if the room is already booked
+     */
+    private long insertReservation(Connection conn, String name, String email, int roomNumber, String roomType, double rate, int nights, LocalDate checkIn, LocalDate checkOut) throws SQLException {
+        if (hasOverlap(conn, roomNumber, checkIn.toEpochDay(), checkOut.toEpochDay(), 0)) {
+            return -1; // Room already booked
+        }
+        // SQL insert statement using placeholders (to prevent SQL injection)
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, name);         // Set guest name
             pstmt.setString(2, email);        // Set guest email
             pstmt.setInt(3, roomNumber);      // Set room number
             pstmt.setString(4, roomType);     // Set room type
             pstmt.setDouble(5, rate);         // Set nightly rate
             pstmt.setInt(6, nights);          // Set number of nights
-            pstmt.setString(7, checkIn);      // Set check-in date
-            pstmt.setString(8, checkOut);     // Set check-out date
+            pstmt.setString(7, checkIn.toString());   // Set check-in date
+            pstmt.setString(8, checkOut.toString());  // Set check-out date
+            pstmt.setLong(9, checkIn.toEpochDay());   // Set check-in day
+            pstmt.setLong(10, checkOut.toEpochDay()); // Set check-out day
             pstmt.executeUpdate();            // Execute the insert
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                return keys.next() ? keys.getLong(1) : -1; // ID given by SQLite
+            }
+        }
+    }
+
+    /**
+     * Inserts many reservations using {@link #DEFAULT_CHUNK_SIZE} rows per transaction.
+     *
+     * @param rows reservations to insert
+     * @return the number of inserted rows and the rows that were rejected
+     */
+    public BulkInsertResult addReservations(Iterable<ReservationRecord> rows) {
+        return addReservations(rows, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Inserts many reservations with one reused prepared statement. Rows are sent with
+     * {@code addBatch}/{@code executeBatch} and committed in transactions of {@code chunkSize} rows,
+     * so the database syncs once per chunk instead of once per row. Invalid rows and rows whose
+     * room is already booked for those dates are reported in the result and do not stop the
+     * rest of the batch.
+     *
+     * @param rows reservations to insert
+     * @param chunkSize number of rows per transaction (at least 1)
+     * @return the number of inserted rows and the rows that were rejected
+     */
+    public BulkInsertResult addReservations(Iterable<ReservationRecord> rows, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1.");
+        }
+        BulkInsertResult result = new BulkInsertResult();
+        if (!isConnected()) return result; // Do nothing if not connected
+
+        List<ReservationRecord> chunk = new ArrayList<>(chunkSize);
+        List<Integer> rowNumbers = new ArrayList<>(chunkSize);
+        int rowNumber = 0;
+
+        try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+            conn.setAutoCommit(false); // Commit once per chunk
+            for (ReservationRecord row : rows) {
+                rowNumber++;
+                String problem = row.validate(); // Reject invalid rows before they reach SQLite
+                if (problem != null) {
+                    result.addFailure(rowNumber, problem);
+                    continue;
+                }
+                chunk.add(row);
+                rowNumbers.add(rowNumber);
+                if (chunk.size() == chunkSize) {
+                    insertChunk(conn, pstmt, chunk, rowNumbers, result);
+                }
+            }
+            insertChunk(conn, pstmt, chunk, rowNumbers, result); // Flush the last partial chunk
         } catch (SQLException e) {
-            System.out.println("Error adding reservation: " + e.getMessage()); // Print error if fails
+            System.out.println("Error adding reservations: " + e.getMessage()); // Print error if fails
+        }
+        if (result.getInsertedCount() > 0) {
+            queryCache.clear(); // Cheaper than testing every cached result against every row
+            publishReload();
+        }
+        return result;
+    }
+
+    /**
+     * Reads a bulk-import file and inserts its reservations in batches. Each line must be
+     * formatted as {@code name,email,roomNumber,roomType,checkIn,checkOut}. Lines that cannot be
+     * parsed are reported by line number and the rest of the file is still imported.
+     *
+     * @param filename path of the file to import
+     * @return the number of inserted rows and the lines that were rejected
+     * @throws IOException if the file cannot be read
+     */
+    public BulkInsertResult importReservationsFromFile(String filename) throws IOException {
+        BulkInsertResult result = new BulkInsertResult();
+        if (!isConnected()) return result; // Do nothing if not connected
+
+        List<ReservationRecord> chunk = new ArrayList<>(DEFAULT_CHUNK_SIZE);
+        List<Integer> lineNumbers = new ArrayList<>(DEFAULT_CHUNK_SIZE);
+        int lineNumber = 0;
+
+        try (BufferedReader br = new BufferedReader(new FileReader(filename));
+             Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+            conn.setAutoCommit(false); // Commit once per chunk
+            String line;
+            while ((line = br.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue; // Skip empty lines
+                try {
+                    chunk.add(ReservationRecord.fromCsvLine(line));
+                    lineNumbers.add(lineNumber);
+                } catch (IllegalArgumentException e) {
+                    result.addFailure(lineNumber, e.getMessage());
+                    continue;
+                }
+                if (chunk.size() == DEFAULT_CHUNK_SIZE) {
+                    insertChunk(conn, pstmt, chunk, lineNumbers, result);
+                }
+            }
+            insertChunk(conn, pstmt, chunk, lineNumbers, result); // Flush the last partial chunk
+        } catch (SQLException e) {
+            System.out.println("Error importing reservations: " + e.getMessage()); // Print error if fails
+        }
+        if (result.getInsertedCount() > 0) {
+            queryCache.clear(); // Cheaper than testing every cached result against every row
+            publishReload();
         }
+        return result;
+    }
+
+    /**
+     * Sends one chunk as a JDBC batch and commits it. If the batch fails, the chunk is rolled
+     * back and retried row by row so that only the bad rows are rejected. The chunk lists are
+     * cleared afterwards.
+     */
+    private void insertChunk(Connection conn, PreparedStatement pstmt, List<ReservationRecord> chunk,
+                             List<Integer> rowNumbers, BulkInsertResult result) throws SQLException {
+        if (chunk.isEmpty()) return;
+        List<ReservationRecord> accepted = new ArrayList<>(chunk.size());
+        List<Integer> acceptedRows = new ArrayList<>(chunk.size());
+        try {
+            for (int i = 0; i < chunk.size(); i++) {
+                ReservationRecord row = chunk.get(i);
+                // Reject double bookings against stored rows and earlier rows of this chunk
+                if (hasOverlap(conn, row.getRoomNumber(), row.getCheckInDay(), row.getCheckOutDay(), 0)
+                        || overlapsAny(accepted, row)) {
+                    result.addFailure(rowNumbers.get(i), "Room " + row.getRoomNumber() + " is not available for those dates.");
+                    continue;
+                }
+                accepted.add(row);
+                acceptedRows.add(rowNumbers.get(i));
+                bindInsert(pstmt, row);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            conn.commit();
+            for (int i = 0; i < accepted.size(); i++) {
+                result.addInserted();
+            }
+        } catch (SQLException batchError) {
+            // Undo the partial batch and find the rows that caused it
+            conn.rollback();
+            pstmt.clearBatch();
+            for (int i = 0; i < accepted.size(); i++) {
+                ReservationRecord row = accepted.get(i);
+                try {
+                    if (hasOverlap(conn, row.getRoomNumber(), row.getCheckInDay(), row.getCheckOutDay(), 0)) {
+                        result.addFailure(acceptedRows.get(i), "Room " + row.getRoomNumber() + " is not available for those dates.");
+                        continue;
+                    }
+                    bindInsert(pstmt, row);
+                    pstmt.executeUpdate();
+                    result.addInserted();
+                } catch (SQLException rowError) {
+                    result.addFailure(acceptedRows.get(i), rowError.getMessage());
+                }
+            }
+            conn.commit();
+        }
+        chunk.clear();
+        rowNumbers.clear();
+    }
+
+    /**
+     * Binds the fields of a record to the parameters of {@link #INSERT_SQL}.
+     */
+    private void bindInsert(PreparedStatement pstmt, ReservationRecord row) throws SQLException {
+        pstmt.setString(1, row.getGuestName());
+        pstmt.setString(2, row.getGuestEmail());
+        pstmt.setInt(3, row.getRoomNumber());
+        pstmt.setString(4, row.getRoomType());
+        pstmt.setDouble(5, row.getRate());
+        pstmt.setInt(6, row.getNights());
+        pstmt.setString(7, row.getCheckIn());
+        pstmt.setString(8, row.getCheckOut());
+        pstmt.setLong(9, row.getCheckInDay());
+        pstmt.setLong(10, row.getCheckOutDay());
     }
 
     /**
@@ -132,26 +900,409 @@ public class DatabaseManager {
      */
     public ArrayList<String> getAllReservations() {
         ArrayList<String> reservations = new ArrayList<>(); // List to hold results
-        if (!isConnected()) return reservations;            // Return empty list if not connected
+        forEachReservation(r -> reservations.add(r.toString())); // Format each row as it arrives
+        return reservations; // Return list of reservations
+    }
 
-        String sql = "SELECT * FROM reservations;";         // SQL select all statement
+    /**
+     * Passes every reservation to {@code action} one row at a time, so no list of all rows is
+     * ever built.
+     *
+     * @param action callback invoked for each row, in ID order
+     */
+    @Override
+    public void forEachReservation(Consumer<ReservationRecord> action) {
+        if (!isConnected()) return; // Do nothing if not connected
+
+        String sql = "SELECT " + SELECT_COLUMNS + " FROM reservations ORDER BY id;"; // Primary key order, which callers rely on
 
-        try (Connection conn = connect(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = connectForRead(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) { // Loop through each row returned
-                String reservation = "[ID: " + rs.getInt("id") + "] "
-                        + rs.getString("guest_name") + " (" + rs.getString("guest_email") + ")"
-                        + " *** Room #" + rs.getInt("room_number") + " - " + rs.getString("room_type")
-                        + " *** Nights: " + rs.getInt("nights")
-                        + " *** Check-In: " + rs.getString("check_in")
-                        + " *** Check-Out: " + rs.getString("check_out")
-                        + " *** Total: $" + (rs.getDouble("rate") * rs.getInt("nights"));
-                reservations.add(reservation); // Add reservation string to list
+                action.accept(mapRow(rs));
             }
         } catch (SQLException e) {
             System.out.println("Error fetching reservations: " + e.getMessage()); // Print error if fails
         }
+    }
 
-        return reservations; // Return list of reservations
+    /**
+     * Looks up one reservation by its primary key.
+     *
+     * @param id reservation ID
+     * @return the reservation, or {@code null} if there is none, not connected, or the query fails
+     */
+    @Override
+    public ReservationRecord findReservation(long id) {
+        if (!isConnected()) return null; // Nothing to find if not connected
+
+        try (Connection conn = connectForRead()) {
+            return fetchRow(conn, id);
+        } catch (SQLException e) {
+            System.out.println("Error fetching reservation: " + e.getMessage()); // Print error if fails
+            return null;
+        }
+    }
+
+    /**
+     * Reads one reservation by ID on the given connection.
+     *
+     * @return the row, or {@code null} if there is none
+     */
+    private ReservationRecord fetchRow(Connection conn, long id) throws SQLException {
+        String sql = "SELECT " + SELECT_COLUMNS + " FROM reservations WHERE id = ?;";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapRow(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Builds the record of a row written from separate fields, for cache invalidation.
+     */
+    private static ReservationRecord toRecord(long id, String name, String email, int roomNumber, String roomType,
+                                              double rate, int nights, LocalDate checkIn, LocalDate checkOut) {
+        return new ReservationRecord(id, name, email, roomNumber, roomType, rate, nights,
+                checkIn.toString(), checkOut.toString(), checkIn.toEpochDay(), checkOut.toEpochDay());
+    }
+
+    /**
+     * Gets the page of reservations that follows {@code afterId}. Pass 0 for the first page and
+     * {@link ReservationPage#getLastId()} for each next page. The query seeks on the primary key
+     * ({@code WHERE id > ? ORDER BY id LIMIT ?}), so it costs the same on any page. The cursor of
+     * an empty page is {@link ReservationPage#NO_CURSOR}, which gives another empty page rather
+     * than starting over.
+     *
+     * @param afterId cursor; only rows with a larger ID are returned
+     * @param pageSize maximum number of rows on the page, 1 to {@link #MAX_PAGE_SIZE}
+     * @return the page (empty if not connected or the query fails)
+     * @throws IllegalArgumentException if {@code pageSize} is out of range
+     */
+    public ReservationPage getReservationsPageAfter(long afterId, int pageSize) {
+        checkPageSize(pageSize);
+        if (afterId == ReservationPage.NO_CURSOR) return new ReservationPage(new ArrayList<>(), false, false);
+        String sql = "SELECT " + SELECT_COLUMNS + " FROM reservations WHERE id > ? ORDER BY id LIMIT ?;";
+        List<ReservationRecord> rows = fetchPage(sql, afterId, pageSize);
+        boolean hasNext = rows.size() > pageSize; // One extra row was requested to detect more
+        if (hasNext) rows.remove(rows.size() - 1);
+        boolean hasPrevious = !rows.isEmpty() && existsIdBefore(rows.get(0).getId());
+        return new ReservationPage(rows, hasNext, hasPrevious);
+    }
+
+    /**
+     * Gets the page of reservations that comes before {@code beforeId}. Pass
+     * {@link ReservationPage#getFirstId()} to go back one page, or {@link Long#MAX_VALUE}
+     * for the last page. {@link ReservationPage#NO_CURSOR} gives an empty page.
+     *
+     * @param beforeId cursor; only rows with a smaller ID are returned
+     * @param pageSize maximum number of rows on the page, 1 to {@link #MAX_PAGE_SIZE}
+     * @return the page in ascending ID order (empty if not connected or the query fails)
+     * @throws IllegalArgumentException if {@code pageSize} is out of range
+     */
+    public ReservationPage getReservationsPageBefore(long beforeId, int pageSize) {
+        checkPageSize(pageSize);
+        if (beforeId == ReservationPage.NO_CURSOR) return new ReservationPage(new ArrayList<>(), false, false);
+        String sql = "SELECT " + SELECT_COLUMNS + " FROM reservations WHERE id < ? ORDER BY id DESC LIMIT ?;";
+        List<ReservationRecord> rows = fetchPage(sql, beforeId, pageSize);
+        boolean hasPrevious = rows.size() > pageSize; // One extra row was requested to detect more
+        if (hasPrevious) rows.remove(rows.size() - 1);
+        Collections.reverse(rows); // Pages are always shown in ascending order
+        boolean hasNext = !rows.isEmpty() && existsIdAfter(rows.get(rows.size() - 1).getId());
+        return new ReservationPage(rows, hasNext, hasPrevious);
+    }
+
+    /**
+     * Estimates the number of reservations from the smallest and largest ID. Both ends of the
+     * primary key are read directly from the index, so this is constant time, unlike
+     * {@code COUNT(*)}. Deleted rows leave gaps, so the value is an upper bound.
+     *
+     * @return estimated row count, or 0 if the table is empty or not connected
+     */
+    public long estimateReservationCount() {
+        if (!isConnected()) return 0; // Nothing to count if not connected
+
+        String sql = "SELECT MAX(id) - MIN(id) + 1 FROM reservations;";
+
+        try (Connection conn = connectForRead(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0; // NULL (empty table) reads as 0
+        } catch (SQLException e) {
+            System.out.println("Error counting reservations: " + e.getMessage()); // Print error if fails
+            return 0;
+        }
+    }
+
+    /**
+     * Runs a page query with a cursor and a limit of one more than the page size.
+     */
+    private List<ReservationRecord> fetchPage(String sql, long cursor, int pageSize) {
+        List<ReservationRecord> rows = new ArrayList<>(pageSize + 1);
+        if (!isConnected()) return rows; // Return empty page if not connected
+
+        try (Connection conn = connectForRead(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, cursor);
+            pstmt.setInt(2, pageSize + 1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error fetching reservations: " + e.getMessage()); // Print error if fails
+        }
+        return rows;
+    }
+
+    /**
+     * Rejects page sizes below 1 or above {@link #MAX_PAGE_SIZE}, so one more than the page
+     * size never overflows.
+     */
+    private static void checkPageSize(int pageSize) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+    }
+
+    /**
+     * Checks whether any row has an ID smaller than the given one.
+     */
+    private boolean existsIdBefore(long id) {
+        return existsId("SELECT EXISTS (SELECT 1 FROM reservations WHERE id < ?);", id);
+    }
+
+    /**
+     * Checks whether any row has an ID larger than the given one.
+     */
+    private boolean existsIdAfter(long id) {
+        return existsId("SELECT EXISTS (SELECT 1 FROM reservations WHERE id > ?);", id);
+    }
+
+    /**
+     * Runs a single-value EXISTS query with one ID parameter.
+     */
+    private boolean existsId(String sql, long id) {
+        try (Connection conn = connectForRead(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        } catch (SQLException e) {
+            System.out.println("Error fetching reservations: " + e.getMessage()); // Print error if fails
+            return false;
+        }
+    }
+
+    /**
+     * Passes every reservation whose stay overlaps {@code [from, to)} to {@code action}, in
+     * check-in order. Uses the epoch-day index instead of comparing date strings.
+     *
+     * @param from first day of the range
+     * @param to day after the last day of the range
+     * @param action callback invoked for each matching row
+     */
+    public void findReservationsOverlapping(LocalDate from, LocalDate to, Consumer<ReservationRecord> action) {
+        String sql = "SELECT " + SELECT_COLUMNS + " FROM reservations"
+                + " WHERE check_in_day < ? AND check_out_day > ? ORDER BY check_in_day, id;";
+        queryDayRange(sql, to.toEpochDay(), from.toEpochDay(), action);
+    }
+
+    /**
+     * Passes every reservation that checks in on a day in {@code [from, to)} to
+     * {@code action}, in check-in order.
+     *
+     * @param from first arrival day
+     * @param to day after the last arrival day
+     * @param action callback invoked for each matching row
+     */
+    public void findArrivalsBetween(LocalDate from, LocalDate to, Consumer<ReservationRecord> action) {
+        String sql = "SELECT " + SELECT_COLUMNS + " FROM reservations"
+                + " WHERE check_in_day >= ? AND check_in_day < ? ORDER BY check_in_day, id;";
+        queryDayRange(sql, from.toEpochDay(), to.toEpochDay(), action);
+    }
+
+    /**
+     * Totals revenue, room-nights, average daily rate and occupancy for the nights in
+     * {@code [from, to)}. Only nights inside the range are counted, so a stay that starts before
+     * {@code from} or ends after {@code to} contributes just its nights within the range.
+     * The sums are computed in SQL from {@code idx_reservations_report}; no reservation rows are
+     * loaded.
+     *
+     * <p>Occupancy is measured against all {@link #ROOM_COUNT} rooms (room types are chosen per
+     * booking, so every room counts towards every type), or against the single room when grouping
+     * by room number. Groups with no nights sold are left out.</p>
+     *
+     * @param grouping how to group the totals
+     * @param from first night of the range
+     * @param to day after the last night of the range
+     * @return one row per group, in key order; empty if not connected or the query fails
+     */
+    public List<RevenueReportRow> getRevenueReport(ReportGrouping grouping, LocalDate from, LocalDate to) {
+        List<RevenueReportRow> report = new ArrayList<>();
+        if (!isConnected() || !to.isAfter(from)) return report; // Nothing to report
+
+        String sql;
+        if (grouping.isTimeBased()) {
+            // Expand each overlapping stay into its nights inside the range, then group the nights
+            sql = """
+                WITH RECURSIVE stay_nights (day, last_day, rate) AS (
+                    SELECT MAX(check_in_day, ?1), MIN(check_out_day, ?2) - 1, rate
+                    FROM reservations
+                    WHERE check_in_day < ?2 AND check_out_day > ?1
+                    UNION ALL
+                    SELECT day + 1, last_day, rate FROM stay_nights WHERE day < last_day
+                )
+                SELECT %s AS period, SUM(rate), COUNT(*)
+                FROM stay_nights
+                GROUP BY period ORDER BY period;
+            """.formatted(grouping.getKeyExpression());
+        } else {
+            // Nights of each stay inside the range, without expanding them
+            sql = """
+                SELECT %1$s, SUM(rate * (MIN(check_out_day, ?2) - MAX(check_in_day, ?1))),
+                       SUM(MIN(check_out_day, ?2) - MAX(check_in_day, ?1))
+                FROM reservations
+                WHERE check_in_day < ?2 AND check_out_day > ?1
+                GROUP BY %1$s ORDER BY %1$s;
+            """.formatted(grouping.getKeyExpression());
+        }
+
+        long days = to.toEpochDay() - from.toEpochDay();
+        try (Connection conn = connectForRead(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, from.toEpochDay());
+            pstmt.setLong(2, to.toEpochDay());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    double revenue = rs.getDouble(2);
+                    long roomNights = rs.getLong(3);
+                    switch (grouping) {
+                        case ROOM_TYPE -> report.add(new RevenueReportRow(rs.getString(1), revenue, roomNights, ROOM_COUNT * days));
+                        case ROOM_NUMBER -> report.add(new RevenueReportRow("Room " + rs.getInt(1), revenue, roomNights, days));
+                        default -> {
+                            // Clip the period to the requested range before counting available nights
+                            LocalDate start = LocalDate.ofEpochDay(rs.getLong(1));
+                            LocalDate end = grouping.periodEnd(start);
+                            long periodDays = Math.min(end.toEpochDay(), to.toEpochDay())
+                                    - Math.max(start.toEpochDay(), from.toEpochDay());
+                            report.add(new RevenueReportRow(grouping.periodLabel(start), revenue, roomNights, ROOM_COUNT * periodDays));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error building report: " + e.getMessage()); // Print error if fails
+        }
+        return report;
+    }
+
+    /**
+     * Runs a query with two epoch-day parameters and streams the rows to {@code action}.
+     */
+    private void queryDayRange(String sql, long first, long second, Consumer<ReservationRecord> action) {
+        if (!isConnected()) return; // Do nothing if not connected
+
+        try (Connection conn = connectForRead(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, first);
+            pstmt.setLong(2, second);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(mapRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error fetching reservations: " + e.getMessage()); // Print error if fails
+        }
+    }
+
+    /**
+     * Opens a lazy stream over all reservations. Rows are read from the database as the stream
+     * is consumed. The stream holds a pooled connection until it is closed, so always use it in
+     * a try-with-resources block.
+     *
+     * @return a stream of reservations in ID order (empty if not connected or the query fails)
+     */
+    public Stream<ReservationRecord> streamReservations() {
+        if (!isConnected()) return Stream.empty(); // Nothing to stream if not connected
+
+        String sql = "SELECT " + SELECT_COLUMNS + " FROM reservations;";
+        Connection conn = null;
+        Statement stmt = null;
+        try {
+            conn = connectForRead();
+            stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery(sql);
+            return streamRows(rs, stmt, conn);
+        } catch (SQLException e) {
+            System.out.println("Error fetching reservations: " + e.getMessage()); // Print error if fails
+            closeQuietly(stmt, conn);
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Wraps an open result set in a stream that closes the result set, statement and connection
+     * when the stream is closed.
+     */
+    private Stream<ReservationRecord> streamRows(ResultSet rs, Statement stmt, Connection conn) {
+        Spliterator<ReservationRecord> rows = new Spliterators.AbstractSpliterator<>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super ReservationRecord> action) {
+                try {
+                    if (!rs.next()) return false;
+                    action.accept(mapRow(rs));
+                    return true;
+                } catch (SQLException e) {
+                    System.out.println("Error reading reservations: " + e.getMessage()); // Stop on error
+                    return false;
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            try {
+                rs.close();
+            } catch (SQLException e) {
+                System.out.println("Error closing results: " + e.getMessage());
+            }
+            closeQuietly(stmt, conn);
+        });
+    }
+
+    /**
+     * Closes a statement and connection, ignoring {@code null}s and reporting errors.
+     */
+    private void closeQuietly(Statement stmt, Connection conn) {
+        try {
+            if (stmt != null) stmt.close();
+            if (conn != null) conn.close();
+        } catch (SQLException e) {
+            System.out.println("Error closing connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Maps the current row to a record, reading columns by index in {@link #SELECT_COLUMNS} order.
+     */
+    private static ReservationRecord mapRow(ResultSet rs) throws SQLException {
+        return new ReservationRecord(
+                rs.getLong(1),      // id
+                rs.getString(2),    // guest_name
+                rs.getString(3),    // guest_email
+                rs.getInt(4),       // room_number
+                rs.getString(5),    // room_type
+                rs.getDouble(6),    // rate
+                rs.getInt(7),       // nights
+                rs.getString(8),    // check_in
+                rs.getString(9),    // check_out
+                readDay(rs, 10),    // check_in_day
+                readDay(rs, 11));   // check_out_day
+    }
+
+    /**
+     * Reads an epoch-day column, mapping SQL {@code NULL} to {@link ReservationRecord#NO_DAY}.
+     */
+    private static long readDay(ResultSet rs, int column) throws SQLException {
+        long day = rs.getLong(column);
+        return rs.wasNull() ? ReservationRecord.NO_DAY : day;
     }
 
     /**
@@ -160,21 +1311,63 @@ public class DatabaseManager {
      * @param id Reservation ID to delete
      * @return {@code true} if deletion was successful, {@code false} otherwise
      */
-    public boolean deleteReservation(int id) {
+    @Override
+    public boolean deleteReservation(long id) {
         if (!isConnected()) return false; // Return false if not connected
 
-        String sql = "DELETE FROM reservations WHERE id = ?;"; // SQL delete statement
-
-        try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, id); // Set ID to delete
-            int affected = pstmt.executeUpdate(); // Execute delete
-            return affected > 0; // Return true if row was deleted
+        try (Connection conn = connect()) {
+            ReservationRecord old = removeReservation(conn, id); // Autocommitted
+            if (old != null) {
+                changed(ReservationEvent.Type.DELETED, old, null);
+            }
+            return old != null;
         } catch (SQLException e) {
             System.out.println("Error deleting reservation: " + e.getMessage()); // Print error if fails
             return false; // Return false on failure
         }
     }
 
+    /**
+     * Queues a delete on the background writer and returns immediately.
+     *
+     * @param id Reservation ID to delete
+     * @return a future completed after the commit with {@code true} if the row was deleted,
+     *         {@code false} otherwise
+     */
+    public CompletableFuture<Boolean> deleteReservationAsync(long id) {
+        if (!isConnected()) return CompletableFuture.completedFuture(false); // Return false if not connected
+
+        return writeQueue()
+                .submit(conn -> removeReservation(conn, id))
+                .thenApply(old -> {
+                    if (old != null) { // Committed by now
+                        changed(ReservationEvent.Type.DELETED, old, null);
+                    }
+                    return old != null;
+                })
+                .exceptionally(e -> {
+                    System.out.println("Error deleting reservation: " + e.getMessage()); // Print error if fails
+                    return false;
+                });
+    }
+
+    /**
+     * Deletes one reservation on the given connection. The caller commits if autocommit is off.
+     *
+     * @return the deleted row, so cached results holding it can be dropped, or {@code null} if
+     *         there was none
+     */
+    private ReservationRecord removeReservation(Connection conn, long id) throws SQLException {
+        ReservationRecord old = fetchRow(conn, id);
+        if (old == null) return null; // Nothing to delete
+        String sql = "DELETE FROM reservations WHERE id = ?;"; // SQL delete statement
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, id); // Set ID to delete
+            int affected = pstmt.executeUpdate(); // Execute delete
+            return affected > 0 ? old : null; // Return the row if it was deleted
+        }
+    }
+
     /**
      * Updates an existing reservation in the database by ID.
      *
@@ -185,68 +1378,293 @@ public class DatabaseManager {
      * @param roomType Updated room type
      * @param rate Updated rate
      * @param nights Updated number of nights
+     * @param checkIn Updated check-in date (yyyy-MM-dd)
+     * @param checkOut Updated check-out date (yyyy-MM-dd)
+     * @return {@code true} if update was successful, {@code false} if the ID does not exist,
+     *         the room is already booked by another reservation for those dates, or the update failed
+     * @throws java.time.format.DateTimeParseException if a date is not in yyyy-MM-dd format
+     */
+    public boolean updateReservation(long id, String name, String email, int roomNumber, String roomType, double rate, int nights, String checkIn, String checkOut) {
+        return updateReservation(id, name, email, roomNumber, roomType, rate, nights, LocalDate.parse(checkIn), LocalDate.parse(checkOut));
+    }
+
+    /**
+     * Updates an existing reservation in the database by ID using already parsed dates.
+     *
+     * @param id Reservation ID to update
+     * @param name Updated guest name
+     * @param email Updated guest email
+     * @param roomNumber Updated room number
+     * @param roomType Updated room type
+     * @param rate Updated rate
+     * @param nights Updated number of nights
      * @param checkIn Updated check-in date
      * @param checkOut Updated check-out date
-     * @return {@code true} if update was successful, {@code false} otherwise
+     * @return {@code true} if update was successful, {@code false} if the ID does not exist,
+     *         the room is already booked by another reservation for those dates, or the update failed
      */
-    public boolean updateReservation(int id, String name, String email, int roomNumber, String roomType, double rate, int nights, String checkIn, String checkOut) {
+    public boolean updateReservation(long id, String name, String email, int roomNumber, String roomType, double rate, int nights, LocalDate checkIn, LocalDate checkOut) {
         if (!isConnected()) return false; // Return false if not connected
 
+        try (Connection conn = connect()) {
+            conn.setAutoCommit(false); // Check and update in one transaction
+            ReservationRecord old = applyUpdate(conn, id, name, email, roomNumber, roomType, rate, nights, checkIn, checkOut);
+            if (old != null) {
+                conn.commit(); // Otherwise the pool rolls back on return
+                changed(ReservationEvent.Type.UPDATED, old, toRecord(id, name, email, roomNumber, roomType, rate, nights, checkIn, checkOut));
+            }
+            return old != null;
+        } catch (SQLException e) {
+            System.out.println("Error updating reservation: " + e.getMessage()); // Print error
+            return false; // Return false on error
+        }
+    }
+
+    /**
+     * Updates an existing reservation from a record, after checking it with
+     * {@link ReservationRecord#validate()}.
+     *
+     * @param id Reservation ID to update
+     * @param record the new values; its ID is ignored
+     * @return {@code true} if update was successful, {@code false} if the record is invalid, the
+     *         ID does not exist, the room is taken or the update failed
+     */
+    @Override
+    public boolean updateReservation(long id, ReservationRecord record) {
+        String problem = record.validate();
+        if (problem != null) {
+            System.out.println("Error updating reservation: " + problem);
+            return false;
+        }
+        return updateReservation(id, record.getGuestName(), record.getGuestEmail(), record.getRoomNumber(),
+                record.getRoomType(), record.getRate(), record.getNights(),
+                LocalDate.ofEpochDay(record.getCheckInDay()), LocalDate.ofEpochDay(record.getCheckOutDay()));
+    }
+
+    /**
+     * Queues an update on the background writer and returns immediately.
+     *
+     * @param id Reservation ID to update
+     * @param name Updated guest name
+     * @param email Updated guest email
+     * @param roomNumber Updated room number
+     * @param roomType Updated room type
+     * @param rate Updated rate
+     * @param nights Updated number of nights
+     * @param checkIn Updated check-in date
+     * @param checkOut Updated check-out date
+     * @return a future completed after the commit with {@code true} if the update was stored,
+     *         or {@code false} if the ID does not exist, the room is taken or the update failed
+     */
+    public CompletableFuture<Boolean> updateReservationAsync(long id, String name, String email, int roomNumber, String roomType, double rate, int nights, LocalDate checkIn, LocalDate checkOut) {
+        if (!isConnected()) return CompletableFuture.completedFuture(false); // Return false if not connected
+
+        return writeQueue()
+                .submit(conn -> applyUpdate(conn, id, name, email, roomNumber, roomType, rate, nights, checkIn, checkOut))
+                .thenApply(old -> {
+                    if (old != null) { // Committed by now
+                        changed(ReservationEvent.Type.UPDATED, old, toRecord(id, name, email, roomNumber, roomType, rate, nights, checkIn, checkOut));
+                    }
+                    return old != null;
+                })
+                .exceptionally(e -> {
+                    System.out.println("Error updating reservation: " + e.getMessage()); // Print error
+                    return false;
+                });
+    }
+
+    /**
+     * Handles a committed change of one row: drops the cached results holding the row as it was
+     * or as it is now, and publishes the change.
+     *
+     * @param type kind of change
+     * @param before row before the change, or {@code null} for an add
+     * @param after row after the change, or {@code null} for a delete
+     */
+    private void changed(ReservationEvent.Type type, ReservationRecord before, ReservationRecord after) {
+        if (before != null) queryCache.invalidate(before);
+        if (after != null) queryCache.invalidate(after);
+        ReservationEventFeed feed = events;
+        if (feed != null) {
+            feed.publish(type, (after != null ? after : before).getId(), before, after);
+        }
+    }
+
+    /**
+     * Tells subscribers to re-read everything after a bulk change.
+     */
+    private void publishReload() {
+        ReservationEventFeed feed = events;
+        if (feed != null) {
+            feed.publish(ReservationEvent.Type.RELOADED, 0, null, null);
+        }
+    }
+
+    /**
+     * Gets the feed that publishes every change committed from now on. The first call creates
+     * it; until then no events are built. Single-row writes publish ADDED, UPDATED and DELETED
+     * events; bulk imports and switching to another database file publish RELOADED.
+     *
+     * @return the event feed of this manager
+     */
+    public ReservationEventFeed getEventFeed() {
+        ReservationEventFeed feed = events;
+        if (feed == null) {
+            synchronized (this) {
+                if (events == null) {
+                    events = new ReservationEventFeed();
+                }
+                feed = events;
+            }
+        }
+        return feed;
+    }
+
+    /**
+     * Checks availability and updates one reservation on a connection that is already in a
+     * transaction. The caller commits.
+     *
+     * @return the row as it was before the update, or {@code null} if it does not exist or the
+     *         room is booked by another reservation
+     */
+    private ReservationRecord applyUpdate(Connection conn, long id, String name, String email, int roomNumber, String roomType, double rate, int nights, LocalDate checkIn, LocalDate checkOut) throws SQLException {
         // SQL update statement with placeholders
         String sql = """
             UPDATE reservations
-            SET guest_name = ?, guest_email = ?, room_number = ?, room_type = ?, rate = ?, nights = ?, check_in = ?, check_out = ?
+            SET guest_name = ?, guest_email = ?, room_number = ?, room_type = ?, rate = ?, nights = ?, check_in = ?, check_out = ?,
+                check_in_day = ?, check_out_day = ?
             WHERE id = ?;
         """;
 
-        try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        if (hasOverlap(conn, roomNumber, checkIn.toEpochDay(), checkOut.toEpochDay(), id)) {
+            return null; // Conflicts with another reservation
+        }
+        ReservationRecord old = fetchRow(conn, id);
+        if (old == null) return null; // Nothing to update
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, name);         // Set guest name
             pstmt.setString(2, email);        // Set email
             pstmt.setInt(3, roomNumber);      // Set room number
             pstmt.setString(4, roomType);     // Set room type
             pstmt.setDouble(5, rate);         // Set rate
             pstmt.setInt(6, nights);          // Set nights
-            pstmt.setString(7, checkIn);      // Set check-in
-            pstmt.setString(8, checkOut);     // Set check-out
-            pstmt.setInt(9, id);              // Set ID to update
+            pstmt.setString(7, checkIn.toString());   // Set check-in
+            pstmt.setString(8, checkOut.toString());  // Set check-out
+            pstmt.setLong(9, checkIn.toEpochDay());   // Set check-in day
+            pstmt.setLong(10, checkOut.toEpochDay()); // Set check-out day
+            pstmt.setLong(11, id);            // Set ID to update
             int affected = pstmt.executeUpdate(); // Run the update
-            return affected > 0; // Return true if successful
-        } catch (SQLException e) {
-            System.out.println("Error updating reservation: " + e.getMessage()); // Print error
-            return false; // Return false on error
+            return affected > 0 ? old : null; // Return the old row if successful
         }
     }
 
     /**
-     * Searches reservations by guest name using SQL LIKE operator.
+     * Searches reservations by guest name. Keywords of three or more characters use the trigram
+     * index and come back best match first; shorter keywords use SQL LIKE.
      *
      * @param keyword Partial or full name to search
      * @return A list of matching reservation strings
      */
     public ArrayList<String> searchReservationsByName(String keyword) {
         ArrayList<String> matches = new ArrayList<>(); // List for matched results
-        if (!isConnected()) return matches;           // Return empty list if not connected
+        searchReservationsByName(keyword, r -> matches.add(r.toString())); // Format each match
+        // Return matches
+        return matches;
+    }
 
-        String sql = "SELECT * FROM reservations WHERE guest_name LIKE ?;"; // SQL with wildcard search
+    /**
+     * Searches reservations by guest name and passes each match to {@code action} as it is read.
+     *
+     * @param keyword Partial or full name to search
+     * @param action callback invoked for each matching row, best match first
+     */
+    @Override
+    public void searchReservationsByName(String keyword, Consumer<ReservationRecord> action) {
+        search("name", keyword, false, "guest_name", "guest_name LIKE ?", action);
+    }
 
-        try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, "%" + keyword + "%"); // Set keyword with wildcard
-            ResultSet rs = pstmt.executeQuery(); // Execute query
+    /**
+     * Searches reservations whose guest name or email contains the keyword.
+     *
+     * @param keyword Partial name or email to search
+     * @return A list of matching reservation strings, best match first
+     */
+    public ArrayList<String> searchReservations(String keyword) {
+        ArrayList<String> matches = new ArrayList<>();
+        searchReservations(keyword, r -> matches.add(r.toString()));
+        return matches;
+    }
 
-            while (rs.next()) { // Loop through results
-                String reservation = "[ID: " + rs.getInt("id") + "] "
-                        + rs.getString("guest_name") + " (" + rs.getString("guest_email") + ")"
-                        + " *** Room #" + rs.getInt("room_number") + " - " + rs.getString("room_type")
-                        + " *** Nights: " + rs.getInt("nights")
-                        + " *** Check-In: " + rs.getString("check_in")
-                        + " *** Check-Out: " + rs.getString("check_out")
-                        + " *** Total: $" + (rs.getDouble("rate") * rs.getInt("nights"));
-                matches.add(reservation); // Add match to list
+    /**
+     * Searches reservations whose guest name or email contains the keyword and passes each
+     * match to {@code action} as it is read.
+     *
+     * @param keyword Partial name or email to search
+     * @param action callback invoked for each matching row, best match first
+     */
+    public void searchReservations(String keyword, Consumer<ReservationRecord> action) {
+        search("any", keyword, true, "{guest_name guest_email}", "(guest_name LIKE ? OR guest_email LIKE ?)", action);
+    }
+
+    /**
+     * Runs a substring search through the trigram index when possible, otherwise with LIKE.
+     * Results are served from the query cache when the same search ran recently and no write
+     * has touched a matching row since.
+     *
+     * @param kind name of this search in cache keys
+     * @param keyword text to look for
+     * @param matchEmail whether the email is searched as well as the name
+     * @param ftsColumns FTS5 column filter to match against
+     * @param likeFilter equivalent WHERE clause for the LIKE fallback, one {@code ?} per column
+     * @param action callback invoked for each matching row
+     */
+    private void search(String kind, String keyword, boolean matchEmail, String ftsColumns, String likeFilter,
+                        Consumer<ReservationRecord> action) {
+        if (!isConnected() || keyword == null) return; // Do nothing if not connected
+
+        QueryResultCache cache = queryCache;
+        String key = QueryResultCache.searchKey(kind, keyword);
+        List<ReservationRecord> cached = cache.get(key);
+        if (cached != null) {
+            cached.forEach(action); // Same rows in the same order as the query gave
+            return;
+        }
+        long version = cache.version();
+        List<ReservationRecord> rows = new ArrayList<>();
+
+        String sql;
+        String pattern;
+        if (searchIndexAvailable && keyword.length() >= MIN_INDEXED_KEYWORD) {
+            // Quote the keyword so FTS5 treats it as a plain substring
+            sql = "SELECT " + SELECT_COLUMNS_R + " FROM reservations_fts f JOIN reservations r ON r.id = f.rowid"
+                    + " WHERE reservations_fts MATCH ? ORDER BY f.rank;";
+            pattern = ftsColumns + " : \"" + keyword.replace("\"", "\"\"") + "\"";
+        } else {
+            sql = "SELECT " + SELECT_COLUMNS + " FROM reservations WHERE " + likeFilter + ";"; // SQL with wildcard search
+            pattern = "%" + keyword + "%";
+        }
+
+        try (Connection conn = connectForRead(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int params = pstmt.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= params; i++) {
+                pstmt.setString(i, pattern); // Same keyword for every searched column
+            }
+            try (ResultSet rs = pstmt.executeQuery()) { // Execute query
+                while (rs.next()) { // Loop through results
+                    ReservationRecord row = mapRow(rs);
+                    if (rows != null) {
+                        rows.add(row);
+                        if (rows.size() > QueryResultCache.DEFAULT_MAX_ROWS) rows = null; // Too large to keep
+                    }
+                    action.accept(row);
+                }
             }
         } catch (SQLException e) {
             System.out.println("Error searching reservations: " + e.getMessage()); // Print error
+            return;
+        }
+        if (rows != null) {
+            cache.put(key, rows, QueryResultCache.containing(keyword, matchEmail), version);
         }
-        // Return matches
-        return matches;
     }
 }
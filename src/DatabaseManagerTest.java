@@ -0,0 +1,132 @@
+/**
+ * DatabaseManagerTest.java
+ *
+ * <p>This class contains unit tests for the {@link DatabaseManager} class, each on a new SQLite
+ * file in a temporary folder.</p>
+ *
+ * @author Andres Vera
+ */
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+class DatabaseManagerTest {
+
+    @TempDir
+    Path directory;
+
+    /** Database under test */
+    private DatabaseManager database;
+
+    /**
+     * Opens an empty database.
+     */
+    @BeforeEach
+    void setUp() {
+        database = new DatabaseManager();
+        database.setDatabasePath(directory.resolve("hotel.db").toString());
+    }
+
+    /**
+     * Tests the first, middle and last pages going forward, and that the cursor of the empty
+     * page after the last one does not start over.
+     */
+    @Test
+    void pageAfter_walksForwardAndStops() {
+        addReservations(7);
+
+        ReservationPage first = database.getReservationsPageAfter(0, 3);
+        assertEquals(List.of(1L, 2L, 3L), ids(first));
+        assertTrue(first.hasNext());
+        assertFalse(first.hasPrevious());
+
+        ReservationPage middle = database.getReservationsPageAfter(first.getLastId(), 3);
+        assertEquals(List.of(4L, 5L, 6L), ids(middle));
+        assertTrue(middle.hasNext());
+        assertTrue(middle.hasPrevious());
+
+        ReservationPage last = database.getReservationsPageAfter(middle.getLastId(), 3);
+        assertEquals(List.of(7L), ids(last));
+        assertFalse(last.hasNext());
+        assertTrue(last.hasPrevious());
+
+        ReservationPage empty = database.getReservationsPageAfter(last.getLastId(), 3);
+        assertTrue(empty.getRows().isEmpty());
+        assertEquals(ReservationPage.NO_CURSOR, empty.getLastId());
+        assertTrue(database.getReservationsPageAfter(empty.getLastId(), 3).getRows().isEmpty());
+        database.close();
+    }
+
+    /**
+     * Tests the last, middle and first pages going backward, and the empty page before the
+     * first one.
+     */
+    @Test
+    void pageBefore_walksBackwardAndStops() {
+        addReservations(7);
+
+        ReservationPage last = database.getReservationsPageBefore(Long.MAX_VALUE, 3);
+        assertEquals(List.of(5L, 6L, 7L), ids(last));
+        assertFalse(last.hasNext());
+        assertTrue(last.hasPrevious());
+
+        ReservationPage middle = database.getReservationsPageBefore(last.getFirstId(), 3);
+        assertEquals(List.of(2L, 3L, 4L), ids(middle));
+        assertTrue(middle.hasNext());
+        assertTrue(middle.hasPrevious());
+
+        ReservationPage first = database.getReservationsPageBefore(middle.getFirstId(), 3);
+        assertEquals(List.of(1L), ids(first));
+        assertTrue(first.hasNext());
+        assertFalse(first.hasPrevious());
+
+        ReservationPage empty = database.getReservationsPageBefore(first.getFirstId(), 3);
+        assertTrue(empty.getRows().isEmpty());
+        assertEquals(ReservationPage.NO_CURSOR, empty.getFirstId());
+        assertTrue(database.getReservationsPageBefore(empty.getFirstId(), 3).getRows().isEmpty());
+        database.close();
+    }
+
+    /**
+     * Tests an empty table in both directions, and that page sizes out of range are rejected
+     * instead of overflowing the query limit.
+     */
+    @Test
+    void pages_emptyTableAndBadSizes() {
+        ReservationPage after = database.getReservationsPageAfter(0, 3);
+        ReservationPage before = database.getReservationsPageBefore(Long.MAX_VALUE, 3);
+        assertTrue(after.getRows().isEmpty());
+        assertFalse(after.hasNext() || after.hasPrevious());
+        assertTrue(before.getRows().isEmpty());
+        assertFalse(before.hasNext() || before.hasPrevious());
+
+        assertThrows(IllegalArgumentException.class, () -> database.getReservationsPageAfter(0, Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> database.getReservationsPageBefore(Long.MAX_VALUE, 0));
+        database.close();
+    }
+
+    /**
+     * Adds {@code count} one-night reservations, one room each, with IDs 1 to {@code count}.
+     */
+    private void addReservations(int count) {
+        List<ReservationRecord> rows = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            rows.add(new ReservationRecord(0, "Guest " + (char) ('A' + i), "guest" + i + "@example.com", i, "City View", 90.0, 1,
+                    "2025-03-01", "2025-03-02"));
+        }
+        assertEquals(count, database.addReservations(rows).getInsertedCount());
+    }
+
+    /**
+     * Gets the IDs on a page.
+     */
+    private static List<Long> ids(ReservationPage page) {
+        return page.getRows().stream().map(ReservationRecord::getId).toList();
+    }
+}
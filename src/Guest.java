@@ -53,7 +53,9 @@ public class Guest {
     }
 
     /**
-     * Sets the name of the guest.
+     * Sets the name of the guest. Guests from a {@link GuestRegistry} are shared by many
+     * reservations, and a change made here is not journaled; update the reservation with the new
+     * name instead.
      *
      * @param name the new name of the guest
      */
@@ -70,6 +72,16 @@ public class Guest {
         this.email = email;
     }
 
+    /**
+     * Appends the same text as {@link #toString()} to a builder.
+     *
+     * @param sb the builder to append to
+     * @return the same builder
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        return sb.append("Guest Name: ").append(name).append(", email= ").append(email);
+    }
+
     /**
      * Returns a string representation of the guest.
      *
@@ -77,7 +89,7 @@ public class Guest {
      */
     @Override
     public String toString() {
-        return "Guest Name: " + name + ", email= " + email;
+        return appendTo(new StringBuilder(64)).toString();
     }
 
 
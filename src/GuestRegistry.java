@@ -0,0 +1,89 @@
+/**
+ * GuestRegistry.java
+ *
+ * <p>This class keeps one shared {@link Guest} object per guest, so repeat guests do not get a
+ * new object (and new name and email strings) for every reservation. Guests are identified by
+ * their email, trimmed and lower-cased, so {@code Ana@Example.com} and {@code ana@example.com} are
+ * the same guest. A guest is only shared while its name and email match exactly; when a
+ * reservation gives a new name (or a differently written email), the registry creates a new
+ * Guest and shares that one from then on. Reservations made earlier keep the object they had, so
+ * changing one reservation's guest never renames the others.</p>
+ *
+ * <p>The registry is safe to use from several threads, which the parallel file loader relies on.</p>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * Guest guest = registry.get("Ana Lopez", "ana@example.com"); // Same object on every call
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class GuestRegistry {
+    /** Shared guest objects by normalized email */
+    private final ConcurrentHashMap<String, Guest> guests = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the shared guest with this email and name, creating it if the email is new or its
+     * shared guest has another name.
+     *
+     * @param name the guest's name
+     * @param email the guest's email
+     * @return a Guest with exactly this name and email
+     */
+    public Guest get(String name, String email) {
+        String key = normalize(email);
+        Guest guest = guests.get(key);
+        if (guest != null && matches(guest, name, email)) {
+            return guest; // Repeat guests are found without locking
+        }
+        return guests.compute(key, (k, shared) -> shared != null && matches(shared, name, email)
+                ? shared : new Guest(name, email));
+    }
+
+    /**
+     * Forgets every guest. Guests already handed out are not changed.
+     */
+    public void clear() {
+        guests.clear();
+    }
+
+    /**
+     * Shares the guests of another registry from now on, e.g. one a file was loaded with.
+     *
+     * @param other the registry to copy from
+     */
+    public void putAll(GuestRegistry other) {
+        guests.putAll(other.guests);
+    }
+
+    /**
+     * Gets the number of distinct guests.
+     *
+     * @return guest count
+     */
+    public int size() {
+        return guests.size();
+    }
+
+    /**
+     * Checks whether a shared guest still has exactly this name and email.
+     */
+    private static boolean matches(Guest guest, String name, String email) {
+        return Objects.equals(guest.getName(), name) && Objects.equals(guest.getEmail(), email);
+    }
+
+    /**
+     * Turns an email into the registry key.
+     *
+     * @param email the email as entered
+     * @return the email trimmed and lower-cased
+     */
+    static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -14,16 +14,27 @@
  *     <li>Input validation for guest details and room information</li>
  *     <li>Dynamic calculation of rates based on room type</li>
  *     <li>Integration with file loading functionality</li>
+ *     <li>Lenient file import that skips and reports bad lines</li>
  *     <li>Search feature to locate reservations by guest name</li>
+ *     <li>Rejection of reservations that overlap another stay in the same room</li>
+ *     <li>Bulk import of reservations into a SQLite database</li>
+ *     <li>Running on a SQLite database with {@code --db <path>}, through a {@link CachingReservationStore}</li>
+ *     <li>Saving the in-memory reservations to a binary snapshot, which the file load option reads back</li>
+ *     <li>Keeping the in-memory reservations across restarts with {@code --data <dir>}, optionally
+ *     with {@code --sync per-operation|batched|interval} (see {@link JournalSyncPolicy})</li>
+ *     <li>Buffered listing, shown {@code N} reservations at a time with {@code --page N}</li>
  * </ul>
  *
- * <p><b>Input:</b> Console inputs from the user such as guest name, email, room number/type, and nights</p>
+ * <p><b>Input:</b> Console inputs from the user such as guest name, email, room number/type, nights, and check-in date</p>
  * <p><b>Output:</b> Printed confirmations, reservation summaries, and error messages in the console</p>
  *
  * @author Andres Vera
  */
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.Scanner;
 
 public class HotelApp {
@@ -34,13 +45,43 @@ public class HotelApp {
      * adding, listing, updating, removing, loading from file, and searching.
      * </p>
      *
-     * @param args Command-line arguments (not used)
+     * @param args {@code --db <path>} to keep reservations in a SQLite database instead of in memory,
+     *             or {@code --data <dir> [--sync <policy>]} to journal the in-memory reservations to a directory;
+     *             {@code --page N} anywhere lists reservations {@code N} at a time
      */
     public static void main(String[] args) {
         //to scan user inputs
         Scanner scanner = new Scanner(System.in);
+        //to list reservations a page at a time, 0 for all at once
+        int pageSize = readPageSize(args);
+        if (pageSize < 0) return;
         //to create the manager that handle reservations
         ReservationManager manager = new ReservationManager();
+        if (args.length > 1 && args[0].equals("--data")) {
+            try {
+                JournalSyncPolicy policy = args.length > 3 && args[2].equals("--sync")
+                        ? JournalSyncPolicy.fromName(args[3]) : JournalSyncPolicy.INTERVAL;
+                manager = ReservationManager.open(args[1], policy);
+                ReservationJournal journal = manager.getJournal();
+                System.out.println("Using data directory: " + args[1] + " (" + journal.getSnapshotCount()
+                        + " from snapshot, " + journal.getReplayedCount() + " journal entries replayed, sync "
+                        + policy.name().toLowerCase() + ")");
+                ReservationManager durable = manager;
+                Runtime.getRuntime().addShutdownHook(new Thread(durable::close)); // Also on Ctrl+C
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Error opening data directory: " + e.getMessage());
+                return;
+            }
+        }
+        //to pick where menu options 1-4 and 6 keep reservations: the manager, or a database behind a cache
+        DatabaseManager database = null;
+        ReservationStore store = manager;
+        if (args.length > 1 && args[0].equals("--db")) {
+            database = new DatabaseManager();
+            database.setDatabasePath(args[1]);
+            store = new CachingReservationStore(database);
+            System.out.println("Using database: " + args[1]);
+        }
         //to control loop
         boolean running = true;
         String input;
@@ -55,7 +96,10 @@ public class HotelApp {
             System.out.println("4. Remove Reservation");
             System.out.println("5. Load File");
             System.out.println("6. Search Reservation by Guest Name");
-            System.out.println("7. Exit");
+            System.out.println("7. Bulk Import into Database");
+            System.out.println("8. Import File (keep valid lines)");
+            System.out.println("9. Save Snapshot");
+            System.out.println("10. Exit");
             System.out.println("Enter your option: ");
 
             //to read user choice (this block was updated after teacher feedback)fd
@@ -64,7 +108,7 @@ public class HotelApp {
                 choice = scanner.nextInt();
                 scanner.nextLine(); // consume newline
             } else {
-                System.out.println("Invalid input! Please enter a number between 1 and 6.");
+                System.out.println("Invalid input! Please enter a number between 1 and 10.");
                 scanner.nextLine(); // consume invalid input
                 continue; // skip to the next loop iteration
             }
@@ -153,41 +197,34 @@ public class HotelApp {
                         }
                     }
 
-                    //to create object based on input
-                    Guest guest = new Guest(name, email);
-                    Room room = new Room(roomNumber, type, rate);
-                    Reservation reservation = new Reservation(guest, room, nights);
+                    //to enter the check-in date; check-out follows from the nights
+                    LocalDate checkIn = readDate(scanner, "Enter check-in date (yyyy-MM-dd): ");
 
-                    //to add reservation to the manager
-                    manager.addReservation(reservation);
+                    //to create the record based on input
+                    ReservationRecord record = new ReservationRecord(name, email, roomNumber, roomType, rate, nights,
+                            checkIn.toString(), checkIn.plusDays(nights).toString());
+
+                    //to add reservation to the store (rejected if the room is taken)
+                    long addedId = store.addReservation(record);
+                    if (addedId > 0) {
+                        System.out.println("Reservation added with ID " + addedId + "!");
+                    } else {
+                        System.out.println("Room " + roomNumber + " is not available for those dates.");
+                    }
                     break;
                 /**
                  * Lists all existing reservations.
                  */
                 case 2:
                     //to list reservations
-                    manager.listReservations();
+                    listReservations(store, pageSize, scanner);
                     break;
                 /**
-                 * Updates an existing reservation after validating index and new inputs.
+                 * Updates an existing reservation after validating its ID and new inputs.
                  */
                 case 3:
-                    // Validate reservation index
-                    int updateIndex = -1;
-                    while (true) {
-                        System.out.print("Enter reservation index to update: ");
-                        String indexInput = scanner.nextLine();
-                        try {
-                            updateIndex = Integer.parseInt(indexInput);
-                            if (updateIndex >= 0 && updateIndex < manager.getReservations().size()) {
-                                break;
-                            } else {
-                                System.out.println("Invalid index! Please choose between 0 and " + (manager.getReservations().size() - 1));
-                            }
-                        } catch (NumberFormatException e) {
-                            System.out.println("Invalid input. Please enter a valid number.");
-                        }
-                    }
+                    // Validate reservation ID
+                    long updateId = readReservationId(scanner, store, "Enter reservation ID to update: ");
 
                     // Validate new guest name
                     String newName;
@@ -256,50 +293,56 @@ public class HotelApp {
                         }
                     }
 
+                    // Validate new check-in date
+                    LocalDate newCheckIn = readDate(scanner, "Enter new check-in date (yyyy-MM-dd): ");
+
                     // Create and apply updated reservation
-                    Guest newGuest = new Guest(newName, newEmail);
-                    Room newRoom = new Room(newRoomNumber, newRoomType, newRate);
-                    Reservation newReservation = new Reservation(newGuest, newRoom, newNights);
-                    manager.updateReservation(updateIndex, newReservation);
-                    System.out.println("Reservation updated successfully.");
+                    ReservationRecord newRecord = new ReservationRecord(newName, newEmail, newRoomNumber, newRoomType,
+                            newRate, newNights, newCheckIn.toString(), newCheckIn.plusDays(newNights).toString());
+                    if (store.updateReservation(updateId, newRecord)) {
+                        System.out.println("Reservation updated successfully.");
+                    } else {
+                        System.out.println("Room " + newRoomNumber + " is not available for those dates.");
+                    }
                     break;
 
                 /**
-                 * Removes a reservation at a specified index after validation.
+                 * Removes the reservation with a given ID after validation.
                  */
                 case 4:
-                    // Validate reservation index to remove
-                    int removeIndex = -1;
-                    while (true) {
-                        System.out.print("Enter reservation index to remove: ");
-                        String removeInput = scanner.nextLine();
-                        try {
-                            removeIndex = Integer.parseInt(removeInput);
-                            if (removeIndex >= 0 && removeIndex < manager.getReservations().size()) {
-                                break;
-                            } else {
-                                System.out.println("Invalid index! Please choose between 0 and " + (manager.getReservations().size() - 1));
-                            }
-                        } catch (NumberFormatException e) {
-                            System.out.println("Invalid input. Please enter a valid number.");
-                        }
-                    }
+                    // Validate reservation ID to remove
+                    long removeId = readReservationId(scanner, store, "Enter reservation ID to remove: ");
 
                     // Perform removal
-                    manager.removeReservation(removeIndex);
-                    System.out.println("Reservation removed successfully.");
+                    if (store.deleteReservation(removeId)) {
+                        System.out.println("Reservation removed successfully.");
+                    } else {
+                        System.out.println("Reservation could not be removed.");
+                    }
                     break;
                 /**
                  * Loads reservations from an external file.
                  */
                 case 5:
+                    if (store != manager) {
+                        System.out.println("Loading a file works on in-memory reservations only. Use option 7 for the database.");
+                        break;
+                    }
                     System.out.println("Enter the file path to load reservations:");
                     String filePath = scanner.nextLine().trim();
 
                     try {
-                        manager.loadFromFile(filePath); // Attempt to load the file
+                        if (ReservationSnapshot.isSnapshot(Path.of(filePath))) {
+                            manager.importSnapshot(filePath); // Binary snapshot from option 9
+                        } else {
+                            manager.loadFromFileParallel(filePath); // Attempt to load the file
+                        }
                         System.out.println("File loaded successfully."); // Confirmation
-                        manager.listReservations(); // Optional: Show loaded reservations
+                        if (pageSize > 0) {
+                            manager.listReservations(1, pageSize); // First page only; option 2 shows the rest
+                        } else {
+                            manager.listReservations(); // Optional: Show loaded reservations
+                        }
                     } catch (IOException e) {
                         System.out.println("Error loading file: " + e.getMessage()); // Show error
                     }
@@ -312,18 +355,85 @@ public class HotelApp {
                 case 6:
                     System.out.print("Enter guest name to search: ");
                     String searchName = scanner.nextLine().trim();
-                    manager.searchReservationsByGuestName(searchName);
+                    int[] found = {0};
+                    store.searchReservationsByName(searchName, res -> {
+                        System.out.println(res);
+                        found[0]++;
+                    });
+                    if (found[0] == 0) {
+                        System.out.println("No reservations found for guest: " + searchName);
+                    }
                     break;
                 /**
-                 * Exits the program.
+                 * Bulk-imports a reservation file into a SQLite database in batched transactions.
                  */
                 case 7:
+                    System.out.println("Enter the SQLite database file path:");
+                    String dbPath = scanner.nextLine().trim();
+                    System.out.println("Enter the import file path (name,email,room,type,yyyy-MM-dd,yyyy-MM-dd):");
+                    String importPath = scanner.nextLine().trim();
+
+                    DatabaseManager dbManager = new DatabaseManager();
+                    dbManager.setDatabasePath(dbPath);
+                    try {
+                        printImportResult(dbManager.importReservationsFromFile(importPath));
+                    } catch (IOException e) {
+                        System.out.println("Error reading file: " + e.getMessage()); // Show error
+                    } finally {
+                        dbManager.close();
+                    }
+                    break;
+                /**
+                 * Imports a reservation file into memory, skipping and reporting bad lines
+                 * instead of stopping at the first one.
+                 */
+                case 8:
+                    if (store != manager) {
+                        System.out.println("Importing into memory is not available with a database. Use option 7.");
+                        break;
+                    }
+                    System.out.println("Enter the file path to import (name,email,room,type,nights or name,email,room,type,yyyy-MM-dd,yyyy-MM-dd):");
+                    String importFile = scanner.nextLine().trim();
+                    System.out.println("Append to the current reservations? (Y to append, N to replace): ");
+                    boolean append = scanner.nextLine().trim().equalsIgnoreCase("Y");
+
+                    try {
+                        printImportResult(manager.importFromFile(importFile, append));
+                    } catch (IOException e) {
+                        System.out.println("Error reading file: " + e.getMessage()); // Show error
+                    }
+                    break;
+                /**
+                 * Saves the in-memory reservations to a binary snapshot that option 5 loads quickly.
+                 */
+                case 9:
+                    if (store != manager) {
+                        System.out.println("Snapshots work on in-memory reservations only.");
+                        break;
+                    }
+                    System.out.println("Enter the file path to save the snapshot:");
+                    String snapshotPath = scanner.nextLine().trim();
+                    try {
+                        manager.exportSnapshot(snapshotPath);
+                    } catch (IOException e) {
+                        System.out.println("Error saving snapshot: " + e.getMessage()); // Show error
+                    }
+                    break;
+
+
+                /**
+                 * Exits the program.
+                 */
+                case 10:
                     //exit
                     running = false;
+                    if (database != null) {
+                        database.close();
+                    }
+                    manager.close();
                     System.out.println("Goodbye!");
                     break;
 
-
                 /**
                  * Handles invalid menu option.
                  */
@@ -334,4 +444,116 @@ public class HotelApp {
 
         scanner.close();
     }
+
+    /**
+     * Prints an import summary followed by each rejected line that was kept.
+     *
+     * @param result outcome of the import
+     */
+    private static void printImportResult(BulkInsertResult result) {
+        System.out.println(result); // Summary
+        for (BulkInsertResult.RowFailure failure : result.getFailures()) {
+            System.out.println(failure); // Each rejected line
+        }
+        if (result.getUnlistedFailureCount() > 0) {
+            System.out.println("... and " + result.getUnlistedFailureCount() + " more rejected line(s).");
+        }
+    }
+
+    /**
+     * Prints every reservation with its ID, formatted into one buffer that is printed in large
+     * pieces. With a page size, pauses after each page until the user presses Enter, or stops
+     * on q.
+     *
+     * @param store reservations to list
+     * @param pageSize reservations per page, or 0 to list them all without pausing
+     * @param scanner console input, read between pages
+     */
+    private static void listReservations(ReservationStore store, int pageSize, Scanner scanner) {
+        StringBuilder sb = new StringBuilder(ReservationManager.OUTPUT_CHUNK + 512);
+        int[] count = {0};
+        boolean[] stopped = {false};
+        store.forEachReservation(res -> {
+            if (stopped[0]) return;
+            res.appendTo(sb).append(System.lineSeparator());
+            count[0]++;
+            if (pageSize > 0 && count[0] % pageSize == 0) {
+                System.out.print(sb);
+                sb.setLength(0);
+                System.out.println("-- " + count[0] + " shown. Press Enter for more, or q to stop --");
+                stopped[0] = scanner.nextLine().trim().equalsIgnoreCase("q");
+            } else if (sb.length() >= ReservationManager.OUTPUT_CHUNK) {
+                System.out.print(sb);
+                sb.setLength(0);
+            }
+        });
+        System.out.print(sb);
+        if (count[0] == 0) {
+            System.out.println("No reservations found!");
+        }
+    }
+
+    /**
+     * Reads {@code --page N} from the command line.
+     *
+     * @param args command line arguments
+     * @return the page size, 0 if not given, or -1 after printing an error
+     */
+    private static int readPageSize(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].equals("--page")) continue;
+            try {
+                int size = i + 1 < args.length ? Integer.parseInt(args[i + 1]) : 0;
+                if (size > 0) return size;
+            } catch (NumberFormatException e) {
+                // Reported below
+            }
+            System.out.println("Error: --page needs a positive number of reservations per page.");
+            return -1;
+        }
+        return 0;
+    }
+
+    /**
+     * Prompts until the user enters the ID of an existing reservation.
+     *
+     * @param scanner console input
+     * @param store reservations to look the ID up in
+     * @param prompt text shown before each attempt
+     * @return the reservation ID
+     */
+    private static long readReservationId(Scanner scanner, ReservationStore store, String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String input = scanner.nextLine().trim();
+            try {
+                long id = Long.parseLong(input);
+                if (store.findReservation(id) != null) {
+                    return id;
+                }
+                System.out.println("No reservation with ID " + id + ". Use option 2 to see the IDs.");
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid input. Please enter a valid number.");
+            }
+        }
+    }
+
+    /**
+     * Prompts until the user enters a valid date.
+     *
+     * @param scanner console input
+     * @param prompt text shown before each attempt
+     * @return the parsed date
+     */
+    private static LocalDate readDate(Scanner scanner, String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String input = scanner.nextLine().trim();
+            try {
+                return LocalDate.parse(input);
+            } catch (DateTimeParseException e) {
+                System.out.println("Invalid date. Use the format yyyy-MM-dd.");
+            }
+        }
+    }
 }
@@ -15,9 +15,16 @@
  *   <li>Adding new reservations with full input validation</li>
  *   <li>Updating and deleting reservations by ID</li>
  *   <li>Searching for reservations using guest names</li>
+ *   <li>Bulk-importing reservations from a comma-separated file</li>
+ *   <li>Finding rooms that are free for a stay</li>
+ *   <li>Revenue, ADR and occupancy reports by room type, room, day, week or month</li>
  * </ul>
  *
- * <p><b>Dependencies:</b> Uses the {@link DatabaseManager} class to interact with the SQLite database.</p>
+ * <p><b>Dependencies:</b> Reservations are read and written through a {@link ReservationStore}. After
+ * connecting, that is a {@link CachingReservationStore} in front of the {@link DatabaseManager}, so
+ * listing, searching and lookups are served from memory. Started with {@code --memory}, the window
+ * works on a {@link ReservationManager} instead and needs no database; bulk import and reports
+ * still need one. Store calls run on one background thread so the window stays responsive.</p>
  *
  * <p><b>Output:</b> Displays status messages and reservation data in a scrollable text area.</p>
  *
@@ -25,10 +32,22 @@
  */
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 public class HotelGUI extends JFrame {
     private DatabaseManager dbManager;
+    /** Store the buttons work on, or {@code null} until a database is connected */
+    private ReservationStore store;
+    /** Cache in front of {@link #dbManager}, or {@code null} if not connected */
+    private CachingReservationStore cache;
+    /** Runs store calls one at a time, off the Event Dispatch Thread */
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "hotel-gui-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
     private JTextArea displayArea;
 
     /**
@@ -37,15 +56,26 @@ public class HotelGUI extends JFrame {
      * The GUI includes:
      * <ul>
      *   <li>Database connection file chooser</li>
-     *   <li>Buttons for View All, Add, Delete, Update, Search, Clear, Exit</li>
+     *   <li>Buttons for View All, Add, Delete, Update, Search, Bulk Import, Find Rooms, Reports, Clear, Exit</li>
      *   <li>Validation logic for inputs (name, email, room number, dates)</li>
      * </ul>
      */
     public HotelGUI() {
+        this(null);
+    }
+
+    /**
+     * Constructs the HotelGUI window working on the given store, so no database has to be
+     * connected first.
+     *
+     * @param store reservations to work on, or {@code null} to wait for a database
+     */
+    public HotelGUI(ReservationStore store) {
+        this.store = store;
         // Initialize the database manager
         dbManager = new DatabaseManager();
         // Set title of the window
-        setTitle("Hotel DMS GUI - Database Edition");
+        setTitle(store == null ? "Hotel DMS GUI - Database Edition" : "Hotel DMS GUI - In-Memory Edition");
         // Set initial size
         setSize(800, 600);
         // Exit the app when closed
@@ -62,7 +92,7 @@ public class HotelGUI extends JFrame {
         add(scrollPane, BorderLayout.CENTER);         // Add to center of layout
 
         // Buttons panel
-        JPanel topPanel = new JPanel(new GridLayout(2, 5, 10, 10));
+        JPanel topPanel = new JPanel(new GridLayout(2, 6, 10, 10));
 
         // Connect to Database
         JButton connectDatabaseButton = new JButton("Connect DB");
@@ -77,6 +107,9 @@ public class HotelGUI extends JFrame {
                 String path = fileChooser.getSelectedFile().getAbsolutePath();
                 // Set DB path
                 dbManager.setDatabasePath(path);
+                // Serve reads from memory from now on
+                cache = new CachingReservationStore(dbManager);
+                this.store = cache;
                 displayArea.setText("Connected to database: " + path);
             }
         });
@@ -84,24 +117,23 @@ public class HotelGUI extends JFrame {
         // View All Reservations
         JButton viewButton = new JButton("View All");
         viewButton.addActionListener(e -> {
-            if (!dbManager.isConnected()) {
+            if (this.store == null) {
                 displayArea.setText("Please connect to a database first.");
                 return;
             }
-            // Fetch all
-            ArrayList<String> reservations = dbManager.getAllReservations();
-            // Clear display
-            displayArea.setText("");
-            for (String res : reservations) {
-                // Show each
-                displayArea.append(res + "\n\n");
-            }
+            ReservationStore current = this.store;
+            runInBackground("Loading reservations...", () -> {
+                // Format rows straight into one buffer as they are read
+                StringBuilder sb = new StringBuilder();
+                current.forEachReservation(res -> res.appendTo(sb).append("\n\n"));
+                return sb.toString();
+            });
         });
 
         // Add Reservation
         JButton addButton = new JButton("Add");
         addButton.addActionListener(e -> {
-            if (!dbManager.isConnected()) {
+            if (this.store == null) {
                 displayArea.setText("Please connect to a database first.");
                 return;
             }
@@ -163,8 +195,12 @@ public class HotelGUI extends JFrame {
 
                     int nights = (int) java.time.temporal.ChronoUnit.DAYS.between(inDate, outDate);
 
-                    dbManager.addReservation(name, email, room, type, rate, nights, checkIn, checkOut);
-                    displayArea.setText("Reservation added successfully!");
+                    // Saved on the worker; the result comes back on the EDT
+                    ReservationRecord record = new ReservationRecord(name, email, room, type, rate, nights, checkIn, checkOut);
+                    ReservationStore current = this.store;
+                    runInBackground("Saving reservation...", () -> current.addReservation(record) > 0
+                            ? "Reservation added successfully!"
+                            : "Room " + room + " is not available for those dates.");
 
                 } catch (Exception ex) {
                     displayArea.setText("Error: " + ex.getMessage());
@@ -175,15 +211,16 @@ public class HotelGUI extends JFrame {
         // Delete Reservation by ID
         JButton deleteButton = new JButton("Delete");
         deleteButton.addActionListener(e -> {
-            if (!dbManager.isConnected()) {
+            if (this.store == null) {
                 displayArea.setText("Please connect to a database first.");
                 return;
             }
             String input = JOptionPane.showInputDialog(this, "Enter Reservation ID to delete:");
             try {
-                int id = Integer.parseInt(input);                     // Convert to int
-                boolean success = dbManager.deleteReservation(id);    // Try to delete
-                displayArea.setText(success ? "Reservation deleted!" : "ID not found.");
+                long id = Long.parseLong(input);                      // Convert to number
+                ReservationStore current = this.store;
+                runInBackground("Deleting reservation...", () ->    // Try to delete
+                        current.deleteReservation(id) ? "Reservation deleted!" : "ID not found.");
             } catch (Exception ex) {
                 displayArea.setText("Invalid ID.");                   // Input error
             }
@@ -192,13 +229,13 @@ public class HotelGUI extends JFrame {
         // Update Reservation by ID
         JButton updateButton = new JButton("Update");
         updateButton.addActionListener(e -> {
-            if (!dbManager.isConnected()) {
+            if (this.store == null) {
                 displayArea.setText("Please connect to a database first.");
                 return;
             }
             String input = JOptionPane.showInputDialog(this, "Enter Reservation ID to update:");
             try {
-                int id = Integer.parseInt(input);
+                long id = Long.parseLong(input);
 
                 JTextField nameField = new JTextField();
                 JTextField emailField = new JTextField();
@@ -253,8 +290,11 @@ public class HotelGUI extends JFrame {
 
                         int nights = (int) java.time.temporal.ChronoUnit.DAYS.between(inDate, outDate);
 
-                        boolean success = dbManager.updateReservation(id, name, email, room, type, rate, nights, checkIn, checkOut);
-                        displayArea.setText(success ? "Reservation updated!" : "Update failed. Check ID.");
+                        ReservationRecord record = new ReservationRecord(name, email, room, type, rate, nights, checkIn, checkOut);
+                        ReservationStore current = this.store;
+                        runInBackground("Saving changes...", () -> current.updateReservation(id, record)
+                                ? "Reservation updated!"
+                                : "Update failed. Check ID and room availability.");
                     } catch (Exception ex) {
                         displayArea.setText("Error: " + ex.getMessage());
                     }
@@ -268,18 +308,139 @@ public class HotelGUI extends JFrame {
         // Search by Guest Name
         JButton searchButton = new JButton("Search Name");
         searchButton.addActionListener(e -> {
-            if (!dbManager.isConnected()) {
+            if (this.store == null) {
                 displayArea.setText("Please connect to a database first.");
                 return;
             }
             String name = JOptionPane.showInputDialog(this, "Enter guest name to search:");
-            ArrayList<String> results = dbManager.searchReservationsByName(name);
-            displayArea.setText("");
-            for (String res : results) {
-                displayArea.append(res + "\n\n");
+            if (name == null) return; // Dialog cancelled
+            ReservationStore current = this.store;
+            runInBackground("Searching...", () -> {
+                StringBuilder sb = new StringBuilder();
+                current.searchReservationsByName(name, res -> res.appendTo(sb).append("\n\n"));
+                return sb.length() > 0 ? sb.toString() : "No results found.";
+            });
+        });
+
+        // Bulk Import from File
+        JButton importButton = new JButton("Bulk Import");
+        importButton.addActionListener(e -> {
+            if (!dbManager.isConnected()) {
+                displayArea.setText("Please connect to a database first.");
+                return;
             }
-            if (results.isEmpty()) {
-                displayArea.setText("No results found.");
+            // Ask for a file with one reservation per line
+            JFileChooser fileChooser = new JFileChooser();
+            fileChooser.setDialogTitle("Import file (name,email,room,type,yyyy-MM-dd,yyyy-MM-dd)");
+            if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            String path = fileChooser.getSelectedFile().getAbsolutePath();
+            // Imported on the worker, so the cache is dropped after the rows are in and before any later read
+            CachingReservationStore current = cache;
+            runInBackground("Importing reservations...", () -> {
+                BulkInsertResult result;
+                try {
+                    result = dbManager.importReservationsFromFile(path);
+                } catch (java.io.IOException ex) {
+                    return "Error reading file: " + ex.getMessage();
+                }
+                if (current != null) {
+                    current.invalidate(); // Rows were added behind the cache
+                }
+                // Show summary followed by each rejected line
+                StringBuilder sb = new StringBuilder().append(result).append("\n");
+                for (BulkInsertResult.RowFailure failure : result.getFailures()) {
+                    sb.append(failure).append("\n");
+                }
+                if (result.getUnlistedFailureCount() > 0) {
+                    sb.append("... and ").append(result.getUnlistedFailureCount()).append(" more rejected line(s).\n");
+                }
+                return sb.toString();
+            });
+        });
+
+        // Find Free Rooms for a Stay
+        JButton availabilityButton = new JButton("Find Rooms");
+        availabilityButton.addActionListener(e -> {
+            if (this.store == null) {
+                displayArea.setText("Please connect to a database first.");
+                return;
+            }
+            String[] roomTypes = {"Any", "Patio View", "City View"};
+            JComboBox<String> typeBox = new JComboBox<>(roomTypes);
+            JTextField checkInField = new JTextField("yyyy-MM-dd");
+            JTextField checkOutField = new JTextField("yyyy-MM-dd");
+
+            Object[] fields = {
+                    "Room Type:", typeBox,
+                    "Check-In Date (yyyy-MM-dd):", checkInField,
+                    "Check-Out Date (yyyy-MM-dd):", checkOutField
+            };
+
+            int result = JOptionPane.showConfirmDialog(this, fields, "Find Rooms", JOptionPane.OK_CANCEL_OPTION);
+            if (result == JOptionPane.OK_OPTION) {
+                try {
+                    java.time.LocalDate inDate = java.time.LocalDate.parse(checkInField.getText().trim());
+                    java.time.LocalDate outDate = java.time.LocalDate.parse(checkOutField.getText().trim());
+                    if (!outDate.isAfter(inDate)) throw new IllegalArgumentException("Check-out must be after check-in.");
+
+                    String type = typeBox.getSelectedIndex() == 0 ? null : (String) typeBox.getSelectedItem();
+                    ReservationStore current = this.store;
+                    runInBackground("Checking rooms...", () -> {
+                        java.util.List<Integer> rooms = current.findAvailableRooms(type, inDate, outDate);
+                        return rooms.isEmpty() ? "No rooms available for those dates."
+                                : "Available rooms: " + rooms;
+                    });
+                } catch (Exception ex) {
+                    displayArea.setText("Error: " + ex.getMessage());
+                }
+            }
+        });
+
+        // Revenue and Occupancy Reports
+        JButton reportButton = new JButton("Reports");
+        reportButton.addActionListener(e -> {
+            if (!dbManager.isConnected()) {
+                displayArea.setText("Please connect to a database first.");
+                return;
+            }
+            JComboBox<ReportGrouping> groupingBox = new JComboBox<>(ReportGrouping.values());
+            groupingBox.setSelectedItem(ReportGrouping.MONTH);
+            java.time.LocalDate firstOfMonth = java.time.LocalDate.now().withDayOfMonth(1);
+            JTextField fromField = new JTextField(firstOfMonth.toString());
+            JTextField toField = new JTextField(firstOfMonth.plusMonths(1).toString());
+
+            Object[] fields = {
+                    "Group By:", groupingBox,
+                    "From (yyyy-MM-dd):", fromField,
+                    "To, exclusive (yyyy-MM-dd):", toField
+            };
+
+            int result = JOptionPane.showConfirmDialog(this, fields, "Revenue Report", JOptionPane.OK_CANCEL_OPTION);
+            if (result == JOptionPane.OK_OPTION) {
+                try {
+                    java.time.LocalDate from = java.time.LocalDate.parse(fromField.getText().trim());
+                    java.time.LocalDate to = java.time.LocalDate.parse(toField.getText().trim());
+                    if (!to.isAfter(from)) throw new IllegalArgumentException("End date must be after start date.");
+
+                    // Totals are computed by the database on the worker; only one row per group comes back
+                    ReportGrouping grouping = (ReportGrouping) groupingBox.getSelectedItem();
+                    runInBackground("Building report...", () -> {
+                        java.util.List<RevenueReportRow> rows = dbManager.getRevenueReport(grouping, from, to);
+                        StringBuilder sb = new StringBuilder("Revenue by ").append(grouping)
+                                .append(", ").append(from).append(" to ").append(to).append("\n\n");
+                        if (rows.isEmpty()) {
+                            sb.append("No nights sold in this period.");
+                        }
+                        for (RevenueReportRow row : rows) {
+                            row.appendTo(sb).append("\n");
+                        }
+                        return sb.toString();
+                    });
+                } catch (Exception ex) {
+                    displayArea.setText("Error: " + ex.getMessage());
+                }
             }
         });
 
@@ -302,6 +463,9 @@ public class HotelGUI extends JFrame {
         topPanel.add(deleteButton);
         topPanel.add(updateButton);
         topPanel.add(searchButton);
+        topPanel.add(importButton);
+        topPanel.add(availabilityButton);
+        topPanel.add(reportButton);
         topPanel.add(clearButton);
         topPanel.add(exitButton);
 
@@ -310,12 +474,35 @@ public class HotelGUI extends JFrame {
         setVisible(true); // Make the window visible
     }
 
+    /**
+     * Shows {@code busy} now, runs {@code task} on the worker thread and then shows the text it
+     * returns on the Event Dispatch Thread.
+     *
+     * @param busy message shown while the task runs
+     * @param task store work that returns the text to display
+     */
+    private void runInBackground(String busy, Supplier<String> task) {
+        displayArea.setText(busy);
+        worker.execute(() -> {
+            String text;
+            try {
+                text = task.get();
+            } catch (RuntimeException ex) {
+                text = "Error: " + ex.getMessage();
+            }
+            String shown = text;
+            SwingUtilities.invokeLater(() -> displayArea.setText(shown));
+        });
+    }
+
     /**
      * Launches the Hotel DMS GUI application on the Event Dispatch Thread.
      *
-     * @param args command-line arguments (not used)
+     * @param args {@code --memory} to work on reservations kept in memory instead of a database
      */
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(HotelGUI::new); // Run the GUI on the Event Dispatch Thread
+        boolean inMemory = args.length > 0 && args[0].equals("--memory");
+        // Run the GUI on the Event Dispatch Thread
+        SwingUtilities.invokeLater(() -> new HotelGUI(inMemory ? new ReservationManager() : null));
     }
 }
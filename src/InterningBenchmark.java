@@ -0,0 +1,129 @@
+/**
+ * InterningBenchmark.java
+ *
+ * <p>This class is a small command-line benchmark that measures how much heap a loaded
+ * reservation file takes with and without shared rooms and guests. It generates a file whose
+ * lines reuse 18 rooms and a limited pool of guests, then keeps the loaded reservations in memory
+ * and reports the heap they hold:</p>
+ * <ul>
+ *     <li>one new {@link Room} and {@link Guest} per line, as the loaders used to do;</li>
+ *     <li>{@link ReservationFileLoader} with a {@link RoomInventory} and {@link GuestRegistry}.</li>
+ * </ul>
+ *
+ * <p>The arguments are the number of lines and of distinct guests. The per-line load of 10 million
+ * lines needs about 4 GB of heap.</p>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * java -Xmx4g -cp out InterningBenchmark 10000000 100000
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class InterningBenchmark {
+    /** File size used when no argument is given */
+    private static final int DEFAULT_LINES = 10_000_000;
+    /** Distinct guests used when no argument is given */
+    private static final int DEFAULT_GUESTS = 100_000;
+    /** Name pieces used to generate guest names */
+    private static final String[] NAMES = {"Ana", "Luis", "Maria", "Pedro", "Sofia", "Diego", "Elena", "Jorge"};
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of lines and number of distinct guests
+     * @throws IOException if the temporary file cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_LINES;
+        int guests = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_GUESTS;
+        File file = generate(lines, guests);
+        try {
+            System.out.printf("%,d lines, %,d distinct guests, 18 rooms%n", lines, guests);
+
+            long before = usedHeap();
+            List<Reservation> copies = loadWithCopies(file.getPath());
+            long copiesBytes = usedHeap() - before;
+            report("new Room and Guest per line", copiesBytes, copies.size());
+            copies = null;
+
+            before = usedHeap();
+            RoomInventory rooms = new RoomInventory();
+            GuestRegistry registry = new GuestRegistry();
+            List<Reservation> shared = ReservationFileLoader.load(file.getPath(), rooms, registry);
+            long sharedBytes = usedHeap() - before;
+            report("shared rooms and guests", sharedBytes, shared.size());
+            System.out.printf("(%d rooms, %d guests kept) saved %,d MB (%.0f%%)%n", rooms.size(), registry.size(),
+                    (copiesBytes - sharedBytes) >> 20, 100.0 * (copiesBytes - sharedBytes) / copiesBytes);
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Loads the file the way the loaders did before rooms and guests were shared.
+     */
+    private static List<Reservation> loadWithCopies(String filename) throws IOException {
+        List<Reservation> result = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(filename), 1 << 16)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split(",");
+                String roomType = parts[3].trim();
+                double rate = roomType.equalsIgnoreCase("City View") ? 90.0 : 70.0;
+                result.add(new Reservation(new Guest(parts[0].trim(), parts[1].trim()),
+                        new Room(Integer.parseInt(parts[2].trim()), roomType, rate), Integer.parseInt(parts[4].trim())));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes a file of {@code lines} reservations spread over {@code guests} guests.
+     */
+    private static File generate(int lines, int guests) throws IOException {
+        File file = File.createTempFile("hotel-intern", ".txt");
+        file.deleteOnExit();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file), 1 << 16)) {
+            for (int i = 0; i < lines; i++) {
+                int guest = i % guests;
+                String name = NAMES[guest % NAMES.length];
+                int room = i % 18 + 1;
+                writer.write(name + " " + NAMES[(guest / NAMES.length) % NAMES.length] + ","
+                        + name.toLowerCase() + guest + "@example.com,"
+                        + room + "," + (room % 3 == 0 ? "Patio View" : "City View") + ","
+                        + (i % 7 + 1));
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Measures the heap in use after collecting garbage.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Prints the heap held by one load.
+     */
+    private static void report(String label, long bytes, int reservations) {
+        System.out.printf("%-40s %,8d MB %6.1f bytes/reservation%n", label, bytes >> 20, (double) bytes / reservations);
+    }
+}
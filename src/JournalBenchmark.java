@@ -0,0 +1,222 @@
+/**
+ * JournalBenchmark.java
+ *
+ * <p>This class is a small command-line benchmark for durable {@link ReservationManager}s. It
+ * measures:</p>
+ * <ul>
+ *     <li>journaled operations per second (adds, updates and removes) for each
+ *     {@link JournalSyncPolicy}, next to a manager without a journal;</li>
+ *     <li>restart time on a large dataset: parsing a text export with
+ *     {@link ReservationManager#loadFromFile(String)} and
+ *     {@link ReservationManager#loadFromFileParallel(String)}, versus
+ *     {@link ReservationManager#open(String, JournalSyncPolicy)} on a snapshot plus a short
+ *     journal.</li>
+ * </ul>
+ *
+ * <p>The arguments are the number of reservations in the dataset and of operations per sync
+ * policy. Forcing every operation is much slower, so {@link JournalSyncPolicy#PER_OPERATION}
+ * runs a tenth of them. Ten million reservations need about 4 GB of heap.</p>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * java -Xmx4g -cp out JournalBenchmark 10000000 200000
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+public class JournalBenchmark {
+    /** Dataset size used when no argument is given */
+    private static final int DEFAULT_RESERVATIONS = 10_000_000;
+    /** Operations per sync policy when no argument is given */
+    private static final int DEFAULT_OPERATIONS = 200_000;
+    /** Distinct guests in the generated dataset */
+    private static final int GUESTS = 100_000;
+    /** Operations journaled after the snapshot, before the timed restart */
+    private static final int TAIL_OPERATIONS = 10_000;
+    /** Name pieces used to generate guest names */
+    private static final String[] NAMES = {"Ana", "Luis", "Maria", "Pedro", "Sofia", "Diego", "Elena", "Jorge"};
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional dataset size and number of operations per sync policy
+     * @throws IOException if a temporary file or directory cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int reservations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RESERVATIONS;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_OPERATIONS;
+
+        System.out.printf("Journaled operations (add, then update every second and remove every fourth)%n");
+        runOperations(new ReservationManager(), operations); // Warm-up
+        timeOperations("no journal", new ReservationManager(), operations);
+        for (JournalSyncPolicy policy : JournalSyncPolicy.values()) {
+            int count = policy == JournalSyncPolicy.PER_OPERATION ? operations / 10 : operations;
+            Path directory = Files.createTempDirectory("hotel-journal");
+            try {
+                ReservationManager manager = ReservationManager.open(directory.toString(), policy);
+                timeOperations(policy.name().toLowerCase(), manager, count);
+                manager.close();
+            } finally {
+                delete(directory);
+            }
+        }
+
+        File file = generate(reservations);
+        Path directory = Files.createTempDirectory("hotel-journal");
+        try {
+            System.out.printf("%nRestart with %,d reservations (%,d MB text export)%n", reservations, file.length() >> 20);
+            timeRestart("loadFromFile", () -> new ReservationManager().loadFromFile(file.getPath()));
+            timeRestart("loadFromFileParallel", () -> new ReservationManager().loadFromFileParallel(file.getPath()));
+
+            prepare(directory, file.getPath());
+            ReservationManager[] opened = new ReservationManager[1];
+            timeRestart("open (snapshot + " + TAIL_OPERATIONS + " journaled operations)",
+                    () -> opened[0] = ReservationManager.open(directory.toString(), JournalSyncPolicy.INTERVAL));
+            ReservationJournal journal = opened[0].getJournal();
+            System.out.printf("  %,d from snapshot, %,d journal entries replayed, %,d reservations%n",
+                    journal.getSnapshotCount(), journal.getReplayedCount(), opened[0].size());
+            opened[0].close();
+        } finally {
+            file.delete();
+            delete(directory);
+        }
+    }
+
+    /**
+     * Adds {@code count} reservations, updating every second one and removing every fourth, and
+     * prints the operations per second.
+     */
+    private static void timeOperations(String label, ReservationManager manager, int count) {
+        long start = System.nanoTime();
+        int done = runOperations(manager, count);
+        manager.checkpoint(); // Timed too: a snapshot and the last forced write are part of the cost
+        manager.close();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("%-40s %,10d ops %8.2f s %12.0f ops/sec%n", label, done, seconds, done / seconds);
+    }
+
+    /**
+     * Adds {@code count} reservations, updating every second one and removing every fourth.
+     *
+     * @return the number of operations
+     */
+    private static int runOperations(ReservationManager manager, int count) {
+        int done = 0;
+        for (int i = 0; i < count; i++) {
+            long id = manager.addReservation(record(i, 2));
+            done++;
+            if (i % 2 == 0) {
+                manager.updateReservation(id, record(i, 3));
+                done++;
+            }
+            if (i % 4 == 0) {
+                manager.deleteReservation(id);
+                done++;
+            }
+        }
+        return done;
+    }
+
+    /**
+     * Fills a durable manager from the text export, writes a snapshot, then journals a short
+     * tail of operations after it.
+     */
+    private static void prepare(Path directory, String filename) throws IOException {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            ReservationManager manager = ReservationManager.open(directory.toString(), JournalSyncPolicy.INTERVAL);
+            manager.setSnapshotInterval(Integer.MAX_VALUE); // One snapshot, taken below
+            manager.loadFromFileParallel(filename);
+            manager.checkpoint();
+            manager.getJournal().awaitSnapshot();
+            for (int i = 0; i < TAIL_OPERATIONS; i += 2) {
+                long id = manager.addReservation(record(i, 2));
+                manager.updateReservation(id, record(i, 4));
+            }
+            manager.close();
+        } finally {
+            System.setOut(console);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.sorted().forEach(path -> System.out.printf("  %-38s %,10d bytes%n", path.getFileName(), path.toFile().length()));
+        }
+    }
+
+    /**
+     * Runs one restart once, after collecting the previous one's garbage, and prints its time.
+     */
+    private static void timeRestart(String label, Restart restart) throws IOException {
+        PrintStream console = System.out;
+        System.gc();
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // The loaders print
+        long start = System.nanoTime();
+        try {
+            restart.run();
+        } finally {
+            System.setOut(console);
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("%-50s %8.2f s%n", label, seconds);
+    }
+
+    /**
+     * Builds an undated reservation for the {@code i}-th generated guest.
+     */
+    private static ReservationRecord record(int i, int nights) {
+        String name = NAMES[i % NAMES.length];
+        return new ReservationRecord(0, name + " " + NAMES[(i / NAMES.length) % NAMES.length],
+                name.toLowerCase() + (i % GUESTS) + "@example.com", i % 18 + 1, "City View", 90.0, nights, null, null);
+    }
+
+    /**
+     * Writes a file of {@code lines} reservations spread over {@link #GUESTS} guests.
+     */
+    private static File generate(int lines) throws IOException {
+        File file = File.createTempFile("hotel-journal", ".txt");
+        file.deleteOnExit();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file), 1 << 16)) {
+            for (int i = 0; i < lines; i++) {
+                int guest = i % GUESTS;
+                String name = NAMES[guest % NAMES.length];
+                int room = i % 18 + 1;
+                writer.write(name + " " + NAMES[(guest / NAMES.length) % NAMES.length] + ","
+                        + name.toLowerCase() + guest + "@example.com,"
+                        + room + "," + (room % 3 == 0 ? "Patio View" : "City View") + ","
+                        + (i % 7 + 1));
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Deletes a directory and everything in it.
+     */
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * One way of getting a manager back after a restart.
+     */
+    private interface Restart {
+        void run() throws IOException;
+    }
+}
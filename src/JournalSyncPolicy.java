@@ -0,0 +1,78 @@
+/**
+ * JournalSyncPolicy.java
+ *
+ * <p>This enum lists when {@link ReservationJournal} forces journal entries to disk. Forcing
+ * (fsync) is what makes an entry survive a power loss, and it is also the slowest part of
+ * writing one:</p>
+ * <ul>
+ *     <li><b>PER_OPERATION</b> - every add, update and remove is on disk before the call returns.
+ *     Nothing acknowledged is ever lost.</li>
+ *     <li><b>BATCHED</b> - entries are forced once every {@link #getBatchSize()} operations, and on
+ *     checkpoint and close. A crash can lose the operations of the last unfinished batch.</li>
+ *     <li><b>INTERVAL</b> - a background thread forces whatever was written every
+ *     {@link #getIntervalMillis()} milliseconds. A crash can lose that much time of operations,
+ *     however many there were. This is the default.</li>
+ * </ul>
+ *
+ * @author Andres Vera
+ */
+
+public enum JournalSyncPolicy {
+    /** Force after every operation */
+    PER_OPERATION(1, 0),
+    /** Force after every 256 operations */
+    BATCHED(256, 0),
+    /** Force every 100 milliseconds */
+    INTERVAL(0, 100);
+
+    /** Operations per forced write, or 0 if forcing is timed */
+    private final int batchSize;
+    /** Milliseconds between timed forces, or 0 if forcing follows operations */
+    private final long intervalMillis;
+
+    /**
+     * Creates a policy.
+     *
+     * @param batchSize operations per forced write, or 0
+     * @param intervalMillis milliseconds between forced writes, or 0
+     */
+    JournalSyncPolicy(int batchSize, long intervalMillis) {
+        this.batchSize = batchSize;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Gets how many operations are written between forced writes.
+     *
+     * @return operations per forced write, or 0 if this policy forces on a timer
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Gets how often the journal is forced by the background thread.
+     *
+     * @return milliseconds between forced writes, or 0 if this policy forces after operations
+     */
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    /**
+     * Looks up a policy by name, ignoring case and dashes, e.g. {@code "per-operation"}.
+     *
+     * @param name policy name
+     * @return the matching policy
+     * @throws IllegalArgumentException if no policy has that name
+     */
+    public static JournalSyncPolicy fromName(String name) {
+        String wanted = name.trim().replace('-', '_');
+        for (JournalSyncPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(wanted)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown sync policy: " + name);
+    }
+}
@@ -0,0 +1,370 @@
+/**
+ * OccupancyCalendar.java
+ *
+ * <p>This class keeps one bit per room per night for a rolling window of days, so availability
+ * questions across the whole hotel become a few word-wise AND/OR operations per room instead of
+ * a lookup in each room's reservation map. It is kept up to date by {@link ReservationManager}.</p>
+ *
+ * <p>All bits live in one {@code long[]}: each room owns {@code wordsPerRoom} consecutive words,
+ * and night {@code d} is stored at bit {@code d mod slots} of its room, where {@code slots} is the
+ * horizon rounded up to a multiple of 64. The window is therefore a ring buffer:
+ * {@link #advanceTo(LocalDate)} only clears the slots of the days that fall off the front so they
+ * can be reused for the new days at the end, without rebuilding anything.</p>
+ *
+ * <p>Rooms can be given a type with {@link #setRoomType(int, String)}. A room without a type can
+ * be booked as any type, the same rule {@link DatabaseManager} uses.</p>
+ *
+ * <p>The query methods ({@link #isFree(int, LocalDate, LocalDate)} and
+ * {@link #findFreeRooms(String, LocalDate, LocalDate, long[])}) do not allocate; results are
+ * written into a room set created once with {@link #newRoomSet()}.</p>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * OccupancyCalendar calendar = new OccupancyCalendar(18, LocalDate.now(), 730);
+ * calendar.book(5, checkIn, checkOut);
+ * long[] free = calendar.newRoomSet();
+ * int count = calendar.findFreeRooms("City View", checkIn, checkOut, free);
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class OccupancyCalendar {
+    /** Horizon used when none is given: two years */
+    public static final int DEFAULT_HORIZON_DAYS = 730;
+
+    /** Rooms are numbered 1 to roomCount */
+    private final int roomCount;
+    /** Number of days that can be answered, starting at {@link #startDay} */
+    private final int horizonDays;
+    /** Words of booked-night bits per room */
+    private final int wordsPerRoom;
+    /** Bits per room in the ring (horizon rounded up to whole words) */
+    private final int slots;
+    /** Booked-night bits, room after room */
+    private final long[] nights;
+    /** Words needed for one bit per room */
+    private final int roomWords;
+    /** Bit set of the rooms that have no type (bookable as any type) */
+    private final long[] untypedRooms;
+    /** Bit set of the rooms of each type */
+    private final Map<String, long[]> roomsByType = new HashMap<>();
+    /** Epoch day of the first night in the window */
+    private long startDay;
+
+    /**
+     * Creates an empty calendar.
+     *
+     * @param roomCount number of rooms, numbered from 1
+     * @param start first night in the window
+     * @param horizonDays number of nights in the window
+     */
+    public OccupancyCalendar(int roomCount, LocalDate start, int horizonDays) {
+        if (roomCount < 1 || horizonDays < 1) {
+            throw new IllegalArgumentException("Room count and horizon must be at least 1.");
+        }
+        this.roomCount = roomCount;
+        this.horizonDays = horizonDays;
+        this.wordsPerRoom = (horizonDays + 63) >>> 6;
+        this.slots = wordsPerRoom << 6;
+        this.nights = new long[roomCount * wordsPerRoom];
+        this.roomWords = (roomCount + 63) >>> 6;
+        this.untypedRooms = newRoomSet();
+        for (int room = 1; room <= roomCount; room++) {
+            setBit(untypedRooms, room);
+        }
+        this.startDay = start.toEpochDay();
+    }
+
+    /**
+     * Gets the first night in the window.
+     *
+     * @return window start
+     */
+    public LocalDate getStart() {
+        return LocalDate.ofEpochDay(startDay);
+    }
+
+    /**
+     * Gets the day after the last night in the window.
+     *
+     * @return window end (exclusive)
+     */
+    public LocalDate getEnd() {
+        return LocalDate.ofEpochDay(startDay + horizonDays);
+    }
+
+    /**
+     * Gets the number of rooms tracked.
+     *
+     * @return room count
+     */
+    public int getRoomCount() {
+        return roomCount;
+    }
+
+    /**
+     * Creates an empty room set sized for this calendar: bit {@code room - 1} stands for a room.
+     *
+     * @return a zeroed room set
+     */
+    public long[] newRoomSet() {
+        return new long[roomWords];
+    }
+
+    /**
+     * Checks whether a room and every night of a stay are inside the calendar.
+     *
+     * @param roomNumber room to check
+     * @param checkIn first night
+     * @param checkOut day after the last night
+     * @return {@code true} if {@link #isFree(int, LocalDate, LocalDate)} can answer for this stay
+     */
+    public boolean covers(int roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        return roomNumber >= 1 && roomNumber <= roomCount && covers(checkIn, checkOut);
+    }
+
+    /**
+     * Checks whether every night of a stay is inside the window.
+     *
+     * @param checkIn first night
+     * @param checkOut day after the last night
+     * @return {@code true} if the stay lies within the window
+     */
+    public boolean covers(LocalDate checkIn, LocalDate checkOut) {
+        return checkIn.toEpochDay() >= startDay && checkOut.toEpochDay() <= startDay + horizonDays
+                && checkOut.isAfter(checkIn);
+    }
+
+    /**
+     * Marks the nights of a stay as booked. Nights outside the window and rooms outside
+     * 1 to {@code roomCount} are ignored.
+     *
+     * @param roomNumber room booked
+     * @param checkIn first night
+     * @param checkOut day after the last night
+     */
+    public void book(int roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        update(roomNumber, checkIn.toEpochDay(), checkOut.toEpochDay(), true);
+    }
+
+    /**
+     * Marks the nights of a stay as free again. Nights outside the window are ignored.
+     *
+     * @param roomNumber room released
+     * @param checkIn first night
+     * @param checkOut day after the last night
+     */
+    public void release(int roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        update(roomNumber, checkIn.toEpochDay(), checkOut.toEpochDay(), false);
+    }
+
+    /**
+     * Frees every night of every room. Room types are kept.
+     */
+    public void clear() {
+        Arrays.fill(nights, 0L);
+    }
+
+    /**
+     * Gives a room a type, or makes it bookable as any type when {@code roomType} is {@code null}.
+     *
+     * @param roomNumber room to change
+     * @param roomType room type, or {@code null} for any
+     */
+    public void setRoomType(int roomNumber, String roomType) {
+        checkRoom(roomNumber);
+        clearBit(untypedRooms, roomNumber);
+        for (long[] rooms : roomsByType.values()) {
+            clearBit(rooms, roomNumber);
+        }
+        if (roomType == null) {
+            setBit(untypedRooms, roomNumber);
+        } else {
+            setBit(roomsByType.computeIfAbsent(roomType, type -> newRoomSet()), roomNumber);
+        }
+    }
+
+    /**
+     * Checks whether a room can be booked as a type.
+     *
+     * @param roomNumber room to check
+     * @param roomType wanted type, or {@code null} for any
+     * @return {@code true} if the room has that type or no type
+     */
+    public boolean matchesType(int roomNumber, String roomType) {
+        if (roomType == null || roomNumber < 1 || roomNumber > roomCount || testBit(untypedRooms, roomNumber)) {
+            return true;
+        }
+        long[] rooms = roomsByType.get(roomType);
+        return rooms != null && testBit(rooms, roomNumber);
+    }
+
+    /**
+     * Checks whether a room is free for every night of a stay.
+     *
+     * @param roomNumber room to check
+     * @param checkIn first night
+     * @param checkOut day after the last night
+     * @return {@code true} if none of the nights is booked
+     * @throws IllegalArgumentException if the stay or room is outside the calendar
+     */
+    public boolean isFree(int roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        if (!covers(roomNumber, checkIn, checkOut)) {
+            throw new IllegalArgumentException("Stay is outside the calendar window.");
+        }
+        return isFree(roomNumber, checkIn.toEpochDay(), checkOut.toEpochDay());
+    }
+
+    /**
+     * Finds the rooms of a type that are free for every night of a stay.
+     *
+     * @param roomType wanted type, or {@code null} for any room
+     * @param checkIn first night
+     * @param checkOut day after the last night
+     * @param result room set from {@link #newRoomSet()}; overwritten with the free rooms
+     * @return number of free rooms
+     * @throws IllegalArgumentException if the stay is outside the calendar window
+     */
+    public int findFreeRooms(String roomType, LocalDate checkIn, LocalDate checkOut, long[] result) {
+        if (!covers(checkIn, checkOut)) {
+            throw new IllegalArgumentException("Stay is outside the calendar window.");
+        }
+        long fromDay = checkIn.toEpochDay();
+        long toDay = checkOut.toEpochDay();
+        long[] typed = roomType == null ? null : roomsByType.get(roomType);
+        int count = 0;
+        for (int w = 0; w < roomWords; w++) {
+            // Candidates in this word: all rooms, or rooms of the type plus untyped rooms
+            long candidates = roomType == null ? allRooms(w) : untypedRooms[w] | (typed == null ? 0L : typed[w]);
+            long free = 0L;
+            while (candidates != 0) {
+                int bit = Long.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1; // Drop the lowest candidate
+                if (isFree((w << 6) + bit + 1, fromDay, toDay)) {
+                    free |= 1L << bit;
+                }
+            }
+            result[w] = free;
+            count += Long.bitCount(free);
+        }
+        return count;
+    }
+
+    /**
+     * Moves the window forward so it starts at {@code newStart}. The slots of the nights that
+     * drop out are cleared and reused for the new nights at the end, which start out free.
+     * Moving backwards is not supported.
+     *
+     * @param newStart new first night
+     * @throws IllegalArgumentException if {@code newStart} is before the current start
+     */
+    public void advanceTo(LocalDate newStart) {
+        long newDay = newStart.toEpochDay();
+        if (newDay < startDay) {
+            throw new IllegalArgumentException("The calendar window cannot move backwards.");
+        }
+        long dropped = newDay - startDay;
+        if (dropped >= slots) {
+            clear(); // Nothing in the old window survives
+        } else if (dropped > 0) {
+            // Clear the slots the new nights at the end will use; they may still hold dropped nights
+            for (int room = 1; room <= roomCount; room++) {
+                setRange(room, startDay + horizonDays, newDay + horizonDays, false);
+            }
+        }
+        startDay = newDay;
+    }
+
+    /**
+     * Sets or clears the nights of a stay that fall inside the window.
+     */
+    private void update(int roomNumber, long fromDay, long toDay, boolean booked) {
+        if (roomNumber < 1 || roomNumber > roomCount) return;
+        long from = Math.max(fromDay, startDay);
+        long to = Math.min(toDay, startDay + horizonDays);
+        if (from < to) {
+            setRange(roomNumber, from, to, booked);
+        }
+    }
+
+    /**
+     * Checks that no night in {@code [fromDay, toDay)} is booked. The range must be inside the window.
+     */
+    private boolean isFree(int roomNumber, long fromDay, long toDay) {
+        int base = (roomNumber - 1) * wordsPerRoom;
+        int slot = (int) Math.floorMod(fromDay, (long) slots);
+        long remaining = toDay - fromDay;
+        while (remaining > 0) {
+            int bit = slot & 63;
+            int n = (int) Math.min(remaining, Math.min(64 - bit, slots - slot));
+            if ((nights[base + (slot >>> 6)] & mask(bit, n)) != 0) {
+                return false;
+            }
+            remaining -= n;
+            slot = (slot + n) % slots; // Wrap around the ring
+        }
+        return true;
+    }
+
+    /**
+     * Sets or clears the bits of {@code [fromDay, toDay)} for one room, a word at a time.
+     */
+    private void setRange(int roomNumber, long fromDay, long toDay, boolean value) {
+        int base = (roomNumber - 1) * wordsPerRoom;
+        int slot = (int) Math.floorMod(fromDay, (long) slots);
+        long remaining = Math.min(toDay - fromDay, slots);
+        while (remaining > 0) {
+            int bit = slot & 63;
+            int n = (int) Math.min(remaining, Math.min(64 - bit, slots - slot));
+            if (value) {
+                nights[base + (slot >>> 6)] |= mask(bit, n);
+            } else {
+                nights[base + (slot >>> 6)] &= ~mask(bit, n);
+            }
+            remaining -= n;
+            slot = (slot + n) % slots;
+        }
+    }
+
+    /**
+     * Gets a mask of {@code n} bits starting at {@code bit}.
+     */
+    private static long mask(int bit, int n) {
+        return (n == 64 ? -1L : (1L << n) - 1) << bit;
+    }
+
+    /**
+     * Gets the bits of word {@code w} that stand for existing rooms.
+     */
+    private long allRooms(int w) {
+        int rooms = roomCount - (w << 6);
+        return rooms >= 64 ? -1L : (1L << rooms) - 1;
+    }
+
+    /**
+     * Rejects room numbers outside 1 to {@code roomCount}.
+     */
+    private void checkRoom(int roomNumber) {
+        if (roomNumber < 1 || roomNumber > roomCount) {
+            throw new IllegalArgumentException("Room number must be between 1 and " + roomCount + ".");
+        }
+    }
+
+    private static void setBit(long[] set, int roomNumber) {
+        set[(roomNumber - 1) >>> 6] |= 1L << (roomNumber - 1);
+    }
+
+    private static void clearBit(long[] set, int roomNumber) {
+        set[(roomNumber - 1) >>> 6] &= ~(1L << (roomNumber - 1));
+    }
+
+    private static boolean testBit(long[] set, int roomNumber) {
+        return (set[(roomNumber - 1) >>> 6] & (1L << (roomNumber - 1))) != 0;
+    }
+}
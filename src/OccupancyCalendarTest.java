@@ -0,0 +1,75 @@
+/**
+ * OccupancyCalendarTest.java
+ *
+ * <p>This class contains unit tests for the {@link OccupancyCalendar} class. It verifies booking
+ * and releasing nights across word boundaries, free-room searches by type, and moving the
+ * rolling window forward.</p>
+ *
+ * @author Andres Vera
+ */
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+
+class OccupancyCalendarTest {
+    /** First night of every test calendar */
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    /**
+     * Tests that a stay crossing a 64-night word boundary blocks exactly its own nights.
+     */
+    @Test
+    void bookAndRelease() {
+        OccupancyCalendar calendar = new OccupancyCalendar(3, START, 730);
+        calendar.book(2, START.plusDays(60), START.plusDays(70));
+
+        assertFalse(calendar.isFree(2, START.plusDays(69), START.plusDays(71)));
+        assertTrue(calendar.isFree(2, START.plusDays(70), START.plusDays(72))); // Check-out day is free
+        assertTrue(calendar.isFree(2, START.plusDays(50), START.plusDays(60)));
+        assertTrue(calendar.isFree(1, START.plusDays(60), START.plusDays(70)));
+
+        calendar.release(2, START.plusDays(60), START.plusDays(70));
+        assertTrue(calendar.isFree(2, START.plusDays(60), START.plusDays(70)));
+    }
+
+    /**
+     * Tests that free-room searches honour room types and treat untyped rooms as any type.
+     */
+    @Test
+    void findFreeRooms_byType() {
+        OccupancyCalendar calendar = new OccupancyCalendar(70, START, 365);
+        calendar.setRoomType(1, "City View");
+        calendar.setRoomType(66, "City View");
+        for (int room = 2; room <= 65; room++) {
+            calendar.setRoomType(room, "Patio View");
+        }
+        calendar.book(1, START, START.plusDays(3));
+        long[] free = calendar.newRoomSet();
+
+        // Room 1 is booked; rooms 66 (City View) and 67-70 (untyped) are free
+        assertEquals(5, calendar.findFreeRooms("City View", START.plusDays(1), START.plusDays(2), free));
+        assertEquals(0L, free[0] & 1L);
+        assertNotEquals(0L, free[1] & (1L << (66 - 1 - 64)));
+        assertEquals(69, calendar.findFreeRooms(null, START, START.plusDays(1), free));
+    }
+
+    /**
+     * Tests that advancing the window keeps bookings that stay inside it and frees the new nights.
+     */
+    @Test
+    void advanceTo_reusesSlots() {
+        OccupancyCalendar calendar = new OccupancyCalendar(1, START, 100);
+        calendar.book(1, START.plusDays(10), START.plusDays(20));
+        calendar.book(1, START.plusDays(90), START.plusDays(100));
+
+        calendar.advanceTo(START.plusDays(50));
+        assertEquals(START.plusDays(150), calendar.getEnd());
+        assertFalse(calendar.isFree(1, START.plusDays(95), START.plusDays(96)));
+        // Nights 138-147 reuse the slots of old nights 10-19, which must not look booked
+        assertTrue(calendar.isFree(1, START.plusDays(100), START.plusDays(150)));
+        assertFalse(calendar.covers(START.plusDays(10), START.plusDays(20)));
+        assertThrows(IllegalArgumentException.class, () -> calendar.advanceTo(START));
+    }
+}
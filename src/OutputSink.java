@@ -0,0 +1,63 @@
+/**
+ * OutputSink.java
+ *
+ * <p>This interface is where a {@link ReservationManager} sends the confirmations, errors and
+ * listings it prints. By default that is the console; bulk jobs, tests and benchmarks can pass
+ * {@link #SILENT} instead, or any other destination.</p>
+ *
+ * <p>Listings are formatted into one reused buffer and handed over in large pieces, so a
+ * destination receives a few writes per thousands of lines rather than one per line.</p>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * manager.setOutput(OutputSink.SILENT);
+ * manager.loadFromFile("big_export.txt"); // No output
+ * manager.setOutput(OutputSink.console());
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.io.PrintStream;
+
+public interface OutputSink {
+    /** Discards everything */
+    OutputSink SILENT = text -> {
+    };
+
+    /**
+     * Writes text as is; it carries its own line breaks. The text does not change after the call,
+     * so a sink may keep it.
+     *
+     * @param text the text to write
+     */
+    void write(CharSequence text);
+
+    /**
+     * Writes one line.
+     *
+     * @param line the line, without a line break
+     */
+    default void println(CharSequence line) {
+        write(line + System.lineSeparator());
+    }
+
+    /**
+     * Gets a sink writing to whatever {@link System#out} is at the time of each write.
+     *
+     * @return the console sink
+     */
+    static OutputSink console() {
+        return text -> System.out.append(text);
+    }
+
+    /**
+     * Gets a sink writing to a stream.
+     *
+     * @param stream where to write
+     * @return a sink over {@code stream}
+     */
+    static OutputSink of(PrintStream stream) {
+        return stream::append;
+    }
+}
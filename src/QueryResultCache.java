@@ -0,0 +1,281 @@
+/**
+ * QueryResultCache.java
+ *
+ * <p>This class keeps the results of recent {@link DatabaseManager} queries (guest searches and
+ * room availability) so that repeating a query does not run it against the database again.
+ * It is bounded two ways:</p>
+ * <ul>
+ *     <li>by entries: once full, the least recently used result is evicted;</li>
+ *     <li>by age: a result older than the time to live is treated as a miss and dropped.</li>
+ * </ul>
+ *
+ * <p>Each result is stored with a test that tells whether a given reservation row could be
+ * part of it. When a write adds, changes or deletes a row, {@link #invalidate(ReservationRecord)}
+ * drops only the results whose test accepts that row (before or after the change), so searches
+ * for other guests stay cached. Results with more than {@link #DEFAULT_MAX_ROWS} rows are not
+ * kept at all.</p>
+ *
+ * <p>A query that started before a write finished could still see the old rows. Every
+ * invalidation therefore bumps a version number, and {@link #put} ignores a result whose query
+ * started at an older version.</p>
+ *
+ * <p>All methods are synchronized; the database manager calls them from reader threads and from
+ * its background writer.</p>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * QueryResultCache cache = dbManager.getQueryCache();
+ * System.out.println(cache); // Hits, misses, evictions and invalidations so far
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+public class QueryResultCache {
+    /** Number of results kept when no limit is given */
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+    /** Age after which a result is dropped when no time to live is given */
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+    /** Largest result, in rows, that is kept */
+    public static final int DEFAULT_MAX_ROWS = 1000;
+
+    /** Most results kept at once */
+    private final int maxEntries;
+    /** Time to live of each result, in nanoseconds */
+    private final long ttlNanos;
+    /** Cached results by key, least recently used first */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /** Bumped by every invalidation; see {@link #put} */
+    private long version;
+
+    /** Lookups answered from the cache */
+    private long hits;
+    /** Lookups that had to run the query */
+    private long misses;
+    /** Results dropped because the cache was full or they were too old */
+    private long evictions;
+    /** Results dropped because a write touched matching rows */
+    private long invalidations;
+
+    /**
+     * Creates a cache with {@link #DEFAULT_MAX_ENTRIES} entries and {@link #DEFAULT_TTL}.
+     */
+    public QueryResultCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL);
+    }
+
+    /**
+     * Creates a cache with the given limits.
+     *
+     * @param maxEntries most results kept at once; 0 disables caching
+     * @param ttl how long a result may be served after it was read
+     */
+    public QueryResultCache(int maxEntries, Duration ttl) {
+        if (maxEntries < 0 || ttl.isNegative()) {
+            throw new IllegalArgumentException("Cache size and time to live cannot be negative.");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Builds the key of a guest search. Both the trigram index and LIKE ignore the case of ASCII
+     * letters, so those are folded; everything else is kept as typed.
+     *
+     * @param kind which search (e.g. name, or name and email)
+     * @param keyword the text searched for
+     * @return the cache key
+     */
+    public static String searchKey(String kind, String keyword) {
+        StringBuilder sb = new StringBuilder(kind.length() + keyword.length() + 1).append(kind).append(':');
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = keyword.charAt(i);
+            sb.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Builds a test accepting every row whose given fields contain {@code keyword}, ignoring
+     * case. LIKE treats {@code %} and {@code _} as wildcards, so a keyword with either accepts
+     * every row.
+     *
+     * @param keyword the text searched for
+     * @param matchEmail whether the email is searched as well as the name
+     * @return the test used to invalidate the search
+     */
+    public static Predicate<ReservationRecord> containing(String keyword, boolean matchEmail) {
+        if (keyword.indexOf('%') >= 0 || keyword.indexOf('_') >= 0) {
+            return row -> true;
+        }
+        String needle = keyword.toLowerCase(Locale.ROOT);
+        return row -> contains(row.getGuestName(), needle) || (matchEmail && contains(row.getGuestEmail(), needle));
+    }
+
+    /**
+     * Builds a test accepting every row that occupies at least one night from {@code checkInDay}
+     * up to, but not including, {@code checkOutDay}.
+     *
+     * @param checkInDay first night, as an epoch day
+     * @param checkOutDay departure day, as an epoch day
+     * @return the test used to invalidate an availability result
+     */
+    public static Predicate<ReservationRecord> overlapping(long checkInDay, long checkOutDay) {
+        return row -> row.getCheckInDay() == ReservationRecord.NO_DAY
+                || (row.getCheckInDay() < checkOutDay && row.getCheckOutDay() > checkInDay);
+    }
+
+    private static boolean contains(String field, String needle) {
+        return field != null && field.toLowerCase(Locale.ROOT).contains(needle);
+    }
+
+    /**
+     * Looks up a cached result.
+     *
+     * @param key the query key
+     * @param <T> row type
+     * @return the rows, or {@code null} on a miss
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> List<T> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.readAt > ttlNanos) {
+            entries.remove(key); // Too old
+            evictions++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return (List<T>) entry.rows;
+    }
+
+    /**
+     * Gets the version to pass to {@link #put} for a query about to run.
+     *
+     * @return the current version
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Stores a result, unless a write was invalidated since the query started or the result is
+     * larger than {@link #DEFAULT_MAX_ROWS}.
+     *
+     * @param key the query key
+     * @param rows the result, which must not be changed afterwards
+     * @param affectedBy accepts every row that could be part of this result
+     * @param startVersion {@link #version()} taken before the query ran
+     */
+    public synchronized void put(String key, List<?> rows, Predicate<ReservationRecord> affectedBy, long startVersion) {
+        if (startVersion != version || rows.size() > DEFAULT_MAX_ROWS || maxEntries == 0) {
+            return;
+        }
+        entries.put(key, new Entry(rows, affectedBy, System.nanoTime()));
+        if (entries.size() > maxEntries) {
+            Iterator<Entry> eldest = entries.values().iterator();
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Drops every result that {@code row} could belong to. Call it after a write commits, once
+     * with the row as it was and once as it is now.
+     *
+     * @param row a reservation row that was added, changed or deleted
+     */
+    public synchronized void invalidate(ReservationRecord row) {
+        version++;
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().affectedBy.test(row)) {
+                it.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    /**
+     * Drops every result, e.g. after a bulk import or when another database is opened.
+     */
+    public synchronized void clear() {
+        version++;
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    /**
+     * Gets the number of results currently cached.
+     *
+     * @return cached results
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of lookups answered from the cache.
+     *
+     * @return hits so far
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that had to run the query.
+     *
+     * @return misses so far
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of results dropped because the cache was full or they expired.
+     *
+     * @return evictions so far
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Gets the number of results dropped because a write touched their rows.
+     *
+     * @return invalidations so far
+     */
+    public synchronized long getInvalidationCount() {
+        return invalidations;
+    }
+
+    /**
+     * Returns the counters in one line.
+     *
+     * @return summary of the cache counters
+     */
+    @Override
+    public synchronized String toString() {
+        return "Query cache: " + entries.size() + " result(s), " + hits + " hit(s), " + misses + " miss(es), "
+                + evictions + " eviction(s), " + invalidations + " invalidation(s)";
+    }
+
+    /**
+     * One cached result.
+     */
+    private record Entry(List<?> rows, Predicate<ReservationRecord> affectedBy, long readAt) {
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * QueryResultCacheTest.java
+ *
+ * <p>This class contains unit tests for the {@link QueryResultCache} class.</p>
+ *
+ * @author Andres Vera
+ */
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+class QueryResultCacheTest {
+
+    /**
+     * Tests that a write drops only the searches whose rows it touched, and counts the hits,
+     * misses and invalidations.
+     */
+    @Test
+    void invalidate_dropsOnlyMatchingSearches() {
+        QueryResultCache cache = new QueryResultCache();
+        ReservationRecord ana = row("Ana Diaz", "ana@example.com", "2025-03-01", "2025-03-04");
+        put(cache, "name", "ana", List.of(ana), false);
+        put(cache, "name", "luis", List.of(), false);
+
+        assertEquals(List.of(ana), cache.get(QueryResultCache.searchKey("name", "ANA"))); // Same key ignoring case
+        cache.invalidate(row("Luis Ramos", "luis@example.com", "2025-03-01", "2025-03-02"));
+
+        assertNull(cache.get(QueryResultCache.searchKey("name", "luis")));
+        assertNotNull(cache.get(QueryResultCache.searchKey("name", "ana")));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getInvalidationCount());
+    }
+
+    /**
+     * Tests that a name and email search is dropped by a row matching only on its email, and
+     * that wildcard keywords are dropped by any write.
+     */
+    @Test
+    void invalidate_matchesEmailAndWildcards() {
+        QueryResultCache cache = new QueryResultCache();
+        put(cache, "any", "example.org", List.of(), true);
+        put(cache, "name", "a_a", List.of(), false);
+        put(cache, "name", "pedro", List.of(), false);
+
+        cache.invalidate(row("Sofia Diaz", "sofia@example.org", "2025-03-01", "2025-03-02"));
+
+        assertNull(cache.get(QueryResultCache.searchKey("any", "example.org")));
+        assertNull(cache.get(QueryResultCache.searchKey("name", "a_a")));
+        assertNotNull(cache.get(QueryResultCache.searchKey("name", "pedro")));
+    }
+
+    /**
+     * Tests that availability results are dropped only by stays sharing at least one night.
+     */
+    @Test
+    void invalidate_availabilityByOverlappingNights() {
+        QueryResultCache cache = new QueryResultCache();
+        long first = LocalDate.parse("2025-03-10").toEpochDay();
+        cache.put("rooms", List.of(1, 2), QueryResultCache.overlapping(first, first + 3), cache.version());
+
+        cache.invalidate(row("Ana Diaz", "ana@example.com", "2025-03-08", "2025-03-10")); // Leaves on the first day
+        assertNotNull(cache.get("rooms"));
+        cache.invalidate(row("Ana Diaz", "ana@example.com", "2025-03-12", "2025-03-15"));
+        assertNull(cache.get("rooms"));
+    }
+
+    /**
+     * Tests the size bound, the time to live and the eviction counter.
+     */
+    @Test
+    void limits_evictLeastRecentlyUsedAndExpired() throws InterruptedException {
+        QueryResultCache cache = new QueryResultCache(2, Duration.ofHours(1));
+        put(cache, "name", "ana", List.of(), false);
+        put(cache, "name", "luis", List.of(), false);
+        cache.get(QueryResultCache.searchKey("name", "ana")); // Now most recently used
+        put(cache, "name", "maria", List.of(), false);
+
+        assertNull(cache.get(QueryResultCache.searchKey("name", "luis")));
+        assertNotNull(cache.get(QueryResultCache.searchKey("name", "ana")));
+        assertEquals(1, cache.getEvictionCount());
+
+        QueryResultCache shortLived = new QueryResultCache(2, Duration.ofMillis(1));
+        put(shortLived, "name", "ana", List.of(), false);
+        Thread.sleep(5);
+        assertNull(shortLived.get(QueryResultCache.searchKey("name", "ana")));
+        assertEquals(1, shortLived.getEvictionCount());
+    }
+
+    /**
+     * Tests that a result read before a write finished is not stored.
+     */
+    @Test
+    void put_ignoresResultOlderThanLastWrite() {
+        QueryResultCache cache = new QueryResultCache();
+        long version = cache.version(); // Query starts
+        cache.invalidate(row("Ana Diaz", "ana@example.com", "2025-03-01", "2025-03-02")); // Write commits meanwhile
+        cache.put(QueryResultCache.searchKey("name", "ana"), List.of(), QueryResultCache.containing("ana", false), version);
+
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Stores a search result the way the database manager does.
+     */
+    private static void put(QueryResultCache cache, String kind, String keyword, List<ReservationRecord> rows, boolean email) {
+        cache.put(QueryResultCache.searchKey(kind, keyword), rows, QueryResultCache.containing(keyword, email), cache.version());
+    }
+
+    /**
+     * Builds a stored row with the given guest and dates.
+     */
+    private static ReservationRecord row(String name, String email, String checkIn, String checkOut) {
+        return new ReservationRecord(1, name, email, 1, "City View", 90.0, 1, checkIn, checkOut);
+    }
+}
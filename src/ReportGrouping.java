@@ -0,0 +1,86 @@
+/**
+ * ReportGrouping.java
+ *
+ * <p>This enum lists how {@link DatabaseManager#getRevenueReport(ReportGrouping, LocalDate, LocalDate)}
+ * can group its totals. Each value carries the SQL expression used as the {@code GROUP BY} key,
+ * so the aggregation runs inside SQLite and no individual reservation is loaded into memory.</p>
+ *
+ * <p>The time groupings work on single nights: a stay from Monday to Thursday adds one
+ * room-night (and one night's rate) to each of Monday, Tuesday and Wednesday, so a stay that
+ * crosses a week or month boundary is split between both periods. Weeks start on Monday.</p>
+ *
+ * @author Andres Vera
+ */
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+public enum ReportGrouping {
+    /** One row per room type */
+    ROOM_TYPE("room_type", false),
+    /** One row per room number */
+    ROOM_NUMBER("room_number", false),
+    /** One row per night */
+    DAY("day", true),
+    /** One row per week, Monday to Sunday (epoch day 0 was a Thursday) */
+    WEEK("day - ((day + 3) % 7 + 7) % 7", true),
+    /** One row per calendar month */
+    MONTH("CAST(julianday(day * 86400, 'unixepoch', 'start of month') - 2440587.5 AS INTEGER)", true);
+
+    /** Format of month labels, e.g. 2025-07 */
+    private static final DateTimeFormatter MONTH_LABEL = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    /** SQL expression for the group key; time groupings work on the epoch-day column {@code day} */
+    private final String keyExpression;
+    /** Whether the key is the epoch day a period starts on */
+    private final boolean timeBased;
+
+    /**
+     * Creates a grouping.
+     *
+     * @param keyExpression SQL group key
+     * @param timeBased whether the key is a period start day
+     */
+    ReportGrouping(String keyExpression, boolean timeBased) {
+        this.keyExpression = keyExpression;
+        this.timeBased = timeBased;
+    }
+
+    /**
+     * Gets the SQL expression grouped on.
+     */
+    String getKeyExpression() {
+        return keyExpression;
+    }
+
+    /**
+     * Checks whether rows are periods of time rather than rooms.
+     *
+     * @return {@code true} for DAY, WEEK and MONTH
+     */
+    public boolean isTimeBased() {
+        return timeBased;
+    }
+
+    /**
+     * Gets the day after the last day of the period starting on {@code start}.
+     */
+    LocalDate periodEnd(LocalDate start) {
+        return switch (this) {
+            case WEEK -> start.plusWeeks(1);
+            case MONTH -> start.plusMonths(1);
+            default -> start.plusDays(1);
+        };
+    }
+
+    /**
+     * Gets the display label of the period starting on {@code start}.
+     */
+    String periodLabel(LocalDate start) {
+        return switch (this) {
+            case WEEK -> "Week of " + start;
+            case MONTH -> start.format(MONTH_LABEL);
+            default -> start.toString();
+        };
+    }
+}
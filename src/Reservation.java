@@ -7,19 +7,32 @@
  * <p>It includes logic to calculate the total cost of the reservation based on the room rate
  * and number of nights.</p>
  *
+ * <p>A reservation may also carry check-in and check-out dates. Dated reservations take part in
+ * the overlap checks in {@link ReservationManager}; reservations created with only a number of
+ * nights (for example from older files) do not block any dates.</p>
+ *
  * <p><b>Input:</b> Guest information, room details, number of nights<br>
  * <b>Output:</b> Total cost and full reservation details</p>
  *
  * @author Andres Vera
  */
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
 public class Reservation {
+    /** ID given by {@link ReservationManager} when the reservation is added, or 0 before that */
+    private long id;
     /** Guest making the reservation */
     private Guest guest;
     /** Room that the guest is reserving */
     private Room room;
     /** Number of nights the guest will stay */
     private int nights;
+    /** First night of the stay, or {@code null} if the reservation has no dates */
+    private LocalDate checkIn;
+    /** Day the guest leaves, or {@code null} if the reservation has no dates */
+    private LocalDate checkOut;
 
     /**
      * Constructs a Reservation object with a guest, room, and number of nights.
@@ -34,6 +47,45 @@ public class Reservation {
         this.nights = nights;
     }
 
+    /**
+     * Constructs a dated Reservation. The number of nights is taken from the dates.
+     *
+     * @param guest the guest making the reservation
+     * @param room the room assigned to the guest
+     * @param checkIn the first night of the stay
+     * @param checkOut the day the guest leaves (must be after check-in)
+     * @throws IllegalArgumentException if check-out is not after check-in
+     */
+    public Reservation(Guest guest, Room room, LocalDate checkIn, LocalDate checkOut) {
+        if (!checkOut.isAfter(checkIn)) {
+            throw new IllegalArgumentException("Check-out must be after check-in.");
+        }
+        this.guest = guest;
+        this.room = room;
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+        this.nights = (int) ChronoUnit.DAYS.between(checkIn, checkOut);
+    }
+
+    /**
+     * Gets the ID this reservation was given by {@link ReservationManager}. It does not change
+     * when other reservations are removed.
+     *
+     * @return reservation ID, or 0 if the reservation has not been added to a manager
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the reservation ID; only {@link ReservationManager} assigns IDs.
+     *
+     * @param id the new ID
+     */
+    void setId(long id) {
+        this.id = id;
+    }
+
     /**
      * Gets the guest associated with this reservation.
      *
@@ -63,6 +115,46 @@ public class Reservation {
         return nights;
     }
 
+    /**
+     * Gets the check-in date.
+     *
+     * @return first night of the stay, or {@code null} if the reservation has no dates
+     */
+    public LocalDate getCheckIn() {
+        return checkIn;
+    }
+
+    /**
+     * Gets the check-out date.
+     *
+     * @return day the guest leaves, or {@code null} if the reservation has no dates
+     */
+    public LocalDate getCheckOut() {
+        return checkOut;
+    }
+
+    /**
+     * Checks whether this reservation has check-in and check-out dates.
+     *
+     * @return {@code true} if both dates are set
+     */
+    public boolean hasDates() {
+        return checkIn != null && checkOut != null;
+    }
+
+    /**
+     * Checks whether this reservation's stay overlaps {@code [from, to)}. The check-out day
+     * itself is free, so back-to-back stays do not overlap.
+     *
+     * @param from first night of the other stay
+     * @param to check-out day of the other stay
+     * @return {@code true} if both stays share at least one night; always {@code false} for
+     *         reservations without dates
+     */
+    public boolean overlaps(LocalDate from, LocalDate to) {
+        return hasDates() && checkIn.isBefore(to) && checkOut.isAfter(from);
+    }
+
     /**
      * Calculates the total cost of the reservation.
      *
@@ -72,16 +164,31 @@ public class Reservation {
         return room.getRate() *  nights;
     }
 
+    /**
+     * Appends the same text as {@link #toString()} to a builder, so listings can reuse one
+     * buffer instead of building a string per reservation and per guest and room.
+     *
+     * @param sb the builder to append to
+     * @return the same builder
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        guest.appendTo(sb).append(" *** ");
+        room.appendTo(sb).append(" *** Nights:").append(nights);
+        if (hasDates()) {
+            sb.append(" *** Check-In: ").append(checkIn).append(" *** Check-Out: ").append(checkOut);
+        }
+        return sb.append(" *** Total: $").append(calculateTotal());
+    }
+
     /**
      * Returns a formatted string representation of the reservation,
-     * including guest info, room details, nights, and total cost.
+     * including guest info, room details, nights, dates (if any), and total cost.
      *
      * @return string summary of the reservation
      */
     @Override
     public String toString() {
-        return guest.toString() + " *** " +  room.toString() +
-                " *** Nights:" + nights + " *** Total: $" + calculateTotal();
+        return appendTo(new StringBuilder(160)).toString();
     }
 
 }
@@ -0,0 +1,424 @@
+/**
+ * ReservationColumns.java
+ *
+ * <p>This class is a read-only, column-oriented copy of the reservations in a
+ * {@link ReservationManager}, made for analytics over millions of rows. Instead of one
+ * {@link Reservation}, {@link Room} and {@link Guest} object per row, each field is kept in its own
+ * primitive array:</p>
+ * <ul>
+ *     <li>{@code id}, {@code room}, {@code nights} and {@code rateCents} (the nightly rate in cents);</li>
+ *     <li>room type and guest as small integer codes into a dictionary of distinct values
+ *     (guests are identified by their lower-cased email).</li>
+ * </ul>
+ *
+ * <p>The aggregate methods are plain loops over those arrays, so they read memory in order and
+ * never follow a pointer per row. Large snapshots are split into chunks that are summed in
+ * parallel on the common fork/join pool.</p>
+ *
+ * <p>Snapshots come from {@link ReservationManager#getColumns()}. The manager appends new
+ * reservations to its columns as they are added, so taking another snapshot after adds costs
+ * nothing; a removal or update makes it rebuild the columns on the next call. A snapshot never
+ * changes after it is taken.</p>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * ReservationColumns columns = manager.getColumns();
+ * long revenueCents = columns.totalRevenueCents();
+ * Map<String, Long> byType = columns.revenueCentsByRoomType();
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+public class ReservationColumns {
+    /** Rows per parallel chunk; smaller snapshots are aggregated on the calling thread */
+    static final int CHUNK_ROWS = 1 << 16;
+
+    /** Number of rows */
+    private final int rowCount;
+    /** Reservation ID of each row */
+    private final long[] id;
+    /** Room number of each row */
+    private final int[] room;
+    /** Nights of each row */
+    private final int[] nights;
+    /** Nightly rate of each row, in cents */
+    private final long[] rateCents;
+    /** Room type code of each row, an index into {@link #roomTypes} */
+    private final int[] roomTypeCode;
+    /** Guest code of each row, an index into {@link #guests} */
+    private final int[] guestCode;
+    /** Distinct room types, by code */
+    private final String[] roomTypes;
+    /** Number of distinct room types */
+    private final int roomTypeCount;
+    /** Distinct guest emails (lower-cased), by code */
+    private final String[] guests;
+    /** Number of distinct guests */
+    private final int guestCount;
+
+    /**
+     * Creates a snapshot of the first {@code builder.rowCount} rows of a builder. The arrays are
+     * shared, not copied: the builder only ever writes past the rows a snapshot can see, and it
+     * moves to new arrays when it grows.
+     */
+    private ReservationColumns(Builder builder) {
+        rowCount = builder.rowCount;
+        id = builder.id;
+        room = builder.room;
+        nights = builder.nights;
+        rateCents = builder.rateCents;
+        roomTypeCode = builder.roomTypeCode;
+        guestCode = builder.guestCode;
+        roomTypes = builder.roomTypes;
+        roomTypeCount = builder.roomTypeCount;
+        guests = builder.guests;
+        guestCount = builder.guestCount;
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return row count
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the reservation ID of a row.
+     *
+     * @param row row index
+     * @return reservation ID
+     */
+    public long getId(int row) {
+        return id[checkRow(row)];
+    }
+
+    /**
+     * Gets the room number of a row.
+     *
+     * @param row row index
+     * @return room number
+     */
+    public int getRoom(int row) {
+        return room[checkRow(row)];
+    }
+
+    /**
+     * Gets the number of nights of a row.
+     *
+     * @param row row index
+     * @return nights
+     */
+    public int getNights(int row) {
+        return nights[checkRow(row)];
+    }
+
+    /**
+     * Gets the nightly rate of a row.
+     *
+     * @param row row index
+     * @return nightly rate in cents
+     */
+    public long getRateCents(int row) {
+        return rateCents[checkRow(row)];
+    }
+
+    /**
+     * Gets the room type of a row.
+     *
+     * @param row row index
+     * @return room type
+     */
+    public String getRoomType(int row) {
+        return roomTypes[roomTypeCode[checkRow(row)]];
+    }
+
+    /**
+     * Gets the guest email (lower-cased) of a row.
+     *
+     * @param row row index
+     * @return guest email
+     */
+    public String getGuestEmail(int row) {
+        return guests[guestCode[checkRow(row)]];
+    }
+
+    /**
+     * Gets the number of distinct guests.
+     *
+     * @return distinct guest count
+     */
+    public int getGuestCount() {
+        return guestCount;
+    }
+
+    /**
+     * Sums the total of every reservation (rate times nights).
+     *
+     * @return revenue in cents
+     */
+    public long totalRevenueCents() {
+        if (rowCount < CHUNK_ROWS) {
+            return revenueCents(0, rowCount);
+        }
+        return chunks().mapToLong(chunk -> revenueCents(chunkStart(chunk), chunkEnd(chunk))).sum();
+    }
+
+    /**
+     * Sums the nights of every reservation.
+     *
+     * @return total room-nights
+     */
+    public long totalNights() {
+        if (rowCount < CHUNK_ROWS) {
+            return nights(0, rowCount);
+        }
+        return chunks().mapToLong(chunk -> nights(chunkStart(chunk), chunkEnd(chunk))).sum();
+    }
+
+    /**
+     * Sums revenue per room type.
+     *
+     * @return revenue in cents by room type, in order of first appearance
+     */
+    public Map<String, Long> revenueCentsByRoomType() {
+        long[] byCode = rowCount < CHUNK_ROWS
+                ? revenueCentsByType(0, rowCount)
+                : chunks().mapToObj(chunk -> revenueCentsByType(chunkStart(chunk), chunkEnd(chunk)))
+                        .reduce(ReservationColumns::add).orElseGet(() -> new long[roomTypeCount]);
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int code = 0; code < roomTypeCount; code++) {
+            result.put(roomTypes[code], byCode[code]);
+        }
+        return result;
+    }
+
+    /**
+     * Sums revenue per room number.
+     *
+     * @param roomCount highest room number to report; rows of higher rooms are left out
+     * @return revenue in cents, indexed by room number (index 0 is unused)
+     * @throws IllegalArgumentException if {@code roomCount} is negative
+     */
+    public long[] revenueCentsByRoom(int roomCount) {
+        if (roomCount < 0) {
+            throw new IllegalArgumentException("Room count must not be negative.");
+        }
+        if (rowCount < CHUNK_ROWS) {
+            return revenueCentsByRoom(roomCount, 0, rowCount);
+        }
+        return chunks().mapToObj(chunk -> revenueCentsByRoom(roomCount, chunkStart(chunk), chunkEnd(chunk)))
+                .reduce(ReservationColumns::add).orElseGet(() -> new long[roomCount + 1]);
+    }
+
+    /**
+     * Counts reservations by length of stay.
+     *
+     * @param maxNights last bucket; longer stays are counted in it too
+     * @return counts indexed by nights, from 0 to {@code maxNights}
+     * @throws IllegalArgumentException if {@code maxNights} is negative
+     */
+    public long[] nightsHistogram(int maxNights) {
+        if (maxNights < 0) {
+            throw new IllegalArgumentException("Maximum nights must not be negative.");
+        }
+        if (rowCount < CHUNK_ROWS) {
+            return nightsHistogram(maxNights, 0, rowCount);
+        }
+        return chunks().mapToObj(chunk -> nightsHistogram(maxNights, chunkStart(chunk), chunkEnd(chunk)))
+                .reduce(ReservationColumns::add).orElseGet(() -> new long[maxNights + 1]);
+    }
+
+    /**
+     * Sums the revenue of rows {@code [from, to)}.
+     */
+    private long revenueCents(int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += rateCents[i] * nights[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Sums the nights of rows {@code [from, to)}.
+     */
+    private long nights(int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += nights[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Sums the revenue of rows {@code [from, to)} per room type code.
+     */
+    private long[] revenueCentsByType(int from, int to) {
+        long[] sums = new long[roomTypeCount];
+        for (int i = from; i < to; i++) {
+            sums[roomTypeCode[i]] += rateCents[i] * nights[i];
+        }
+        return sums;
+    }
+
+    /**
+     * Sums the revenue of rows {@code [from, to)} per room number.
+     */
+    private long[] revenueCentsByRoom(int roomCount, int from, int to) {
+        long[] sums = new long[roomCount + 1];
+        for (int i = from; i < to; i++) {
+            int r = room[i];
+            if (r >= 0 && r <= roomCount) {
+                sums[r] += rateCents[i] * nights[i];
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * Counts rows {@code [from, to)} by nights.
+     */
+    private long[] nightsHistogram(int maxNights, int from, int to) {
+        long[] counts = new long[maxNights + 1];
+        for (int i = from; i < to; i++) {
+            counts[Math.max(0, Math.min(nights[i], maxNights))]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Adds {@code b} into {@code a} element by element and returns {@code a}.
+     */
+    private static long[] add(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] += b[i];
+        }
+        return a;
+    }
+
+    /**
+     * Streams the chunk numbers in parallel.
+     */
+    private IntStream chunks() {
+        return IntStream.range(0, (rowCount + CHUNK_ROWS - 1) / CHUNK_ROWS).parallel();
+    }
+
+    /**
+     * Gets the first row of a chunk.
+     */
+    private static int chunkStart(int chunk) {
+        return chunk * CHUNK_ROWS;
+    }
+
+    /**
+     * Gets the row after the last one of a chunk.
+     */
+    private int chunkEnd(int chunk) {
+        return (int) Math.min((long) (chunk + 1) * CHUNK_ROWS, rowCount);
+    }
+
+    /**
+     * Rejects rows past the end of the snapshot, which the shared arrays may already hold.
+     */
+    private int checkRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of " + rowCount);
+        }
+        return row;
+    }
+
+    /**
+     * Collects rows one reservation at a time. Rows are only ever appended, which is what lets
+     * snapshots share the arrays.
+     */
+    static class Builder {
+        /** Initial capacity of every column */
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private int rowCount;
+        private long[] id = new long[INITIAL_CAPACITY];
+        private int[] room = new int[INITIAL_CAPACITY];
+        private int[] nights = new int[INITIAL_CAPACITY];
+        private long[] rateCents = new long[INITIAL_CAPACITY];
+        private int[] roomTypeCode = new int[INITIAL_CAPACITY];
+        private int[] guestCode = new int[INITIAL_CAPACITY];
+        private String[] roomTypes = new String[8];
+        private int roomTypeCount;
+        private String[] guests = new String[INITIAL_CAPACITY];
+        private int guestCount;
+        /** Code of each room type seen so far */
+        private final Map<String, Integer> roomTypeCodes = new HashMap<>();
+        /** Code of each guest email seen so far */
+        private final Map<String, Integer> guestCodes = new HashMap<>();
+
+        /**
+         * Appends one reservation as a row.
+         *
+         * @param reservation the reservation to add
+         */
+        void append(Reservation reservation) {
+            if (rowCount == id.length) {
+                int capacity = rowCount * 2;
+                id = Arrays.copyOf(id, capacity);
+                room = Arrays.copyOf(room, capacity);
+                nights = Arrays.copyOf(nights, capacity);
+                rateCents = Arrays.copyOf(rateCents, capacity);
+                roomTypeCode = Arrays.copyOf(roomTypeCode, capacity);
+                guestCode = Arrays.copyOf(guestCode, capacity);
+            }
+            id[rowCount] = reservation.getId();
+            room[rowCount] = reservation.getRoom().getRoomNumber();
+            nights[rowCount] = reservation.getNights();
+            rateCents[rowCount] = Math.round(reservation.getRoom().getRate() * 100);
+            roomTypeCode[rowCount] = roomTypeCode(reservation.getRoom().getType());
+            guestCode[rowCount] = guestCode(reservation.getGuest().getEmail().toLowerCase());
+            rowCount++;
+        }
+
+        /**
+         * Takes a snapshot of the rows appended so far.
+         *
+         * @return the snapshot
+         */
+        ReservationColumns build() {
+            return new ReservationColumns(this);
+        }
+
+        /**
+         * Gets the code of a room type, adding it to the dictionary if new.
+         */
+        private int roomTypeCode(String type) {
+            Integer code = roomTypeCodes.get(type);
+            if (code != null) return code;
+            if (roomTypeCount == roomTypes.length) {
+                roomTypes = Arrays.copyOf(roomTypes, roomTypeCount * 2); // Snapshots keep the old array
+            }
+            roomTypes[roomTypeCount] = type;
+            roomTypeCodes.put(type, roomTypeCount);
+            return roomTypeCount++;
+        }
+
+        /**
+         * Gets the code of a guest, adding it to the dictionary if new.
+         */
+        private int guestCode(String email) {
+            Integer code = guestCodes.get(email);
+            if (code != null) return code;
+            if (guestCount == guests.length) {
+                guests = Arrays.copyOf(guests, guestCount * 2);
+            }
+            guests[guestCount] = email;
+            guestCodes.put(email, guestCount);
+            return guestCount++;
+        }
+    }
+}
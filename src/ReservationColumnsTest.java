@@ -0,0 +1,107 @@
+/**
+ * ReservationColumnsTest.java
+ *
+ * <p>This class contains unit tests for the {@link ReservationColumns} class and
+ * {@link ReservationManager#getColumns()}.</p>
+ *
+ * @author Andres Vera
+ */
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+class ReservationColumnsTest {
+
+    /**
+     * Tests that the aggregates match totals computed from the reservation objects.
+     */
+    @Test
+    void aggregates_matchReservations() {
+        ReservationManager manager = new ReservationManager();
+        manager.addReservation(new Reservation(new Guest("Ana", "ana@example.com"), new Room(1, "City View", 90.0), 2));
+        manager.addReservation(new Reservation(new Guest("Ana", "ANA@example.com"), new Room(2, "Patio View", 70.0), 3));
+        manager.addReservation(new Reservation(new Guest("Luis", "luis@example.com"), new Room(1, "City View", 90.0), 9));
+
+        ReservationColumns columns = manager.getColumns();
+        assertEquals(3, columns.getRowCount());
+        assertEquals(2, columns.getGuestCount()); // Emails compare without case
+        assertEquals(14, columns.totalNights());
+
+        double expected = 0;
+        for (Reservation reservation : manager.getReservations()) {
+            expected += reservation.calculateTotal();
+        }
+        assertEquals(Math.round(expected * 100), columns.totalRevenueCents());
+
+        Map<String, Long> byType = columns.revenueCentsByRoomType();
+        assertEquals(99_000L, byType.get("City View"));
+        assertEquals(21_000L, byType.get("Patio View"));
+        assertEquals(99_000L, columns.revenueCentsByRoom(18)[1]);
+
+        long[] histogram = columns.nightsHistogram(7);
+        assertEquals(1, histogram[2]);
+        assertEquals(1, histogram[3]);
+        assertEquals(1, histogram[7]); // 9 nights falls in the last bucket
+
+        assertThrows(IllegalArgumentException.class, () -> columns.revenueCentsByRoom(-1));
+        assertThrows(IllegalArgumentException.class, () -> columns.nightsHistogram(-1));
+    }
+
+    /**
+     * Tests that a snapshot does not change when reservations are added or removed later, and
+     * that later snapshots include those changes.
+     */
+    @Test
+    void snapshots_areStable() {
+        ReservationManager manager = new ReservationManager();
+        Reservation first = new Reservation(new Guest("Ana", "ana@example.com"), new Room(1, "City View", 90.0), 1);
+        manager.addReservation(first);
+        ReservationColumns before = manager.getColumns();
+
+        // Enough adds to make the columns grow past their first arrays
+        for (int i = 0; i < 2000; i++) {
+            manager.addReservation(new Reservation(new Guest("Luis", "luis" + i + "@example.com"), new Room(2, "Patio View", 70.0), 1));
+        }
+        ReservationColumns afterAdds = manager.getColumns();
+        manager.removeReservationById(first.getId());
+        ReservationColumns afterRemove = manager.getColumns();
+
+        assertEquals(1, before.getRowCount());
+        assertEquals(9_000L, before.totalRevenueCents());
+        assertThrows(IndexOutOfBoundsException.class, () -> before.getRoom(1));
+        assertEquals(2001, afterAdds.getRowCount());
+        assertEquals(first.getId(), afterAdds.getId(0));
+        assertEquals(2000, afterRemove.getRowCount());
+        assertEquals(2000 * 7_000L, afterRemove.totalRevenueCents());
+        assertEquals("Patio View", afterRemove.getRoomType(0));
+    }
+
+    /**
+     * Tests that the parallel path over several chunks gives the same answers as a plain loop.
+     */
+    @Test
+    void parallelAggregates_matchSequential() {
+        ReservationManager manager = new ReservationManager();
+        int rows = ReservationColumns.CHUNK_ROWS * 2 + 123;
+        long expectedCents = 0;
+        manager.setOutput(OutputSink.SILENT); // One line per add
+        for (int i = 0; i < rows; i++) {
+            int nights = i % 5 + 1;
+            manager.addReservation(new Reservation(new Guest("Guest", "guest@example.com"),
+                    new Room(i % 18 + 1, i % 2 == 0 ? "City View" : "Patio View", i % 2 == 0 ? 90.0 : 70.0), nights));
+            expectedCents += (i % 2 == 0 ? 9_000L : 7_000L) * nights;
+        }
+
+        ReservationColumns columns = manager.getColumns();
+        assertEquals(expectedCents, columns.totalRevenueCents());
+        Map<String, Long> byType = columns.revenueCentsByRoomType();
+        assertEquals(expectedCents, byType.get("City View") + byType.get("Patio View"));
+        long count = 0;
+        for (long bucket : columns.nightsHistogram(5)) {
+            count += bucket;
+        }
+        assertEquals(rows, count);
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * ReservationEvent.java
+ *
+ * <p>This class is one change published by a {@link ReservationEventFeed}: a reservation that
+ * was added, updated or deleted, with the row before and after the change. Every event has a
+ * sequence number, one higher than the event before it, which a subscriber keeps to resume
+ * where it left off.</p>
+ *
+ * <p>Two events describe many reservations at once:</p>
+ * <ul>
+ *     <li><b>CLEARED</b> - every reservation was removed. Events for the reservations added
+ *     afterwards follow, e.g. when a file is loaded into a {@link ReservationManager}.</li>
+ *     <li><b>RELOADED</b> - many reservations changed without an event each (a bulk import into
+ *     the database, or another database file). Consumers re-read everything.</li>
+ * </ul>
+ *
+ * @author Andres Vera
+ */
+
+public class ReservationEvent {
+    /**
+     * Kinds of change.
+     */
+    public enum Type {
+        /** A reservation was added; {@link #getAfter()} is the new row */
+        ADDED,
+        /** A reservation was changed; both rows are set */
+        UPDATED,
+        /** A reservation was removed; {@link #getBefore()} is the removed row */
+        DELETED,
+        /** Every reservation was removed */
+        CLEARED,
+        /** Reservations changed in bulk; re-read them */
+        RELOADED
+    }
+
+    /** Position in the feed */
+    private final long sequence;
+    /** Kind of change */
+    private final Type type;
+    /** ID of the changed reservation, or 0 for CLEARED and RELOADED */
+    private final long reservationId;
+    /** Row before the change, or {@code null} */
+    private final ReservationRecord before;
+    /** Row after the change, or {@code null} */
+    private final ReservationRecord after;
+
+    /**
+     * Creates an event.
+     *
+     * @param sequence position in the feed
+     * @param type kind of change
+     * @param reservationId ID of the changed reservation, or 0
+     * @param before row before the change, or {@code null}
+     * @param after row after the change, or {@code null}
+     */
+    public ReservationEvent(long sequence, Type type, long reservationId, ReservationRecord before, ReservationRecord after) {
+        this.sequence = sequence;
+        this.type = type;
+        this.reservationId = reservationId;
+        this.before = before;
+        this.after = after;
+    }
+
+    /** @return the position of this event in the feed */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /** @return the kind of change */
+    public Type getType() {
+        return type;
+    }
+
+    /** @return the ID of the changed reservation, or 0 for CLEARED and RELOADED */
+    public long getReservationId() {
+        return reservationId;
+    }
+
+    /** @return the row before the change, or {@code null} for ADDED and bulk events */
+    public ReservationRecord getBefore() {
+        return before;
+    }
+
+    /** @return the row after the change, or {@code null} for DELETED and bulk events */
+    public ReservationRecord getAfter() {
+        return after;
+    }
+
+    /**
+     * Returns the sequence number, type and reservation ID.
+     *
+     * @return e.g. {@code "#12 UPDATED 5"}
+     */
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + type + (reservationId != 0 ? " " + reservationId : "");
+    }
+}
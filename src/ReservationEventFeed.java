@@ -0,0 +1,296 @@
+/**
+ * ReservationEventFeed.java
+ *
+ * <p>This class publishes the changes made through a {@link ReservationManager} or a
+ * {@link DatabaseManager} as {@link ReservationEvent}s, so other parts of the system (a
+ * housekeeping board, a dashboard, a cache) can keep their own state up to date instead of
+ * re-reading every reservation.</p>
+ *
+ * <p>Events are kept in a ring buffer of fixed capacity. Publishing never waits for subscribers:
+ * it stores the event and wakes them. Each subscription has its own thread that hands the
+ * listener every waiting event, up to a batch size, in one call, so a slow listener neither
+ * blocks writes nor delays other listeners. A listener that falls more than the capacity
+ * behind misses the overwritten events and is told which ones through
+ * {@link Listener#onMissed(long, long)}.</p>
+ *
+ * <p>Sequence numbers start at 1 and go up by one per event. A consumer that stores the sequence
+ * of the last event it applied can later {@link #subscribe(long, Listener) subscribe} again from
+ * the next one, as long as it is still in the buffer.</p>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * ReservationEventFeed feed = manager.getEventFeed();
+ * ReservationEventFeed.Subscription subscription = feed.subscribe(events -> {
+ *     for (ReservationEvent event : events) board.apply(event);
+ * });
+ * ...
+ * subscription.close();
+ * long resumeFrom = subscription.getPosition();
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReservationEventFeed implements AutoCloseable {
+    /** Events kept when no capacity is given */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    /** Most events handed to a listener in one call when no batch size is given */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    /**
+     * Receives batches of events on the subscription's thread.
+     */
+    public interface Listener {
+        /**
+         * Handles events in sequence order.
+         *
+         * @param events one or more events, oldest first
+         */
+        void onEvents(List<ReservationEvent> events);
+
+        /**
+         * Called when events were overwritten before they could be delivered. The listener
+         * should re-read the reservations; delivery continues with {@code nextSequence}.
+         *
+         * @param firstMissed sequence of the first lost event
+         * @param nextSequence sequence of the next event delivered
+         */
+        default void onMissed(long firstMissed, long nextSequence) {
+        }
+    }
+
+    /** Last published events; event {@code s} is at {@code s & mask} */
+    private final ReservationEvent[] ring;
+    private final int mask;
+    /** Most events per listener call */
+    private final int batchSize;
+    /** Sequence of the next event published */
+    private long nextSequence = 1;
+    /** Subscription threads waiting for events */
+    private int waiting;
+    /** Open subscriptions */
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    /** Number of subscriptions made, for thread names */
+    private int subscriptionCount;
+    /** Set once {@link #close()} has been called */
+    private boolean closed;
+
+    /**
+     * Creates a feed with {@link #DEFAULT_CAPACITY} and {@link #DEFAULT_BATCH_SIZE}.
+     */
+    public ReservationEventFeed() {
+        this(DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a feed.
+     *
+     * @param capacity events kept for slow or returning subscribers; rounded up to a power of two
+     * @param batchSize most events per listener call
+     */
+    public ReservationEventFeed(int capacity, int batchSize) {
+        if (capacity < 1 || capacity > 1 << 30 || batchSize < 1) {
+            throw new IllegalArgumentException("Capacity and batch size must be positive.");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        this.ring = new ReservationEvent[size];
+        this.mask = size - 1;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Publishes an event and wakes waiting subscriptions. Call it after the change is committed.
+     *
+     * @param type kind of change
+     * @param reservationId ID of the changed reservation, or 0
+     * @param before row before the change, or {@code null}
+     * @param after row after the change, or {@code null}
+     * @return the event's sequence number
+     */
+    public synchronized long publish(ReservationEvent.Type type, long reservationId, ReservationRecord before,
+                                     ReservationRecord after) {
+        long sequence = nextSequence++;
+        ring[(int) (sequence & mask)] = new ReservationEvent(sequence, type, reservationId, before, after);
+        if (waiting > 0) {
+            notifyAll();
+        }
+        return sequence;
+    }
+
+    /**
+     * Gets the sequence the next published event will have.
+     *
+     * @return next sequence number
+     */
+    public synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Gets the oldest event still in the buffer.
+     *
+     * @return lowest sequence a new subscription can start from without missing events
+     */
+    public synchronized long getOldestSequence() {
+        return Math.max(1, nextSequence - ring.length);
+    }
+
+    /**
+     * Subscribes to events published from now on.
+     *
+     * @param listener receives the events
+     * @return the subscription; close it to stop delivery
+     */
+    public synchronized Subscription subscribe(Listener listener) {
+        return subscribe(nextSequence, listener);
+    }
+
+    /**
+     * Subscribes starting at a given sequence, e.g. one past the last event a consumer applied
+     * before it stopped. Events still in the buffer are delivered first.
+     *
+     * @param fromSequence sequence of the first event to deliver
+     * @param listener receives the events
+     * @return the subscription; close it to stop delivery
+     */
+    public synchronized Subscription subscribe(long fromSequence, Listener listener) {
+        if (closed) {
+            throw new IllegalStateException("The event feed is closed.");
+        }
+        Subscription subscription = new Subscription(Math.max(1, fromSequence), listener);
+        subscriptions.add(subscription);
+        Thread thread = new Thread(subscription::run, "hotel-events-" + ++subscriptionCount);
+        thread.setDaemon(true);
+        thread.start();
+        return subscription;
+    }
+
+    /**
+     * Gets the number of open subscriptions.
+     *
+     * @return subscriptions not closed yet
+     */
+    public synchronized int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Closes every subscription. Events already taken by a subscription thread are still
+     * delivered; nothing can subscribe afterwards.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (Subscription subscription : subscriptions) {
+            subscription.closed = true;
+        }
+        subscriptions.clear();
+        notifyAll();
+    }
+
+    /**
+     * Waits for events after a subscription's position and copies up to a batch of them.
+     *
+     * @return the events, or {@code null} once the subscription is closed
+     */
+    private synchronized List<ReservationEvent> take(Subscription subscription) throws InterruptedException {
+        while (!subscription.closed && subscription.position >= nextSequence) {
+            waiting++;
+            try {
+                wait();
+            } finally {
+                waiting--;
+            }
+        }
+        if (subscription.closed) return null;
+        long oldest = Math.max(1, nextSequence - ring.length);
+        if (subscription.position < oldest) {
+            subscription.missedFrom = subscription.position;
+            subscription.position = oldest;
+        }
+        int count = (int) Math.min(batchSize, nextSequence - subscription.position);
+        List<ReservationEvent> events = new ArrayList<>(count);
+        for (long sequence = subscription.position; sequence < subscription.position + count; sequence++) {
+            events.add(ring[(int) (sequence & mask)]);
+        }
+        return events;
+    }
+
+    /**
+     * One listener and how far it has got.
+     */
+    public class Subscription implements AutoCloseable {
+        /** Receives the events */
+        private final Listener listener;
+        /** Sequence of the next event to deliver; guarded by the feed */
+        private long position;
+        /** First missed sequence to report before the next batch, or 0 */
+        private long missedFrom;
+        /** Set by {@link #close()} */
+        private volatile boolean closed;
+
+        private Subscription(long position, Listener listener) {
+            this.position = position;
+            this.listener = listener;
+        }
+
+        /**
+         * Delivers batches until the subscription is closed. Runs on the subscription's thread.
+         */
+        private void run() {
+            try {
+                List<ReservationEvent> events;
+                while ((events = take(this)) != null) {
+                    long missed;
+                    synchronized (ReservationEventFeed.this) {
+                        missed = missedFrom;
+                        missedFrom = 0;
+                    }
+                    try {
+                        if (missed != 0) {
+                            listener.onMissed(missed, events.get(0).getSequence());
+                        }
+                        listener.onEvents(events);
+                    } catch (RuntimeException e) {
+                        System.out.println("Error in event listener: " + e.getMessage()); // Keep delivering
+                    }
+                    synchronized (ReservationEventFeed.this) {
+                        position = events.get(events.size() - 1).getSequence() + 1;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Gets the sequence of the next event this subscription will deliver. After
+         * {@link #close()}, pass it to {@link ReservationEventFeed#subscribe(long, Listener)} to
+         * continue where it stopped.
+         *
+         * @return next sequence to deliver
+         */
+        public long getPosition() {
+            synchronized (ReservationEventFeed.this) {
+                return position;
+            }
+        }
+
+        /**
+         * Stops delivery. A batch the listener is already handling still completes, and counts
+         * towards {@link #getPosition()} once it has.
+         */
+        @Override
+        public void close() {
+            synchronized (ReservationEventFeed.this) {
+                closed = true;
+                subscriptions.remove(this);
+                ReservationEventFeed.this.notifyAll();
+            }
+        }
+    }
+}
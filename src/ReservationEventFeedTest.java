@@ -0,0 +1,149 @@
+/**
+ * ReservationEventFeedTest.java
+ *
+ * <p>This class contains unit tests for the {@link ReservationEventFeed} class and the events
+ * published by {@link ReservationManager}.</p>
+ *
+ * @author Andres Vera
+ */
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+class ReservationEventFeedTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that adds, updates, removes and loads reach every subscriber in order, with the
+     * rows before and after each change, and that closing the manager closes the feed.
+     */
+    @Test
+    void manager_publishesTypedEventsToEverySubscriber() throws InterruptedException, IOException {
+        ReservationManager manager = new ReservationManager();
+        manager.addReservation(TestRecords.record("Maria Lopez", 3)); // Before the feed exists: not published
+        BlockingQueue<ReservationEvent> first = new LinkedBlockingQueue<>();
+        BlockingQueue<ReservationEvent> second = new LinkedBlockingQueue<>();
+        manager.getEventFeed().subscribe(first::addAll);
+        manager.getEventFeed().subscribe(second::addAll);
+
+        long id = manager.addReservation(TestRecords.record("Ana Diaz", 1));
+        manager.updateReservation(id, TestRecords.record("Ana Diaz", 5));
+        manager.deleteReservation(id);
+        Path file = Files.write(directory.resolve("export.txt"), List.of("Luis Ramos,luis@example.com,2,City View,3"));
+        manager.loadFromFileParallel(file.toString()); // Replaces everything
+
+        for (BlockingQueue<ReservationEvent> events : List.of(first, second)) {
+            List<ReservationEvent> received = take(events, 5);
+            assertEquals(List.of(ReservationEvent.Type.ADDED, ReservationEvent.Type.UPDATED, ReservationEvent.Type.DELETED,
+                    ReservationEvent.Type.CLEARED, ReservationEvent.Type.ADDED), received.stream().map(ReservationEvent::getType).toList());
+            assertEquals(1, received.get(0).getSequence());
+            assertEquals(id, received.get(1).getReservationId());
+            assertEquals(1, received.get(1).getBefore().getRoomNumber());
+            assertEquals(5, received.get(1).getAfter().getRoomNumber());
+            assertNull(received.get(2).getAfter());
+            assertEquals("Luis Ramos", received.get(4).getAfter().getGuestName());
+        }
+
+        ReservationEventFeed feed = manager.getEventFeed();
+        manager.close(); // Closes the feed and its subscriptions too
+        assertThrows(IllegalStateException.class, () -> feed.subscribe(first::addAll));
+    }
+
+    /**
+     * Tests that a closed subscription can be resumed from its position without missing or
+     * repeating events.
+     */
+    @Test
+    void subscribe_resumesFromPosition() throws InterruptedException {
+        ReservationEventFeed feed = new ReservationEventFeed();
+        BlockingQueue<ReservationEvent> events = new LinkedBlockingQueue<>();
+        ReservationEventFeed.Subscription subscription = feed.subscribe(events::addAll);
+        publish(feed, 2);
+        take(events, 2);
+        waitForPosition(subscription, 3);
+        subscription.close();
+
+        publish(feed, 3); // While no one listens
+        feed.subscribe(subscription.getPosition(), events::addAll);
+
+        List<ReservationEvent> resumed = take(events, 3);
+        assertEquals(List.of(3L, 4L, 5L), resumed.stream().map(ReservationEvent::getSequence).toList());
+        assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+        feed.close();
+    }
+
+    /**
+     * Tests that a subscriber starting before the oldest kept event is told what it missed and
+     * then receives the rest in batches.
+     */
+    @Test
+    void subscribe_reportsOverwrittenEvents() throws InterruptedException {
+        ReservationEventFeed feed = new ReservationEventFeed(4, 2);
+        publish(feed, 10);
+        BlockingQueue<ReservationEvent> events = new LinkedBlockingQueue<>();
+        List<Long> missed = new ArrayList<>();
+        List<Integer> batchSizes = new ArrayList<>();
+        feed.subscribe(1, new ReservationEventFeed.Listener() {
+            @Override
+            public void onEvents(List<ReservationEvent> batch) {
+                batchSizes.add(batch.size());
+                events.addAll(batch);
+            }
+
+            @Override
+            public void onMissed(long firstMissed, long nextSequence) {
+                missed.add(firstMissed);
+                missed.add(nextSequence);
+            }
+        });
+
+        assertEquals(List.of(7L, 8L, 9L, 10L), take(events, 4).stream().map(ReservationEvent::getSequence).toList());
+        assertEquals(List.of(1L, 7L), missed);
+        assertEquals(List.of(2, 2), batchSizes);
+        feed.close();
+    }
+
+    /**
+     * Waits for {@code count} events.
+     */
+    private static List<ReservationEvent> take(BlockingQueue<ReservationEvent> events, int count) throws InterruptedException {
+        List<ReservationEvent> received = new ArrayList<>();
+        while (received.size() < count) {
+            ReservationEvent event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "Timed out after " + received.size() + " events");
+            received.add(event);
+        }
+        return received;
+    }
+
+    /**
+     * Waits until a subscription has finished delivering up to {@code position}.
+     */
+    private static void waitForPosition(ReservationEventFeed.Subscription subscription, long position) throws InterruptedException {
+        for (int i = 0; i < 500 && subscription.getPosition() < position; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(position, subscription.getPosition());
+    }
+
+    /**
+     * Publishes {@code count} add events.
+     */
+    private static void publish(ReservationEventFeed feed, int count) {
+        for (int i = 0; i < count; i++) {
+            feed.publish(ReservationEvent.Type.ADDED, i + 1, null, null);
+        }
+    }
+}
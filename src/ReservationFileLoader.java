@@ -0,0 +1,283 @@
+/**
+ * ReservationFileLoader.java
+ *
+ * <p>This class reads reservation files for {@link ReservationManager#loadFromFileParallel(String)}.
+ * It accepts the same format as {@link ReservationManager#loadFromFile(String)}, one reservation per
+ * line:</p>
+ * <pre>
+ * name,email,roomNumber,roomType,nights
+ * </pre>
+ *
+ * <p>It is built for large exports:</p>
+ * <ul>
+ *     <li>The file is memory-mapped instead of read through a {@code BufferedReader}, one region
+ *     per chunk, so files larger than 2 GB work.</li>
+ *     <li>The file is cut into chunks that start and end on line boundaries, and the chunks are
+ *     parsed at the same time on the common fork/join pool.</li>
+ *     <li>Lines are split by scanning for commas byte by byte and numbers are parsed by hand, so no
+ *     regular expressions or {@code String.split} arrays are involved.</li>
+ * </ul>
+ *
+ * <p>Rooms and guests come from a {@link RoomInventory} and a {@link GuestRegistry}, so repeated
+ * rooms and guests share one object instead of one per line.</p>
+ *
+ * <p>Reservations come back in file order. If any line is malformed, nothing is returned and the
+ * error names the first bad line, just like the single-threaded loader.</p>
+ *
+ * @author Andres Vera
+ */
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+public class ReservationFileLoader {
+    /** Smallest chunk handed to one task */
+    private static final long MIN_CHUNK_SIZE = 1L << 20;
+    /** Largest chunk handed to one task (and largest single mapping) */
+    private static final long MAX_CHUNK_SIZE = 64L << 20;
+    /** Number of fields on each line */
+    private static final int FIELD_COUNT = 5;
+
+    /**
+     * Utility class; not meant to be created.
+     */
+    private ReservationFileLoader() {
+    }
+
+    /**
+     * Loads every reservation in a file, parsing chunks of it in parallel. Rooms and guests are
+     * shared within the file.
+     *
+     * @param filename path of the file to read
+     * @return reservations in file order
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+    public static List<Reservation> load(String filename) throws IOException {
+        return load(filename, new RoomInventory(), new GuestRegistry());
+    }
+
+    /**
+     * Loads every reservation in a file, parsing chunks of it in parallel, and takes rooms and
+     * guests from the given registries.
+     *
+     * @param filename path of the file to read
+     * @param rooms shared rooms
+     * @param guests shared guests
+     * @return reservations in file order
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+    public static List<Reservation> load(String filename, RoomInventory rooms, GuestRegistry guests) throws IOException {
+        return load(filename, 0, rooms, guests);
+    }
+
+    /**
+     * Loads every reservation in a file using chunks of about {@code chunkSize} bytes.
+     *
+     * @param filename path of the file to read
+     * @param chunkSize bytes per chunk, or 0 to pick one from the file size and CPU count
+     * @param rooms shared rooms
+     * @param guests shared guests
+     * @return reservations in file order
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+    static List<Reservation> load(String filename, long chunkSize, RoomInventory rooms, GuestRegistry guests) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (chunkSize <= 0) {
+                // A few chunks per worker so a slow chunk does not hold everyone up
+                long perWorker = size / (ForkJoinPool.getCommonPoolParallelism() * 4L);
+                chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, perWorker));
+            }
+
+            // Cut the file into line-aligned chunks and parse them all at once
+            List<ForkJoinTask<Chunk>> tasks = new ArrayList<>();
+            long start = 0;
+            while (start < size) {
+                long end = nextLineStart(channel, Math.min(start + chunkSize, size), size);
+                long chunkStart = start;
+                tasks.add(ForkJoinPool.commonPool().submit(() -> parseChunk(channel, chunkStart, end, rooms, guests)));
+                start = end;
+            }
+
+            // Merge in file order; the first bad line wins
+            List<Chunk> chunks = new ArrayList<>(tasks.size());
+            int total = 0;
+            int linesBefore = 0;
+            for (ForkJoinTask<Chunk> task : tasks) {
+                Chunk chunk = task.join();
+                if (chunk.errorLine > 0) {
+                    throw new IOException("Invalid format at line " + (linesBefore + chunk.errorLine) + ": " + chunk.errorText);
+                }
+                chunks.add(chunk);
+                total += chunk.rows.size();
+                linesBefore += chunk.lines;
+            }
+            List<Reservation> result = new ArrayList<>(total);
+            for (Chunk chunk : chunks) {
+                result.addAll(chunk.rows);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Finds the first line start at or after {@code position}.
+     */
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        if (position >= size) return size;
+        // Map a small window and look for the end of the line that position falls in
+        long from = position - 1;
+        while (from < size) {
+            long length = Math.min(64 * 1024, size - from);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+            for (int i = 0; i < length; i++) {
+                if (window.get(i) == '\n') {
+                    return from + i + 1;
+                }
+            }
+            from += length;
+        }
+        return size; // Last line has no newline
+    }
+
+    /**
+     * Parses the lines in {@code [start, end)} of the file.
+     */
+    private static Chunk parseChunk(FileChannel channel, long start, long end, RoomInventory rooms,
+                                    GuestRegistry guests) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        int limit = (int) (end - start);
+        Chunk chunk = new Chunk();
+        int[] commas = new int[FIELD_COUNT - 1];
+        byte[] scratch = new byte[256];
+
+        int lineStart = 0;
+        while (lineStart < limit) {
+            // Find the end of the line and the commas in it
+            int commaCount = 0;
+            int pos = lineStart;
+            while (pos < limit) {
+                byte b = buffer.get(pos);
+                if (b == '\n') break;
+                if (b == ',') {
+                    if (commaCount < commas.length) commas[commaCount] = pos;
+                    commaCount++;
+                }
+                pos++;
+            }
+            int lineEnd = pos;
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') lineEnd--; // Windows line endings
+            int fieldsEnd = lineEnd;
+            while (fieldsEnd > lineStart && buffer.get(fieldsEnd - 1) == ',') {
+                fieldsEnd--; // Trailing empty fields are ignored, as String.split does
+                commaCount--;
+            }
+            chunk.lines++;
+
+            Reservation reservation = commaCount == commas.length
+                    ? parseLine(buffer, lineStart, commas, fieldsEnd, scratch, rooms, guests) : null;
+            if (reservation == null) {
+                chunk.errorLine = chunk.lines;
+                chunk.errorText = decode(buffer, lineStart, lineEnd, scratch);
+                return chunk;
+            }
+            chunk.rows.add(reservation);
+            lineStart = pos + 1; // Skip the newline
+        }
+        return chunk;
+    }
+
+    /**
+     * Builds a reservation from one line whose commas are already located.
+     *
+     * @return the reservation, or {@code null} if a field is empty or not a number
+     */
+    private static Reservation parseLine(MappedByteBuffer buffer, int lineStart, int[] commas, int lineEnd, byte[] scratch,
+                                         RoomInventory rooms, GuestRegistry guests) {
+        String name = decode(buffer, lineStart, commas[0], scratch).trim();
+        String email = decode(buffer, commas[0] + 1, commas[1], scratch).trim();
+        int roomNumber = parseInt(buffer, commas[1] + 1, commas[2]);
+        String roomType = decode(buffer, commas[2] + 1, commas[3], scratch).trim();
+        int nights = parseInt(buffer, commas[3] + 1, lineEnd);
+        if (roomNumber < 0 || nights < 0) {
+            return null;
+        }
+
+        double rate = roomType.equalsIgnoreCase("City View") ? 90.0 : 70.0;
+        return new Reservation(guests.get(name, email), rooms.get(roomNumber, roomType, rate), nights);
+    }
+
+    /**
+     * Parses a non-negative decimal number between {@code from} and {@code to}, ignoring
+     * surrounding spaces. Follows the same rules as {@link #parseCount(String)}.
+     *
+     * @return the number, or -1 if the field is empty, signed, not a number or too large
+     */
+    private static int parseInt(MappedByteBuffer buffer, int from, int to) {
+        while (from < to && buffer.get(from) <= ' ') from++;
+        while (to > from && buffer.get(to - 1) <= ' ') to--;
+        if (from == to) return -1;
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) return -1; // Also rejects a sign
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE) return -1;
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses a room number or a number of nights from a text field, ignoring surrounding
+     * spaces. Only digits are accepted: no sign, and nothing above {@link Integer#MAX_VALUE}.
+     * {@link ReservationManager#loadFromFile(String)} uses it so both loaders accept the same
+     * lines.
+     *
+     * @param field the field text
+     * @return the number, or -1 if the field is empty, signed, not a number or too large
+     */
+    static int parseCount(String field) {
+        String text = field.trim();
+        if (text.isEmpty()) return -1;
+        long value = 0;
+        for (int i = 0; i < text.length(); i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE) return -1;
+        }
+        return (int) value;
+    }
+
+    /**
+     * Decodes the UTF-8 bytes between {@code from} and {@code to}.
+     */
+    private static String decode(MappedByteBuffer buffer, int from, int to, byte[] scratch) {
+        int length = to - from;
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        buffer.get(from, bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Result of parsing one chunk.
+     */
+    private static class Chunk {
+        /** Reservations in file order */
+        private final List<Reservation> rows = new ArrayList<>();
+        /** Number of lines read, including a bad one */
+        private int lines;
+        /** Line within the chunk (1-based) of the first bad line, or 0 */
+        private int errorLine;
+        /** Text of the first bad line */
+        private String errorText;
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * ReservationFileLoaderTest.java
+ *
+ * <p>This class contains unit tests for the {@link ReservationFileLoader} class. Tiny chunk sizes
+ * are used so that even small files are split into many chunks parsed in parallel.</p>
+ *
+ * <p><b>Test File Used:</b> sample_data.txt (must exist in project root)</p>
+ *
+ * @author Andres Vera
+ */
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+class ReservationFileLoaderTest {
+
+    /**
+     * Tests that the parallel loader returns the same reservations, in the same order, as
+     * {@link ReservationManager#loadFromFile(String)}.
+     *
+     * @throws IOException if the sample file cannot be read
+     */
+    @Test
+    void load_matchesSequentialLoader() throws IOException {
+        ReservationManager manager = new ReservationManager();
+        manager.loadFromFile("sample_data.txt");
+        List<Reservation> expected = manager.getReservations();
+
+        List<Reservation> loaded = ReservationFileLoader.load("sample_data.txt", 16, new RoomInventory(), new GuestRegistry());
+
+        assertEquals(expected.size(), loaded.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), loaded.get(i).toString());
+        }
+    }
+
+    /**
+     * Tests Windows line endings, spaces around fields and the error for a malformed line.
+     *
+     * @throws IOException if the temporary file cannot be written
+     */
+    @Test
+    void load_lineEndingsAndErrors() throws IOException {
+        File file = File.createTempFile("loader", ".txt");
+        file.deleteOnExit();
+        Files.writeString(file.toPath(), "Ana , ana@example.com, 3 ,City View, 2\r\n"
+                + "Luis,luis@example.com,4,Patio View,1\r\n");
+
+        List<Reservation> loaded = ReservationFileLoader.load(file.getPath(), 8, new RoomInventory(), new GuestRegistry());
+        assertEquals(2, loaded.size());
+        assertEquals("Ana", loaded.get(0).getGuest().getName());
+        assertEquals(3, loaded.get(0).getRoom().getRoomNumber());
+        assertEquals(180.0, loaded.get(0).calculateTotal());
+        assertEquals(70.0, loaded.get(1).calculateTotal());
+
+        Files.writeString(file.toPath(), "Ana,ana@example.com,3,City View,2\n"
+                + "Luis,luis@example.com,4,Patio View,1\n"
+                + "Maria,maria@example.com,four,City View,1\n");
+        IOException error = assertThrows(IOException.class, () -> ReservationFileLoader.load(file.getPath(), 8, new RoomInventory(), new GuestRegistry()));
+        assertTrue(error.getMessage().contains("line 3"));
+    }
+
+    /**
+     * Tests that both loaders reject signed and overflowing numbers, and accept the largest
+     * int and leading zeros.
+     *
+     * @throws IOException if the temporary file cannot be written
+     */
+    @Test
+    void load_numbersMatchTextLoader() throws IOException {
+        File file = File.createTempFile("loader", ".txt");
+        file.deleteOnExit();
+        ReservationManager manager = new ReservationManager();
+        manager.setOutput(OutputSink.SILENT);
+        for (String nights : List.of("-1", "+3", "2147483648", "99999999999")) {
+            Files.writeString(file.toPath(), "Ana,ana@example.com,3,City View," + nights + "\n");
+            assertThrows(IOException.class, () -> ReservationFileLoader.load(file.getPath(), 8, new RoomInventory(), new GuestRegistry()), nights);
+            assertThrows(IOException.class, () -> manager.loadFromFile(file.getPath()), nights);
+        }
+
+        Files.writeString(file.toPath(), "Ana,ana@example.com,00000000003,City View,2147483647\n");
+        Reservation parallel = ReservationFileLoader.load(file.getPath(), 8, new RoomInventory(), new GuestRegistry()).get(0);
+        manager.loadFromFile(file.getPath());
+        assertEquals(3, parallel.getRoom().getRoomNumber());
+        assertEquals(Integer.MAX_VALUE, parallel.getNights());
+        assertEquals(manager.getReservations().get(0).toString(), parallel.toString());
+    }
+
+    /**
+     * Tests that trailing empty fields are ignored and a trailing blank field is not, as in
+     * {@link ReservationManager#loadFromFile(String)}.
+     */
+    @Test
+    void load_trailingFieldsMatchTextLoader() throws IOException {
+        File file = File.createTempFile("loader", ".txt");
+        file.deleteOnExit();
+        ReservationManager manager = new ReservationManager();
+        manager.setOutput(OutputSink.SILENT);
+
+        Files.writeString(file.toPath(), "Ana,ana@example.com,3,City View,2,\n"
+                + "Luis,luis@example.com,4,Patio View,1,,,\r\n");
+        List<Reservation> loaded = ReservationFileLoader.load(file.getPath(), 8, new RoomInventory(), new GuestRegistry());
+        manager.loadFromFile(file.getPath());
+        assertEquals(2, loaded.size());
+        assertEquals(2, loaded.get(0).getNights());
+        assertEquals(manager.getReservations().get(1).toString(), loaded.get(1).toString());
+
+        Files.writeString(file.toPath(), "Ana,ana@example.com,3,City View,2, \n");
+        assertThrows(IOException.class, () -> ReservationFileLoader.load(file.getPath(), 8, new RoomInventory(), new GuestRegistry()));
+        assertThrows(IOException.class, () -> manager.loadFromFile(file.getPath()));
+    }
+}
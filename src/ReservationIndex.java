@@ -0,0 +1,301 @@
+/**
+ * ReservationIndex.java
+ *
+ * <p>This class holds the secondary indexes {@link ReservationManager#query(ReservationQuery)}
+ * chooses from. Each one maps a value to the list positions (slots) of the reservations that
+ * have it:</p>
+ * <ul>
+ *     <li><b>Room</b> - a hash map from room number to the slots in that room. Rooms hold few
+ *     reservations each, so this is the most selective index when a query names a room.</li>
+ *     <li><b>Room type</b> - one bitmap of slots per room type. Hotels have few types, so each
+ *     bitmap is dense and costs one bit per reservation.</li>
+ *     <li><b>Nights</b> - a sorted map from number of nights to a bitmap of slots, so a range of
+ *     nights is a sub-map.</li>
+ * </ul>
+ *
+ * <p>Every index keeps its size, so {@link #plan(ReservationQuery, int)} can compare how many
+ * candidates each would give without touching them, and picks the smallest. Queries without an
+ * indexed filter, or whose best index covers every reservation, scan the list. The candidates
+ * are then checked against the whole query, so a filter no index answers (name, email, total)
+ * still applies.</p>
+ *
+ * <p>The manager builds the index on the first query and keeps it up to date as reservations are
+ * added, updated and removed. Compacting the list moves slots, so it drops the index instead,
+ * and the next query builds it again.</p>
+ *
+ * <p>Entries are keyed by the room number and type the {@link Room} had when it was indexed.
+ * Rooms are shared between reservations, so a stored reservation's room must not be changed in
+ * place ({@link Room#setRoomNumber(int)}, {@link Room#setType(String)}); the reservation is
+ * replaced through the manager instead, which moves its entries.</p>
+ *
+ * @author Andres Vera
+ */
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+public class ReservationIndex {
+    /** Slots per room */
+    private final Map<Integer, SlotList> byRoom = new HashMap<>();
+    /** Slots per room type, as stored in the rooms */
+    private final Map<String, SlotSet> byType = new HashMap<>();
+    /** Slots per number of nights */
+    private final TreeMap<Integer, SlotSet> byNights = new TreeMap<>();
+    /** Reservations indexed */
+    private int count;
+
+    /**
+     * Indexes a reservation.
+     *
+     * @param slot its position in the manager's list
+     * @param reservation the reservation
+     */
+    void add(int slot, Reservation reservation) {
+        Room room = reservation.getRoom();
+        byRoom.computeIfAbsent(room.getRoomNumber(), number -> new SlotList()).add(slot);
+        byType.computeIfAbsent(room.getType(), type -> new SlotSet()).add(slot);
+        byNights.computeIfAbsent(reservation.getNights(), nights -> new SlotSet()).add(slot);
+        count++;
+    }
+
+    /**
+     * Removes a reservation from the indexes. Nothing changes if the slot is not indexed.
+     *
+     * @param slot its position in the manager's list
+     * @param reservation the reservation, as it was indexed
+     */
+    void remove(int slot, Reservation reservation) {
+        Room room = reservation.getRoom();
+        boolean removed = false;
+        SlotList inRoom = byRoom.get(room.getRoomNumber());
+        if (inRoom != null && inRoom.remove(slot)) {
+            removed = true;
+            if (inRoom.size == 0) byRoom.remove(room.getRoomNumber());
+        }
+        SlotSet ofType = byType.get(room.getType());
+        if (ofType != null && ofType.remove(slot)) {
+            removed = true;
+            if (ofType.count == 0) byType.remove(room.getType());
+        }
+        SlotSet withNights = byNights.get(reservation.getNights());
+        if (withNights != null && withNights.remove(slot)) {
+            removed = true;
+            if (withNights.count == 0) byNights.remove(reservation.getNights());
+        }
+        if (removed) {
+            count--;
+        }
+    }
+
+    /**
+     * Chooses how to find the candidates for a query: the indexed filter with the fewest
+     * matching reservations, or a scan if no index narrows the search.
+     *
+     * @param query the query
+     * @param slotCount length of the manager's list, including empty slots
+     * @return the plan; {@link Plan#next()} gives the candidate slots in ascending order
+     */
+    Plan plan(ReservationQuery query, int slotCount) {
+        SlotList inRoom = null;
+        Map<String, SlotSet> types = null;
+        NavigableMap<Integer, SlotSet> nights = null;
+        long roomEstimate = Long.MAX_VALUE, typeEstimate = Long.MAX_VALUE, nightsEstimate = Long.MAX_VALUE;
+        if (query.getRoom() != 0) {
+            inRoom = byRoom.get(query.getRoom());
+            roomEstimate = inRoom == null ? 0 : inRoom.size;
+        }
+        if (query.getRoomType() != null) {
+            types = new HashMap<>();
+            typeEstimate = 0;
+            for (Map.Entry<String, SlotSet> entry : byType.entrySet()) {
+                if (entry.getKey().equalsIgnoreCase(query.getRoomType())) {
+                    types.put(entry.getKey(), entry.getValue());
+                    typeEstimate += entry.getValue().count;
+                }
+            }
+        }
+        if (query.hasNightsRange()) {
+            nights = query.getMinNights() > query.getMaxNights() ? new TreeMap<>()
+                    : byNights.subMap(query.getMinNights(), true, query.getMaxNights(), true);
+            nightsEstimate = 0;
+            for (SlotSet set : nights.values()) {
+                nightsEstimate += set.count;
+            }
+        }
+
+        long best = Math.min(roomEstimate, Math.min(typeEstimate, nightsEstimate));
+        if (best >= count) {
+            return new ScanPlan(slotCount); // No index, or none that skips anything
+        } else if (best == roomEstimate) {
+            return new SlotPlan("room " + query.getRoom() + " index", inRoom);
+        } else if (best == typeEstimate) {
+            return bitsPlan("room type bitmap (" + query.getRoomType() + ")", types, best);
+        } else {
+            return bitsPlan("nights " + query.getMinNights() + ".." + query.getMaxNights() + " index", nights, best);
+        }
+    }
+
+    /**
+     * Builds a plan over the union of some bitmaps, sharing the bitmap when there is one.
+     */
+    private static Plan bitsPlan(String name, Map<?, SlotSet> sets, long estimate) {
+        BitSet bits;
+        if (sets.isEmpty()) {
+            bits = new BitSet(0);
+        } else if (sets.size() == 1) {
+            bits = sets.values().iterator().next().bits;
+        } else {
+            bits = new BitSet();
+            for (SlotSet set : sets.values()) {
+                bits.or(set.bits);
+            }
+        }
+        return new BitsPlan(name, bits, estimate);
+    }
+
+    /**
+     * How a query finds its candidates. A plan is used once.
+     */
+    public abstract static class Plan {
+        /** What the plan reads */
+        private final String name;
+        /** Candidates it will give */
+        private final long estimate;
+
+        Plan(String name, long estimate) {
+            this.name = name;
+            this.estimate = estimate;
+        }
+
+        /** @return the number of candidate slots, before the rest of the query is checked */
+        public long getEstimate() {
+            return estimate;
+        }
+
+        /**
+         * Gets the next candidate slot.
+         *
+         * @return a slot higher than the last one returned, or -1 when there are no more
+         */
+        abstract int next();
+
+        /**
+         * Describes the plan.
+         *
+         * @return e.g. {@code "room 12 index, 180 candidates"}
+         */
+        @Override
+        public String toString() {
+            return name + ", " + estimate + " candidates";
+        }
+    }
+
+    /**
+     * Every slot in the list.
+     */
+    private static class ScanPlan extends Plan {
+        private final int slotCount;
+        private int slot = -1;
+
+        ScanPlan(int slotCount) {
+            super("full scan", slotCount);
+            this.slotCount = slotCount;
+        }
+
+        @Override
+        int next() {
+            return ++slot < slotCount ? slot : -1;
+        }
+    }
+
+    /**
+     * The slots of one room, sorted.
+     */
+    private static class SlotPlan extends Plan {
+        private final int[] slots;
+        private int position = -1;
+
+        SlotPlan(String name, SlotList list) {
+            super(name, list == null ? 0 : list.size);
+            this.slots = list == null ? new int[0] : Arrays.copyOf(list.slots, list.size);
+            Arrays.sort(slots); // The list is unordered after removals
+        }
+
+        @Override
+        int next() {
+            return ++position < slots.length ? slots[position] : -1;
+        }
+    }
+
+    /**
+     * The set bits of a bitmap.
+     */
+    private static class BitsPlan extends Plan {
+        private final BitSet bits;
+        private int slot = -1;
+
+        BitsPlan(String name, BitSet bits, long estimate) {
+            super(name, estimate);
+            this.bits = bits;
+        }
+
+        @Override
+        int next() {
+            return slot = bits.nextSetBit(slot + 1);
+        }
+    }
+
+    /**
+     * An unordered, growable list of slots.
+     */
+    private static class SlotList {
+        private int[] slots = new int[4];
+        private int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        /**
+         * Removes a slot by moving the last one into its place.
+         */
+        boolean remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    slots[i] = slots[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A bitmap of slots and how many are set.
+     */
+    private static class SlotSet {
+        private final BitSet bits = new BitSet();
+        private int count;
+
+        void add(int slot) {
+            if (!bits.get(slot)) {
+                bits.set(slot);
+                count++;
+            }
+        }
+
+        boolean remove(int slot) {
+            if (!bits.get(slot)) return false;
+            bits.clear(slot);
+            count--;
+            return true;
+        }
+    }
+}
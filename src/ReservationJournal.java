@@ -0,0 +1,589 @@
+/**
+ * ReservationJournal.java
+ *
+ * <p>This class makes a {@link ReservationManager} durable. Every add, update and remove is
+ * appended to a binary journal file, and from time to time the whole manager is written to a
+ * {@link ReservationSnapshot} in the background. Starting up loads the last snapshot and replays
+ * only the journal written after it, instead of parsing a text export.</p>
+ *
+ * <p>All files live in one directory:</p>
+ * <ul>
+ *     <li>{@code journal-N.log} - the operations of generation {@code N}. Each entry is its
+ *     length, a CRC32 and the operation, so a last entry cut short by a crash is recognised and
+ *     cut off when the journal is opened again.</li>
+ *     <li>{@code snapshot.bin} - every reservation as of the end of some generation. It is
+ *     written to a temporary file first and renamed over the old one, so there is always one
+ *     complete snapshot.</li>
+ * </ul>
+ *
+ * <p>A checkpoint closes the current journal file and starts the next generation, then writes
+ * the snapshot on a background thread while new operations go to the new file. Once the
+ * snapshot is in place, the journal files it includes are deleted. When entries are forced to
+ * disk is set by a {@link JournalSyncPolicy}.</p>
+ *
+ * <p>The journal is written by the thread that changes the manager; only the snapshot writer
+ * and the {@link JournalSyncPolicy#INTERVAL} timer run on their own threads.</p>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * ReservationManager manager = ReservationManager.open("data", JournalSyncPolicy.BATCHED);
+ * manager.addReservation(new Reservation(...)); // Journaled
+ * manager.close();
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+public class ReservationJournal implements AutoCloseable {
+    /** Operations between automatic checkpoints when no interval is given */
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 1_000_000;
+
+    /** Entry types */
+    private static final byte ADD = 1;
+    private static final byte UPDATE = 2;
+    private static final byte REMOVE = 3;
+    private static final byte CLEAR = 4;
+
+    /** Largest entry written, and accepted when replaying; anything larger is damage */
+    private static final int MAX_ENTRY_SIZE = 1 << 16;
+    /** Name of the current snapshot file */
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    /** Name of the snapshot being written */
+    private static final String SNAPSHOT_TEMP_FILE = "snapshot.bin.tmp";
+    /** Journal file names are this prefix, the generation and {@link #JOURNAL_SUFFIX} */
+    private static final String JOURNAL_PREFIX = "journal-";
+    private static final String JOURNAL_SUFFIX = ".log";
+    /** Stream buffer size */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Receives the recovered state while a journal is opened.
+     */
+    public interface Target {
+        /**
+         * Adds a reservation whose ID is already set.
+         *
+         * @param reservation recovered reservation
+         */
+        void restore(Reservation reservation);
+
+        /**
+         * Replaces the reservation with the same ID.
+         *
+         * @param reservation new version, with its ID set
+         */
+        void replace(Reservation reservation);
+
+        /**
+         * Removes a reservation.
+         *
+         * @param id reservation ID
+         */
+        void remove(long id);
+
+        /**
+         * Removes every reservation.
+         */
+        void clear();
+
+        /**
+         * Makes sure IDs handed out from now on are at least {@code nextId}.
+         *
+         * @param nextId lowest ID not used yet
+         */
+        void reserveIds(long nextId);
+    }
+
+    /** Directory holding the snapshot and journal files */
+    private final Path directory;
+    /** When entries are forced to disk */
+    private final JournalSyncPolicy policy;
+    /** Generation of the journal file being written */
+    private long generation;
+    /** Journal file being written */
+    private FileOutputStream file;
+    /** Buffered writer over {@link #file} */
+    private DataOutputStream out;
+    /** Reused buffer an entry is encoded into before it is framed */
+    private final EntryBuffer entry = new EntryBuffer();
+    /** Writer over {@link #entry} */
+    private final DataOutputStream entryOut = new DataOutputStream(entry);
+    /** Reused checksum */
+    private final CRC32 crc = new CRC32();
+    /** Entries written since the last forced write */
+    private int unsynced;
+    /** Entries written since the last checkpoint */
+    private long operationsSinceCheckpoint;
+    /** Writes snapshots off the caller's thread */
+    private final ExecutorService snapshotWriter;
+    /** Snapshot being written, or {@code null} */
+    private Future<?> snapshotTask;
+    /** Forces the journal on a timer for {@link JournalSyncPolicy#INTERVAL}, or {@code null} */
+    private final ScheduledExecutorService syncTimer;
+    /** Reservations loaded from the snapshot on open */
+    private long snapshotCount;
+    /** Journal entries replayed on open */
+    private long replayedCount;
+    /** Set once {@link #close()} has been called */
+    private boolean closed;
+    /** First write or force that failed, or {@code null}; the file may end in a partial entry after it */
+    private IOException failure;
+
+    /**
+     * Creates a journal writing to the given generation. Use {@link #open} to recover first.
+     */
+    private ReservationJournal(Path directory, JournalSyncPolicy policy, long generation) throws IOException {
+        this.directory = directory;
+        this.policy = policy;
+        this.generation = generation;
+        openFile();
+        this.snapshotWriter = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "hotel-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (policy.getIntervalMillis() > 0) {
+            this.syncTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "hotel-journal-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncTimer.scheduleAtFixedRate(this::syncQuietly, policy.getIntervalMillis(), policy.getIntervalMillis(),
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.syncTimer = null;
+        }
+    }
+
+    /**
+     * Recovers the state kept in {@code directory} into {@code target} and opens a new journal
+     * generation for the operations that follow. An empty or missing directory recovers nothing.
+     *
+     * @param directory where the snapshot and journal files are kept; created if missing
+     * @param policy when entries are forced to disk
+     * @param rooms where recovered reservations get their rooms
+     * @param guests where recovered reservations get their guests
+     * @param target receives the recovered reservations
+     * @return the journal, ready for new operations
+     * @throws IOException if the directory or the snapshot cannot be read
+     */
+    public static ReservationJournal open(Path directory, JournalSyncPolicy policy, RoomInventory rooms,
+                                          GuestRegistry guests, Target target) throws IOException {
+        Files.createDirectories(directory);
+        long covered = 0;
+        long snapshotCount = 0;
+        Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshotFile)) {
+            ReservationSnapshot snapshot = ReservationSnapshot.read(snapshotFile, rooms, guests, target::restore);
+            covered = snapshot.getGeneration();
+            snapshotCount = snapshot.getCount();
+            target.reserveIds(snapshot.getNextId());
+        }
+
+        long replayed = 0;
+        long last = covered;
+        for (long journalGeneration : listGenerations(directory)) {
+            Path journalFile = journalFile(directory, journalGeneration);
+            last = Math.max(last, journalGeneration);
+            if (journalGeneration <= covered) {
+                Files.delete(journalFile); // Already in the snapshot; left over from a crash
+                continue;
+            }
+            long[] count = {0};
+            long goodBytes = replay(journalFile, rooms, guests, target, count);
+            replayed += count[0];
+            if (goodBytes < Files.size(journalFile)) {
+                // The run writing this file stopped mid-entry; later files continue from here
+                try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+                    channel.truncate(goodBytes);
+                }
+                System.out.println("Journal " + journalFile.getFileName() + " ended with an incomplete entry after "
+                        + count[0] + " good ones; the incomplete entry was dropped.");
+            }
+        }
+
+        ReservationJournal journal = new ReservationJournal(directory, policy, last + 1);
+        journal.snapshotCount = snapshotCount;
+        journal.replayedCount = replayed;
+        return journal;
+    }
+
+    /**
+     * Records an added reservation.
+     *
+     * @param reservation the reservation, with its ID set
+     */
+    public synchronized void logAdd(Reservation reservation) {
+        append(ADD, reservation, reservation.getId());
+    }
+
+    /**
+     * Records a reservation replaced under its ID.
+     *
+     * @param reservation the new version, with its ID set
+     */
+    public synchronized void logUpdate(Reservation reservation) {
+        append(UPDATE, reservation, reservation.getId());
+    }
+
+    /**
+     * Records a removed reservation.
+     *
+     * @param id reservation ID
+     */
+    public synchronized void logRemove(long id) {
+        append(REMOVE, null, id);
+    }
+
+    /**
+     * Records that every reservation was removed.
+     */
+    public synchronized void logClear() {
+        append(CLEAR, null, 0);
+    }
+
+    /**
+     * Encodes one entry, writes it and forces the file if the policy says so. Once a write has
+     * failed, the file may end in a partial entry that replay cuts off together with everything
+     * after it, so no further entry is appended.
+     *
+     * @throws UncheckedIOException if the entry cannot be written, is larger than replay accepts,
+     *         or an earlier write failed. If only forcing failed, the entry may still be replayed
+     *         on restart. An entry refused before writing leaves the journal usable.
+     * @throws IllegalStateException if the journal is closed
+     */
+    private void append(byte type, Reservation reservation, long id) {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed.");
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Journal stopped after a failed write", failure);
+        }
+        try {
+            entry.reset();
+            entryOut.writeByte(type);
+            entryOut.writeLong(id);
+            if (reservation != null) {
+                Guest guest = reservation.getGuest();
+                Room room = reservation.getRoom();
+                entryOut.writeUTF(guest.getName());
+                entryOut.writeUTF(guest.getEmail());
+                entryOut.writeInt(room.getRoomNumber());
+                entryOut.writeUTF(room.getType());
+                entryOut.writeDouble(room.getRate());
+                entryOut.writeInt(reservation.getNights());
+                entryOut.writeInt(reservation.hasDates() ? (int) reservation.getCheckIn().toEpochDay() : ReservationSnapshot.NO_DATE);
+                entryOut.writeInt(reservation.hasDates() ? (int) reservation.getCheckOut().toEpochDay() : ReservationSnapshot.NO_DATE);
+            }
+            if (entry.size() > MAX_ENTRY_SIZE) {
+                // Replay would stop here and cut off the rest of the file, so it is refused before anything is written
+                throw new IOException("Journal entry of " + entry.size() + " bytes is larger than " + MAX_ENTRY_SIZE + ".");
+            }
+            crc.reset();
+            crc.update(entry.buffer(), 0, entry.size());
+            try {
+                out.writeInt(entry.size());
+                out.writeInt((int) crc.getValue());
+                entry.writeTo(out);
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            }
+            operationsSinceCheckpoint++;
+            unsynced++;
+            if (policy.getBatchSize() > 0 && unsynced >= policy.getBatchSize()) {
+                sync();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing journal", e);
+        }
+    }
+
+    /**
+     * Forces everything written so far to disk.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void sync() throws IOException {
+        if (unsynced == 0 || closed) return;
+        force();
+    }
+
+    /**
+     * Writes out the buffer and forces the file to disk.
+     */
+    private void force() throws IOException {
+        if (failure != null) {
+            throw new IOException("Journal stopped after a failed write.", failure);
+        }
+        try {
+            out.flush();
+            file.getChannel().force(false);
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+        unsynced = 0;
+    }
+
+    /**
+     * Timer task for {@link JournalSyncPolicy#INTERVAL}.
+     */
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            System.out.println("Error syncing journal: " + e.getMessage()); // Print error if fails
+        }
+    }
+
+    /**
+     * Gets the number of operations journaled since the last checkpoint.
+     *
+     * @return operations since the last checkpoint
+     */
+    public synchronized long getOperationsSinceCheckpoint() {
+        return operationsSinceCheckpoint;
+    }
+
+    /**
+     * Checks whether a snapshot is still being written.
+     *
+     * @return {@code true} while the background snapshot runs
+     */
+    public synchronized boolean isSnapshotRunning() {
+        return snapshotTask != null && !snapshotTask.isDone();
+    }
+
+    /**
+     * Starts a new journal generation and writes a snapshot of {@code reservations} in the
+     * background. The array must not be changed afterwards; the reservations in it must be
+     * exactly the state after the last journaled operation.
+     *
+     * @param reservations every current reservation; {@code null} entries are skipped
+     * @param nextId next reservation ID to hand out
+     * @return {@code true} if the snapshot was started, {@code false} if one is still running
+     * @throws IOException if the journal cannot be rotated
+     */
+    public synchronized boolean checkpoint(Reservation[] reservations, long nextId) throws IOException {
+        if (isSnapshotRunning() || closed) return false;
+        force(); // The closing file must be complete before the snapshot replaces it
+        out.close();
+        long covered = generation++;
+        openFile();
+        operationsSinceCheckpoint = 0;
+        snapshotTask = snapshotWriter.submit(() -> writeSnapshot(reservations, covered, nextId));
+        return true;
+    }
+
+    /**
+     * Waits until the snapshot being written, if any, is finished.
+     */
+    public void awaitSnapshot() {
+        Future<?> task;
+        synchronized (this) {
+            task = snapshotTask;
+        }
+        if (task == null) return;
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("Error writing snapshot: " + e.getCause().getMessage()); // Print error if fails
+        }
+    }
+
+    /**
+     * Gets the number of reservations loaded from the snapshot when the journal was opened.
+     *
+     * @return reservations read from the snapshot
+     */
+    public long getSnapshotCount() {
+        return snapshotCount;
+    }
+
+    /**
+     * Gets the number of journal entries replayed when the journal was opened.
+     *
+     * @return entries replayed on top of the snapshot
+     */
+    public long getReplayedCount() {
+        return replayedCount;
+    }
+
+    /**
+     * Waits for a running snapshot, forces the journal to disk and closes it.
+     */
+    @Override
+    public void close() {
+        awaitSnapshot();
+        synchronized (this) {
+            if (closed) return;
+            try {
+                if (failure == null) {
+                    force();
+                    out.close();
+                } else {
+                    file.close(); // Drops the buffer rather than add to a damaged file
+                }
+            } catch (IOException e) {
+                System.out.println("Error closing journal: " + e.getMessage()); // Print error if fails
+            }
+            closed = true;
+        }
+        snapshotWriter.shutdown();
+        if (syncTimer != null) {
+            syncTimer.shutdown();
+        }
+    }
+
+    /**
+     * Opens the journal file of the current generation for appending.
+     */
+    private void openFile() throws IOException {
+        file = new FileOutputStream(journalFile(directory, generation).toFile(), true);
+        out = new DataOutputStream(new BufferedOutputStream(file, BUFFER_SIZE));
+        unsynced = 0;
+    }
+
+    /**
+     * Writes a snapshot, puts it in place of the old one and deletes the journal files it
+     * includes. Runs on the snapshot thread.
+     */
+    private Void writeSnapshot(Reservation[] reservations, long covered, long nextId) throws IOException {
+        Path temp = directory.resolve(SNAPSHOT_TEMP_FILE);
+        ReservationSnapshot.write(temp, covered, nextId, reservations);
+        Files.move(temp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        for (long journalGeneration : listGenerations(directory)) {
+            if (journalGeneration <= covered) {
+                Files.deleteIfExists(journalFile(directory, journalGeneration));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Replays one journal file into {@code target}, stopping at the first entry that is cut
+     * short or fails its checksum.
+     *
+     * @param count receives the number of entries replayed
+     * @return the length of the file up to the end of the last good entry
+     */
+    private static long replay(Path journalFile, RoomInventory rooms, GuestRegistry guests, Target target,
+                               long[] count) throws IOException {
+        CRC32 checksum = new CRC32();
+        byte[] buffer = new byte[MAX_ENTRY_SIZE];
+        long goodBytes = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile.toFile()), BUFFER_SIZE))) {
+            while (true) {
+                int length = in.readInt(); // EOFException at the end of the file
+                if (length <= 0 || length > MAX_ENTRY_SIZE) break;
+                int expected = in.readInt();
+                in.readFully(buffer, 0, length);
+                checksum.reset();
+                checksum.update(buffer, 0, length);
+                if ((int) checksum.getValue() != expected) break;
+                apply(new DataInputStream(new ByteArrayInputStream(buffer, 0, length)), rooms, guests, target);
+                count[0]++;
+                goodBytes += 8 + length;
+            }
+        } catch (EOFException e) {
+            // End of file, or an entry cut short
+        }
+        return goodBytes;
+    }
+
+    /**
+     * Decodes one entry and applies it to {@code target}.
+     */
+    private static void apply(DataInputStream in, RoomInventory rooms, GuestRegistry guests, Target target) throws IOException {
+        byte type = in.readByte();
+        long id = in.readLong();
+        switch (type) {
+            case ADD, UPDATE -> {
+                Guest guest = guests.get(in.readUTF(), in.readUTF());
+                Room room = rooms.get(in.readInt(), in.readUTF(), in.readDouble());
+                int nights = in.readInt();
+                int checkIn = in.readInt();
+                int checkOut = in.readInt();
+                Reservation reservation = checkIn == ReservationSnapshot.NO_DATE ? new Reservation(guest, room, nights)
+                        : new Reservation(guest, room, LocalDate.ofEpochDay(checkIn), LocalDate.ofEpochDay(checkOut));
+                reservation.setId(id);
+                if (type == ADD) {
+                    target.restore(reservation);
+                } else {
+                    target.replace(reservation);
+                }
+            }
+            case REMOVE -> target.remove(id);
+            case CLEAR -> target.clear();
+            default -> throw new IOException("Unknown journal entry type " + type + ".");
+        }
+    }
+
+    /**
+     * Lists the generations of the journal files in a directory, oldest first.
+     */
+    private static List<Long> listGenerations(Path directory) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, JOURNAL_PREFIX + "*" + JOURNAL_SUFFIX)) {
+            for (Path journalFile : files) {
+                String name = journalFile.getFileName().toString();
+                try {
+                    generations.add(Long.parseLong(name.substring(JOURNAL_PREFIX.length(), name.length() - JOURNAL_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    /**
+     * Entry buffer whose bytes can be checksummed without copying them.
+     */
+    private static class EntryBuffer extends ByteArrayOutputStream {
+        byte[] buffer() {
+            return buf;
+        }
+    }
+
+    /**
+     * Gets the path of a journal file.
+     */
+    private static Path journalFile(Path directory, long generation) {
+        return directory.resolve(JOURNAL_PREFIX + generation + JOURNAL_SUFFIX);
+    }
+}
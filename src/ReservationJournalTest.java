@@ -0,0 +1,213 @@
+/**
+ * ReservationJournalTest.java
+ *
+ * <p>This class contains unit tests for the {@link ReservationJournal} class, through durable
+ * {@link ReservationManager}s.</p>
+ *
+ * @author Andres Vera
+ */
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+class ReservationJournalTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that adds, updates, removes and clears survive a restart, and that IDs keep counting
+     * from where they stopped.
+     */
+    @Test
+    void open_replaysJournalAfterRestart() throws IOException {
+        ReservationManager manager = open();
+        long ana = manager.addReservation(TestRecords.record("Ana Diaz", 1, "2025-03-01", "2025-03-04"));
+        long luis = manager.addReservation(TestRecords.record("Luis Ramos", 2, "2025-03-01", "2025-03-02"));
+        long maria = manager.addReservation(TestRecords.record("Maria Lopez", 3, null, null));
+        manager.updateReservation(ana, TestRecords.record("Ana Diaz", 5, "2025-03-02", "2025-03-06"));
+        manager.deleteReservation(luis);
+        manager.close();
+
+        manager = open();
+        assertEquals(2, manager.size());
+        assertEquals(5, manager.findReservation(ana).getRoomNumber());
+        assertEquals("2025-03-06", manager.findReservation(ana).getCheckOut());
+        assertNull(manager.findReservation(luis));
+        assertNotNull(manager.findReservation(maria));
+        assertFalse(manager.isRoomAvailable(5, LocalDate.parse("2025-03-03"), LocalDate.parse("2025-03-04")));
+        assertEquals(maria + 1, manager.addReservation(TestRecords.record("Pedro Diaz", 4, null, null)));
+
+        manager.deleteReservation(maria);
+        manager.loadFromFileParallel(writeExport("Sofia Diaz,sofia@example.com,7,City View,2"));
+        manager.close();
+
+        manager = open();
+        assertEquals(List.of("Sofia Diaz"), names(manager));
+        manager.close();
+    }
+
+    /**
+     * Tests that a checkpoint replaces the journal written before it, and that operations after
+     * it are replayed on top of the snapshot.
+     */
+    @Test
+    void checkpoint_snapshotPlusShortReplay() throws IOException {
+        ReservationManager manager = open();
+        for (int i = 1; i <= 10; i++) {
+            manager.addReservation(TestRecords.record("Guest " + i, i, null, null));
+        }
+        assertTrue(manager.checkpoint());
+        manager.getJournal().awaitSnapshot();
+        manager.deleteReservation(1);
+        manager.addReservation(TestRecords.record("Guest 11", 11, null, null));
+        manager.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count()); // The snapshot and one journal file
+        }
+        manager = open();
+        assertEquals(10, manager.getJournal().getSnapshotCount());
+        assertEquals(2, manager.getJournal().getReplayedCount());
+        assertEquals(10, manager.size());
+        assertNull(manager.findReservation(1));
+        assertEquals("Guest 11", manager.findReservation(11).getGuestName());
+        manager.close();
+    }
+
+    /**
+     * Tests that an entry cut short by a crash is dropped, and that entries written after the
+     * next start are still replayed.
+     */
+    @Test
+    void open_dropsTornLastEntry() throws IOException {
+        ReservationManager manager = open();
+        manager.addReservation(TestRecords.record("Ana Diaz", 1, null, null));
+        manager.addReservation(TestRecords.record("Luis Ramos", 2, null, null));
+        manager.close();
+        Path journalFile;
+        try (Stream<Path> files = Files.list(directory)) {
+            journalFile = files.filter(path -> path.toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(journalFile.toFile(), "rw")) {
+            file.setLength(file.length() - 3); // Crash in the middle of the second entry
+        }
+
+        manager = open();
+        assertEquals(List.of("Ana Diaz"), names(manager));
+        manager.addReservation(TestRecords.record("Maria Lopez", 3, null, null));
+        manager.close();
+
+        manager = open();
+        assertEquals(List.of("Ana Diaz", "Maria Lopez"), names(manager));
+        manager.close();
+    }
+
+    /**
+     * Tests that a renamed guest and a repriced room survive a restart, without changing the
+     * reservations that kept the old name or rate.
+     */
+    @Test
+    void open_keepsChangedNamesAndRates() throws IOException {
+        ReservationManager manager = open();
+        long ana = manager.addReservation(TestRecords.record("Ana Diaz", 1, "2025-03-01", "2025-03-04"));
+        long again = manager.addReservation(TestRecords.record("Ana Diaz", 2, null, null));
+        long luis = manager.addReservation(TestRecords.record("Luis Ramos", 3, null, null));
+        manager.updateReservation(again, new ReservationRecord(0, "Ana Maria Diaz", TestRecords.email("Ana Diaz"),
+                2, "City View", 90.0, 2, null, null));
+        assertEquals(1, manager.changeRoomRate(3, 120.0));
+        manager.close();
+
+        manager = open();
+        assertEquals("Ana Diaz", manager.findReservation(ana).getGuestName());
+        assertEquals("Ana Maria Diaz", manager.findReservation(again).getGuestName());
+        assertEquals(90.0, manager.findReservation(ana).getRate());
+        assertEquals(120.0, manager.findReservation(luis).getRate());
+        manager.close();
+    }
+
+    /**
+     * Tests that an operation whose entry cannot be written fails without changing the
+     * reservations, so memory never gets ahead of the journal.
+     */
+    @Test
+    void unwritableEntry_changesNothing() throws IOException {
+        ReservationManager manager = open();
+        long ana = manager.addReservation(TestRecords.record("Ana Diaz", 1, "2025-03-01", "2025-03-04"));
+        manager.getJournal().close(); // Every later append fails
+
+        assertThrows(IllegalStateException.class, () -> manager.addReservation(TestRecords.record("Luis Ramos", 2, null, null)));
+        assertThrows(IllegalStateException.class, () -> manager.updateReservation(ana, TestRecords.record("Ana Diaz", 1, "2025-03-05", "2025-03-06")));
+        assertThrows(IllegalStateException.class, () -> manager.deleteReservation(ana));
+        assertEquals(List.of("Ana Diaz"), names(manager));
+        assertEquals("2025-03-04", manager.findReservation(ana).getCheckOut());
+        assertFalse(manager.isRoomAvailable(1, LocalDate.parse("2025-03-02"), LocalDate.parse("2025-03-03")));
+        manager.close();
+
+        ReservationManager reopened = open();
+        assertEquals(List.of("Ana Diaz"), names(reopened));
+        assertEquals(ana + 1, reopened.addReservation(TestRecords.record("Luis Ramos", 2, null, null)));
+        reopened.close();
+    }
+
+    /**
+     * Tests that an entry too large for replay is refused before it is written, leaving the
+     * reservations and the journal as they were, so later operations still survive a restart.
+     */
+    @Test
+    void oversizedEntry_refusedAndLaterEntriesKept() throws IOException {
+        ReservationManager manager = open();
+        long ana = manager.addReservation(TestRecords.record("Ana Diaz", 1, null, null));
+        String longName = "A".repeat(40_000);
+        Reservation huge = new Reservation(new Guest(longName, "a".repeat(30_000) + "@example.com"), new Room(2, "City View", 90.0), 1);
+
+        assertThrows(UncheckedIOException.class, () -> manager.addReservation(huge));
+        assertThrows(UncheckedIOException.class, () -> manager.updateReservation(ana,
+                new ReservationRecord(0, longName, "b".repeat(30_000) + "@example.com", 1, "City View", 90.0, 2, null, null)));
+        assertEquals(List.of("Ana Diaz"), names(manager));
+        long luis = manager.addReservation(TestRecords.record("Luis Ramos", 3, null, null));
+        manager.deleteReservation(ana);
+        manager.close();
+
+        ReservationManager reopened = open();
+        assertEquals(List.of("Luis Ramos"), names(reopened));
+        assertEquals(luis + 1, reopened.addReservation(TestRecords.record("Maria Lopez", 4, null, null)));
+        reopened.close();
+    }
+
+    /**
+     * Opens a manager on the test directory, forcing every entry.
+     */
+    private ReservationManager open() throws IOException {
+        return ReservationManager.open(directory.toString(), JournalSyncPolicy.PER_OPERATION);
+    }
+
+    /**
+     * Writes a text export with the given lines and returns its path.
+     */
+    private String writeExport(String... lines) throws IOException {
+        Path file = directory.resolve("export.txt");
+        Files.write(file, List.of(lines));
+        return file.toString();
+    }
+
+    /**
+     * Gets the guest names of a manager in list order.
+     */
+    private static List<String> names(ReservationManager manager) {
+        List<String> names = new ArrayList<>();
+        manager.forEachReservation(row -> names.add(row.getGuestName()));
+        return names;
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * ReservationLoaderBenchmark.java
+ *
+ * <p>This class is a small command-line benchmark that compares
+ * {@link ReservationManager#loadFromFile(String)} with
+ * {@link ReservationManager#loadFromFileParallel(String)} on generated reservation files, and
+ * with loading the same reservations from a binary snapshot: both
+ * {@link ReservationManager#importSnapshot(String)}, which builds every reservation, and
+ * {@link ReservationSnapshot#open(Path)}, which only maps and checks the file. Each loader runs
+ * once to warm up and is then timed over a few runs; the best run is reported.</p>
+ *
+ * <p>The arguments are the file sizes to try, in lines. Larger files need a large heap, since
+ * every loaded reservation is kept in memory (roughly 200 bytes each).</p>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * java -Xmx12g -cp out ReservationLoaderBenchmark 1000000 10000000 50000000
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+
+public class ReservationLoaderBenchmark {
+    /** File size used when no argument is given */
+    private static final int DEFAULT_LINES = 1_000_000;
+    /** Timed runs per loader */
+    private static final int RUNS = 3;
+    /** Name pieces used to generate guest names */
+    private static final String[] NAMES = {"Ana", "Luis", "Maria", "Pedro", "Sofia", "Diego", "Elena", "Jorge"};
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args file sizes in lines
+     * @throws IOException if a temporary file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int[] sizes = args.length == 0 ? new int[]{DEFAULT_LINES} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+
+        for (int lines : sizes) {
+            File file = generate(lines);
+            File snapshot = File.createTempFile("hotel-load", ".snap");
+            snapshot.deleteOnExit();
+            try {
+                System.out.printf("%n%,d lines (%,d MB)%n", lines, file.length() >> 20);
+                time("loadFromFile", lines, () -> new ReservationManager().loadFromFile(file.getPath()));
+                time("loadFromFileParallel", lines, () -> new ReservationManager().loadFromFileParallel(file.getPath()));
+
+                exportSnapshot(file.getPath(), snapshot.getPath());
+                System.out.printf("snapshot file: %,d MB%n", snapshot.length() >> 20);
+                time("importSnapshot", lines, () -> new ReservationManager().importSnapshot(snapshot.getPath()));
+                time("ReservationSnapshot.open", lines, () -> ReservationSnapshot.open(snapshot.toPath()));
+            } finally {
+                file.delete();
+                snapshot.delete();
+            }
+        }
+    }
+
+    /**
+     * Loads the text file once and saves it as a snapshot for the snapshot loaders.
+     */
+    private static void exportSnapshot(String textFile, String snapshotFile) throws IOException {
+        ReservationManager manager = new ReservationManager();
+        manager.loadFromFileParallel(textFile);
+        manager.exportSnapshot(snapshotFile);
+    }
+
+    /**
+     * Writes a file of {@code lines} valid reservations.
+     */
+    private static File generate(int lines) throws IOException {
+        File file = File.createTempFile("hotel-load", ".txt");
+        file.deleteOnExit();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file), 1 << 16)) {
+            for (int i = 0; i < lines; i++) {
+                String name = NAMES[i % NAMES.length];
+                writer.write(name + " " + NAMES[(i / NAMES.length) % NAMES.length] + ","
+                        + name.toLowerCase() + i + "@example.com,"
+                        + (i % 18 + 1) + "," + (i % 3 == 0 ? "Patio View" : "City View") + ","
+                        + (i % 7 + 1));
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Runs one loader once to warm up, then {@link #RUNS} times, and prints the best time.
+     */
+    private static void time(String label, int lines, Load load) throws IOException {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // Both loaders print
+        long best = Long.MAX_VALUE;
+        try {
+            for (int run = 0; run <= RUNS; run++) {
+                System.gc(); // Start each run without the previous run's garbage
+                long start = System.nanoTime();
+                load.run();
+                long elapsed = System.nanoTime() - start;
+                if (run > 0) best = Math.min(best, elapsed); // Run 0 is the warm-up
+            }
+        } finally {
+            System.setOut(console);
+        }
+        double seconds = best / 1_000_000_000.0;
+        System.out.printf("%-40s %8.2f s %14.0f lines/sec%n", label, seconds, lines / seconds);
+    }
+
+    /**
+     * One load of the generated file.
+     */
+    private interface Load {
+        void run() throws IOException;
+    }
+}
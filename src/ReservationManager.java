@@ -3,10 +3,59 @@
  *
  * <p>This class handles the management of reservations in memory.
  * It allows adding, removing, updating, listing, and searching reservations.
- * It also supports loading reservation data from a file.</p>
+ * Every added reservation gets an ID that never changes, and reservations are looked up,
+ * updated and removed by ID in constant time. The older index-based methods remain for
+ * existing callers.
+ * It also supports loading reservation data from a file, either line by line or, for large
+ * exports, with the parallel memory-mapped {@link ReservationFileLoader}. Both stop at the first
+ * malformed line; {@link #importFromFile(String, boolean)} instead skips bad lines, reports them,
+ * and keeps the good ones.</p>
  *
  * <p>This class uses an ArrayList to store Reservation objects and provides
- * methods that simulate basic CRUD functionality for managing hotel bookings.</p>
+ * methods that simulate basic CRUD functionality for managing hotel bookings. A hash map from
+ * ID to list position finds a reservation without a scan. Removing one does not shift the rest
+ * of the list: its slot is left empty (a tombstone) and the list is compacted once tombstones
+ * make up half of it, so removals cost O(1) amortised.</p>
+ *
+ * <p>Dated reservations are also kept in a per-room calendar: a {@link TreeMap} from check-in
+ * date to reservation. Stays in one room never overlap, so the only stay that can collide with a
+ * new one is the latest stay starting before the new one ends. That makes overlap checks and
+ * "free rooms for this stay" queries O(log n) per room instead of a scan of the whole list.</p>
+ *
+ * <p>On top of that, an {@link OccupancyCalendar} keeps a bit per room per night for a rolling
+ * window (two years from today by default). Searches for free rooms whose nights fall inside the
+ * window are answered from those bits; stays beyond the window fall back to the per-room maps.</p>
+ *
+ * <p>It is also the in-memory {@link ReservationStore}, so either front end can run on it. The
+ * store methods take and return {@link ReservationRecord}s and do not print.</p>
+ *
+ * <p>A manager created with {@link #open(String, JournalSyncPolicy)} is durable: every add,
+ * update, remove and clear is appended to a {@link ReservationJournal} before it is applied, so
+ * an operation whose entry cannot be written throws {@link java.io.UncheckedIOException} and
+ * changes nothing. Guests and rooms are journaled as part of each reservation, so they are
+ * changed by replacing reservations (see {@link #changeRoomRate(int, double)}), not by calling
+ * their setters. Every
+ * {@link #setSnapshotInterval(int) snapshot interval} operations the reservations are written to
+ * a snapshot in the background. Opening the same directory again loads the snapshot and replays
+ * the journal written since.</p>
+ *
+ * <p>Changes can be followed through {@link #getEventFeed()}, which publishes an event for every
+ * add, update, remove and clear once it has been asked for.</p>
+ *
+ * <p>{@link #exportSnapshot(String)} and {@link #importSnapshot(String)} save and load the
+ * reservations as a memory-mapped {@link ReservationSnapshot}, which loads much faster than a
+ * text export and keeps reservation IDs.</p>
+ *
+ * <p>{@link #query(ReservationQuery)} filters, sorts and limits the reservations and returns
+ * them. It reads the candidates from the most selective {@link ReservationIndex} (room, room type
+ * or nights) the query allows, built on the first query and then kept up to date, and scans the
+ * list only when no index narrows the search.</p>
+ *
+ * <p>Confirmations, errors and listings go to an {@link OutputSink}, the console by default.
+ * Bulk jobs can {@link #setOutput(OutputSink) set} {@link OutputSink#SILENT}. Listings are
+ * formatted with {@link Reservation#appendTo(StringBuilder)} into one reused buffer that is
+ * written out every {@link #OUTPUT_CHUNK} characters, and
+ * {@link #listReservations(int, int)} prints one page at a time.</p>
  *
  * <p><b>Example Usage:</b></p>
  * <pre>{@code
@@ -21,74 +70,710 @@
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+public class ReservationManager implements ReservationStore {
+    /** Characters of a listing buffered before they are written to the output */
+    public static final int OUTPUT_CHUNK = 1 << 16;
+    /** Number of rooms in the hotel when none is given */
+    public static final int DEFAULT_ROOM_COUNT = 18;
+    /** Fewest tombstones worth compacting the list for */
+    private static final int MIN_COMPACT_TOMBSTONES = 64;
 
-public class ReservationManager {
-    /** A list that stores all reservation objects */
+    /** A list that stores all reservation objects; removed ones leave a {@code null} until the next compaction */
     private ArrayList<Reservation> reservations;
+    /** Position in {@link #reservations} of each reservation, by ID */
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    /** Number of {@code null} slots left by removals */
+    private int tombstones;
+    /** Next reservation ID to hand out; IDs are never reused */
+    private long nextId = 1;
+    /** Shared Room objects, one per physical room and rate */
+    private final RoomInventory rooms = new RoomInventory();
+    /** Shared Guest objects, one per email and name */
+    private final GuestRegistry guests = new GuestRegistry();
+    /** Columns kept up to date for {@link #getColumns()}, or {@code null} until asked for or after a removal */
+    private ReservationColumns.Builder columns;
+    /** Dated reservations of each room, keyed by check-in date */
+    private final Map<Integer, TreeMap<LocalDate, Reservation>> roomCalendars = new HashMap<>();
+    /** Rooms are numbered 1 to roomCount */
+    private final int roomCount;
+    /** Booked-night bits of every room for the rolling window */
+    private final OccupancyCalendar occupancy;
+    /** Reused result set for searches through {@link #occupancy} */
+    private final long[] freeRooms;
+    /** Where changes are journaled, or {@code null} if the manager is not durable */
+    private ReservationJournal journal;
+    /** Journaled operations between automatic checkpoints */
+    private int snapshotInterval = ReservationJournal.DEFAULT_SNAPSHOT_INTERVAL;
+    /** Where changes are published, or {@code null} until {@link #getEventFeed()} is called */
+    private ReservationEventFeed events;
+    /** Indexes for {@link #query(ReservationQuery)}, or {@code null} until the first query */
+    private ReservationIndex index;
+    /** Where messages and listings are printed */
+    private OutputSink output = OutputSink.console();
+    /** Listing buffer, reused between calls */
+    private final StringBuilder listing = new StringBuilder(OUTPUT_CHUNK + 512);
 
     /**
-     * Constructs a new ReservationManager with an empty reservation list.
+     * Constructs a new ReservationManager with an empty reservation list for a hotel of
+     * {@link #DEFAULT_ROOM_COUNT} rooms.
      */
     public ReservationManager() {
+        this(DEFAULT_ROOM_COUNT);
+    }
+
+    /**
+     * Constructs a new ReservationManager with an empty reservation list.
+     *
+     * @param roomCount number of rooms, numbered from 1, searched by {@link #findAvailableRooms(LocalDate, LocalDate)}
+     */
+    public ReservationManager(int roomCount) {
+        this(roomCount, LocalDate.now(), OccupancyCalendar.DEFAULT_HORIZON_DAYS);
+    }
+
+    /**
+     * Constructs a new ReservationManager with an empty reservation list and an occupancy
+     * window of {@code horizonDays} nights starting at {@code calendarStart}.
+     *
+     * @param roomCount number of rooms, numbered from 1
+     * @param calendarStart first night of the occupancy window
+     * @param horizonDays number of nights in the occupancy window
+     */
+    public ReservationManager(int roomCount, LocalDate calendarStart, int horizonDays) {
         reservations = new ArrayList<>();
+        this.roomCount = roomCount;
+        this.occupancy = new OccupancyCalendar(roomCount, calendarStart, horizonDays);
+        this.freeRooms = occupancy.newRoomSet();
+    }
+
+    /**
+     * Opens a durable manager kept in {@code directory}, recovering the reservations saved there
+     * by an earlier run. Close it with {@link #close()} so the last changes are on disk.
+     *
+     * @param directory where the snapshot and journal files are kept; created if missing
+     * @param policy when journal entries are forced to disk
+     * @return the recovered manager, journaling from now on
+     * @throws IOException if the directory cannot be read or written, or the snapshot is damaged
+     */
+    public static ReservationManager open(String directory, JournalSyncPolicy policy) throws IOException {
+        ReservationManager manager = new ReservationManager();
+        // Attached only after recovery, so replayed operations are not journaled again
+        manager.journal = ReservationJournal.open(Path.of(directory), policy, manager.rooms, manager.guests,
+                manager.new Recovery());
+        return manager;
     }
 
     /**
-     * Adds a new reservation to the list.
+     * Adds a new reservation to the list and gives it the next ID (see {@link Reservation#getId()}).
+     * A dated reservation is rejected if its room is already booked for any of its nights.
      *
      * @param reservation the Reservation object to be added
+     * @return {@code true} if the reservation was added, {@code false} if the room is taken
+     */
+    public boolean addReservation(Reservation reservation) {
+        if (!tryAdd(reservation)) {
+            output.println("Room " + reservation.getRoom().getRoomNumber() + " is not available for those dates.");
+            return false;
+        }
+        output.println("Reservation added!");
+        return true;
+    }
+
+    /**
+     * Adds a reservation unless its room is taken for any of its nights, without printing.
+     */
+    private boolean tryAdd(Reservation reservation) {
+        if (reservation.hasDates() && !isRoomAvailable(reservation.getRoom().getRoomNumber(),
+                reservation.getCheckIn(), reservation.getCheckOut())) {
+            return false;
+        }
+        store(reservation);
+        return true;
+    }
+
+    /**
+     * Gives a reservation the next ID and appends it to the list and the calendars.
      */
-    public void addReservation(Reservation reservation) {
+    private void store(Reservation reservation) {
+        reservation.setId(nextId);
+        if (journal != null) {
+            journal.logAdd(reservation); // Written first, so a failed write changes nothing
+        }
+        nextId++;
+        slotById.put(reservation.getId(), reservations.size());
+        if (index != null) {
+            index.add(reservations.size(), reservation);
+        }
         reservations.add(reservation);
-        System.out.println("Reservation added!");
+        addToCalendar(reservation);
+        if (columns != null) {
+            columns.append(reservation);
+        }
+        if (journal != null) {
+            checkpointIfDue();
+        }
+        publish(ReservationEvent.Type.ADDED, reservation.getId(), null, reservation);
+    }
+
+    /**
+     * Removes every reservation. IDs keep counting up, so old IDs are not handed out again.
+     */
+    private void clearReservations() {
+        if (journal != null) {
+            journal.logClear();
+        }
+        reservations.clear();
+        slotById.clear();
+        tombstones = 0;
+        roomCalendars.clear();
+        occupancy.clear();
+        columns = null;
+        index = null;
+        rooms.clear(); // Reservations added from now on share only new objects
+        guests.clear();
+        if (journal != null) {
+            checkpointIfDue();
+        }
+        publish(ReservationEvent.Type.CLEARED, 0, null, null);
+    }
+
+    /**
+     * Closes the gaps left by removed reservations, keeping the others in order.
+     */
+    private void compact() {
+        if (tombstones == 0) return;
+        int live = 0;
+        for (int i = 0; i < reservations.size(); i++) {
+            Reservation reservation = reservations.get(i);
+            if (reservation == null) continue;
+            if (i != live) {
+                reservations.set(live, reservation);
+                slotById.put(reservation.getId(), live);
+            }
+            live++;
+        }
+        reservations.subList(live, reservations.size()).clear();
+        tombstones = 0;
+        index = null; // Slots moved; rebuilt on the next query
+    }
+
+    /**
+     * Gets a reservation by ID.
+     *
+     * @param id reservation ID
+     * @return the reservation, or {@code null} if there is none with that ID
+     */
+    public Reservation getReservation(long id) {
+        Integer slot = slotById.get(id);
+        return slot == null ? null : reservations.get(slot);
+    }
+
+    /**
+     * Gets a column-oriented snapshot of the reservations for analytics. The columns are built
+     * on the first call and then extended as reservations are added, so later calls are cheap;
+     * after a removal or update they are rebuilt once.
+     *
+     * @return snapshot of the current reservations, in the order they were added
+     */
+    public ReservationColumns getColumns() {
+        if (columns == null) {
+            columns = new ReservationColumns.Builder();
+            for (Reservation reservation : reservations) {
+                if (reservation != null) {
+                    columns.append(reservation);
+                }
+            }
+        }
+        return columns.build();
+    }
+
+    /**
+     * Gets the number of reservations.
+     *
+     * @return reservation count
+     */
+    public int size() {
+        return reservations.size() - tombstones;
+    }
+
+    /**
+     * Checks whether a room is free for every night of a stay.
+     *
+     * @param roomNumber room to check
+     * @param checkIn first night of the stay
+     * @param checkOut day the guest leaves
+     * @return {@code true} if no dated reservation of the room overlaps the stay
+     */
+    @Override
+    public boolean isRoomAvailable(int roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        TreeMap<LocalDate, Reservation> calendar = roomCalendars.get(roomNumber);
+        if (calendar == null) return true; // Nothing booked in this room yet
+        // Stays do not overlap each other, so only the latest one starting before check-out can reach into the new stay
+        Map.Entry<LocalDate, Reservation> previous = calendar.lowerEntry(checkOut);
+        return previous == null || !previous.getValue().getCheckOut().isAfter(checkIn);
+    }
+
+    /**
+     * Finds the rooms that are free for every night of a stay.
+     *
+     * @param checkIn first night of the stay
+     * @param checkOut day the guest leaves
+     * @return free room numbers in ascending order
+     */
+    public List<Integer> findAvailableRooms(LocalDate checkIn, LocalDate checkOut) {
+        return findAvailableRooms(null, checkIn, checkOut);
+    }
+
+    /**
+     * Finds the rooms of a type that are free for every night of a stay. Rooms without a type
+     * (see {@link #setRoomType(int, String)}) match any type.
+     *
+     * @param roomType wanted room type, or {@code null} for any
+     * @param checkIn first night of the stay
+     * @param checkOut day the guest leaves
+     * @return free room numbers in ascending order
+     */
+    @Override
+    public List<Integer> findAvailableRooms(String roomType, LocalDate checkIn, LocalDate checkOut) {
+        List<Integer> free = new ArrayList<>();
+        if (occupancy.covers(checkIn, checkOut)) {
+            // Inside the window: one pass over the occupancy bits
+            occupancy.findFreeRooms(roomType, checkIn, checkOut, freeRooms);
+            for (int w = 0; w < freeRooms.length; w++) {
+                for (long bits = freeRooms[w]; bits != 0; bits &= bits - 1) {
+                    free.add((w << 6) + Long.numberOfTrailingZeros(bits) + 1);
+                }
+            }
+        } else {
+            for (int room = 1; room <= roomCount; room++) {
+                if (occupancy.matchesType(room, roomType) && isRoomAvailable(room, checkIn, checkOut)) {
+                    free.add(room);
+                }
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Gives a room a fixed type for {@link #findAvailableRooms(String, LocalDate, LocalDate)},
+     * or lets it be booked as any type again when {@code roomType} is {@code null}.
+     *
+     * @param roomNumber room number (1 to the room count)
+     * @param roomType room type, or {@code null} for any
+     */
+    public void setRoomType(int roomNumber, String roomType) {
+        occupancy.setRoomType(roomNumber, roomType);
     }
 
     /**
-     * Lists all reservations in the system to the console.
+     * Changes the nightly rate of every reservation of a room. Each one is replaced by a copy
+     * booked at the new rate, so a durable manager journals the change and an event is published
+     * per reservation. Use this rather than {@link Room#setRate(double)} on a shared room.
+     *
+     * @param roomNumber room number
+     * @param rate the new nightly rate
+     * @return the number of reservations changed
+     */
+    public int changeRoomRate(int roomNumber, double rate) {
+        int changed = 0;
+        for (int slot = 0; slot < reservations.size(); slot++) {
+            Reservation old = reservations.get(slot);
+            if (old == null || old.getRoom().getRoomNumber() != roomNumber
+                    || Double.compare(old.getRoom().getRate(), rate) == 0) {
+                continue;
+            }
+            Room room = rooms.get(roomNumber, old.getRoom().getType(), rate);
+            Reservation repriced = old.hasDates() ? new Reservation(old.getGuest(), room, old.getCheckIn(), old.getCheckOut())
+                    : new Reservation(old.getGuest(), room, old.getNights());
+            tryReplace(slot, repriced); // Same nights, so it cannot clash
+            changed++;
+        }
+        return changed;
+    }
+
+    /**
+     * Gets the shared rooms. Reservations built from it share one Room per physical room and
+     * rate.
+     *
+     * @return the room inventory used by the file loaders
+     */
+    public RoomInventory getRoomInventory() {
+        return rooms;
+    }
+
+    /**
+     * Gets the shared guests, one per email and name.
+     *
+     * @return the guest registry used by the file loaders
+     */
+    public GuestRegistry getGuestRegistry() {
+        return guests;
+    }
+
+    /**
+     * Gets the occupancy bits, for callers that run many searches and want to reuse one
+     * result set instead of building a list each time.
+     *
+     * @return the occupancy calendar kept in sync with this manager
+     */
+    public OccupancyCalendar getOccupancyCalendar() {
+        return occupancy;
+    }
+
+    /**
+     * Moves the occupancy window forward to start at {@code newStart}, e.g. once a day. Only the
+     * nights that enter the window are filled in, from the stays that reach into them.
+     *
+     * @param newStart new first night of the window
+     */
+    public void advanceCalendar(LocalDate newStart) {
+        LocalDate oldEnd = occupancy.getEnd();
+        occupancy.advanceTo(newStart);
+        LocalDate from = oldEnd.isAfter(occupancy.getStart()) ? oldEnd : occupancy.getStart();
+        LocalDate to = occupancy.getEnd();
+        for (Map.Entry<Integer, TreeMap<LocalDate, Reservation>> entry : roomCalendars.entrySet()) {
+            TreeMap<LocalDate, Reservation> calendar = entry.getValue();
+            // Start at the stay in progress on the first new night, if any
+            LocalDate first = calendar.floorKey(from);
+            NavigableMap<LocalDate, Reservation> stays = calendar.subMap(first != null ? first : from, true, to, false);
+            for (Reservation stay : stays.values()) {
+                occupancy.book(entry.getKey(), stay.getCheckIn(), stay.getCheckOut()); // Clipped to the window
+            }
+        }
+    }
+
+    /**
+     * Adds a dated reservation to its room's calendar and occupancy bits.
+     */
+    private void addToCalendar(Reservation reservation) {
+        if (!reservation.hasDates()) return; // Undated reservations do not block any nights
+        int roomNumber = reservation.getRoom().getRoomNumber();
+        roomCalendars.computeIfAbsent(roomNumber, room -> new TreeMap<>())
+                .put(reservation.getCheckIn(), reservation);
+        occupancy.book(roomNumber, reservation.getCheckIn(), reservation.getCheckOut());
+    }
+
+    /**
+     * Removes a dated reservation from its room's calendar and occupancy bits.
+     */
+    private void removeFromCalendar(Reservation reservation) {
+        if (!reservation.hasDates()) return;
+        int roomNumber = reservation.getRoom().getRoomNumber();
+        TreeMap<LocalDate, Reservation> calendar = roomCalendars.get(roomNumber);
+        if (calendar != null && calendar.remove(reservation.getCheckIn(), reservation)) {
+            occupancy.release(roomNumber, reservation.getCheckIn(), reservation.getCheckOut());
+        }
+    }
+
+    /**
+     * Lists all reservations in the system to the output, each with its ID.
      */
     public void listReservations() {
-        if (reservations.isEmpty()) {
-            System.out.println("No reservations found!");
+        if (size() == 0) {
+            output.println("No reservations found!");
         } else {
-            for (int i = 0; i < reservations.size(); i++) {
-                System.out.println(i + ": " + reservations.get(i));
+            for (Reservation reservation : reservations) {
+                if (reservation != null) {
+                    appendLine(reservation);
+                }
+            }
+            flushListing();
+        }
+    }
+
+    /**
+     * Lists one page of reservations, in the order they were added, under a
+     * "Page p of n" header.
+     *
+     * @param page page number, from 1
+     * @param pageSize reservations per page
+     * @return the number of pages, 0 if there are no reservations
+     */
+    public int listReservations(int page, int pageSize) {
+        if (page < 1 || pageSize < 1) {
+            throw new IllegalArgumentException("Page and page size must be positive.");
+        }
+        int count = size();
+        if (count == 0) {
+            output.println("No reservations found!");
+            return 0;
+        }
+        int pages = (int) ((count + (long) pageSize - 1) / pageSize);
+        if (page > pages) {
+            output.println("Page " + page + " is past the last page (" + pages + ").");
+            return pages;
+        }
+        long skip = (long) (page - 1) * pageSize;
+        int shown = 0;
+        listing.append("Page ").append(page).append(" of ").append(pages).append(System.lineSeparator());
+        // Without tombstones, the page starts at a known slot
+        for (int i = tombstones == 0 ? (int) skip : 0; i < reservations.size() && shown < pageSize; i++) {
+            Reservation reservation = reservations.get(i);
+            if (reservation == null) continue;
+            if (tombstones != 0 && skip > 0) {
+                skip--;
+                continue;
             }
+            appendLine(reservation);
+            shown++;
         }
+        flushListing();
+        return pages;
     }
 
     /**
-     * Removes a reservation by its index.
+     * Finds the reservations matching a query, in the query's order and up to its limit. The
+     * candidates come from the most selective index the query allows; see {@link #explain}.
+     *
+     * @param query filters, order and limit
+     * @return the matching reservations; an empty list if there are none
+     */
+    public List<Reservation> query(ReservationQuery query) {
+        ReservationIndex.Plan plan = plan(query);
+        int limit = query.getLimit();
+        boolean inOrder = query.isInAddedOrder(); // Slots are in the order reservations were added
+        List<Reservation> results = new ArrayList<>();
+        // With another order, a limit keeps only the best rows seen so far, worst on top
+        PriorityQueue<Reservation> best = limit > 0 && !inOrder
+                ? new PriorityQueue<>(limit + 1, query.getOrder().reversed()) : null;
+        for (int slot = plan.next(); slot >= 0; slot = plan.next()) {
+            Reservation reservation = reservations.get(slot);
+            if (reservation == null || !query.matches(reservation)) continue;
+            if (best != null) {
+                best.add(reservation);
+                if (best.size() > limit) best.poll();
+            } else {
+                results.add(reservation);
+                if (results.size() == limit) break;
+            }
+        }
+        if (best != null) {
+            results.addAll(best);
+        }
+        if (!inOrder) {
+            results.sort(query.getOrder());
+        }
+        return results;
+    }
+
+    /**
+     * Describes how {@link #query(ReservationQuery)} would find the candidates for a query,
+     * without running it.
+     *
+     * @param query the query
+     * @return e.g. {@code "room 12 index, 180 candidates"} or {@code "full scan, 1000000 candidates"}
+     */
+    public String explain(ReservationQuery query) {
+        return plan(query).toString();
+    }
+
+    /**
+     * Builds the index if needed and chooses a plan for a query.
+     */
+    private ReservationIndex.Plan plan(ReservationQuery query) {
+        if (index == null) {
+            index = new ReservationIndex();
+            for (int slot = 0; slot < reservations.size(); slot++) {
+                Reservation reservation = reservations.get(slot);
+                if (reservation != null) {
+                    index.add(slot, reservation);
+                }
+            }
+        }
+        return index.plan(query, reservations.size());
+    }
+
+    /**
+     * Gets where messages and listings are printed.
+     *
+     * @return the current output
+     */
+    public OutputSink getOutput() {
+        return output;
+    }
+
+    /**
+     * Sets where messages and listings are printed, e.g. {@link OutputSink#SILENT} around a
+     * bulk job.
+     *
+     * @param output the new output
+     */
+    public void setOutput(OutputSink output) {
+        this.output = output == null ? OutputSink.SILENT : output;
+    }
+
+    /**
+     * Appends "id: reservation" to the listing buffer, writing the buffer out once it is full.
+     */
+    private void appendLine(Reservation reservation) {
+        reservation.appendTo(listing.append(reservation.getId()).append(": ")).append(System.lineSeparator());
+        if (listing.length() >= OUTPUT_CHUNK) {
+            flushListing();
+        }
+    }
+
+    /**
+     * Writes out and empties the listing buffer.
+     */
+    private void flushListing() {
+        if (listing.length() > 0) {
+            output.write(listing.toString()); // The buffer is reused, so the sink gets its own copy
+            listing.setLength(0);
+        }
+    }
+
+    /**
+     * Removes a reservation by ID in constant time. Its slot is left empty rather than shifting
+     * the rest of the list, and the list is compacted once half of it is empty.
+     *
+     * @param id the ID of the reservation to remove
+     * @return {@code true} if the reservation existed and was removed
+     */
+    public boolean removeReservationById(long id) {
+        if (!tryRemove(id)) {
+            output.println("Invalid ID!");
+            return false;
+        }
+        output.println("Reservation removed!");
+        return true;
+    }
+
+    /**
+     * Removes a reservation by ID without printing.
+     */
+    private boolean tryRemove(long id) {
+        Integer slot = slotById.get(id);
+        if (slot == null) return false;
+        if (journal != null) {
+            journal.logRemove(id);
+        }
+        slotById.remove(id);
+        columns = null; // Columns are append-only; rebuilt on the next getColumns()
+        if (index != null) {
+            index.remove(slot, reservations.get(slot));
+        }
+        Reservation removed;
+        if (slot == reservations.size() - 1) {
+            removed = reservations.remove((int) slot); // Last slot: nothing to shift
+        } else {
+            removed = reservations.set(slot, null);
+            tombstones++;
+            if (tombstones >= MIN_COMPACT_TOMBSTONES && tombstones * 2 >= reservations.size()) {
+                compact(); // Paid for by the removals since the last compaction
+            }
+        }
+        removeFromCalendar(removed);
+        if (journal != null) {
+            checkpointIfDue();
+        }
+        publish(ReservationEvent.Type.DELETED, id, removed, null);
+        return true;
+    }
+
+    /**
+     * Replaces the reservation with the given ID. The replacement takes over the ID. A dated
+     * replacement is rejected if it overlaps another reservation of its room.
+     *
+     * @param id the ID of the reservation to update
+     * @param newReservation the new Reservation object to replace the old one
+     * @return {@code true} if the reservation was replaced
+     */
+    public boolean updateReservationById(long id, Reservation newReservation) {
+        Integer slot = slotById.get(id);
+        if (slot == null) {
+            output.println("Invalid ID!");
+            return false;
+        }
+        if (!tryReplace(slot, newReservation)) {
+            output.println("Room " + newReservation.getRoom().getRoomNumber() + " is not available for those dates.");
+            return false;
+        }
+        output.println("Reservation updated!");
+        return true;
+    }
+
+    /**
+     * Replaces the reservation in a slot unless the replacement's room is taken, without printing.
+     */
+    private boolean tryReplace(int slot, Reservation newReservation) {
+        Reservation old = reservations.get(slot);
+        removeFromCalendar(old); // The old stay must not conflict with its own replacement
+        if (newReservation.hasDates() && !isRoomAvailable(newReservation.getRoom().getRoomNumber(),
+                newReservation.getCheckIn(), newReservation.getCheckOut())) {
+            addToCalendar(old);
+            return false;
+        }
+        newReservation.setId(old.getId());
+        if (journal != null) {
+            try {
+                journal.logUpdate(newReservation);
+            } catch (RuntimeException e) {
+                addToCalendar(old); // Not replaced after all
+                throw e;
+            }
+        }
+        reservations.set(slot, newReservation);
+        columns = null;
+        if (index != null) {
+            index.remove(slot, old);
+            index.add(slot, newReservation);
+        }
+        addToCalendar(newReservation);
+        if (journal != null) {
+            checkpointIfDue();
+        }
+        publish(ReservationEvent.Type.UPDATED, old.getId(), old, newReservation);
+        return true;
+    }
+
+    /**
+     * Removes a reservation by its index in {@link #getReservations()}. Kept for existing
+     * callers; prefer {@link #removeReservationById(long)}, since indexes shift after removals.
      *
      * @param index the index of the reservation to remove
      */
     public void removeReservation(int index){
+        compact(); // Indexes count live reservations only
         if (index >= 0 && index < reservations.size()) {
-            reservations.remove(index);
-            System.out.println("Reservation removed!");
+            removeReservationById(reservations.get(index).getId());
         } else  {
-            System.out.println("Invalid Index!");
+            output.println("Invalid Index!");
         }
     }
 
     /**
-     * Updates a reservation at the given index with a new reservation.
+     * Updates a reservation at the given index in {@link #getReservations()}. Kept for existing
+     * callers; prefer {@link #updateReservationById(long, Reservation)}.
      *
      * @param index the index of the reservation to update
      * @param newReservation the new Reservation object to replace the old one
+     * @return {@code true} if the reservation was replaced
      */
-    public void updateReservation(int index, Reservation newReservation) {
+    public boolean updateReservation(int index, Reservation newReservation) {
+        compact();
         if (index >= 0 && index < reservations.size()) {
-            reservations.set(index, newReservation);
-            System.out.println("Reservation updated!");
+            return updateReservationById(reservations.get(index).getId(), newReservation);
         } else {
-            System.out.println("Invalid Index!");
+            output.println("Invalid Index!");
+            return false;
         }
     }
 
     /**
      * Loads reservations from a text file. Each line must be formatted as:
      * name,email,roomNumber,roomType,nights
+     * Only rejected lines and the final count are printed, not a confirmation per line.
      *
      * @param filename the name of the file to load from
      * @throws IOException if the file format is incorrect or cannot be read
@@ -100,7 +785,7 @@ public class ReservationManager {
         String line;
         int lineNumber = 0;
         // clear existing data if needed
-        reservations.clear();
+        clearReservations();
 
         while ((line = br.readLine()) != null) {
             lineNumber++;
@@ -111,22 +796,227 @@ public class ReservationManager {
 
             String name = parts[0].trim();
             String email = parts[1].trim();
-            int roomNumber = Integer.parseInt(parts[2].trim());
+            int roomNumber = ReservationFileLoader.parseCount(parts[2]);
             String roomType = parts[3].trim();
-            int nights = Integer.parseInt(parts[4].trim());
+            int nights = ReservationFileLoader.parseCount(parts[4]);
+            if (roomNumber < 0 || nights < 0) {
+                throw new IOException("Invalid format at line " + lineNumber + ": " + line);
+            }
 
             double rate = roomType.equalsIgnoreCase("City View") ? 90.0 : 70.0;
 
-            Guest guest = new Guest(name, email);
-            Room room = new Room(roomNumber, roomType, rate);
+            Guest guest = guests.get(name, email);
+            Room room = rooms.get(roomNumber, roomType, rate);
             Reservation reservation = new Reservation(guest, room, nights);
 
-            addReservation(reservation);
+            if (!tryAdd(reservation)) {
+                output.println("Line " + lineNumber + ": room " + roomNumber + " is not available for those dates.");
+            }
         }
 
         br.close();
+        output.println("Loaded " + size() + " reservations.");
     }
 
+    /**
+     * Imports reservations from a text file, keeping every valid line and skipping the rest.
+     * Up to {@link BulkInsertResult#DEFAULT_MAX_FAILURES} rejected lines are reported with their
+     * reasons. See {@link #importFromFile(String, boolean, int)}.
+     *
+     * @param filename the name of the file to import
+     * @param append {@code true} to add to the current reservations, {@code false} to replace them
+     * @return how many lines were imported and which were rejected
+     * @throws IOException if the file cannot be opened or read
+     */
+    public BulkInsertResult importFromFile(String filename, boolean append) throws IOException {
+        return importFromFile(filename, append, BulkInsertResult.DEFAULT_MAX_FAILURES);
+    }
+
+    /**
+     * Imports reservations from a text file, one line at a time. Each line is either
+     * <pre>
+     * name,email,roomNumber,roomType,nights
+     * name,email,roomNumber,roomType,checkIn,checkOut
+     * </pre>
+     * with dates as yyyy-MM-dd. Every line is validated the same way as console input; a good
+     * line is added right away, and a bad one (or a dated stay whose room is already booked) is
+     * recorded with its line number and reason and skipped. Blank lines are ignored.
+     *
+     * <p>The file is never held in memory, and at most {@code maxFailures} rejected lines are
+     * kept, so the import itself uses the same memory for any file size.</p>
+     *
+     * @param filename the name of the file to import
+     * @param append {@code true} to add to the current reservations, {@code false} to replace them
+     * @param maxFailures most rejected lines to keep with their reasons; the rest are only counted
+     * @return how many lines were imported and which were rejected
+     * @throws IOException if the file cannot be opened or read; lines read before the error stay imported
+     */
+    public BulkInsertResult importFromFile(String filename, boolean append, int maxFailures) throws IOException {
+        BulkInsertResult result = new BulkInsertResult(maxFailures);
+        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
+            if (!append) {
+                // Only cleared once the file is known to open
+                clearReservations();
+            }
+            String line;
+            int lineNumber = 0;
+            while ((line = br.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue; // Skip empty lines
+                try {
+                    Reservation reservation = parseImportLine(line);
+                    if (tryAdd(reservation)) {
+                        result.addInserted();
+                    } else {
+                        result.addFailure(lineNumber, "Room " + reservation.getRoom().getRoomNumber()
+                                + " is not available for those dates.");
+                    }
+                } catch (IllegalArgumentException e) {
+                    result.addFailure(lineNumber, e.getMessage());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Validates one import line and builds its reservation.
+     *
+     * @throws IllegalArgumentException with a readable reason if the line is invalid
+     */
+    private Reservation parseImportLine(String line) {
+        String[] parts = line.split(",", -1);
+        if (parts.length != 5 && parts.length != 6) {
+            throw new IllegalArgumentException("Expected 5 or 6 fields but found " + parts.length + ".");
+        }
+
+        String name = parts[0].trim();
+        if (!name.matches("[a-zA-Z\\s]+")) {
+            throw new IllegalArgumentException("Name must contain only letters and spaces.");
+        }
+        String email = parts[1].trim();
+        if (!email.matches("^[\\w.-]+@[\\w.-]+\\.[a-zA-Z]{2,}$")) {
+            throw new IllegalArgumentException("Invalid email format.");
+        }
+        int roomNumber = parseNumber(parts[2], "Room number");
+        if (roomNumber < 1 || roomNumber > roomCount) {
+            throw new IllegalArgumentException("Room number must be between 1 and " + roomCount + ".");
+        }
+        String roomType = parts[3].trim();
+        if (roomType.equalsIgnoreCase("City View")) {
+            roomType = "City View";
+        } else if (roomType.equalsIgnoreCase("Patio View")) {
+            roomType = "Patio View";
+        } else {
+            throw new IllegalArgumentException("Room type must be City View or Patio View.");
+        }
+        double rate = roomType.equals("City View") ? 90.0 : 70.0;
+        Room room = rooms.get(roomNumber, roomType, rate);
+        Guest guest = guests.get(name, email);
+
+        if (parts.length == 5) {
+            int nights = parseNumber(parts[4], "Nights");
+            if (nights < 1) {
+                throw new IllegalArgumentException("Must be at least 1 night.");
+            }
+            return new Reservation(guest, room, nights);
+        }
+        try {
+            LocalDate checkIn = LocalDate.parse(parts[4].trim());
+            LocalDate checkOut = LocalDate.parse(parts[5].trim());
+            return new Reservation(guest, room, checkIn, checkOut); // Rejects check-out before check-in
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Dates must be in the format yyyy-MM-dd.");
+        }
+    }
+
+    /**
+     * Parses a whole-number field for {@link #parseImportLine(String)}.
+     */
+    private static int parseNumber(String field, String label) {
+        try {
+            return Integer.parseInt(field.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(label + " must be a whole number.");
+        }
+    }
+
+    /**
+     * Loads reservations from a text file in the same format as {@link #loadFromFile(String)},
+     * using {@link ReservationFileLoader} to parse the file in parallel. The current reservations
+     * are only replaced once the whole file has been read, and a single summary line is printed
+     * instead of one line per reservation.
+     *
+     * @param filename the name of the file to load from
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+    public void loadFromFileParallel(String filename) throws IOException {
+        RoomInventory loadedRooms = new RoomInventory();
+        GuestRegistry loadedGuests = new GuestRegistry();
+        List<Reservation> loaded = ReservationFileLoader.load(filename, loadedRooms, loadedGuests);
+
+        clearReservations();
+        rooms.putAll(loadedRooms);
+        guests.putAll(loadedGuests);
+        reservations.ensureCapacity(loaded.size());
+        for (Reservation reservation : loaded) {
+            store(reservation);
+        }
+        output.println("Loaded " + loaded.size() + " reservations.");
+    }
+
+    /**
+     * Saves every reservation, with its ID, to a binary snapshot file. See
+     * {@link ReservationSnapshot} for the format.
+     *
+     * @param filename the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void exportSnapshot(String filename) throws IOException {
+        ReservationSnapshot.write(Path.of(filename), 0, nextId, reservations.toArray(new Reservation[0]));
+        output.println("Saved " + size() + " reservations.");
+    }
+
+    /**
+     * Replaces the current reservations with those of a snapshot file written by
+     * {@link #exportSnapshot(String)}. The reservations keep their IDs. Nothing is changed if
+     * the file cannot be opened or fails its checksums.
+     *
+     * @param filename the snapshot to load
+     * @throws IOException if the file cannot be read, is not a snapshot or is damaged
+     */
+    public void importSnapshot(String filename) throws IOException {
+        ReservationSnapshot snapshot = ReservationSnapshot.open(Path.of(filename));
+
+        clearReservations();
+        reservations.ensureCapacity(snapshot.size());
+        snapshot.forEach(rooms, guests, this::restore);
+        nextId = Math.max(nextId, snapshot.getNextId());
+        output.println("Loaded " + snapshot.size() + " reservations.");
+    }
+
+    /**
+     * Appends a reservation that already has an ID, e.g. from a snapshot.
+     */
+    private void restore(Reservation reservation) {
+        if (journal != null) {
+            journal.logAdd(reservation); // Replayed with the same ID
+        }
+        slotById.put(reservation.getId(), reservations.size());
+        if (index != null) {
+            index.add(reservations.size(), reservation);
+        }
+        reservations.add(reservation);
+        addToCalendar(reservation);
+        if (columns != null) {
+            columns.append(reservation);
+        }
+        nextId = Math.max(nextId, reservation.getId() + 1);
+        if (journal != null) {
+            checkpointIfDue();
+        }
+        publish(ReservationEvent.Type.ADDED, reservation.getId(), null, reservation);
+    }
 
     /**
      * Searches for reservations by guest name. Prints matches to the console.
@@ -134,25 +1024,250 @@ public class ReservationManager {
      * @param name the partial or full name to search for
      */
     public void searchReservationsByGuestName(String name) {
-        boolean found = false;
-        for (int i = 0; i < reservations.size(); i++) {
-            //to find a partial name
-            if (reservations.get(i).getGuest().getName().toLowerCase().contains(name.toLowerCase())) {
-                System.out.println(i + ": " + reservations.get(i));
-                found = true;
+        //to find a partial name
+        List<Reservation> found = query(new ReservationQuery().guestName(name));
+        for (Reservation reservation : found) {
+            appendLine(reservation);
+        }
+        flushListing();
+        if (found.isEmpty()) {
+            output.println("No reservations found for guest: " + name);
+        }
+    }
+
+    /**
+     * Stores a reservation given as a record, without printing. Rooms and guests come from the
+     * shared registries, which hand out a new object when the record's name or rate differs.
+     *
+     * @param record the reservation to store; its ID is ignored
+     * @return the new reservation's ID, or -1 if the room is taken
+     */
+    @Override
+    public long addReservation(ReservationRecord record) {
+        Reservation reservation = toReservation(record);
+        return tryAdd(reservation) ? reservation.getId() : -1;
+    }
+
+    /**
+     * Replaces the reservation with the given ID, without printing.
+     *
+     * @param id reservation ID
+     * @param record the new values; its ID is ignored
+     * @return {@code true} if the reservation was replaced
+     */
+    @Override
+    public boolean updateReservation(long id, ReservationRecord record) {
+        Integer slot = slotById.get(id);
+        return slot != null && tryReplace(slot, toReservation(record));
+    }
+
+    /**
+     * Removes the reservation with the given ID, without printing.
+     *
+     * @param id reservation ID
+     * @return {@code true} if a reservation was removed
+     */
+    @Override
+    public boolean deleteReservation(long id) {
+        return tryRemove(id);
+    }
+
+    /**
+     * Looks up one reservation as a record.
+     *
+     * @param id reservation ID
+     * @return the reservation, or {@code null} if there is none with that ID
+     */
+    @Override
+    public ReservationRecord findReservation(long id) {
+        Reservation reservation = getReservation(id);
+        return reservation == null ? null : toRecord(reservation);
+    }
+
+    /**
+     * Passes every reservation to {@code action} as a record, in ID order.
+     *
+     * @param action callback invoked for each reservation
+     */
+    @Override
+    public void forEachReservation(Consumer<ReservationRecord> action) {
+        for (Reservation reservation : reservations) {
+            if (reservation != null) {
+                action.accept(toRecord(reservation));
+            }
+        }
+    }
+
+    /**
+     * Passes every reservation whose guest name contains {@code keyword}, ignoring case, to
+     * {@code action} as a record, in ID order.
+     *
+     * @param keyword partial or full guest name
+     * @param action callback invoked for each match
+     */
+    @Override
+    public void searchReservationsByName(String keyword, Consumer<ReservationRecord> action) {
+        String needle = keyword.toLowerCase();
+        for (Reservation reservation : reservations) {
+            if (reservation != null && reservation.getGuest().getName().toLowerCase().contains(needle)) {
+                action.accept(toRecord(reservation));
             }
         }
-        if (!found) {
-            System.out.println("No reservations found for guest: " + name);
+    }
+
+    /**
+     * Builds a reservation from a record, dated if the record has valid dates.
+     */
+    private Reservation toReservation(ReservationRecord record) {
+        Guest guest = guests.get(record.getGuestName(), record.getGuestEmail());
+        Room room = rooms.get(record.getRoomNumber(), record.getRoomType(), record.getRate());
+        if (record.getCheckInDay() == ReservationRecord.NO_DAY || record.getCheckOutDay() == ReservationRecord.NO_DAY) {
+            return new Reservation(guest, room, record.getNights());
+        }
+        return new Reservation(guest, room, LocalDate.ofEpochDay(record.getCheckInDay()),
+                LocalDate.ofEpochDay(record.getCheckOutDay()));
+    }
+
+    /**
+     * Copies a stored reservation into a record.
+     */
+    private static ReservationRecord toRecord(Reservation reservation) {
+        Guest guest = reservation.getGuest();
+        Room room = reservation.getRoom();
+        String checkIn = reservation.hasDates() ? reservation.getCheckIn().toString() : null;
+        String checkOut = reservation.hasDates() ? reservation.getCheckOut().toString() : null;
+        return new ReservationRecord(reservation.getId(), guest.getName(), guest.getEmail(),
+                room.getRoomNumber(), room.getType(), room.getRate(), reservation.getNights(), checkIn, checkOut);
+    }
+
+    /**
+     * Writes a snapshot of every reservation in the background, after which the journal written
+     * so far is no longer needed to restart. Does nothing if the manager is not durable.
+     *
+     * @return {@code true} if a snapshot was started, {@code false} if one is still being
+     *         written or the manager is not durable
+     */
+    public boolean checkpoint() {
+        if (journal == null) return false;
+        try {
+            // Reservations are replaced rather than changed, so copying the references is enough
+            return journal.checkpoint(reservations.toArray(new Reservation[0]), nextId);
+        } catch (IOException e) {
+            output.println("Error writing snapshot: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Starts a checkpoint once enough operations have been journaled since the last one.
+     */
+    private void checkpointIfDue() {
+        if (journal.getOperationsSinceCheckpoint() >= snapshotInterval && !journal.isSnapshotRunning()) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Sets how many journaled operations start an automatic checkpoint.
+     *
+     * @param operations operations between checkpoints; must be positive
+     */
+    public void setSnapshotInterval(int operations) {
+        if (operations <= 0) {
+            throw new IllegalArgumentException("Snapshot interval must be positive.");
+        }
+        this.snapshotInterval = operations;
+    }
+
+    /**
+     * Gets the feed that publishes every change made from now on. The first call creates it;
+     * until then no events are built. Events are published on the thread that changes the
+     * manager and delivered on the subscribers' own threads.
+     *
+     * @return the event feed of this manager
+     */
+    public ReservationEventFeed getEventFeed() {
+        if (events == null) {
+            events = new ReservationEventFeed();
+        }
+        return events;
+    }
+
+    /**
+     * Publishes a change if anyone asked for the event feed.
+     */
+    private void publish(ReservationEvent.Type type, long id, Reservation before, Reservation after) {
+        if (events != null) {
+            events.publish(type, id, before == null ? null : toRecord(before), after == null ? null : toRecord(after));
         }
     }
 
     /**
-     * Gets the list of all reservations.
+     * Gets the journal of a durable manager.
+     *
+     * @return the journal, or {@code null} if the manager is not durable
+     */
+    public ReservationJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Forces the journal to disk and closes it, waiting for a snapshot being written, and closes
+     * the event feed and its subscriptions. The manager stops journaling and publishing; calling
+     * this again, or on a manager with neither, does nothing.
+     */
+    public void close() {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+        if (events != null) {
+            events.close();
+            events = null;
+        }
+    }
+
+    /**
+     * Gets the list of all reservations in the order they were added. Gaps left by removals are
+     * closed first, so the list holds no {@code null}s. Callers must not modify it.
      *
      * @return an ArrayList of Reservation objects
      */
     public ArrayList<Reservation> getReservations() {
+        compact();
         return reservations;
     }
+
+    /**
+     * Applies the recovered snapshot and journal to this manager.
+     */
+    private class Recovery implements ReservationJournal.Target {
+        @Override
+        public void restore(Reservation reservation) {
+            ReservationManager.this.restore(reservation);
+        }
+
+        @Override
+        public void replace(Reservation reservation) {
+            Integer slot = slotById.get(reservation.getId());
+            if (slot != null) {
+                tryReplace(slot, reservation);
+            }
+        }
+
+        @Override
+        public void remove(long id) {
+            tryRemove(id);
+        }
+
+        @Override
+        public void clear() {
+            clearReservations();
+        }
+
+        @Override
+        public void reserveIds(long next) {
+            nextId = Math.max(nextId, next);
+        }
+    }
 }
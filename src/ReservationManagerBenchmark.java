@@ -0,0 +1,172 @@
+/**
+ * ReservationManagerBenchmark.java
+ *
+ * <p>This class is a small command-line benchmark for the in-memory {@link ReservationManager}.
+ * It books a large number of non-overlapping stays spread over many rooms, then times overlap
+ * checks against the per-room calendars (compared with a plain scan of the reservation list) and
+ * free-room searches through the per-room calendars and through the {@link OccupancyCalendar} bits.
+ * It also compares revenue totals over the reservation objects with {@link ReservationColumns},
+ * and listing every reservation one {@code println} per line with the buffered
+ * {@link ReservationManager#listReservations()}, both to a stream that discards the bytes.</p>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * java -Xmx2g -cp out ReservationManagerBenchmark 1000000 5000
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+public class ReservationManagerBenchmark {
+    /** Number of reservations loaded when no argument is given */
+    private static final int DEFAULT_RESERVATIONS = 1_000_000;
+    /** Number of rooms when no argument is given */
+    private static final int DEFAULT_ROOMS = 5_000;
+    /** Number of timed overlap checks */
+    private static final int AVAILABILITY_CHECKS = 200_000;
+    /** Number of timed free-room searches */
+    private static final int ROOM_SEARCHES = 1_000;
+    /** Number of overlap checks done by linear scan (each one walks the whole list) */
+    private static final int SCAN_CHECKS = 50;
+    /** Number of timed passes over all reservations for revenue totals */
+    private static final int TOTALS = 20;
+    /** First night of the generated calendar */
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of reservations and number of rooms
+     */
+    public static void main(String[] args) {
+        int reservations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RESERVATIONS;
+        int rooms = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROOMS;
+        System.out.println("Reservations: " + reservations + ", rooms: " + rooms);
+
+        ReservationManager manager = new ReservationManager(rooms, START, OccupancyCalendar.DEFAULT_HORIZON_DAYS);
+        Random random = new Random(42);
+
+        // Each room gets back-to-back stays of 1-4 nights with an occasional free night between
+        long[] nextFree = new long[rooms + 1];
+        manager.setOutput(OutputSink.SILENT); // The manager prints per add
+        long start = System.nanoTime();
+        for (int i = 0; i < reservations; i++) {
+            int room = i % rooms + 1;
+            LocalDate checkIn = START.plusDays(nextFree[room] + random.nextInt(2));
+            LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(4));
+            nextFree[room] = checkOut.toEpochDay() - START.toEpochDay();
+            manager.addReservation(new Reservation(new Guest("Guest", "guest@example.com"),
+                    new Room(room, "City View", 90.0), checkIn, checkOut));
+        }
+        report("load", reservations, start);
+        long horizon = reservations / rooms * 3L; // Roughly how far the calendars reach
+
+        // Overlap check per room: calendar lookup
+        start = System.nanoTime();
+        int free = 0;
+        for (int i = 0; i < AVAILABILITY_CHECKS; i++) {
+            LocalDate checkIn = START.plusDays(random.nextInt((int) horizon));
+            if (manager.isRoomAvailable(random.nextInt(rooms) + 1, checkIn, checkIn.plusDays(2))) free++;
+        }
+        report("isRoomAvailable, calendar", AVAILABILITY_CHECKS, start);
+
+        // The same question answered by walking the list, as before the calendars existed
+        start = System.nanoTime();
+        for (int i = 0; i < SCAN_CHECKS; i++) {
+            LocalDate checkIn = START.plusDays(random.nextInt((int) horizon));
+            if (isRoomAvailableByScan(manager.getReservations(), random.nextInt(rooms) + 1, checkIn, checkIn.plusDays(2))) free++;
+        }
+        report("isRoomAvailable, list scan", SCAN_CHECKS, start);
+
+        // Free-room search, one map lookup per room
+        start = System.nanoTime();
+        for (int i = 0; i < ROOM_SEARCHES; i++) {
+            LocalDate checkIn = START.plusDays(random.nextInt((int) horizon));
+            for (int room = 1; room <= rooms; room++) {
+                if (manager.isRoomAvailable(room, checkIn, checkIn.plusDays(2))) free++;
+            }
+        }
+        report("free rooms, per-room maps (" + rooms + " rooms)", ROOM_SEARCHES, start);
+
+        // The same search over the occupancy bits, building a list of room numbers
+        start = System.nanoTime();
+        for (int i = 0; i < ROOM_SEARCHES; i++) {
+            LocalDate checkIn = START.plusDays(random.nextInt((int) horizon));
+            free += manager.findAvailableRooms(checkIn, checkIn.plusDays(2)).size();
+        }
+        report("free rooms, occupancy bits (list)", ROOM_SEARCHES, start);
+
+        // And without allocating: one reused result set, half the rooms of the wanted type
+        for (int room = 1; room <= rooms; room++) {
+            manager.setRoomType(room, room % 2 == 0 ? "City View" : "Patio View");
+        }
+        OccupancyCalendar calendar = manager.getOccupancyCalendar();
+        long[] result = calendar.newRoomSet();
+        start = System.nanoTime();
+        for (int i = 0; i < ROOM_SEARCHES * 10; i++) {
+            LocalDate checkIn = START.plusDays(random.nextInt((int) horizon));
+            free += calendar.findFreeRooms("City View", checkIn, checkIn.plusDays(2), result);
+        }
+        report("free City View rooms, occupancy bits", ROOM_SEARCHES * 10, start);
+
+        // Revenue over every reservation: walking the objects versus the columns
+        start = System.nanoTime();
+        double objectTotal = 0;
+        for (int i = 0; i < TOTALS; i++) {
+            for (Reservation reservation : manager.getReservations()) {
+                objectTotal += reservation.calculateTotal();
+            }
+        }
+        report("total revenue, reservation objects", TOTALS, start);
+        start = System.nanoTime();
+        ReservationColumns columns = manager.getColumns(); // Built once here, then kept up to date
+        report("build columns", 1, start);
+        start = System.nanoTime();
+        long columnTotal = 0;
+        for (int i = 0; i < TOTALS; i++) {
+            columnTotal += columns.totalRevenueCents();
+        }
+        report("total revenue, columns", TOTALS, start);
+        free += (int) (objectTotal + columnTotal);
+
+        // Listing: a string and a println per reservation, as before the output sink
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        start = System.nanoTime();
+        for (Reservation reservation : manager.getReservations()) {
+            discard.println(reservation.getId() + ": " + reservation);
+        }
+        report("list, println per reservation", reservations, start);
+        manager.setOutput(OutputSink.of(discard));
+        start = System.nanoTime();
+        manager.listReservations();
+        report("list, buffered", reservations, start);
+
+        System.out.println("(checksum " + free + ")"); // Keeps the JIT from skipping the loops
+    }
+
+    /**
+     * Answers an availability question by checking every reservation in the list.
+     */
+    private static boolean isRoomAvailableByScan(List<Reservation> reservations, int roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        for (Reservation reservation : reservations) {
+            if (reservation.getRoom().getRoomNumber() == roomNumber && reservation.overlaps(checkIn, checkOut)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Prints the average latency and throughput of one scenario.
+     */
+    private static void report(String label, int operations, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        System.out.printf("%-40s %10.2f us/op %12.0f ops/sec%n", label, seconds * 1_000_000 / operations, operations / seconds);
+    }
+}
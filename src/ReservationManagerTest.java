@@ -17,8 +17,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
 
 class ReservationManagerTest {
     /** Instance of ReservationManager used for testing */
@@ -137,6 +141,214 @@ class ReservationManagerTest {
         System.setOut(System.out);
     }
 
+    /**
+     * Tests that a dated reservation overlapping another stay in the same room is rejected,
+     * while back-to-back stays and other rooms are accepted.
+     */
+    @Test
+    void addReservation_rejectsOverlap() {
+        LocalDate july1 = LocalDate.of(2025, 7, 1);
+        assertTrue(manager.addReservation(new Reservation(guest, room, july1, july1.plusDays(3))));
+
+        // Same room, one shared night
+        assertFalse(manager.addReservation(new Reservation(guest, room, july1.plusDays(2), july1.plusDays(5))));
+        // Same room, starting on the check-out day
+        assertTrue(manager.addReservation(new Reservation(guest, room, july1.plusDays(3), july1.plusDays(5))));
+        // Another room, same nights
+        assertTrue(manager.addReservation(new Reservation(guest, new Room(6, "City View", 90.0), july1, july1.plusDays(3))));
+        assertEquals(3, manager.getReservations().size());
+    }
+
+    /**
+     * Tests {@code findAvailableRooms()} before and after a room is booked and released.
+     */
+    @Test
+    void findAvailableRooms() {
+        LocalDate july1 = LocalDate.of(2025, 7, 1);
+        manager.addReservation(new Reservation(guest, room, july1, july1.plusDays(3)));
+
+        List<Integer> free = manager.findAvailableRooms(july1.plusDays(1), july1.plusDays(2));
+        assertEquals(17, free.size());
+        assertFalse(free.contains(5));
+        assertTrue(manager.isRoomAvailable(5, july1.plusDays(3), july1.plusDays(4)));
+
+        manager.removeReservation(0);
+        assertTrue(manager.isRoomAvailable(5, july1, july1.plusDays(3)));
+    }
+
+    /**
+     * Tests that stays beyond the occupancy window are found either way, and that advancing
+     * the window fills in the nights that enter it.
+     */
+    @Test
+    void advanceCalendar_fillsNewNights() {
+        LocalDate july1 = LocalDate.of(2025, 7, 1);
+        manager = new ReservationManager(18, july1, 30);
+        manager.addReservation(new Reservation(guest, room, july1.plusDays(35), july1.plusDays(38)));
+
+        // Outside the window: answered from the per-room maps
+        assertFalse(manager.findAvailableRooms(july1.plusDays(36), july1.plusDays(37)).contains(5));
+
+        manager.advanceCalendar(july1.plusDays(20));
+        assertTrue(manager.getOccupancyCalendar().covers(july1.plusDays(36), july1.plusDays(37)));
+        assertFalse(manager.findAvailableRooms(july1.plusDays(36), july1.plusDays(37)).contains(5));
+        assertTrue(manager.findAvailableRooms(july1.plusDays(38), july1.plusDays(40)).contains(5));
+    }
+
+    /**
+     * Tests that the lenient import keeps good lines, reports bad ones with line numbers,
+     * appends to existing data, and limits the number of failures kept.
+     *
+     * @throws IOException if the temporary file cannot be written
+     */
+    @Test
+    void importFromFile_keepsValidLines() throws IOException {
+        File file = File.createTempFile("import", ".txt");
+        file.deleteOnExit();
+        Files.writeString(file.toPath(), String.join("\n",
+                "Ana,ana@example.com,3,City View,2",
+                "Luis,not-an-email,4,Patio View,1",
+                "",
+                "Maria,maria@example.com,5,City View,2025-07-01,2025-07-04",
+                "Pedro,pedro@example.com,5,Patio View,2025-07-03,2025-07-05",
+                "Sofia,sofia@example.com,99,City View,1"));
+        manager.addReservation(reservation);
+
+        BulkInsertResult result = manager.importFromFile(file.getPath(), true, 2);
+
+        assertEquals(2, result.getInsertedCount());
+        assertEquals(3, result.getRejectedCount());
+        assertEquals(2, result.getFailures().size());
+        assertEquals(2, result.getFailures().get(0).getRowNumber());
+        assertEquals(5, result.getFailures().get(1).getRowNumber()); // Room 5 already booked
+        assertEquals(1, result.getUnlistedFailureCount());
+        assertEquals(3, manager.getReservations().size()); // Appended after the existing one
+
+        result = manager.importFromFile(file.getPath(), false);
+        assertEquals(2, manager.getReservations().size()); // Replaced
+        assertEquals("Ana", manager.getReservations().get(0).getGuest().getName());
+    }
+
+    /**
+     * Tests that loaded reservations share one Room per room and one Guest per guest, so a rate
+     * change reaches every reservation of the room.
+     */
+    @Test
+    void loadFromFileParallel_sharesRoomsAndGuests() throws IOException {
+        File file = File.createTempFile("shared", ".txt");
+        file.deleteOnExit();
+        Files.writeString(file.toPath(), String.join("\n",
+                "Ana,ana@example.com,3,City View,2",
+                "Ana,ana@example.com,3,City View,1",
+                "Luis,luis@example.com,3,City View,4",
+                "Luis,luis@example.com,4,Patio View,1"));
+        manager.loadFromFileParallel(file.getPath());
+
+        List<Reservation> loaded = manager.getReservations();
+        assertSame(loaded.get(0).getGuest(), loaded.get(1).getGuest());
+        assertSame(loaded.get(2).getGuest(), loaded.get(3).getGuest());
+        assertSame(loaded.get(0).getRoom(), loaded.get(2).getRoom());
+        assertEquals(2, manager.getRoomInventory().size());
+        assertEquals(2, manager.getGuestRegistry().size());
+
+        loaded.get(0).getRoom().setRate(100.0);
+        assertEquals(400.0, loaded.get(2).calculateTotal());
+    }
+
+    /**
+     * Tests that a record with a new name or rate gets its own Guest or Room instead of the
+     * shared one, so the change is kept (also through a snapshot) and earlier reservations are
+     * left as they were, and that clearing the reservations empties the registries.
+     *
+     * @throws IOException if the temporary file cannot be written
+     */
+    @Test
+    void records_keepNewNameAndRate() throws IOException {
+        long first = manager.addReservation(new ReservationRecord(0, "Ana Lopez", "ana@example.com", 3, "City View", 90.0, 2, null, null));
+        long second = manager.addReservation(new ReservationRecord(0, "Ana Lopez", "ana@example.com", 3, "City View", 90.0, 1, null, null));
+        assertSame(manager.getReservation(first).getGuest(), manager.getReservation(second).getGuest());
+
+        assertTrue(manager.updateReservation(second, new ReservationRecord(0, "Ana Maria Lopez", "ana@example.com", 3, "City View", 95.0, 1, null, null)));
+        assertEquals("Ana Maria Lopez", manager.getReservation(second).getGuest().getName());
+        assertEquals(95.0, manager.getReservation(second).getRoom().getRate());
+        assertEquals("Ana Lopez", manager.getReservation(first).getGuest().getName());
+        assertEquals(90.0, manager.getReservation(first).getRoom().getRate());
+        assertEquals("Ana Maria Lopez", manager.findReservation(second).getGuestName());
+
+        File snapshot = File.createTempFile("registries", ".snap");
+        snapshot.deleteOnExit();
+        manager.exportSnapshot(snapshot.getPath());
+        ReservationManager restored = new ReservationManager();
+        restored.importSnapshot(snapshot.getPath());
+        assertEquals("Ana Lopez", restored.getReservation(first).getGuest().getName());
+        assertEquals("Ana Maria Lopez", restored.getReservation(second).getGuest().getName());
+        assertEquals(95.0, restored.getReservation(second).getRoom().getRate());
+
+        File file = File.createTempFile("registries", ".txt");
+        file.deleteOnExit();
+        Files.writeString(file.toPath(), "Luis,luis@example.com,4,Patio View,1");
+        manager.loadFromFile(file.getPath());
+        assertEquals(1, manager.getRoomInventory().size());
+        assertEquals(1, manager.getGuestRegistry().size());
+    }
+
+    /**
+     * Tests that IDs stay valid after other reservations are removed, and that updating a
+     * reservation keeps its ID.
+     */
+    @Test
+    void reservationIds_stayStable() {
+        Reservation first = new Reservation(new Guest("Ana", "ana@example.com"), new Room(1, "City View", 90.0), 1);
+        Reservation second = new Reservation(new Guest("Luis", "luis@example.com"), new Room(2, "City View", 90.0), 1);
+        Reservation third = new Reservation(new Guest("Sofia", "sofia@example.com"), new Room(3, "City View", 90.0), 1);
+        manager.addReservation(first);
+        manager.addReservation(second);
+        manager.addReservation(third);
+
+        assertTrue(manager.removeReservationById(second.getId()));
+        assertFalse(manager.removeReservationById(second.getId()));
+        assertNull(manager.getReservation(second.getId()));
+        assertSame(third, manager.getReservation(third.getId()));
+        assertEquals(2, manager.size());
+
+        Reservation replacement = new Reservation(new Guest("Maria", "maria@example.com"), new Room(4, "City View", 90.0), 2);
+        assertTrue(manager.updateReservationById(third.getId(), replacement));
+        assertEquals(third.getId(), replacement.getId());
+        assertSame(replacement, manager.getReservation(third.getId()));
+
+        // The index-based methods see the live reservations only
+        assertEquals(List.of(first, replacement), manager.getReservations());
+        manager.removeReservation(1);
+        assertEquals(List.of(first), manager.getReservations());
+    }
+
+    /**
+     * Tests that many removals compact the list without losing or reordering reservations.
+     */
+    @Test
+    void removeReservationById_compacts() {
+        List<Reservation> added = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Reservation r = new Reservation(guest, new Room(i % 18 + 1, "City View", 90.0), 1);
+            manager.addReservation(r);
+            added.add(r);
+        }
+        List<Reservation> kept = new ArrayList<>();
+        for (int i = 0; i < added.size(); i++) {
+            if (i % 3 == 0) {
+                kept.add(added.get(i));
+            } else {
+                manager.removeReservationById(added.get(i).getId());
+            }
+        }
+
+        assertEquals(100, manager.size());
+        for (Reservation r : kept) {
+            assertSame(r, manager.getReservation(r.getId()));
+        }
+        assertEquals(kept, manager.getReservations());
+    }
+
     /**
      * Tests the {@code loadFromFile()} method with a sample text file.
      * <p>Note: This test assumes 'sample_data.txt' exists in the project folder and is properly formatted.</p>
@@ -150,5 +362,51 @@ class ReservationManagerTest {
         assertEquals("Andres", manager.getReservations().get(0).getGuest().getName());
     }
 
+    /**
+     * Tests that a file load prints only the final count, and that a listing prints the same
+     * lines as {@code toString()} in one write, which the sink may keep without copying.
+     *
+     * @throws IOException if the sample file cannot be read
+     */
+    @Test
+    void output_loadIsQuietAndListingIsBuffered() throws IOException {
+        List<CharSequence> writes = new ArrayList<>();
+        manager.setOutput(writes::add);
+
+        manager.loadFromFile("sample_data.txt");
+        assertEquals(List.of("Loaded " + manager.size() + " reservations." + System.lineSeparator()), writes);
+
+        writes.clear();
+        manager.listReservations();
+        StringBuilder expected = new StringBuilder();
+        for (Reservation r : manager.getReservations()) {
+            expected.append(r.getId()).append(": ").append(r).append(System.lineSeparator());
+        }
+        assertEquals(List.of(expected.toString()), writes);
+    }
+
+    /**
+     * Tests that a page lists the right reservations after removals, and that the page count
+     * is returned.
+     */
+    @Test
+    void listReservations_pages() {
+        manager.setOutput(OutputSink.SILENT);
+        List<Reservation> added = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Reservation r = new Reservation(new Guest("Guest" + i, "guest" + i + "@example.com"), room, 1);
+            manager.addReservation(r);
+            added.add(r);
+        }
+        manager.removeReservationById(added.get(1).getId()); // Leaves a tombstone
+        StringBuilder page = new StringBuilder();
+        manager.setOutput(page::append);
 
+        assertEquals(2, manager.listReservations(2, 3));
+
+        String listed = page.toString();
+        assertTrue(listed.startsWith("Page 2 of 2" + System.lineSeparator() + added.get(4).getId() + ": Guest Name: Guest4"));
+        assertTrue(listed.contains(added.get(6).getId() + ": Guest Name: Guest6"));
+        assertFalse(listed.contains("Guest3"));
+    }
 }
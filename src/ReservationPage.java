@@ -0,0 +1,90 @@
+/**
+ * ReservationPage.java
+ *
+ * <p>This class holds one page of reservations returned by the keyset-paginated listing in
+ * {@link DatabaseManager}. Instead of page numbers it carries the IDs of its first and last rows,
+ * which are used as cursors to fetch the next or previous page with an index seek, so every page
+ * costs the same no matter how deep into the table it is.</p>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * ReservationPage page = dbManager.getReservationsPageAfter(0, 50);
+ * while (page.hasNext()) {
+ *     page = dbManager.getReservationsPageAfter(page.getLastId(), 50);
+ * }
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.util.List;
+
+public class ReservationPage {
+    /** Cursor of an empty page; the page methods return an empty page for it */
+    public static final long NO_CURSOR = -1;
+
+    /** Rows on this page in ascending ID order */
+    private final List<ReservationRecord> rows;
+    /** Whether rows exist after the last row of this page */
+    private final boolean hasNext;
+    /** Whether rows exist before the first row of this page */
+    private final boolean hasPrevious;
+
+    /**
+     * Creates a page.
+     *
+     * @param rows rows on this page in ascending ID order
+     * @param hasNext whether more rows follow this page
+     * @param hasPrevious whether rows precede this page
+     */
+    public ReservationPage(List<ReservationRecord> rows, boolean hasNext, boolean hasPrevious) {
+        this.rows = rows;
+        this.hasNext = hasNext;
+        this.hasPrevious = hasPrevious;
+    }
+
+    /**
+     * Gets the rows on this page.
+     *
+     * @return rows in ascending ID order
+     */
+    public List<ReservationRecord> getRows() {
+        return rows;
+    }
+
+    /**
+     * Checks whether there is a next page.
+     *
+     * @return {@code true} if rows exist after this page
+     */
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    /**
+     * Checks whether there is a previous page.
+     *
+     * @return {@code true} if rows exist before this page
+     */
+    public boolean hasPrevious() {
+        return hasPrevious;
+    }
+
+    /**
+     * Gets the cursor for the previous page.
+     *
+     * @return ID of the first row, or {@link #NO_CURSOR} if the page is empty
+     */
+    public long getFirstId() {
+        return rows.isEmpty() ? NO_CURSOR : rows.get(0).getId();
+    }
+
+    /**
+     * Gets the cursor for the next page.
+     *
+     * @return ID of the last row, or {@link #NO_CURSOR} if the page is empty
+     */
+    public long getLastId() {
+        return rows.isEmpty() ? NO_CURSOR : rows.get(rows.size() - 1).getId();
+    }
+}
@@ -0,0 +1,249 @@
+/**
+ * ReservationQuery.java
+ *
+ * <p>This class describes a search over the reservations of a {@link ReservationManager}: any
+ * combination of filters, an order and a limit. Filters left unset match everything, so
+ * {@code new ReservationQuery()} returns every reservation in the order it was added.</p>
+ *
+ * <p>The filters are:</p>
+ * <ul>
+ *     <li><b>guestName</b> - part of the guest's name, ignoring case</li>
+ *     <li><b>guestEmail</b> - the guest's whole email, ignoring case</li>
+ *     <li><b>room</b> - a room number</li>
+ *     <li><b>roomType</b> - a room type, ignoring case</li>
+ *     <li><b>nights</b> - an inclusive range of nights</li>
+ *     <li><b>total</b> - an inclusive range of totals</li>
+ * </ul>
+ *
+ * <p>{@link ReservationManager#query(ReservationQuery)} answers the room, room type and nights
+ * filters from indexes and checks the others on the candidates the most selective index gives.</p>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * List<Reservation> longestCityView = manager.query(new ReservationQuery()
+ *         .roomType("City View")
+ *         .nights(5, 14)
+ *         .sortBy(ReservationQuery.Sort.TOTAL, true)
+ *         .limit(10));
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.util.Comparator;
+
+public class ReservationQuery {
+    /**
+     * Orders for results. Ties are broken by reservation ID.
+     */
+    public enum Sort {
+        /** Order in which the reservations were added */
+        ADDED(Comparator.comparingLong(Reservation::getId)),
+        /** Guest name, ignoring case */
+        GUEST_NAME(Comparator.comparing((Reservation r) -> r.getGuest().getName(), String.CASE_INSENSITIVE_ORDER)),
+        /** Room number */
+        ROOM(Comparator.comparingInt((Reservation r) -> r.getRoom().getRoomNumber())),
+        /** Number of nights */
+        NIGHTS(Comparator.comparingInt(Reservation::getNights)),
+        /** Total cost */
+        TOTAL(Comparator.comparingDouble(Reservation::calculateTotal));
+
+        /** Ascending order, ID last */
+        private final Comparator<Reservation> order;
+
+        Sort(Comparator<Reservation> order) {
+            this.order = order.thenComparingLong(Reservation::getId);
+        }
+    }
+
+    /** Lower-case part of the guest name, or {@code null} */
+    private String guestName;
+    /** Guest email, or {@code null} */
+    private String guestEmail;
+    /** Room number, or 0 for any */
+    private int room;
+    /** Room type, or {@code null} */
+    private String roomType;
+    /** Fewest nights */
+    private int minNights = 0;
+    /** Most nights */
+    private int maxNights = Integer.MAX_VALUE;
+    /** Lowest total */
+    private double minTotal = Double.NEGATIVE_INFINITY;
+    /** Highest total */
+    private double maxTotal = Double.POSITIVE_INFINITY;
+    /** Result order */
+    private Sort sort = Sort.ADDED;
+    /** Whether {@link #sort} is reversed */
+    private boolean descending;
+    /** Most results, or 0 for all */
+    private int limit;
+
+    /**
+     * Matches guests whose name contains {@code part}, ignoring case.
+     *
+     * @param part part of the name
+     * @return this query
+     */
+    public ReservationQuery guestName(String part) {
+        this.guestName = part == null || part.isEmpty() ? null : part.toLowerCase();
+        return this;
+    }
+
+    /**
+     * Matches guests with this email, ignoring case.
+     *
+     * @param email the whole email
+     * @return this query
+     */
+    public ReservationQuery guestEmail(String email) {
+        this.guestEmail = email;
+        return this;
+    }
+
+    /**
+     * Matches one room.
+     *
+     * @param roomNumber the room number, or 0 for any room
+     * @return this query
+     */
+    public ReservationQuery room(int roomNumber) {
+        this.room = roomNumber;
+        return this;
+    }
+
+    /**
+     * Matches rooms of one type, ignoring case.
+     *
+     * @param type the room type, e.g. "City View"
+     * @return this query
+     */
+    public ReservationQuery roomType(String type) {
+        this.roomType = type;
+        return this;
+    }
+
+    /**
+     * Matches stays of {@code min} to {@code max} nights, both included.
+     *
+     * @param min fewest nights
+     * @param max most nights
+     * @return this query
+     */
+    public ReservationQuery nights(int min, int max) {
+        this.minNights = min;
+        this.maxNights = max;
+        return this;
+    }
+
+    /**
+     * Matches totals from {@code min} to {@code max}, both included.
+     *
+     * @param min lowest total
+     * @param max highest total
+     * @return this query
+     */
+    public ReservationQuery total(double min, double max) {
+        this.minTotal = min;
+        this.maxTotal = max;
+        return this;
+    }
+
+    /**
+     * Sets the order of the results.
+     *
+     * @param sort what to order by
+     * @param descending {@code true} for largest first
+     * @return this query
+     */
+    public ReservationQuery sortBy(Sort sort, boolean descending) {
+        this.sort = sort;
+        this.descending = descending;
+        return this;
+    }
+
+    /**
+     * Keeps only the first results in the chosen order.
+     *
+     * @param maxResults most results, or 0 for all
+     * @return this query
+     */
+    public ReservationQuery limit(int maxResults) {
+        if (maxResults < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative.");
+        }
+        this.limit = maxResults;
+        return this;
+    }
+
+    /**
+     * Checks a reservation against every filter.
+     *
+     * @param reservation the reservation to check
+     * @return {@code true} if it matches
+     */
+    public boolean matches(Reservation reservation) {
+        int nights = reservation.getNights();
+        if (nights < minNights || nights > maxNights) return false;
+        Room r = reservation.getRoom();
+        if (room != 0 && r.getRoomNumber() != room) return false;
+        if (roomType != null && !roomType.equalsIgnoreCase(r.getType())) return false;
+        if (minTotal != Double.NEGATIVE_INFINITY || maxTotal != Double.POSITIVE_INFINITY) {
+            double total = reservation.calculateTotal();
+            if (total < minTotal || total > maxTotal) return false;
+        }
+        Guest guest = reservation.getGuest();
+        if (guestEmail != null && !guestEmail.equalsIgnoreCase(guest.getEmail())) return false;
+        return guestName == null || containsIgnoreCase(guest.getName(), guestName);
+    }
+
+    /** @return the room number filter, or 0 */
+    int getRoom() {
+        return room;
+    }
+
+    /** @return the room type filter, or {@code null} */
+    String getRoomType() {
+        return roomType;
+    }
+
+    /** @return the fewest nights matched */
+    int getMinNights() {
+        return minNights;
+    }
+
+    /** @return the most nights matched */
+    int getMaxNights() {
+        return maxNights;
+    }
+
+    /** @return {@code true} if the nights filter is set */
+    boolean hasNightsRange() {
+        return minNights > 0 || maxNights != Integer.MAX_VALUE;
+    }
+
+    /** @return the result order, reversed for a descending sort */
+    Comparator<Reservation> getOrder() {
+        return descending ? sort.order.reversed() : sort.order;
+    }
+
+    /** @return {@code true} if results come in the order they were added */
+    boolean isInAddedOrder() {
+        return sort == Sort.ADDED && !descending;
+    }
+
+    /** @return the result limit, or 0 for all */
+    int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Checks whether {@code text} contains the lower-case {@code part}, without copying either.
+     */
+    private static boolean containsIgnoreCase(String text, String part) {
+        for (int i = 0, last = text.length() - part.length(); i <= last; i++) {
+            if (text.regionMatches(true, i, part, 0, part.length())) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * ReservationQueryBenchmark.java
+ *
+ * <p>This class is a small command-line benchmark for
+ * {@link ReservationManager#query(ReservationQuery)}. It loads generated reservations and times a
+ * few queries through the planner and through a full scan of the list that checks every
+ * reservation against the same query. Selective queries (one room, a rare room type, a narrow
+ * range of nights) should be much faster through the planner; a query no index answers (a
+ * part of a guest name) scans in both cases and shows what the planner costs on top.</p>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * java -Xmx2g -cp out ReservationQueryBenchmark 1000000 5000
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class ReservationQueryBenchmark {
+    /** Number of reservations loaded when no argument is given */
+    private static final int DEFAULT_RESERVATIONS = 1_000_000;
+    /** Number of rooms when no argument is given */
+    private static final int DEFAULT_ROOMS = 5_000;
+    /** Runs per query before timing */
+    private static final int WARMUP = 20;
+    /** Timed runs per query */
+    private static final int RUNS = 50;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of reservations and number of rooms
+     */
+    public static void main(String[] args) {
+        int reservations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RESERVATIONS;
+        int rooms = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROOMS;
+        System.out.println("Reservations: " + reservations + ", rooms: " + rooms);
+
+        // One room in fifty is a suite; stays are mostly short
+        ReservationManager manager = new ReservationManager(rooms);
+        manager.setOutput(OutputSink.SILENT);
+        Random random = new Random(42);
+        for (int i = 0; i < reservations; i++) {
+            int room = random.nextInt(rooms) + 1;
+            String type = room % 50 == 0 ? "Suite" : room % 2 == 0 ? "City View" : "Patio View";
+            double rate = room % 50 == 0 ? 150.0 : room % 2 == 0 ? 90.0 : 70.0;
+            int nights = random.nextInt(100) < 95 ? random.nextInt(7) + 1 : random.nextInt(14) + 8;
+            String name = "Guest " + random.nextInt(100_000);
+            manager.addReservation(new Reservation(new Guest(name, name.replace(' ', '.') + "@example.com"),
+                    new Room(room, type, rate), nights));
+        }
+        long start = System.nanoTime();
+        manager.explain(new ReservationQuery());
+        System.out.printf("%-48s %10.2f ms%n", "build index", (System.nanoTime() - start) / 1_000_000.0);
+
+        List<ReservationQuery> queries = List.of(
+                new ReservationQuery().room(rooms / 3),
+                new ReservationQuery().roomType("Suite").total(1_000, Double.MAX_VALUE)
+                        .sortBy(ReservationQuery.Sort.TOTAL, true).limit(10),
+                new ReservationQuery().roomType("City View").nights(20, 21)
+                        .sortBy(ReservationQuery.Sort.GUEST_NAME, false).limit(50),
+                new ReservationQuery().guestName("guest 4242"));
+        String[] labels = {"one room", "suites over $1000, top 10 by total", "City View, 20-21 nights, by name",
+                "guest name part (no index)"};
+
+        int checksum = 0;
+        for (int q = 0; q < queries.size(); q++) {
+            ReservationQuery query = queries.get(q);
+            System.out.println(labels[q] + ": " + manager.explain(query));
+            for (int i = 0; i < WARMUP; i++) {
+                checksum += manager.query(query).size() + scan(manager.getReservations(), query).size();
+            }
+            start = System.nanoTime();
+            for (int i = 0; i < RUNS; i++) {
+                checksum += manager.query(query).size();
+            }
+            report("  planner", start);
+            start = System.nanoTime();
+            for (int i = 0; i < RUNS; i++) {
+                checksum += scan(manager.getReservations(), query).size();
+            }
+            report("  full scan", start);
+        }
+        System.out.println("(checksum " + checksum + ")"); // Keeps the JIT from skipping the loops
+    }
+
+    /**
+     * Answers a query by checking every reservation, then sorting and cutting the matches.
+     */
+    private static List<Reservation> scan(List<Reservation> reservations, ReservationQuery query) {
+        List<Reservation> matches = new ArrayList<>();
+        for (Reservation reservation : reservations) {
+            if (query.matches(reservation)) matches.add(reservation);
+        }
+        matches.sort(query.getOrder());
+        int limit = query.getLimit();
+        return limit > 0 && matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    /**
+     * Prints the average time of one query.
+     */
+    private static void report(String label, long startNanos) {
+        double millis = (System.nanoTime() - startNanos) / 1_000_000.0 / RUNS;
+        System.out.printf("%-48s %10.3f ms/query%n", label, millis);
+    }
+}
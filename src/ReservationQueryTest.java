@@ -0,0 +1,135 @@
+/**
+ * ReservationQueryTest.java
+ *
+ * <p>This class contains unit tests for {@link ReservationQuery}, {@link ReservationIndex} and
+ * {@link ReservationManager#query(ReservationQuery)}.</p>
+ *
+ * @author Andres Vera
+ */
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class ReservationQueryTest {
+    /** Manager with 600 reservations over 30 rooms */
+    private ReservationManager manager;
+
+    /**
+     * Adds reservations with varied guests, rooms, types and nights, then removes a few.
+     */
+    @BeforeEach
+    void setUp() {
+        manager = new ReservationManager();
+        manager.setOutput(OutputSink.SILENT);
+        Random random = new Random(7);
+        String[] names = {"Ana Diaz", "Luis Ramos", "Maria Lopez", "Pedro Diaz", "Sofia Ruiz"};
+        for (int i = 0; i < 600; i++) {
+            String name = names[i % names.length];
+            int room = random.nextInt(30) + 1;
+            boolean suite = room > 27;
+            manager.addReservation(new Reservation(new Guest(name, TestRecords.email(name)),
+                    new Room(room, suite ? "Suite" : room % 2 == 0 ? "City View" : "Patio View",
+                            suite ? 150.0 : room % 2 == 0 ? 90.0 : 70.0), random.nextInt(14) + 1));
+        }
+        for (long id = 5; id <= 600; id += 40) {
+            manager.removeReservationById(id);
+        }
+    }
+
+    /**
+     * Tests that every plan returns the same rows, in the same order, as filtering and sorting
+     * all reservations.
+     */
+    @Test
+    void query_matchesFullScan() {
+        List<ReservationQuery> queries = List.of(
+                new ReservationQuery(),
+                new ReservationQuery().room(12),
+                new ReservationQuery().room(12).roomType("city view").nights(3, 9),
+                new ReservationQuery().roomType("Suite").sortBy(ReservationQuery.Sort.TOTAL, true).limit(5),
+                new ReservationQuery().nights(13, 14).guestName("diaz").sortBy(ReservationQuery.Sort.GUEST_NAME, false),
+                new ReservationQuery().guestEmail("ANA.DIAZ@example.com").total(500, 1000).limit(3),
+                new ReservationQuery().roomType("Patio View").sortBy(ReservationQuery.Sort.ROOM, false).limit(20),
+                new ReservationQuery().room(99),
+                new ReservationQuery().nights(5, 2));
+
+        for (ReservationQuery query : queries) {
+            List<Reservation> results = manager.query(query);
+            assertEquals(scan(query), results, manager.explain(query));
+        }
+    }
+
+    /**
+     * Tests that the planner picks the index with the fewest candidates, and scans when no
+     * filter is indexed.
+     */
+    @Test
+    void explain_choosesMostSelectiveIndex() {
+        assertTrue(manager.explain(new ReservationQuery().roomType("City View").room(4)).startsWith("room 4 index"));
+        assertTrue(manager.explain(new ReservationQuery().roomType("Suite").nights(1, 12)).startsWith("room type bitmap"));
+        assertTrue(manager.explain(new ReservationQuery().roomType("City View").nights(14, 14)).startsWith("nights 14..14 index"));
+        assertTrue(manager.explain(new ReservationQuery().guestName("Ana")).startsWith("full scan"));
+        assertTrue(manager.explain(new ReservationQuery().nights(1, 14)).startsWith("full scan"));
+    }
+
+    /**
+     * Tests that the indexes follow adds, updates, removals and compaction made after the
+     * first query.
+     */
+    @Test
+    void query_seesLaterChanges() {
+        ReservationQuery roomTwelve = new ReservationQuery().room(12);
+        int before = manager.query(roomTwelve).size();
+
+        long added = manager.addReservation(TestRecords.record("Carla Mendez", 12, "Suite", 20));
+        Reservation moved = manager.query(new ReservationQuery().room(11)).get(0);
+        manager.updateReservation(moved.getId(), TestRecords.record("Carla Mendez", 12, "Suite", 20));
+        assertEquals(before + 2, manager.query(roomTwelve).size());
+        assertEquals(2, manager.query(new ReservationQuery().nights(20, 20)).size());
+        assertFalse(manager.query(new ReservationQuery().room(11)).stream().anyMatch(r -> r.getId() == moved.getId()));
+
+        for (long id = 1; id < added - 1; id++) {
+            if (id != moved.getId()) manager.deleteReservation(id); // Enough removals to compact the list
+        }
+        assertEquals(List.of(moved.getId(), added - 1, added),
+                manager.query(new ReservationQuery()).stream().map(Reservation::getId).toList());
+        assertEquals(2, manager.query(roomTwelve.nights(20, 20)).size());
+    }
+
+    /**
+     * Tests that removing a slot that is no longer indexed leaves the index size alone, so the
+     * planner still prefers an index that skips reservations.
+     */
+    @Test
+    void indexRemove_ignoresMissingSlot() {
+        ReservationIndex index = new ReservationIndex();
+        List<Reservation> stays = new ArrayList<>();
+        for (int room = 1; room <= 3; room++) {
+            stays.add(new Reservation(new Guest("Ana Diaz", TestRecords.email("Ana Diaz")), new Room(room, "City View", 90.0), room));
+            index.add(room - 1, stays.get(room - 1));
+        }
+        index.remove(0, stays.get(0));
+        index.remove(0, stays.get(0)); // Already gone
+
+        assertTrue(index.plan(new ReservationQuery().room(2), 3).toString().startsWith("room 2 index"));
+    }
+
+    /**
+     * Filters and sorts every reservation without indexes, looking them up by ID so the list
+     * keeps its empty slots.
+     */
+    private List<Reservation> scan(ReservationQuery query) {
+        List<Reservation> matches = new ArrayList<>();
+        for (long id = 1; id <= 600; id++) {
+            Reservation reservation = manager.getReservation(id);
+            if (reservation != null && query.matches(reservation)) matches.add(reservation);
+        }
+        matches.sort(query.getOrder());
+        return query.getLimit() > 0 && matches.size() > query.getLimit() ? matches.subList(0, query.getLimit()) : matches;
+    }
+}
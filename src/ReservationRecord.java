@@ -0,0 +1,294 @@
+/**
+ * ReservationRecord.java
+ *
+ * <p>This class is a read-only copy of one row of the {@code reservations} table. It is used by
+ * {@link DatabaseManager} to pass reservations in and out of the database without going through
+ * formatted strings. Formatting for display only happens when {@link #toString()} or
+ * {@link #appendTo(StringBuilder)} is called.</p>
+ *
+ * <p>It also knows how to parse the comma-separated import format used by the bulk-import
+ * feature:</p>
+ * <pre>
+ * name,email,roomNumber,roomType,checkIn,checkOut
+ * </pre>
+ * <p>The rate is filled in from the room type and the number of nights from the dates, the same
+ * way the add dialog in {@link HotelGUI} does it.</p>
+ *
+ * @author Andres Vera
+ */
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
+public class ReservationRecord {
+    /** Epoch-day value used when a date is missing or not in yyyy-MM-dd format */
+    public static final long NO_DAY = Long.MIN_VALUE;
+
+    /** Database ID (0 if the row has not been stored yet) */
+    private final long id;
+    /** Guest full name */
+    private final String guestName;
+    /** Guest email address */
+    private final String guestEmail;
+    /** Room number (1–18) */
+    private final int roomNumber;
+    /** Room type, e.g. "City View" */
+    private final String roomType;
+    /** Nightly rate */
+    private final double rate;
+    /** Number of nights */
+    private final int nights;
+    /** Check-in date (yyyy-MM-dd) */
+    private final String checkIn;
+    /** Check-out date (yyyy-MM-dd) */
+    private final String checkOut;
+    /** Check-in date as an epoch day */
+    private final long checkInDay;
+    /** Check-out date as an epoch day */
+    private final long checkOutDay;
+
+    /**
+     * Creates a record for a reservation that has not been stored yet.
+     *
+     * @param guestName guest name
+     * @param guestEmail guest email
+     * @param roomNumber room number
+     * @param roomType room type
+     * @param rate nightly rate
+     * @param nights number of nights
+     * @param checkIn check-in date
+     * @param checkOut check-out date
+     */
+    public ReservationRecord(String guestName, String guestEmail, int roomNumber, String roomType,
+                             double rate, int nights, String checkIn, String checkOut) {
+        this(0, guestName, guestEmail, roomNumber, roomType, rate, nights, checkIn, checkOut);
+    }
+
+    /**
+     * Creates a record for a stored reservation.
+     *
+     * @param id database ID
+     * @param guestName guest name
+     * @param guestEmail guest email
+     * @param roomNumber room number
+     * @param roomType room type
+     * @param rate nightly rate
+     * @param nights number of nights
+     * @param checkIn check-in date
+     * @param checkOut check-out date
+     */
+    public ReservationRecord(long id, String guestName, String guestEmail, int roomNumber, String roomType,
+                             double rate, int nights, String checkIn, String checkOut) {
+        this(id, guestName, guestEmail, roomNumber, roomType, rate, nights, checkIn, checkOut,
+                parseDay(checkIn), parseDay(checkOut));
+    }
+
+    /**
+     * Creates a record for a stored reservation whose epoch days are already known, so the
+     * text dates do not have to be parsed again.
+     *
+     * @param id database ID
+     * @param guestName guest name
+     * @param guestEmail guest email
+     * @param roomNumber room number
+     * @param roomType room type
+     * @param rate nightly rate
+     * @param nights number of nights
+     * @param checkIn check-in date
+     * @param checkOut check-out date
+     * @param checkInDay check-in epoch day, or {@link #NO_DAY}
+     * @param checkOutDay check-out epoch day, or {@link #NO_DAY}
+     */
+    public ReservationRecord(long id, String guestName, String guestEmail, int roomNumber, String roomType,
+                             double rate, int nights, String checkIn, String checkOut,
+                             long checkInDay, long checkOutDay) {
+        this.id = id;
+        this.guestName = guestName;
+        this.guestEmail = guestEmail;
+        this.roomNumber = roomNumber;
+        this.roomType = roomType;
+        this.rate = rate;
+        this.nights = nights;
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+        this.checkInDay = checkInDay;
+        this.checkOutDay = checkOutDay;
+    }
+
+    /**
+     * Converts a yyyy-MM-dd date to an epoch day.
+     *
+     * @return the epoch day, or {@link #NO_DAY} if the text is missing or not a valid date
+     */
+    private static long parseDay(String date) {
+        if (date == null) return NO_DAY;
+        try {
+            return LocalDate.parse(date).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return NO_DAY;
+        }
+    }
+
+    /**
+     * Parses one line of the bulk-import format.
+     *
+     * @param line a line formatted as {@code name,email,roomNumber,roomType,checkIn,checkOut}
+     * @return the parsed record
+     * @throws IllegalArgumentException if the line is not valid
+     */
+    public static ReservationRecord fromCsvLine(String line) {
+        String[] parts = line.split(",");
+        if (parts.length != 6) {
+            throw new IllegalArgumentException("Expected 6 fields but found " + parts.length + ".");
+        }
+
+        String name = parts[0].trim();
+        String email = parts[1].trim();
+        String roomType = parts[3].trim();
+        int roomNumber;
+        LocalDate inDate;
+        LocalDate outDate;
+        try {
+            roomNumber = Integer.parseInt(parts[2].trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid room number: " + parts[2].trim());
+        }
+        try {
+            inDate = LocalDate.parse(parts[4].trim());
+            outDate = LocalDate.parse(parts[5].trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Dates must use the yyyy-MM-dd format.");
+        }
+
+        double rate = roomType.equalsIgnoreCase("City View") ? 90.0 : 70.0;
+        int nights = (int) ChronoUnit.DAYS.between(inDate, outDate);
+        ReservationRecord record = new ReservationRecord(name, email, roomNumber, roomType, rate, nights,
+                inDate.toString(), outDate.toString());
+
+        String problem = record.validate();
+        if (problem != null) {
+            throw new IllegalArgumentException(problem);
+        }
+        return record;
+    }
+
+    /**
+     * Checks the record against the same rules the GUI applies before saving.
+     *
+     * @return a description of the first problem found, or {@code null} if the record is valid
+     */
+    public String validate() {
+        if (guestName == null || !guestName.matches("[a-zA-Z ]+")) return "Name must contain only letters and spaces.";
+        if (guestEmail == null || !guestEmail.matches("^[\\w-.]+@[\\w-]+\\.[a-zA-Z]{2,}$")) return "Invalid email format.";
+        if (roomNumber < 1 || roomNumber > 18) return "Room number must be between 1 and 18.";
+        if (roomType == null || roomType.isEmpty()) return "Room type is required.";
+        if (nights < 1) return "Check-out must be after check-in.";
+        if (checkInDay == NO_DAY || checkOutDay == NO_DAY) return "Dates must use the yyyy-MM-dd format.";
+        return null;
+    }
+
+    /** @return the database ID, or 0 if the row has not been stored yet */
+    public long getId() {
+        return id;
+    }
+
+    /** @return the guest name */
+    public String getGuestName() {
+        return guestName;
+    }
+
+    /** @return the guest email */
+    public String getGuestEmail() {
+        return guestEmail;
+    }
+
+    /** @return the room number */
+    public int getRoomNumber() {
+        return roomNumber;
+    }
+
+    /** @return the room type */
+    public String getRoomType() {
+        return roomType;
+    }
+
+    /** @return the nightly rate */
+    public double getRate() {
+        return rate;
+    }
+
+    /** @return the number of nights */
+    public int getNights() {
+        return nights;
+    }
+
+    /** @return the check-in date (yyyy-MM-dd) */
+    public String getCheckIn() {
+        return checkIn;
+    }
+
+    /** @return the check-out date (yyyy-MM-dd) */
+    public String getCheckOut() {
+        return checkOut;
+    }
+
+    /**
+     * Gets the check-in date as a day count since 1970-01-01, the form stored in the
+     * {@code check_in_day} column.
+     *
+     * @return check-in epoch day, or {@link #NO_DAY} if the date could not be parsed
+     */
+    public long getCheckInDay() {
+        return checkInDay;
+    }
+
+    /**
+     * Gets the check-out date as a day count since 1970-01-01, the form stored in the
+     * {@code check_out_day} column.
+     *
+     * @return check-out epoch day, or {@link #NO_DAY} if the date could not be parsed
+     */
+    public long getCheckOutDay() {
+        return checkOutDay;
+    }
+
+    /**
+     * Calculates the total cost of the reservation.
+     *
+     * @return rate multiplied by nights
+     */
+    public double calculateTotal() {
+        return rate * nights;
+    }
+
+    /**
+     * Appends the display form of this reservation to a builder, so callers showing many rows
+     * can reuse one buffer instead of creating a string per row.
+     *
+     * @param sb the builder to append to
+     * @return the same builder
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        sb.append("[ID: ").append(id).append("] ")
+                .append(guestName).append(" (").append(guestEmail).append(")")
+                .append(" *** Room #").append(roomNumber).append(" - ").append(roomType)
+                .append(" *** Nights: ").append(nights);
+        if (checkIn != null) {
+            // In-memory reservations loaded from older files have no dates
+            sb.append(" *** Check-In: ").append(checkIn)
+                    .append(" *** Check-Out: ").append(checkOut);
+        }
+        return sb.append(" *** Total: $").append(calculateTotal());
+    }
+
+    /**
+     * Returns the reservation in the format shown by the GUI.
+     *
+     * @return formatted reservation string
+     */
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(128)).toString();
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * ReservationRecordTest.java
+ *
+ * <p>This class contains unit tests for the {@link ReservationRecord} class. It verifies parsing
+ * of the bulk-import line format and the display format used by the GUI.</p>
+ *
+ * @author Andres Vera
+ */
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationRecordTest {
+
+    /**
+     * Tests that a valid import line is parsed and that rate and nights are derived.
+     */
+    @Test
+    void fromCsvLine_valid() {
+        ReservationRecord record = ReservationRecord.fromCsvLine("Ana,ana@example.com,11,City View,2025-07-01,2025-07-04");
+
+        assertEquals("Ana", record.getGuestName());
+        assertEquals(11, record.getRoomNumber());
+        assertEquals(90.0, record.getRate());
+        assertEquals(3, record.getNights());
+        assertEquals(270.0, record.calculateTotal());
+    }
+
+    /**
+     * Tests that invalid import lines are rejected with a reason.
+     */
+    @Test
+    void fromCsvLine_invalid() {
+        assertThrows(IllegalArgumentException.class, () -> ReservationRecord.fromCsvLine("Ana,ana@example.com,11"));
+        assertThrows(IllegalArgumentException.class,
+                () -> ReservationRecord.fromCsvLine("Ana,ana@example.com,40,City View,2025-07-01,2025-07-04"));
+        assertThrows(IllegalArgumentException.class,
+                () -> ReservationRecord.fromCsvLine("Ana,ana@example.com,11,City View,2025-07-04,2025-07-01"));
+    }
+
+    /**
+     * Tests that the display format matches what the GUI has always shown.
+     */
+    @Test
+    void testToString() {
+        ReservationRecord record = new ReservationRecord(7, "Ana", "ana@example.com", 11, "Patio View",
+                70.0, 2, "2025-07-01", "2025-07-03");
+
+        String expected = "[ID: 7] Ana (ana@example.com) *** Room #11 - Patio View *** Nights: 2"
+                + " *** Check-In: 2025-07-01 *** Check-Out: 2025-07-03 *** Total: $140.0";
+        assertEquals(expected, record.toString());
+        assertEquals(expected, record.appendTo(new StringBuilder()).toString());
+    }
+}
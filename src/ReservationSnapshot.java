@@ -0,0 +1,542 @@
+/**
+ * ReservationSnapshot.java
+ *
+ * <p>This class writes and reads binary snapshots of a {@link ReservationManager}: every
+ * reservation at one point in time, in a form that is memory-mapped instead of parsed. It is the
+ * snapshot format of {@link ReservationJournal} and of
+ * {@link ReservationManager#exportSnapshot(String)}.</p>
+ *
+ * <p>A version 2 snapshot file holds, in order:</p>
+ * <ul>
+ *     <li>a 64-byte header: magic number, format version, the last journal generation the
+ *     snapshot includes, the next reservation ID, the row and string counts, the string data
+ *     length, and CRC32 checksums of the rows, the string table and the header itself;</li>
+ *     <li>one 44-byte row per reservation: ID, guest name, guest email, room number, room type,
+ *     rate, nights, check-in and check-out day. Text fields are positions in the string
+ *     table;</li>
+ *     <li>the string table: the end offset of each string, then all strings in UTF-8. Every
+ *     distinct name, email and room type is stored once;</li>
+ *     <li>the magic number again.</li>
+ * </ul>
+ *
+ * <p>{@link #open(Path)} maps the file and checks its size and checksums without building any
+ * objects. Numbers are read straight from the mapped rows, and a string is decoded the first time
+ * it is asked for, so a multi-million-row snapshot opens in a fraction of a second.</p>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * ReservationSnapshot snapshot = ReservationSnapshot.open(Path.of("reservations.snap"));
+ * for (int row = 0; row < snapshot.size(); row++) {
+ *     if (snapshot.getRoomNumber(row) == 7) System.out.println(snapshot.getGuestName(row));
+ * }
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+public class ReservationSnapshot {
+    /** First and last int of every snapshot file ("HDMS") */
+    private static final int MAGIC = 0x48444D53;
+    /** Format version written by this class */
+    private static final int VERSION = 2;
+    /** Stored in place of a date for reservations without dates */
+    static final int NO_DATE = Integer.MIN_VALUE;
+    /** Bytes before the first row */
+    private static final int HEADER_SIZE = 64;
+    /** Bytes of the header covered by its own checksum */
+    private static final int HEADER_CHECKED = 48;
+    /** Bytes per row */
+    private static final int ROW_SIZE = 44;
+    /** Rows per mapped region; a region must stay under 2 GB */
+    private static final int ROWS_PER_REGION = 1 << 24;
+    /** Write buffer size */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /** Offsets of the fields in a row */
+    private static final int ID = 0;
+    private static final int GUEST_NAME = 8;
+    private static final int GUEST_EMAIL = 12;
+    private static final int ROOM_NUMBER = 16;
+    private static final int ROOM_TYPE = 20;
+    private static final int RATE = 24;
+    private static final int NIGHTS = 32;
+    private static final int CHECK_IN = 36;
+    private static final int CHECK_OUT = 40;
+
+    /** Last journal generation whose operations the snapshot includes */
+    private final long generation;
+    /** Next reservation ID to hand out after loading the snapshot */
+    private final long nextId;
+    /** Number of reservations in the snapshot */
+    private final long count;
+    /** Mapped rows, {@link #ROWS_PER_REGION} per buffer */
+    private final ByteBuffer[] rows;
+    /** Mapped string table: end offsets, then UTF-8 bytes */
+    private final ByteBuffer strings;
+    /** Position of the first string byte in {@link #strings} */
+    private final int stringData;
+    /** Strings decoded so far, by position in the string table */
+    private final String[] decoded;
+
+    private ReservationSnapshot(long generation, long nextId, long count, ByteBuffer[] rows, ByteBuffer strings,
+                                int stringCount) {
+        this.generation = generation;
+        this.nextId = nextId;
+        this.count = count;
+        this.rows = rows;
+        this.strings = strings;
+        this.stringData = stringData(stringCount);
+        this.decoded = new String[stringCount];
+    }
+
+    /**
+     * Writes a snapshot file and forces it to disk.
+     *
+     * @param file where to write
+     * @param generation last journal generation the reservations include
+     * @param nextId next reservation ID to hand out
+     * @param reservations the reservations; {@code null} entries are skipped
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, long generation, long nextId, Reservation[] reservations) throws IOException {
+        StringTable table = new StringTable();
+        // Rooms and guests are shared, so most rows find their string positions by identity
+        IdentityHashMap<Guest, int[]> guestStrings = new IdentityHashMap<>();
+        IdentityHashMap<Room, Integer> roomTypes = new IdentityHashMap<>();
+        CRC32 rowsCrc = new CRC32();
+        long count = 0;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            channel.position(HEADER_SIZE); // The header is written last, once the checksums are known
+            for (Reservation reservation : reservations) {
+                if (reservation == null) continue;
+                Guest guest = reservation.getGuest();
+                Room room = reservation.getRoom();
+                int[] guestIndex = guestStrings.computeIfAbsent(guest,
+                        g -> new int[]{table.indexOf(g.getName()), table.indexOf(g.getEmail())});
+                int typeIndex = roomTypes.computeIfAbsent(room, r -> table.indexOf(r.getType()));
+                if (buffer.remaining() < ROW_SIZE) {
+                    flush(channel, buffer, rowsCrc);
+                }
+                buffer.putLong(reservation.getId());
+                buffer.putInt(guestIndex[0]);
+                buffer.putInt(guestIndex[1]);
+                buffer.putInt(room.getRoomNumber());
+                buffer.putInt(typeIndex);
+                buffer.putDouble(room.getRate());
+                buffer.putInt(reservation.getNights());
+                buffer.putInt(reservation.hasDates() ? (int) reservation.getCheckIn().toEpochDay() : NO_DATE);
+                buffer.putInt(reservation.hasDates() ? (int) reservation.getCheckOut().toEpochDay() : NO_DATE);
+                count++;
+            }
+            flush(channel, buffer, rowsCrc);
+
+            CRC32 stringsCrc = new CRC32();
+            List<byte[]> encoded = table.encoded;
+            long end = 0;
+            for (byte[] bytes : encoded) {
+                end += bytes.length;
+                if (end > Integer.MAX_VALUE - stringData(encoded.size())) {
+                    throw new IOException("The string table of " + file + " would exceed 2 GB.");
+                }
+                if (buffer.remaining() < 4) flush(channel, buffer, stringsCrc);
+                buffer.putInt((int) end);
+            }
+            for (byte[] bytes : encoded) {
+                for (int written = 0; written < bytes.length; ) {
+                    if (!buffer.hasRemaining()) flush(channel, buffer, stringsCrc);
+                    int chunk = Math.min(buffer.remaining(), bytes.length - written);
+                    buffer.put(bytes, written, chunk);
+                    written += chunk;
+                }
+            }
+            flush(channel, buffer, stringsCrc);
+            buffer.putInt(MAGIC);
+            flush(channel, buffer, new CRC32());
+
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putLong(generation);
+            buffer.putLong(nextId);
+            buffer.putLong(count);
+            buffer.putInt(encoded.size());
+            buffer.putInt((int) end);
+            buffer.putInt((int) rowsCrc.getValue());
+            buffer.putInt((int) stringsCrc.getValue());
+            CRC32 headerCrc = new CRC32();
+            headerCrc.update(buffer.array(), 0, HEADER_CHECKED);
+            buffer.putInt((int) headerCrc.getValue());
+            buffer.putLong(0); // Reserved
+            buffer.flip();
+            channel.position(0);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true); // On disk before it can replace the previous snapshot
+        }
+    }
+
+    /**
+     * Writes the filled part of {@code buffer} to the channel, adds it to a checksum and empties
+     * the buffer.
+     */
+    private static void flush(FileChannel channel, ByteBuffer buffer, CRC32 crc) throws IOException {
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Memory-maps a snapshot file and checks its size and checksums. No reservation is built;
+     * use the row methods, {@link #getRecord(int)} or {@link #forEach}.
+     *
+     * @param file the snapshot to open
+     * @return the mapped snapshot
+     * @throws IOException if the file cannot be read, is not a version 2 snapshot, is cut short
+     *         or fails a checksum
+     */
+    public static ReservationSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException(file + " is not a reservation snapshot.");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a reservation snapshot.");
+            }
+            int version = header.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Snapshot version " + version + " in " + file + " is not supported.");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(header.duplicate().limit(HEADER_CHECKED));
+            if ((int) crc.getValue() != header.getInt(HEADER_CHECKED)) {
+                throw new IOException(file + " has a damaged header.");
+            }
+            long generation = header.getLong(8);
+            long nextId = header.getLong(16);
+            long count = header.getLong(24);
+            int stringCount = header.getInt(32);
+            int stringBytes = header.getInt(36);
+            long rowsEnd = HEADER_SIZE + count * ROW_SIZE;
+            long stringsSize = stringData(stringCount) + (long) stringBytes;
+            if (count < 0 || stringCount < 0 || stringBytes < 0 || size != rowsEnd + stringsSize + 4) {
+                throw new IOException(file + " is cut short or has extra data.");
+            }
+
+            ByteBuffer[] rows = new ByteBuffer[(int) ((count + ROWS_PER_REGION - 1) / ROWS_PER_REGION)];
+            crc.reset();
+            for (int region = 0; region < rows.length; region++) {
+                long first = (long) region * ROWS_PER_REGION;
+                long regionRows = Math.min(ROWS_PER_REGION, count - first);
+                rows[region] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * ROW_SIZE, regionRows * ROW_SIZE);
+                crc.update(rows[region].duplicate());
+            }
+            if ((int) crc.getValue() != header.getInt(40)) {
+                throw new IOException(file + " has damaged reservation rows.");
+            }
+            ByteBuffer strings = channel.map(FileChannel.MapMode.READ_ONLY, rowsEnd, stringsSize + 4);
+            crc.reset();
+            crc.update(strings.duplicate().limit((int) stringsSize));
+            if ((int) crc.getValue() != header.getInt(44)) {
+                throw new IOException(file + " has a damaged string table.");
+            }
+            if (strings.getInt((int) stringsSize) != MAGIC) {
+                throw new IOException(file + " does not end with a snapshot trailer.");
+            }
+            return new ReservationSnapshot(generation, nextId, count, rows, strings, stringCount);
+        }
+    }
+
+    /**
+     * Opens a snapshot file and passes each reservation, with its ID set, to {@code action}.
+     * Rooms and guests come from the given registries.
+     *
+     * @param file the snapshot to read
+     * @param rooms where to get shared rooms
+     * @param guests where to get shared guests
+     * @param action callback invoked for each reservation, in the order they were written
+     * @return the snapshot
+     * @throws IOException if the file cannot be read, is not a snapshot or is damaged
+     */
+    public static ReservationSnapshot read(Path file, RoomInventory rooms, GuestRegistry guests,
+                                           Consumer<Reservation> action) throws IOException {
+        ReservationSnapshot snapshot = open(file);
+        snapshot.forEach(rooms, guests, action);
+        return snapshot;
+    }
+
+    /**
+     * Checks whether a file starts like a snapshot, e.g. to tell it apart from a text export.
+     *
+     * @param file the file to check
+     * @return {@code true} if the file starts with the snapshot magic number
+     */
+    public static boolean isSnapshot(Path file) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file.toFile()))) {
+            return in.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Builds every reservation in the snapshot and passes it, with its ID set, to {@code action}.
+     * Each distinct guest (name and email) and room (number, type and rate) is looked up in the
+     * registries once.
+     *
+     * @param rooms where to get shared rooms
+     * @param guests where to get shared guests
+     * @param action callback invoked for each reservation, in row order
+     */
+    public void forEach(RoomInventory rooms, GuestRegistry guests, Consumer<Reservation> action) {
+        Map<Long, Guest> guestByStrings = new HashMap<>();
+        Map<RoomKey, Room> roomByKey = new HashMap<>();
+        int size = size();
+        for (int row = 0; row < size; row++) {
+            ByteBuffer region = region(row);
+            int at = offset(row);
+            int name = region.getInt(at + GUEST_NAME);
+            int email = region.getInt(at + GUEST_EMAIL);
+            Guest guest = guestByStrings.computeIfAbsent(((long) email << 32) | name,
+                    key -> guests.get(string(name), string(email)));
+            int roomNumber = region.getInt(at + ROOM_NUMBER);
+            int type = region.getInt(at + ROOM_TYPE);
+            double rate = region.getDouble(at + RATE);
+            Room room = roomByKey.computeIfAbsent(new RoomKey(roomNumber, type, rate),
+                    key -> rooms.get(roomNumber, string(type), rate));
+            int checkIn = region.getInt(at + CHECK_IN);
+            Reservation reservation = checkIn == NO_DATE ? new Reservation(guest, room, region.getInt(at + NIGHTS))
+                    : new Reservation(guest, room, LocalDate.ofEpochDay(checkIn),
+                    LocalDate.ofEpochDay(region.getInt(at + CHECK_OUT)));
+            reservation.setId(region.getLong(at + ID));
+            action.accept(reservation);
+        }
+    }
+
+    /**
+     * Gets one row as a record, decoding only its strings.
+     *
+     * @param row row number, from 0 to {@link #size()} - 1
+     * @return the reservation as a record
+     */
+    public ReservationRecord getRecord(int row) {
+        LocalDate checkIn = getCheckIn(row);
+        LocalDate checkOut = getCheckOut(row);
+        return new ReservationRecord(getId(row), getGuestName(row), getGuestEmail(row),
+                getRoomNumber(row), getRoomType(row), getRate(row), getNights(row),
+                checkIn == null ? null : checkIn.toString(), checkOut == null ? null : checkOut.toString());
+    }
+
+    /**
+     * Gets the ID of a row.
+     *
+     * @param row row number
+     * @return reservation ID
+     */
+    public long getId(int row) {
+        return region(row).getLong(offset(row) + ID);
+    }
+
+    /**
+     * Gets the guest name of a row, decoding it on first use.
+     *
+     * @param row row number
+     * @return guest name
+     */
+    public String getGuestName(int row) {
+        return string(region(row).getInt(offset(row) + GUEST_NAME));
+    }
+
+    /**
+     * Gets the guest email of a row, decoding it on first use.
+     *
+     * @param row row number
+     * @return guest email
+     */
+    public String getGuestEmail(int row) {
+        return string(region(row).getInt(offset(row) + GUEST_EMAIL));
+    }
+
+    /**
+     * Gets the room number of a row.
+     *
+     * @param row row number
+     * @return room number
+     */
+    public int getRoomNumber(int row) {
+        return region(row).getInt(offset(row) + ROOM_NUMBER);
+    }
+
+    /**
+     * Gets the room type of a row, decoding it on first use.
+     *
+     * @param row row number
+     * @return room type
+     */
+    public String getRoomType(int row) {
+        return string(region(row).getInt(offset(row) + ROOM_TYPE));
+    }
+
+    /**
+     * Gets the nightly rate of a row.
+     *
+     * @param row row number
+     * @return nightly rate
+     */
+    public double getRate(int row) {
+        return region(row).getDouble(offset(row) + RATE);
+    }
+
+    /**
+     * Gets the number of nights of a row.
+     *
+     * @param row row number
+     * @return nights
+     */
+    public int getNights(int row) {
+        return region(row).getInt(offset(row) + NIGHTS);
+    }
+
+    /**
+     * Gets the check-in date of a row.
+     *
+     * @param row row number
+     * @return check-in date, or {@code null} if the reservation has no dates
+     */
+    public LocalDate getCheckIn(int row) {
+        int day = region(row).getInt(offset(row) + CHECK_IN);
+        return day == NO_DATE ? null : LocalDate.ofEpochDay(day);
+    }
+
+    /**
+     * Gets the check-out date of a row.
+     *
+     * @param row row number
+     * @return check-out date, or {@code null} if the reservation has no dates
+     */
+    public LocalDate getCheckOut(int row) {
+        int day = region(row).getInt(offset(row) + CHECK_OUT);
+        return day == NO_DATE ? null : LocalDate.ofEpochDay(day);
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return rows in the snapshot
+     */
+    public int size() {
+        return Math.toIntExact(count);
+    }
+
+    /**
+     * Gets the last journal generation included in the snapshot; later generations must be
+     * replayed on top of it.
+     *
+     * @return journal generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Gets the next reservation ID to hand out.
+     *
+     * @return next ID
+     */
+    public long getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Gets the number of reservations in the snapshot.
+     *
+     * @return reservation count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the mapped region holding a row.
+     */
+    private ByteBuffer region(int row) {
+        if (row < 0 || row >= count) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + count);
+        }
+        return rows[row / ROWS_PER_REGION];
+    }
+
+    /**
+     * Gets the position of a row within its region.
+     */
+    private static int offset(int row) {
+        return (row % ROWS_PER_REGION) * ROW_SIZE;
+    }
+
+    /**
+     * Gets a string from the table, decoding it the first time.
+     */
+    private String string(int index) {
+        String value = decoded[index];
+        if (value == null) {
+            int start = index == 0 ? 0 : strings.getInt((index - 1) * 4);
+            byte[] bytes = new byte[strings.getInt(index * 4) - start];
+            strings.get(stringData + start, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            decoded[index] = value; // A race only decodes the same string twice
+        }
+        return value;
+    }
+
+    /**
+     * Gets the size of the end offsets in front of the string bytes.
+     */
+    private static int stringData(int stringCount) {
+        return stringCount * 4;
+    }
+
+    /**
+     * Room number, type string and rate of a row, identifying the Room it is built with.
+     */
+    private record RoomKey(int roomNumber, int type, double rate) {
+    }
+
+    /**
+     * Distinct strings in order of first use, already encoded.
+     */
+    private static class StringTable {
+        private final Map<String, Integer> index = new HashMap<>();
+        private final List<byte[]> encoded = new ArrayList<>();
+
+        int indexOf(String value) {
+            return index.computeIfAbsent(value, v -> {
+                encoded.add(v.getBytes(StandardCharsets.UTF_8));
+                return encoded.size() - 1;
+            });
+        }
+    }
+}
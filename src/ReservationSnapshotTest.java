@@ -0,0 +1,111 @@
+/**
+ * ReservationSnapshotTest.java
+ *
+ * <p>This class contains unit tests for the {@link ReservationSnapshot} class.</p>
+ *
+ * @author Andres Vera
+ */
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+class ReservationSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that an exported manager imports with the same IDs, guests, rooms and dates, and
+     * that new IDs continue after the imported ones.
+     */
+    @Test
+    void exportImport_keepsReservationsAndIds() throws IOException {
+        ReservationManager manager = new ReservationManager();
+        long ana = manager.addReservation(TestRecords.record("Ana Díaz", 1, "City View", "2025-03-01", "2025-03-04"));
+        long luis = manager.addReservation(TestRecords.record("Luis Ramos", 2, "Patio View", null, null));
+        manager.deleteReservation(manager.addReservation(TestRecords.record("Maria Lopez", 3, "City View", null, null)));
+        String file = directory.resolve("reservations.snap").toString();
+        manager.exportSnapshot(file);
+
+        ReservationManager loaded = new ReservationManager();
+        loaded.importSnapshot(file);
+
+        assertEquals(2, loaded.size());
+        assertEquals(manager.findReservation(ana).toString(), loaded.findReservation(ana).toString());
+        assertEquals(manager.findReservation(luis).toString(), loaded.findReservation(luis).toString());
+        assertFalse(loaded.isRoomAvailable(1, LocalDate.parse("2025-03-02"), LocalDate.parse("2025-03-03")));
+        assertEquals(luis + 2, loaded.addReservation(TestRecords.record("Pedro Diaz", 4, "City View", null, null)));
+    }
+
+    /**
+     * Tests that the mapped rows are read field by field, sharing one decoded string per
+     * distinct value.
+     */
+    @Test
+    void open_readsRowsLazily() throws IOException {
+        ReservationManager manager = new ReservationManager();
+        manager.addReservation(TestRecords.record("Ana Díaz", 1, "City View", "2025-03-01", "2025-03-04"));
+        manager.addReservation(TestRecords.record("Luis Ramos", 2, "City View", null, null));
+        Path file = directory.resolve("reservations.snap");
+        manager.exportSnapshot(file.toString());
+
+        ReservationSnapshot snapshot = ReservationSnapshot.open(file);
+
+        assertEquals(2, snapshot.size());
+        assertEquals(3, snapshot.getNextId());
+        assertEquals("Ana Díaz", snapshot.getGuestName(0));
+        assertEquals(LocalDate.parse("2025-03-04"), snapshot.getCheckOut(0));
+        assertNull(snapshot.getCheckIn(1));
+        assertEquals(2, snapshot.getNights(1));
+        assertSame(snapshot.getRoomType(0), snapshot.getRoomType(1));
+        assertEquals("luis.ramos@example.com", snapshot.getRecord(1).getGuestEmail());
+        assertTrue(ReservationSnapshot.isSnapshot(file));
+    }
+
+    /**
+     * Tests that a changed byte in the rows fails the checksum, and that a file cut short is
+     * rejected.
+     */
+    @Test
+    void open_rejectsDamagedFile() throws IOException {
+        ReservationManager manager = new ReservationManager();
+        manager.addReservation(TestRecords.record("Ana Diaz", 1, "City View", null, null));
+        Path file = directory.resolve("reservations.snap");
+        manager.exportSnapshot(file.toString());
+
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(64 + 16); // Room number of the first row
+            raf.writeInt(9);
+        }
+        assertThrows(IOException.class, () -> ReservationSnapshot.open(file));
+
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+        assertThrows(IOException.class, () -> new ReservationManager().importSnapshot(file.toString()));
+    }
+
+    /**
+     * Tests that IDs past the int range come back whole as records, from the snapshot and from
+     * a manager that imported it.
+     */
+    @Test
+    void records_keepLongIds() throws IOException {
+        long id = 1L << 33;
+        Reservation reservation = new Reservation(new Guest("Ana Díaz", TestRecords.email("Ana Díaz")), new Room(1, "City View", 90.0), 2);
+        reservation.setId(id);
+        Path file = directory.resolve("reservations.snap");
+        ReservationSnapshot.write(file, 0, id + 1, new Reservation[]{reservation});
+
+        assertEquals(id, ReservationSnapshot.open(file).getRecord(0).getId());
+        ReservationManager loaded = new ReservationManager();
+        loaded.importSnapshot(file.toString());
+        assertEquals(id, loaded.findReservation(id).getId());
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * ReservationStore.java
+ *
+ * <p>This interface is the set of reservation operations both front ends need, so
+ * {@link HotelApp} and {@link HotelGUI} can run on any storage engine:</p>
+ * <ul>
+ *     <li>{@link ReservationManager} keeps reservations in memory;</li>
+ *     <li>{@link DatabaseManager} keeps them in SQLite;</li>
+ *     <li>{@link CachingReservationStore} serves reads from memory and writes through to another store.</li>
+ * </ul>
+ *
+ * <p>Reservations go in and come out as {@link ReservationRecord}s and are addressed by the ID
+ * the store gives them. Implementations do not print confirmations; callers report the results.</p>
+ *
+ * @author Andres Vera
+ */
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface ReservationStore {
+
+    /**
+     * Stores a new reservation. A dated reservation is rejected if its room is already booked
+     * for any of its nights.
+     *
+     * @param record the reservation to store; its ID is ignored
+     * @return the new reservation's ID, or -1 if the room is taken or the reservation could not be stored
+     */
+    long addReservation(ReservationRecord record);
+
+    /**
+     * Replaces the reservation with the given ID.
+     *
+     * @param id reservation ID
+     * @param record the new values; its ID is ignored
+     * @return {@code true} if the reservation was replaced, {@code false} if the ID does not
+     *         exist, the room is taken or the update failed
+     */
+    boolean updateReservation(long id, ReservationRecord record);
+
+    /**
+     * Deletes the reservation with the given ID.
+     *
+     * @param id reservation ID
+     * @return {@code true} if a reservation was deleted
+     */
+    boolean deleteReservation(long id);
+
+    /**
+     * Looks up one reservation.
+     *
+     * @param id reservation ID
+     * @return the reservation, or {@code null} if there is none with that ID
+     */
+    ReservationRecord findReservation(long id);
+
+    /**
+     * Passes every reservation to {@code action}, in ID order.
+     *
+     * @param action callback invoked for each reservation
+     */
+    void forEachReservation(Consumer<ReservationRecord> action);
+
+    /**
+     * Passes every reservation whose guest name contains {@code keyword}, ignoring case, to
+     * {@code action}.
+     *
+     * @param keyword partial or full guest name
+     * @param action callback invoked for each match
+     */
+    void searchReservationsByName(String keyword, Consumer<ReservationRecord> action);
+
+    /**
+     * Checks whether a room is free for every night of a stay.
+     *
+     * @param roomNumber room to check
+     * @param checkIn first night of the stay
+     * @param checkOut day the guest leaves
+     * @return {@code true} if no reservation of the room overlaps the stay
+     */
+    boolean isRoomAvailable(int roomNumber, LocalDate checkIn, LocalDate checkOut);
+
+    /**
+     * Finds the rooms of a type that are free for every night of a stay.
+     *
+     * @param roomType wanted room type, or {@code null} for any
+     * @param checkIn first night of the stay
+     * @param checkOut day the guest leaves
+     * @return free room numbers in ascending order
+     */
+    List<Integer> findAvailableRooms(String roomType, LocalDate checkIn, LocalDate checkOut);
+}
@@ -60,4 +60,20 @@ class ReservationTest {
         // Negative test: ensure it doesn't match incorrect string
         assertNotEquals("Incorrect output", reservation.toString());
     }
+
+    /**
+     * Tests that a dated reservation derives its nights from the dates and reports overlaps.
+     */
+    @org.junit.jupiter.api.Test
+    void datedReservation() {
+        guest = new Guest("Andres", "andres@gmail.com");
+        room = new Room(5, "City View", 90.0);
+        reservation = new Reservation(guest, room, java.time.LocalDate.of(2025, 7, 1), java.time.LocalDate.of(2025, 7, 4));
+
+        assertEquals(3, reservation.getNights());
+        assertEquals(270.0, reservation.calculateTotal());
+        assertTrue(reservation.overlaps(java.time.LocalDate.of(2025, 7, 3), java.time.LocalDate.of(2025, 7, 5)));
+        assertFalse(reservation.overlaps(java.time.LocalDate.of(2025, 7, 4), java.time.LocalDate.of(2025, 7, 5)));
+        assertTrue(reservation.toString().contains("Check-In: 2025-07-01"));
+    }
 }
@@ -0,0 +1,115 @@
+/**
+ * RevenueReportRow.java
+ *
+ * <p>This class holds one line of a revenue report built by {@link DatabaseManager}: the totals
+ * for one room type, room or period. Revenue and room-nights are summed in SQL; the average
+ * daily rate (ADR) and occupancy are derived from them here.</p>
+ *
+ * <ul>
+ *     <li><b>ADR</b> - revenue divided by room-nights sold</li>
+ *     <li><b>Occupancy</b> - room-nights sold divided by room-nights available</li>
+ * </ul>
+ *
+ * @author Andres Vera
+ */
+
+public class RevenueReportRow {
+    /** Room type, room number or period this row totals */
+    private final String label;
+    /** Sum of the nightly rates of all nights sold */
+    private final double revenue;
+    /** Number of room-nights sold */
+    private final long roomNights;
+    /** Number of room-nights that could have been sold */
+    private final long availableRoomNights;
+
+    /**
+     * Creates a report row.
+     *
+     * @param label what this row totals
+     * @param revenue revenue earned
+     * @param roomNights room-nights sold
+     * @param availableRoomNights room-nights available
+     */
+    public RevenueReportRow(String label, double revenue, long roomNights, long availableRoomNights) {
+        this.label = label;
+        this.revenue = revenue;
+        this.roomNights = roomNights;
+        this.availableRoomNights = availableRoomNights;
+    }
+
+    /**
+     * Gets what this row totals, e.g. "City View", "Room 7" or "2025-07".
+     *
+     * @return row label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Gets the revenue earned.
+     *
+     * @return revenue in dollars
+     */
+    public double getRevenue() {
+        return revenue;
+    }
+
+    /**
+     * Gets the number of room-nights sold.
+     *
+     * @return room-nights
+     */
+    public long getRoomNights() {
+        return roomNights;
+    }
+
+    /**
+     * Gets the number of room-nights that could have been sold.
+     *
+     * @return available room-nights
+     */
+    public long getAvailableRoomNights() {
+        return availableRoomNights;
+    }
+
+    /**
+     * Gets the average daily rate.
+     *
+     * @return revenue per room-night sold, or 0 if nothing was sold
+     */
+    public double getAverageDailyRate() {
+        return roomNights == 0 ? 0 : revenue / roomNights;
+    }
+
+    /**
+     * Gets the occupancy.
+     *
+     * @return fraction of available room-nights sold (0 to 1)
+     */
+    public double getOccupancy() {
+        return availableRoomNights == 0 ? 0 : (double) roomNights / availableRoomNights;
+    }
+
+    /**
+     * Appends this row as one aligned line of text.
+     *
+     * @param sb builder to append to
+     * @return the same builder
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        return sb.append(String.format("%-20s Revenue: $%10.2f *** Room-Nights: %6d *** ADR: $%7.2f *** Occupancy: %5.1f%%",
+                label, revenue, roomNights, getAverageDailyRate(), getOccupancy() * 100));
+    }
+
+    /**
+     * Returns the row as one line of text.
+     *
+     * @return formatted row
+     */
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder()).toString();
+    }
+}
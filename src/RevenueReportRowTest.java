@@ -0,0 +1,36 @@
+/**
+ * RevenueReportRowTest.java
+ *
+ * <p>This class contains unit tests for the {@link RevenueReportRow} class. It verifies the
+ * derived average daily rate and occupancy, including empty groups.</p>
+ *
+ * @author Andres Vera
+ */
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevenueReportRowTest {
+
+    /**
+     * Tests ADR and occupancy for a group with nights sold.
+     */
+    @Test
+    void testDerivedMetrics() {
+        RevenueReportRow row = new RevenueReportRow("City View", 500.0, 6, 540);
+
+        assertEquals(500.0 / 6, row.getAverageDailyRate(), 1e-9);
+        assertEquals(6.0 / 540, row.getOccupancy(), 1e-9);
+    }
+
+    /**
+     * Tests that a group with no capacity or no nights does not divide by zero.
+     */
+    @Test
+    void testEmptyGroup() {
+        RevenueReportRow row = new RevenueReportRow("Room 1", 0.0, 0, 0);
+
+        assertEquals(0.0, row.getAverageDailyRate());
+        assertEquals(0.0, row.getOccupancy());
+    }
+}
@@ -60,7 +60,8 @@ public class Room {
     }
 
     /**
-     * Sets the room number.
+     * Sets the room number. Do not call it on a room held by a stored reservation: the manager's
+     * indexes and calendars are keyed by the number it had when stored.
      *
      * @param roomNumber the new room number
      */
@@ -70,7 +71,8 @@ public class Room {
     }
 
     /**
-     * Sets the room type.
+     * Sets the room type. Do not call it on a room held by a stored reservation: the manager's
+     * index is keyed by the type it had when stored.
      *
      * @param type the new room type
      */
@@ -80,7 +82,8 @@ public class Room {
     }
 
     /**
-     * Sets the nightly rate.
+     * Sets the nightly rate. Rooms from a {@link RoomInventory} are shared by many reservations,
+     * and a change made here is not journaled; see {@link ReservationManager#changeRoomRate(int, double)}.
      *
      * @param rate the new nightly rate
      */
@@ -89,6 +92,16 @@ public class Room {
         this.rate = rate;
     }
 
+    /**
+     * Appends the same text as {@link #toString()} to a builder.
+     *
+     * @param sb the builder to append to
+     * @return the same builder
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        return sb.append("Room #").append(roomNumber).append(".\nType: ").append(type).append(".\nRate: ").append(rate);
+    }
+
     /**
      * Returns a string representation of the room's details.
      *
@@ -96,6 +109,6 @@ public class Room {
      */
     @Override
     public String toString() {
-        return "Room #" + roomNumber + ".\nType: " + type + ".\nRate: " + rate;
+        return appendTo(new StringBuilder(48)).toString();
     }
 }
@@ -0,0 +1,101 @@
+/**
+ * RoomInventory.java
+ *
+ * <p>This class keeps one shared {@link Room} object per physical room, so every reservation of
+ * room 7 points at the same instance instead of its own copy. That saves memory on large loads.
+ * Because the object is shared, changing it in place (e.g. {@link Room#setRate(double)}) changes
+ * every reservation holding it without going through the manager, so the change is neither
+ * journaled nor indexed; {@link ReservationManager#changeRoomRate(int, double)} changes a rate
+ * properly.</p>
+ *
+ * <p>Rooms are keyed by room number and type, since older files may list the same number with
+ * different types. A room is only shared while its rate matches too: asking for a room at a new
+ * rate creates a new Room, shared from then on, and reservations made earlier keep the rate they
+ * were booked at. The registry is safe to use from several threads, which the parallel file
+ * loader relies on.</p>
+ *
+ * <p><b>Example Usage:</b></p>
+ * <pre>{@code
+ * Room room = inventory.get(7, "City View", 90.0); // Same object on every call
+ * }</pre>
+ *
+ * @author Andres Vera
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class RoomInventory {
+    /** Shared room objects by number and type */
+    private final ConcurrentHashMap<Key, Room> rooms = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the shared room with this number, type and rate, creating it if there is none or the
+     * shared one has another rate.
+     *
+     * @param roomNumber the room number
+     * @param type the room type
+     * @param rate the nightly rate
+     * @return a Room with exactly this number, type and rate
+     */
+    public Room get(int roomNumber, String type, double rate) {
+        Key key = new Key(roomNumber, type);
+        Room room = rooms.get(key);
+        if (room != null && matches(room, roomNumber, type, rate)) {
+            return room;
+        }
+        return rooms.compute(key, (k, shared) -> shared != null && matches(shared, roomNumber, type, rate)
+                ? shared : new Room(roomNumber, type, rate));
+    }
+
+    /**
+     * Forgets every room. Rooms already handed out are not changed.
+     */
+    public void clear() {
+        rooms.clear();
+    }
+
+    /**
+     * Shares the rooms of another inventory from now on, e.g. one a file was loaded with.
+     *
+     * @param other the inventory to copy from
+     */
+    public void putAll(RoomInventory other) {
+        rooms.putAll(other.rooms);
+    }
+
+    /**
+     * Gets every room in the inventory.
+     *
+     * @return the shared Room objects, in no particular order
+     */
+    public List<Room> getRooms() {
+        return new ArrayList<>(rooms.values());
+    }
+
+    /**
+     * Gets the number of distinct rooms.
+     *
+     * @return room count
+     */
+    public int size() {
+        return rooms.size();
+    }
+
+    /**
+     * Checks whether a shared room still has exactly this number, type and rate; its fields can
+     * have been changed since it was shared.
+     */
+    private static boolean matches(Room room, int roomNumber, String type, double rate) {
+        return room.getRoomNumber() == roomNumber && Objects.equals(room.getType(), type)
+                && Double.compare(room.getRate(), rate) == 0;
+    }
+
+    /**
+     * Room number and type identifying one shared room.
+     */
+    private record Key(int roomNumber, String type) {
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * TestRecords.java
+ *
+ * <p>This class builds the {@link ReservationRecord}s the unit tests store. Each guest gets an
+ * email made from their name ({@code "Ana Diaz"} becomes {@code ana.diaz@example.com}), so
+ * different names are different guests. Rooms cost 90.0 a night, and undated stays last two
+ * nights unless the test asks for a length.</p>
+ *
+ * @author Andres Vera
+ */
+
+import java.time.LocalDate;
+
+final class TestRecords {
+
+    private TestRecords() {
+    }
+
+    /**
+     * Builds a record, dated if {@code checkIn} is given.
+     *
+     * @param name guest name
+     * @param room room number
+     * @param type room type
+     * @param checkIn check-in date as yyyy-MM-dd, or {@code null} for a two-night undated stay
+     * @param checkOut check-out date as yyyy-MM-dd, or {@code null}
+     * @return the record, not yet stored
+     */
+    static ReservationRecord record(String name, int room, String type, String checkIn, String checkOut) {
+        int nights = checkIn == null ? 2 : (int) (LocalDate.parse(checkOut).toEpochDay() - LocalDate.parse(checkIn).toEpochDay());
+        return new ReservationRecord(0, name, email(name), room, type, 90.0, nights, checkIn, checkOut);
+    }
+
+    /**
+     * Builds a City View record, dated if {@code checkIn} is given.
+     *
+     * @param name guest name
+     * @param room room number
+     * @param checkIn check-in date as yyyy-MM-dd, or {@code null} for a two-night undated stay
+     * @param checkOut check-out date as yyyy-MM-dd, or {@code null}
+     * @return the record, not yet stored
+     */
+    static ReservationRecord record(String name, int room, String checkIn, String checkOut) {
+        return record(name, room, "City View", checkIn, checkOut);
+    }
+
+    /**
+     * Builds an undated two-night City View record.
+     *
+     * @param name guest name
+     * @param room room number
+     * @return the record, not yet stored
+     */
+    static ReservationRecord record(String name, int room) {
+        return record(name, room, "City View", null, null);
+    }
+
+    /**
+     * Builds an undated record of a given length.
+     *
+     * @param name guest name
+     * @param room room number
+     * @param type room type
+     * @param nights number of nights
+     * @return the record, not yet stored
+     */
+    static ReservationRecord record(String name, int room, String type, int nights) {
+        return new ReservationRecord(0, name, email(name), room, type, 90.0, nights, null, null);
+    }
+
+    /**
+     * Makes the email of a test guest from their name.
+     *
+     * @param name guest name
+     * @return the name lower-cased, with dots for spaces, at example.com
+     */
+    static String email(String name) {
+        return name.toLowerCase().replace(" ", ".") + "@example.com";
+    }
+}
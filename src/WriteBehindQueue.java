@@ -0,0 +1,258 @@
+/**
+ * WriteBehindQueue.java
+ *
+ * <p>This class runs database mutations for {@link DatabaseManager} on a single background
+ * writer thread. Callers submit a mutation and immediately get back a {@link CompletableFuture};
+ * the writer thread drains whatever is waiting in the queue and applies it in one transaction
+ * (group commit), so many small writes share one commit and one disk sync.</p>
+ *
+ * <p>Each mutation runs under its own savepoint, so a failing mutation is rolled back on its
+ * own and the rest of the group still commits. A future is only completed after the transaction
+ * containing its mutation has committed, which keeps the same durability guarantee as a
+ * synchronous write.</p>
+ *
+ * <p>The queue is bounded: when it is full, {@link #submit(Mutation)} blocks until the writer
+ * catches up. {@link #close()} stops accepting work, flushes everything already queued and
+ * waits for the writer thread to finish. Submitting and closing share a lock, so a mutation is
+ * either queued before the stop marker or refused; none is left behind with a future that never
+ * completes.</p>
+ *
+ * <p>Only the {@code ...Async} methods of {@link DatabaseManager} use the queue; bulk loaders
+ * such as {@link DatabaseBenchmark} call them. The console and GUI front ends write through a
+ * {@link ReservationStore}, whose methods are synchronous and never queue anything.</p>
+ *
+ * @author Andres Vera
+ */
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class WriteBehindQueue implements AutoCloseable {
+    /** Default number of mutations that can wait in the queue */
+    public static final int DEFAULT_CAPACITY = 1024;
+    /** Default maximum number of mutations committed in one transaction */
+    public static final int DEFAULT_MAX_BATCH = 256;
+
+    /**
+     * A unit of work applied on the writer connection inside the group transaction.
+     *
+     * @param <T> result type
+     */
+    public interface Mutation<T> {
+        /**
+         * Applies the change. Must not commit or roll back.
+         *
+         * @param conn the writer connection
+         * @return the result handed to the caller's future
+         * @throws SQLException if the change fails; only this mutation is rolled back
+         */
+        T apply(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Supplies the connection the writer thread uses for each group.
+     */
+    public interface ConnectionSource {
+        /**
+         * Borrows a connection; it is closed after the group commits.
+         *
+         * @return an open connection
+         * @throws SQLException if no connection is available
+         */
+        Connection get() throws SQLException;
+    }
+
+    /** Marker telling the writer thread to stop after draining the queue */
+    private static final Pending<Void> STOP = new Pending<>(null);
+
+    /** Mutations waiting to be written */
+    private final BlockingQueue<Pending<?>> queue;
+    /** Where the writer thread gets its connection */
+    private final ConnectionSource source;
+    /** Largest group committed at once */
+    private final int maxBatch;
+    /** Background writer thread */
+    private final Thread writer;
+    /** Held shared by {@link #submit(Mutation)} and exclusively by {@link #close()} */
+    private final ReadWriteLock state = new ReentrantReadWriteLock();
+    /** Set once {@link #close()} has been called; guarded by {@link #state} */
+    private boolean closed;
+
+    /**
+     * Creates a queue with default capacity and batch size and starts its writer thread.
+     *
+     * @param source where to borrow the writer connection
+     */
+    public WriteBehindQueue(ConnectionSource source) {
+        this(source, DEFAULT_CAPACITY, DEFAULT_MAX_BATCH);
+    }
+
+    /**
+     * Creates a queue and starts its writer thread.
+     *
+     * @param source where to borrow the writer connection
+     * @param capacity maximum number of waiting mutations before {@code submit} blocks
+     * @param maxBatch maximum number of mutations per transaction
+     */
+    public WriteBehindQueue(ConnectionSource source, int capacity, int maxBatch) {
+        if (capacity < 1 || maxBatch < 1) {
+            throw new IllegalArgumentException("Capacity and batch size must be at least 1.");
+        }
+        this.source = source;
+        this.maxBatch = maxBatch;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::run, "hotel-db-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a mutation. Blocks while the queue is full.
+     *
+     * @param mutation the change to apply
+     * @param <T> result type
+     * @return a future completed with the mutation's result once its transaction has committed,
+     *         or completed exceptionally if the mutation or the commit failed
+     */
+    public <T> CompletableFuture<T> submit(Mutation<T> mutation) {
+        Pending<T> pending = new Pending<>(mutation);
+        state.readLock().lock(); // close() cannot put the stop marker while this is held
+        try {
+            if (closed) {
+                pending.future.completeExceptionally(new IllegalStateException("Write queue is closed."));
+                return pending.future;
+            }
+            queue.put(pending); // Backpressure: wait for room; the writer is still draining
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.future.completeExceptionally(e);
+        } finally {
+            state.readLock().unlock();
+        }
+        return pending.future;
+    }
+
+    /**
+     * Stops accepting mutations, commits everything already queued and waits for the writer
+     * thread to finish.
+     */
+    @Override
+    public void close() {
+        state.writeLock().lock(); // Waits for submits in progress, including blocked ones
+        try {
+            if (closed) return;
+            closed = true;
+            queue.put(STOP);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            state.writeLock().unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Only left if the writer was interrupted; fail them rather than leave callers waiting
+        List<Pending<?>> left = new ArrayList<>();
+        queue.drainTo(left);
+        for (Pending<?> pending : left) {
+            if (pending != STOP) {
+                pending.future.completeExceptionally(new IllegalStateException("Write queue is closed."));
+            }
+        }
+    }
+
+    /**
+     * Writer loop: waits for work, then drains up to {@code maxBatch} mutations and commits them
+     * together.
+     */
+    private void run() {
+        List<Pending<?>> group = new ArrayList<>(maxBatch);
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                group.add(queue.take()); // Wait for the first mutation
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(group, maxBatch - 1); // Take whatever else is already waiting
+            if (group.remove(STOP)) {
+                stopping = true;
+                queue.drainTo(group); // Mutations queued before close() are still written
+            }
+            if (!group.isEmpty()) {
+                commitGroup(group);
+            }
+            group.clear();
+        }
+    }
+
+    /**
+     * Applies a group of mutations in one transaction and completes their futures after commit.
+     */
+    private void commitGroup(List<Pending<?>> group) {
+        try (Connection conn = source.get()) {
+            conn.setAutoCommit(false);
+            for (Pending<?> pending : group) {
+                Savepoint savepoint = conn.setSavepoint();
+                try {
+                    pending.apply(conn);
+                    conn.releaseSavepoint(savepoint);
+                } catch (SQLException | RuntimeException e) {
+                    conn.rollback(savepoint); // Undo only this mutation
+                    pending.error = e;
+                }
+            }
+            conn.commit();
+            conn.setAutoCommit(true);
+        } catch (SQLException e) {
+            // The whole group was lost; fail every caller that has not already failed
+            for (Pending<?> pending : group) {
+                if (pending.error == null) pending.error = e;
+            }
+        }
+        for (Pending<?> pending : group) {
+            pending.complete();
+        }
+    }
+
+    /**
+     * A queued mutation, its result and its caller's future.
+     */
+    private static class Pending<T> {
+        /** The change to apply */
+        private final Mutation<T> mutation;
+        /** Future handed to the caller */
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        /** Result of the mutation, kept until the group commits */
+        private T result;
+        /** Failure of the mutation or the commit, if any */
+        private Exception error;
+
+        Pending(Mutation<T> mutation) {
+            this.mutation = mutation;
+        }
+
+        void apply(Connection conn) throws SQLException {
+            result = mutation.apply(conn);
+        }
+
+        void complete() {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * WriteBehindQueueTest.java
+ *
+ * <p>This class contains unit tests for the {@link WriteBehindQueue} class, writing to an
+ * in-memory SQLite database.</p>
+ *
+ * @author Andres Vera
+ */
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+class WriteBehindQueueTest {
+
+    /**
+     * Tests that every mutation submitted while the queue closes is either committed or refused,
+     * so no caller waits forever, even with a small queue that makes submitters block.
+     */
+    @Test
+    void submitRacingClose_alwaysCompletes() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            WriteBehindQueue queue = new WriteBehindQueue(
+                    () -> DriverManager.getConnection("jdbc:sqlite::memory:"), 4, 2);
+            ConcurrentLinkedQueue<CompletableFuture<Integer>> futures = new ConcurrentLinkedQueue<>();
+            CountDownLatch started = new CountDownLatch(4);
+            List<Thread> submitters = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread thread = new Thread(() -> {
+                    started.countDown();
+                    for (int i = 0; i < 200; i++) {
+                        int value = i;
+                        futures.add(queue.submit(conn -> value));
+                    }
+                });
+                thread.start();
+                submitters.add(thread);
+            }
+            started.await();
+            queue.close();
+            for (Thread thread : submitters) {
+                thread.join(5_000);
+                assertFalse(thread.isAlive(), "A submitter is stuck");
+            }
+
+            for (CompletableFuture<Integer> future : futures) {
+                try {
+                    future.get(5, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    assertInstanceOf(IllegalStateException.class, e.getCause());
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that mutations queued before close are committed and later ones are refused.
+     */
+    @Test
+    void close_flushesQueuedThenRefuses() throws Exception {
+        try (Connection keepAlive = DriverManager.getConnection("jdbc:sqlite:file:wbq?mode=memory&cache=shared")) {
+            keepAlive.createStatement().execute("CREATE TABLE t (v INTEGER)");
+            WriteBehindQueue queue = new WriteBehindQueue(
+                    () -> DriverManager.getConnection("jdbc:sqlite:file:wbq?mode=memory&cache=shared"));
+            CompletableFuture<Integer> queued = queue.submit(
+                    conn -> conn.createStatement().executeUpdate("INSERT INTO t VALUES (1)"));
+            queue.close();
+
+            assertEquals(1, queued.join());
+            CompletableFuture<Integer> late = queue.submit(conn -> 1);
+            CompletionException refused = assertThrows(CompletionException.class, late::join);
+            assertInstanceOf(IllegalStateException.class, refused.getCause());
+        }
+    }
+}